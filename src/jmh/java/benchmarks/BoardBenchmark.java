@@ -0,0 +1,38 @@
+package benchmarks;
+
+import caches.BoardPngCache;
+import controller.commands.ShowCommands;
+import net.dv8tion.jda.api.utils.FileUpload;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drawing and encoding the map. A cold drawing is what the first command after a change pays; a warm one is a map
+ * that was already drawn for the same board.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class BoardBenchmark {
+    @State(Scope.Thread)
+    public static class ColdCache {
+        @Setup(Level.Invocation)
+        public void setUp() {
+            BoardPngCache.clear();
+        }
+    }
+
+    @Benchmark
+    public FileUpload drawGameBoard(GameFixtures.Fixture fixture, ColdCache coldCache) throws IOException {
+        return ShowCommands.drawGameBoard(null, fixture.game);
+    }
+
+    @Benchmark
+    public FileUpload drawGameBoardUnchanged(GameFixtures.Fixture fixture) throws IOException {
+        return ShowCommands.drawGameBoard(null, fixture.game);
+    }
+}
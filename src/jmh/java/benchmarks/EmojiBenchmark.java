@@ -0,0 +1,61 @@
+package benchmarks;
+
+import caches.EmojiCache;
+import constants.Emojis;
+import net.dv8tion.jda.api.entities.emoji.ApplicationEmoji;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tagging the emojis in a turn summary before it is sent, as done for every message.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EmojiBenchmark {
+    private static final List<String> FACTIONS = List.of("atreides", "bg", "emperor", "fremen", "guild", "harkonnen",
+            "bt", "ix", "choam", "richese", "ecaz", "moritani");
+
+    private String message;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<ApplicationEmoji> emojis = new ArrayList<>();
+        long id = 100000000L;
+        for (String faction : FACTIONS) {
+            emojis.add(emoji(faction, id++));
+            emojis.add(emoji(faction + "_troop", id++));
+        }
+        emojis.add(emoji("spice", id));
+        EmojiCache.putAll(emojis);
+
+        StringBuilder summary = new StringBuilder();
+        for (String faction : FACTIONS)
+            summary.append(':').append(faction).append(": ships 5 :").append(faction).append("_troop: to Arrakeen for 5 ")
+                    .append(Emojis.SPICE).append(" and moves <:").append(faction).append("_troop:123> to Carthag.\n");
+        message = summary.toString();
+    }
+
+    private static ApplicationEmoji emoji(String name, long id) {
+        String formatted = "<:" + name + ":" + id + ">";
+        return (ApplicationEmoji) Proxy.newProxyInstance(ApplicationEmoji.class.getClassLoader(), new Class<?>[]{ApplicationEmoji.class},
+                (_, method, _) -> switch (method.getName()) {
+                    case "getName" -> name;
+                    case "getIdLong" -> id;
+                    case "getFormatted", "getAsMention" -> formatted;
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    @Benchmark
+    public String tagEmojis() {
+        return EmojiCache.tagEmojis(message);
+    }
+}
@@ -0,0 +1,100 @@
+package benchmarks;
+
+import controller.DiscordGame;
+import exceptions.InvalidGameStateException;
+import model.*;
+import model.factions.Faction;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The game engine work behind the most frequent commands and buttons: listing battles, resolving a battle, bidding on a
+ * card and listing where forces can move.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EngineBenchmark {
+    @State(Scope.Benchmark)
+    public static class BattlePhase {
+        Game game;
+        Battles battles;
+        Battle battle;
+
+        @Setup(Level.Trial)
+        public void setUp(GameFixtures.Fixture fixture) throws InvalidGameStateException {
+            game = fixture.copy();
+            game.startBattlePhase();
+            battles = game.getBattles();
+            Faction atreides = game.getAtreidesFaction();
+            Faction harkonnen = game.getHarkonnenFaction();
+            battle = new Battle(game, List.of(game.getTerritory("Carthag")), List.of(atreides, harkonnen));
+            battle.setBattlePlan(game, atreides, atreides.getLeaders().getFirst(), null, false, 1, false, 0, null, null);
+            battle.setBattlePlan(game, harkonnen, harkonnen.getLeaders().getFirst(), null, false, 1, false, 0, null, null);
+        }
+    }
+
+    /**
+     * A card up for bid in a copy of the fixture. Each bid changes the auction, so every bid gets a new copy.
+     */
+    @State(Scope.Thread)
+    public static class Auction {
+        Game game;
+        Bidding bidding;
+        Faction bidder;
+
+        @Setup(Level.Invocation)
+        public void setUp(GameFixtures.Fixture fixture) throws InvalidGameStateException {
+            game = fixture.copy();
+            bidding = game.startBidding();
+            // Richese skips the black market and sells their cache card last, and Ix sends back the first card
+            bidding.setBlackMarketDecisionInProgress(false);
+            bidding.cardCountsInBiddingPhase(game);
+            if (bidding.isCacheCardDecisionInProgress())
+                bidding.richeseCardLast(game);
+            bidding.auctionNextCard(game, false);
+            if (bidding.getBidCard() == null)
+                bidding.putBackIxCard(game, bidding.getMarket().getFirst().name(), "Top", false);
+            // The current bidder is only visible to the model package, but it is saved with the game
+            String currentBidder = DiscordGame.getGsonSerializer().toJsonTree(bidding).getAsJsonObject().get("currentBidder").getAsString();
+            bidder = game.getFaction(currentBidder);
+            bidder.addSpice(1, "Benchmark");
+        }
+    }
+
+    @Benchmark
+    public List<Battle> getBattles(BattlePhase battlePhase) {
+        return battlePhase.battles.getBattles(battlePhase.game);
+    }
+
+    @Benchmark
+    public void factionBattleResults(BattlePhase battlePhase, Blackhole blackhole) throws InvalidGameStateException {
+        blackhole.consume(battlePhase.battle.factionBattleResults(battlePhase.game, true, false));
+        blackhole.consume(battlePhase.battle.factionBattleResults(battlePhase.game, false, false));
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 50)
+    @Measurement(iterations = 200)
+    public String bid(Auction auction) throws InvalidGameStateException {
+        return auction.bidding.bid(auction.game, auction.bidder, true, 1, false, false);
+    }
+
+    /**
+     * The move-to menu for every group of forces on the board, as shown during the movement phase.
+     */
+    @Benchmark
+    public void getDestinations(GameFixtures.Fixture fixture, Blackhole blackhole) {
+        Game game = fixture.game;
+        for (Faction faction : game.getFactions())
+            for (Territory territory : game.getTerritories().values())
+                if (territory.getForceStrength(faction.getName()) > 0)
+                    blackhole.consume(Reachability.getDestinations(game, faction, territory, false));
+    }
+}
@@ -0,0 +1,153 @@
+package benchmarks;
+
+import controller.DiscordGame;
+import exceptions.InvalidGameStateException;
+import helpers.BinaryJson;
+import model.Game;
+import model.Leader;
+import model.SpiceCard;
+import model.TestTopic;
+import model.Territory;
+import model.factions.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Random;
+
+/**
+ * Game states for the benchmarks, built the same way for every run so results can be compared across changes.
+ *
+ * <p>The repository has no archive of played games, so a state at a given turn is built from a new game by spreading
+ * each faction's reserves over the board, dealing treachery cards, adding spice to spice blow territories and sending leaders and forces
+ * to the tanks in amounts that grow with the turn, like a game that has been played for that long. Atreides always
+ * has forces in Harkonnen's Carthag so there is a battle to resolve.
+ */
+public class GameFixtures {
+    /**
+     * A fixture game and its saved states for each combination of faction count and turn.
+     */
+    @State(Scope.Benchmark)
+    public static class Fixture {
+        @Param({"6", "12"})
+        public int factions;
+
+        @Param({"1", "5", "10"})
+        public int turn;
+
+        public Game game;
+        public byte[] json;
+        public byte[] binary;
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException, InvalidGameStateException {
+            game = create(factions, turn);
+            json = DiscordGame.getGsonSerializer().toJson(game).getBytes(StandardCharsets.UTF_8);
+            binary = BinaryJson.toBinary(DiscordGame.getGsonSerializer(), game);
+        }
+
+        /**
+         * @return A copy of the fixture game that can be changed, with topics that discard what is published.
+         */
+        public Game copy() {
+            Game copy = DiscordGame.decodeGameState(json);
+            attachTopics(copy);
+            return copy;
+        }
+    }
+
+    /**
+     * @param factionCount 6 for the original factions, or 12 to add the expansion factions.
+     * @param turn         The turn the game is at, from 1 to 10.
+     * @return The game.
+     */
+    public static Game create(int factionCount, int turn) throws IOException, InvalidGameStateException {
+        Game game = new Game();
+        attachTopics(game);
+        List<Faction> factions = new ArrayList<>(List.of(
+                new AtreidesFaction("at", "at"), new BGFaction("bg", "bg"), new EmperorFaction("em", "em"),
+                new FremenFaction("fr", "fr"), new GuildFaction("gu", "gu"), new HarkonnenFaction("ha", "ha")));
+        if (factionCount == 12)
+            factions.addAll(List.of(
+                    new BTFaction("bt", "bt"), new IxFaction("ix", "ix"), new ChoamFaction("ch", "ch"),
+                    new RicheseFaction("ri", "ri"), new EcazFaction("ec", "ec"), new MoritaniFaction("mo", "mo")));
+        for (Faction faction : factions) {
+            faction.setChat(new TestTopic());
+            faction.setLedger(new TestTopic());
+            game.addFaction(faction);
+        }
+
+        Random random = new Random(31L * factionCount + turn);
+        game.setTurn(turn);
+        game.setStorm(random.nextInt(18) + 1);
+        List<Territory> sectors = game.getTerritories().values().stream()
+                .filter(t -> t.getSector() >= 1 && t.getSector() <= 18 && !t.isDiscoveryToken())
+                .sorted(Comparator.comparing(Territory::getTerritoryName))
+                .toList();
+        List<Territory> spiceBlows = game.getSpiceDeck().stream()
+                .map(SpiceCard::name)
+                .distinct()
+                .map(game.getTerritories()::get)
+                .filter(Objects::nonNull)
+                .toList();
+
+        AtreidesFaction atreides = game.getAtreidesFaction();
+        Territory caladan = game.getTerritory(atreides.getHomeworld());
+        caladan.removeForces(game, "Atreides", 3);
+        game.getTerritory("Carthag").addForces("Atreides", 3);
+
+        for (Faction faction : factions) {
+            Territory homeworld = game.getTerritory(faction.getHomeworld());
+            int groups = Math.min(turn + 1, 6);
+            for (int i = 0; i < groups; i++) {
+                int strength = Math.min(homeworld.getForceStrength(faction.getName()), 1 + random.nextInt(4));
+                if (strength == 0) break;
+                homeworld.removeForces(game, faction.getName(), strength);
+                sectors.get(random.nextInt(sectors.size())).addForces(faction.getName(), strength);
+            }
+            int lost = Math.min(homeworld.getForceStrength(faction.getName()), turn);
+            homeworld.removeForces(game, faction.getName(), lost);
+            game.getTleilaxuTanks().addForces(faction.getName(), lost);
+            faction.addSpice(random.nextInt(5 + 2 * turn), "Fixture");
+        }
+
+        // Cards are dealt around the table, leaving enough in the deck for the next bidding round
+        for (int round = 0; round < 1 + turn / 3; round++)
+            for (Faction faction : factions)
+                if (faction.getTreacheryHand().size() < faction.getHandLimit() && game.getTreacheryDeck().size() > factions.size() + 1)
+                    faction.addTreacheryCard(game.getTreacheryDeck().removeFirst());
+
+        for (int i = 0; i < turn; i++)
+            spiceBlows.get(random.nextInt(spiceBlows.size())).setSpice(6 + 2 * random.nextInt(4));
+
+        // Leaders are killed from the back so the first leader of each faction can fight
+        for (int i = 0; i < turn / 2; i++) {
+            Faction faction = factions.get(random.nextInt(factions.size()));
+            List<Leader> leaders = faction.getLeaders();
+            if (leaders.size() > 1)
+                game.killLeader(faction, leaders.getLast().getName());
+        }
+        return game;
+    }
+
+    /**
+     * Gives a game topics that keep what is published in memory instead of sending it to Discord.
+     */
+    public static void attachTopics(Game game) {
+        game.setTurnSummary(new TestTopic());
+        game.setWhispers(new TestTopic());
+        game.setGameActions(new TestTopic());
+        game.setModInfo(new TestTopic());
+        game.setModLedger(new TestTopic());
+        game.setBiddingPhase(new TestTopic());
+        game.setBribes(new TestTopic());
+        for (Faction faction : game.getFactions()) {
+            faction.setChat(new TestTopic());
+            faction.setLedger(new TestTopic());
+        }
+    }
+}
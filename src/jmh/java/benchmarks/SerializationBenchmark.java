@@ -0,0 +1,66 @@
+package benchmarks;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import controller.DiscordGame;
+import helpers.BinaryJson;
+import helpers.JsonPatch;
+import model.Game;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loading and saving game states, as done by {@link DiscordGame#decodeGameState(byte[])} for every command and by
+ * {@link DiscordGame#pushGame()} for every change.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializationBenchmark {
+    @State(Scope.Benchmark)
+    public static class Journal {
+        JsonElement previousTree;
+        Game changed;
+
+        @Setup(Level.Trial)
+        public void setUp(GameFixtures.Fixture fixture) {
+            previousTree = JsonParser.parseString(new String(fixture.json, StandardCharsets.UTF_8));
+            changed = fixture.copy();
+            changed.getFactions().getFirst().addSpice(2, "Benchmark");
+        }
+    }
+
+    @Benchmark
+    public Game decodeJson(GameFixtures.Fixture fixture) {
+        return DiscordGame.decodeGameState(fixture.json);
+    }
+
+    @Benchmark
+    public Game decodeBinary(GameFixtures.Fixture fixture) {
+        return DiscordGame.decodeGameState(fixture.binary);
+    }
+
+    @Benchmark
+    public byte[] encodeJson(GameFixtures.Fixture fixture) {
+        return DiscordGame.getGsonSerializer().toJson(fixture.game).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public byte[] encodeBinary(GameFixtures.Fixture fixture) {
+        return BinaryJson.toBinary(DiscordGame.getGsonSerializer(), fixture.game);
+    }
+
+    /**
+     * The journal entry pushGame uploads for a small change within a phase.
+     */
+    @Benchmark
+    public JsonArray encodeJournalPatch(Journal journal) {
+        JsonElement tree = DiscordGame.getGsonSerializer().toJsonTree(journal.changed);
+        return JsonPatch.diff(journal.previousTree, tree);
+    }
+}
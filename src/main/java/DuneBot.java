@@ -1,8 +1,21 @@
 import caches.ApplicationEmojiSync;
+import caches.BoardPngCache;
+import caches.CardImageWarmup;
+import caches.FileGameStore;
+import caches.GameCacheWarmup;
+import caches.ImageDownloadCache;
 import controller.CommandCompletionGuard;
+import controller.DiscordGame;
+import controller.Queue;
 import controller.buttons.ButtonManager;
 import controller.commands.CommandManager;
 import controller.listeners.EventListener;
+import helpers.CommandMetrics;
+import helpers.DiscordRequestDispatcher;
+import helpers.ExceptionHandler;
+import helpers.MetricsServer;
+import helpers.PngEncoder;
+import helpers.RenderExecutor;
 import io.github.cdimascio.dotenv.Dotenv;
 import io.github.cdimascio.dotenv.DotenvException;
 import net.dv8tion.jda.api.JDA;
@@ -16,6 +29,10 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import sun.misc.Signal;
 
+import javax.management.JMException;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.logging.Level;
 
 public class DuneBot {
@@ -54,6 +71,71 @@ public class DuneBot {
                 ButtonManager.setAllowModButtonPress();
             }
 
+            String gameStoreDirectory = getConfigValue("GAME_STORE_DIR", false);
+            if (gameStoreDirectory != null && !gameStoreDirectory.isBlank()) {
+                DiscordGame.setGameStore(new FileGameStore(Path.of(gameStoreDirectory)));
+                logger.info("Saving game states to {}", gameStoreDirectory);
+            }
+
+            String maxInFlight = getConfigValue("DISCORD_MAX_IN_FLIGHT", false);
+            if (maxInFlight != null && !maxInFlight.isBlank())
+                DiscordRequestDispatcher.setMaxInFlight(Integer.parseInt(maxInFlight));
+
+            String boardImageCacheMegabytes = getConfigValue("BOARD_IMAGE_CACHE_MB", false);
+            if (boardImageCacheMegabytes != null && !boardImageCacheMegabytes.isBlank())
+                BoardPngCache.setMaxBytes(Long.parseLong(boardImageCacheMegabytes) * 1024 * 1024);
+
+            String pngCompressionLevel = getConfigValue("PNG_COMPRESSION_LEVEL", false);
+            if (pngCompressionLevel != null && !pngCompressionLevel.isBlank())
+                PngEncoder.setCompressionLevel(Integer.parseInt(pngCompressionLevel));
+
+            String mobileMapWidth = getConfigValue("MOBILE_MAP_WIDTH", false);
+            if (mobileMapWidth != null && !mobileMapWidth.isBlank())
+                PngEncoder.setMobileWidth(Integer.parseInt(mobileMapWidth));
+
+            String imageCacheDirectory = getConfigValue("IMAGE_CACHE_DIR", false);
+            if (imageCacheDirectory != null && !imageCacheDirectory.isBlank()) {
+                ImageDownloadCache.setDirectory(Path.of(imageCacheDirectory));
+                logger.info("Saving downloaded images to {}", imageCacheDirectory);
+            }
+
+            String imageCacheMegabytes = getConfigValue("IMAGE_CACHE_MB", false);
+            if (imageCacheMegabytes != null && !imageCacheMegabytes.isBlank())
+                ImageDownloadCache.setMaxMemoryBytes(Long.parseLong(imageCacheMegabytes) * 1024 * 1024);
+
+            String imageCacheDiskMegabytes = getConfigValue("IMAGE_CACHE_DISK_MB", false);
+            if (imageCacheDiskMegabytes != null && !imageCacheDiskMegabytes.isBlank())
+                ImageDownloadCache.setMaxDiskBytes(Long.parseLong(imageCacheDiskMegabytes) * 1024 * 1024);
+
+            String renderThreads = getConfigValue("RENDER_THREADS", false);
+            if (renderThreads != null && !renderThreads.isBlank())
+                RenderExecutor.setThreads(Integer.parseInt(renderThreads));
+
+            CommandMetrics.registerMBean();
+            String metricsPort = getConfigValue("METRICS_PORT", false);
+            if (metricsPort != null && !metricsPort.isBlank()) {
+                try {
+                    MetricsServer.start(Integer.parseInt(metricsPort));
+                    logger.info("Serving command metrics on localhost:{}", metricsPort);
+                } catch (IOException e) {
+                    logger.error("Command metrics could not be served on port {}", metricsPort, e);
+                }
+            }
+
+            String queueStuckSeconds = getConfigValue("QUEUE_STUCK_SECONDS", false);
+            if (queueStuckSeconds != null && !queueStuckSeconds.isBlank())
+                Queue.setStuckThreshold(Duration.ofSeconds(Long.parseLong(queueStuckSeconds)));
+
+            String queueIdleMinutes = getConfigValue("QUEUE_IDLE_MINUTES", false);
+            if (queueIdleMinutes != null && !queueIdleMinutes.isBlank())
+                Queue.setIdleTimeout(Duration.ofMinutes(Long.parseLong(queueIdleMinutes)));
+
+            Queue.setStuckHandler((categoryName, stuck) -> {
+                logger.warn("Queue for {} is stuck", categoryName, stuck);
+                jda.getCategoriesByName(categoryName, false).forEach(category ->
+                        ExceptionHandler.sendExceptionToModInfo(category, stuck, "Queue: a command is holding up the game", null));
+            });
+
             CommandManager commandManager = new CommandManager();
             EventListener eventListener = new EventListener(jda);
             ButtonManager buttonManager = new ButtonManager();
@@ -61,6 +143,13 @@ public class DuneBot {
 
             jda.awaitReady();
 
+            String warmupActiveDays = getConfigValue("GAME_CACHE_WARMUP_ACTIVE_DAYS", false);
+            if (warmupActiveDays != null && !warmupActiveDays.isBlank())
+                GameCacheWarmup.setActiveWithin(Duration.ofDays(Long.parseLong(warmupActiveDays)));
+            String warmupThreads = getConfigValue("GAME_CACHE_WARMUP_THREADS", false);
+            GameCacheWarmup.warm(jda, warmupThreads == null || warmupThreads.isBlank() ? 4 : Integer.parseInt(warmupThreads));
+            CardImageWarmup.warm(jda);
+
             ApplicationEmojiSync.sync(jda);
 
             jda.getGuilds().forEach((guild) -> guild.loadMembers().onSuccess(commandManager::gatherMembers));
@@ -69,6 +158,14 @@ public class DuneBot {
                 logger.info("Received USR1 signal. Stopping all commands...");
                 jda.removeEventListener(eventListener, commandManager, buttonManager);
                 CommandCompletionGuard.blockUntilNoCommands();
+                logger.info("Sending queued messages and bot-data uploads...");
+                DiscordRequestDispatcher.awaitAll();
+                try {
+                    if (!DiscordGame.shutdownBotDataReplica(Duration.ofMinutes(1)))
+                        logger.warn("Bot-data uploads were still queued at exit");
+                } catch (InterruptedException e) {
+                    logger.warn("Interrupted while waiting for bot-data uploads", e);
+                }
                 System.exit(0);
             });
 
@@ -85,6 +182,12 @@ public class DuneBot {
         } catch (InterruptedException e) {
             logger.error("Bot interrupted during startup", e);
             throw new RuntimeException(e);
+        } catch (IOException e) {
+            logger.error("Game store directory could not be created", e);
+            throw new RuntimeException(e);
+        } catch (JMException e) {
+            logger.error("Command metrics could not be registered", e);
+            throw new RuntimeException(e);
         }
     }
 }
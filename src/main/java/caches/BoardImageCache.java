@@ -0,0 +1,167 @@
+package caches;
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.net.URL;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Decoded images from the Board Components resources, with the scaled and rotated variants the board and faction info
+ * drawings use, so each is decoded and transformed once instead of on every drawing. Images returned from here are
+ * shared and must not be drawn on.
+ */
+public class BoardImageCache {
+    private static final int MAX_BASE_LAYERS = 16;
+    static Map<String, BufferedImage> resources = new ConcurrentHashMap<>();
+    static Map<Variant, BufferedImage> variants = new ConcurrentHashMap<>();
+    static Map<Object, BufferedImage> composites = new ConcurrentHashMap<>();
+    static final Map<Object, BufferedImage> baseLayers = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Object, BufferedImage> eldest) {
+            return size() > MAX_BASE_LAYERS;
+        }
+    });
+
+    private record Variant(String name, int width, int height, double degrees) {
+    }
+
+    /**
+     * Draws an image that is not in the cache yet.
+     */
+    @FunctionalInterface
+    public interface ImageSupplier {
+        BufferedImage get() throws IOException;
+    }
+
+    /**
+     * @param name The resource name without the extension.
+     * @return The decoded image.
+     * @throws FileNotFoundException If there is no png or jpg resource with the name.
+     */
+    public static BufferedImage getImage(String name) throws IOException {
+        BufferedImage image = resources.get(name);
+        if (image == null) {
+            URL file = BoardImageCache.class.getClassLoader().getResource("Board Components/" + name + ".png");
+            if (file == null) file = BoardImageCache.class.getClassLoader().getResource("Board Components/" + name + ".jpg");
+            if (file == null) throw new FileNotFoundException("Image not found: " + name);
+            image = ImageIO.read(file);
+            resources.put(name, image);
+        }
+        return image;
+    }
+
+    /**
+     * @param name   The resource name without the extension.
+     * @param width  The width to scale the image to.
+     * @param height The height to scale the image to.
+     * @return The scaled image.
+     */
+    public static BufferedImage getImage(String name, int width, int height) throws IOException {
+        Variant variant = new Variant(name, width, height, 0);
+        BufferedImage image = variants.get(variant);
+        if (image == null) {
+            image = resize(getImage(name), width, height);
+            variants.put(variant, image);
+        }
+        return image;
+    }
+
+    /**
+     * @param name    The resource name without the extension.
+     * @param width   The width to scale the image to before rotating it, or 0 to keep the original size.
+     * @param height  The height to scale the image to before rotating it, or 0 to keep the original size.
+     * @param degrees The clockwise rotation.
+     * @return The scaled and rotated image, enlarged to fit the rotated corners.
+     */
+    public static BufferedImage getImage(String name, int width, int height, double degrees) throws IOException {
+        Variant variant = new Variant(name, width, height, degrees);
+        BufferedImage image = variants.get(variant);
+        if (image == null) {
+            image = rotate(width == 0 || height == 0 ? getImage(name) : getImage(name, width, height), degrees);
+            variants.put(variant, image);
+        }
+        return image;
+    }
+
+    /**
+     * Returns an image built from other images, such as a force token with its strength, drawing it the first time.
+     *
+     * @param key      Identifies everything the image is drawn from.
+     * @param supplier Draws the image.
+     * @return The image.
+     */
+    public static BufferedImage getComposite(Object key, ImageSupplier supplier) throws IOException {
+        BufferedImage image = composites.get(key);
+        if (image == null) {
+            image = supplier.get();
+            composites.put(key, image);
+        }
+        return image;
+    }
+
+    /**
+     * Returns the board with the parts that only depend on the game's options, drawing it the first time. Only the
+     * most recently used base layers are kept because each is as large as the board.
+     *
+     * @param key      Identifies everything the base layer is drawn from.
+     * @param supplier Draws the base layer.
+     * @return The base layer.
+     */
+    public static BufferedImage getBaseLayer(Object key, ImageSupplier supplier) throws IOException {
+        BufferedImage image = baseLayers.get(key);
+        if (image == null) {
+            image = supplier.get();
+            baseLayers.put(key, image);
+        }
+        return image;
+    }
+
+    public static void clear() {
+        resources.clear();
+        variants.clear();
+        composites.clear();
+        baseLayers.clear();
+    }
+
+    public static BufferedImage resize(BufferedImage img, int newW, int newH) {
+        Image tmp = img.getScaledInstance(newW, newH, Image.SCALE_SMOOTH);
+        BufferedImage dimg = new BufferedImage(newW, newH, BufferedImage.TYPE_INT_ARGB);
+
+        Graphics2D g2d = dimg.createGraphics();
+        g2d.drawImage(tmp, 0, 0, null);
+        g2d.dispose();
+
+        return dimg;
+    }
+
+    public static BufferedImage rotate(BufferedImage img, double angle) {
+        double rads = Math.toRadians(angle);
+        double sin = Math.abs(Math.sin(rads)), cos = Math.abs(Math.cos(rads));
+        int w = img.getWidth();
+        int h = img.getHeight();
+        int newWidth = (int) Math.floor(w * cos + h * sin);
+        int newHeight = (int) Math.floor(h * cos + w * sin);
+
+        BufferedImage rotated = new BufferedImage(newWidth, newHeight, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g2d = rotated.createGraphics();
+        AffineTransform at = new AffineTransform();
+        at.translate((double) (newWidth - w) / 2, (double) (newHeight - h) / 2);
+
+        int x = w / 2;
+        int y = h / 2;
+
+        at.rotate(rads, x, y);
+        g2d.setTransform(at);
+        g2d.drawImage(img, 0, 0, null);
+        g2d.dispose();
+
+        return rotated;
+    }
+}
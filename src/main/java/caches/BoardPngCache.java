@@ -0,0 +1,78 @@
+package caches;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Encoded board images keyed by a description of everything drawn on them, so a board that has not changed since it
+ * was last drawn, in this game or any other, is not drawn and encoded again. The least recently used images are
+ * dropped once the cache holds more than the byte limit.
+ */
+public class BoardPngCache {
+    private static final Map<String, byte[]> pngs = new LinkedHashMap<>(16, 0.75f, true);
+    private static long maxBytes = 64L * 1024 * 1024;
+    private static long bytes;
+    private static long hits;
+    private static long misses;
+
+    /**
+     * @param fingerprint The description of the board.
+     * @return The encoded image, or null if the board has not been drawn recently.
+     */
+    public static synchronized byte[] getPng(String fingerprint) {
+        byte[] png = pngs.get(fingerprint);
+        if (png == null) misses++;
+        else hits++;
+        return png;
+    }
+
+    public static synchronized void setPng(String fingerprint, byte[] png) {
+        byte[] previous = pngs.put(fingerprint, png);
+        if (previous != null) bytes -= previous.length;
+        bytes += png.length;
+        evict();
+    }
+
+    /**
+     * Sets how many bytes of encoded images to keep, dropping the least recently used images if there are more.
+     *
+     * @param maxBytes The limit.
+     */
+    public static synchronized void setMaxBytes(long maxBytes) {
+        if (maxBytes < 0) throw new IllegalArgumentException("The board image cache size cannot be negative");
+        BoardPngCache.maxBytes = maxBytes;
+        evict();
+    }
+
+    public static synchronized long getMaxBytes() {
+        return maxBytes;
+    }
+
+    public static synchronized long getBytes() {
+        return bytes;
+    }
+
+    public static synchronized long getHits() {
+        return hits;
+    }
+
+    public static synchronized long getMisses() {
+        return misses;
+    }
+
+    public static synchronized void clear() {
+        pngs.clear();
+        bytes = 0;
+        hits = 0;
+        misses = 0;
+    }
+
+    private static void evict() {
+        Iterator<byte[]> iterator = pngs.values().iterator();
+        while (bytes > maxBytes && iterator.hasNext()) {
+            bytes -= iterator.next().length;
+            iterator.remove();
+        }
+    }
+}
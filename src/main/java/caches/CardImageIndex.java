@@ -0,0 +1,240 @@
+package caches;
+
+import net.dv8tion.jda.api.entities.Message;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * The messages of each Game Resources channel and homebrew resource thread, indexed by the card names in them so
+ * looking up a card image does not scan the channel again. A channel is loaded the first time one of its cards is
+ * looked up and is kept until it is invalidated, which happens when a message in it is posted, edited or deleted.
+ */
+public class CardImageIndex {
+    private static final int MAX_MEMOIZED_LOOKUPS = 256;
+    private static final List<String> TREACHERY_EXPANSIONS = List.of(
+            "expansion: ixian and tleilaxu",
+            "expansion: choam and richese",
+            "expansion: base game",
+            "expansion: richese",
+            "expansion: ecaz & moritani"
+    );
+    private static final Map<String, CompletableFuture<ChannelIndex>> channels = new ConcurrentHashMap<>();
+    private static final AtomicLong invalidations = new AtomicLong();
+    /**
+     * The invalidation count when each load in progress last started reading its channel.
+     */
+    private static final Map<CompletableFuture<ChannelIndex>, Long> loadsStarted = new ConcurrentHashMap<>();
+    /**
+     * The last invalidation of each channel id that a load in progress may have missed.
+     */
+    private static final Map<String, Long> lastInvalidation = new ConcurrentHashMap<>();
+
+    /**
+     * The messages of one channel in the order they were loaded. When several messages match a lookup, the first one
+     * is returned. The results of the most recent text lookups are memoized, since the text often comes from a player.
+     */
+    public static class ChannelIndex {
+        private final String channelId;
+        private final List<Message> messages;
+        private final List<String> contents;
+        private final Map<String, Message> treacheryCards = new HashMap<>();
+        private final Map<String, Message> byContent = new HashMap<>();
+        private final Map<String, Optional<Message>> containing = lookups();
+        private final Map<String, Optional<Message>> startingWith = lookups();
+
+        /**
+         * @param channelId The id of the channel, or null if the channel does not exist.
+         * @param messages  The messages of the channel.
+         */
+        public ChannelIndex(String channelId, List<Message> messages) {
+            this.channelId = channelId;
+            this.messages = List.copyOf(messages);
+            this.contents = this.messages.stream().map(m -> m.getContentRaw().toLowerCase(Locale.ROOT)).toList();
+            for (int i = 0; i < this.messages.size(); i++) {
+                byContent.putIfAbsent(this.messages.get(i).getContentRaw(), this.messages.get(i));
+                indexTreacheryCard(this.messages.get(i), contents.get(i));
+            }
+        }
+
+        /**
+         * Indexes a message by the value of each Name: line that is followed by a treachery card expansion.
+         */
+        private void indexTreacheryCard(Message message, String content) {
+            int nameStart = content.indexOf("name:");
+            while (nameStart >= 0) {
+                int valueStart = nameStart + "name:".length();
+                while (valueStart < content.length() && Character.isWhitespace(content.charAt(valueStart)))
+                    valueStart++;
+                int lineEnd = valueStart;
+                while (lineEnd < content.length() && content.charAt(lineEnd) != '\n' && content.charAt(lineEnd) != '\r')
+                    lineEnd++;
+                int afterName = lineEnd;
+                if (afterName < content.length() && TREACHERY_EXPANSIONS.stream().anyMatch(e -> content.indexOf(e, afterName) >= 0))
+                    treacheryCards.putIfAbsent(content.substring(valueStart, lineEnd).strip(), message);
+                nameStart = content.indexOf("name:", valueStart);
+            }
+        }
+
+        private static Map<String, Optional<Message>> lookups() {
+            return Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Optional<Message>> eldest) {
+                    return size() > MAX_MEMOIZED_LOOKUPS;
+                }
+            });
+        }
+
+        int memoizedLookups() {
+            return containing.size() + startingWith.size();
+        }
+
+        public String getChannelId() {
+            return channelId;
+        }
+
+        public int size() {
+            return messages.size();
+        }
+
+        /**
+         * @param cardName The card name, ignoring case and surrounding whitespace.
+         * @return The treachery card message with a Name: line for the card.
+         */
+        public Optional<Message> findTreacheryCard(String cardName) {
+            return Optional.ofNullable(treacheryCards.get(normalize(cardName)));
+        }
+
+        /**
+         * @param content The exact content.
+         * @return The first message with the content.
+         */
+        public Optional<Message> findExactly(String content) {
+            return Optional.ofNullable(byContent.get(content));
+        }
+
+        /**
+         * @param text The text, ignoring case and surrounding whitespace.
+         * @return The first message that contains the text.
+         */
+        public Optional<Message> findContaining(String text) {
+            return containing.computeIfAbsent(normalize(text), t -> find(c -> c.contains(t)));
+        }
+
+        /**
+         * @param text The text, ignoring case and surrounding whitespace.
+         * @return The first message that starts with the text.
+         */
+        public Optional<Message> findStartingWith(String text) {
+            return startingWith.computeIfAbsent(normalize(text), t -> find(c -> c.startsWith(t)));
+        }
+
+        private Optional<Message> find(Predicate<String> matches) {
+            for (int i = 0; i < contents.size(); i++)
+                if (matches.test(contents.get(i))) return Optional.of(messages.get(i));
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Returns the index of a channel, loading it if it has not been loaded or was invalidated. Concurrent lookups in a
+     * channel that is being loaded wait for that load. If the channel is invalidated while it is loading, it is loaded
+     * again, since the messages read may be from before the change.
+     *
+     * @param channelName The channel name.
+     * @param loader      Loads the channel.
+     * @return The index.
+     */
+    public static ChannelIndex get(String channelName, Supplier<ChannelIndex> loader) {
+        CompletableFuture<ChannelIndex> loading = new CompletableFuture<>();
+        CompletableFuture<ChannelIndex> index = channels.putIfAbsent(channelName, loading);
+        if (index != null) return index.join();
+        try {
+            long started;
+            ChannelIndex loaded;
+            do {
+                started = invalidations.get();
+                loadsStarted.put(loading, started);
+                loaded = loader.get();
+            } while (invalidatedSince(loaded, started));
+            loading.complete(loaded);
+            // An invalidation that came before the index was complete skipped it, so drop it here instead
+            if (invalidatedSince(loaded, started)) channels.remove(channelName, loading);
+        } catch (RuntimeException e) {
+            channels.remove(channelName, loading);
+            loading.completeExceptionally(e);
+            throw e;
+        } finally {
+            loadsStarted.remove(loading);
+            forgetInvalidationsBeforeLoads();
+        }
+        return loading.join();
+    }
+
+    /**
+     * Loads a channel again, replacing its index once it is loaded.
+     *
+     * @param channelName The channel name.
+     * @param loader      Loads the channel.
+     * @return The new index.
+     */
+    public static ChannelIndex refresh(String channelName, Supplier<ChannelIndex> loader) {
+        ChannelIndex index = loader.get();
+        channels.put(channelName, CompletableFuture.completedFuture(index));
+        return index;
+    }
+
+    public static void invalidate(String channelName) {
+        channels.remove(channelName);
+    }
+
+    /**
+     * Drops the index of the channel with the id. If the channel is being loaded, it is loaded again once that load
+     * is done.
+     *
+     * @param channelId The id of a channel whose messages changed.
+     */
+    public static void invalidateChannelId(String channelId) {
+        long invalidation = invalidations.incrementAndGet();
+        // Only a load in progress can miss the invalidation, since a loaded index is dropped below
+        if (!loadsStarted.isEmpty()) lastInvalidation.merge(channelId, invalidation, Math::max);
+        channels.values().removeIf(index -> index.isDone() && !index.isCompletedExceptionally()
+                && channelId.equals(index.join().getChannelId()));
+    }
+
+    private static boolean invalidatedSince(ChannelIndex index, long invalidation) {
+        return index.getChannelId() != null && lastInvalidation.getOrDefault(index.getChannelId(), 0L) > invalidation;
+    }
+
+    /**
+     * Removes the invalidations that no load in progress started before, so they are kept only as long as a load may
+     * need them.
+     */
+    private static void forgetInvalidationsBeforeLoads() {
+        long oldestLoad = loadsStarted.values().stream().mapToLong(Long::longValue).min().orElse(Long.MAX_VALUE);
+        lastInvalidation.values().removeIf(invalidation -> invalidation <= oldestLoad);
+    }
+
+    static int trackedInvalidations() {
+        return lastInvalidation.size();
+    }
+
+    public static void invalidateAll() {
+        channels.clear();
+    }
+
+    /**
+     * @return The names of the channels that are loaded or loading.
+     */
+    public static Set<String> getChannelNames() {
+        return new TreeSet<>(channels.keySet());
+    }
+
+    static String normalize(String text) {
+        return text.strip().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,74 @@
+package caches;
+
+import net.dv8tion.jda.api.JDA;
+import net.dv8tion.jda.api.entities.Guild;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import utils.CardImages;
+
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Loads every Game Resources channel into {@link CardImageIndex} at startup, so the first card mention or faction info
+ * drawing after a restart does not wait for the channel to be paged in.
+ */
+public class CardImageWarmup {
+    private static final Logger logger = LoggerFactory.getLogger(CardImageWarmup.class);
+
+    /**
+     * Starts loading the resource channels of the first guild with a Game Resources category. Channels are loaded
+     * concurrently, and the time taken for each channel is logged.
+     *
+     * @param jda a connected JDA instance (typically post-{@code awaitReady}).
+     * @return a future that completes when every channel has been loaded or has failed to load.
+     */
+    public static CompletableFuture<Void> warm(JDA jda) {
+        Optional<Guild> resourceGuild = jda.getGuilds().stream().filter(CardImageWarmup::hasGameResources).findFirst();
+        if (resourceGuild.isEmpty()) return CompletableFuture.completedFuture(null);
+        Guild guild = resourceGuild.get();
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(CardImages.RESOURCE_CHANNELS.size(), r -> {
+            Thread thread = new Thread(r, "card-image-warmup-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        long start = System.nanoTime();
+        AtomicInteger messages = new AtomicInteger();
+        CompletableFuture<?>[] futures = CardImages.RESOURCE_CHANNELS.stream()
+                .map(channelName -> CompletableFuture.runAsync(() -> messages.addAndGet(warmChannel(guild, channelName)), executor))
+                .toArray(CompletableFuture[]::new);
+
+        return CompletableFuture.allOf(futures).whenComplete((_, _) -> {
+            executor.shutdown();
+            logger.info("Loaded {} card messages from {} channels in {} ms", messages.get(), futures.length, (System.nanoTime() - start) / 1_000_000);
+        });
+    }
+
+    private static boolean hasGameResources(Guild guild) {
+        try {
+            CardImages.getGameResourcesCategory(guild);
+            return true;
+        } catch (NoSuchElementException e) {
+            return false;
+        }
+    }
+
+    private static int warmChannel(Guild guild, String channelName) {
+        long start = System.nanoTime();
+        try {
+            int messages = CardImages.preloadChannel(guild, channelName);
+            logger.info("Loaded {} with {} messages in {} ms", channelName, messages, (System.nanoTime() - start) / 1_000_000);
+            return messages;
+        } catch (Exception e) {
+            logger.warn("Failed to load {}", channelName, e);
+            return 0;
+        }
+    }
+}
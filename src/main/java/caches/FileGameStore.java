@@ -0,0 +1,156 @@
+package caches;
+
+import java.io.IOException;
+import java.net.URLEncoder;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32;
+
+/**
+ * {@link GameStore} backed by two append-only files per game category in a local directory.
+ *
+ * <p>The log file holds every saved game state as a record of its length, its CRC32 and its bytes. The index file
+ * holds the log offset of each record as 8 bytes, so the latest state is found by reading the last index entry. A
+ * record is forced to disk before its index entry is written, so a crash leaves either the new state or the previous
+ * one. An index entry of -1 marks the game as invalidated. When the log grows past a size limit, it is replaced by a
+ * log holding only the latest state; older states are still in the bot-data channel.
+ */
+public class FileGameStore implements GameStore {
+    private static final long DEFAULT_MAX_LOG_BYTES = 64L * 1024 * 1024;
+    private static final int RECORD_HEADER_BYTES = Integer.BYTES + Long.BYTES;
+
+    private final Path directory;
+    private final long maxLogBytes;
+    private final Map<String, Object> locks = new ConcurrentHashMap<>();
+
+    public FileGameStore(Path directory) throws IOException {
+        this(directory, DEFAULT_MAX_LOG_BYTES);
+    }
+
+    FileGameStore(Path directory, long maxLogBytes) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        this.maxLogBytes = maxLogBytes;
+    }
+
+    @Override
+    public byte[] load(String gameName) throws IOException {
+        synchronized (lock(gameName)) {
+            long offset = latestOffset(gameName);
+            if (offset < 0) return null;
+            try (FileChannel log = FileChannel.open(logPath(gameName), StandardOpenOption.READ)) {
+                ByteBuffer header = ByteBuffer.allocate(RECORD_HEADER_BYTES);
+                readFully(log, header, offset);
+                header.flip();
+                int length = header.getInt();
+                long checksum = header.getLong();
+                if (length < 0 || offset + RECORD_HEADER_BYTES + length > log.size())
+                    throw new IOException("Invalid record in game store for " + gameName);
+                ByteBuffer gameState = ByteBuffer.allocate(length);
+                readFully(log, gameState, offset + RECORD_HEADER_BYTES);
+                if (checksum(gameState.array()) != checksum)
+                    throw new IOException("Checksum mismatch in game store for " + gameName);
+                return gameState.array();
+            }
+        }
+    }
+
+    @Override
+    public void save(String gameName, byte[] gameState) throws IOException {
+        synchronized (lock(gameName)) {
+            Path logPath = logPath(gameName);
+            if (Files.exists(logPath) && Files.size(logPath) + RECORD_HEADER_BYTES + gameState.length > maxLogBytes) {
+                // A crash between the two moves leaves the old index over the new log. Its offsets fail the record
+                // checks, and the caller falls back to the bot-data channel.
+                Path compactedLog = directory.resolve(logPath.getFileName() + ".tmp");
+                Files.deleteIfExists(compactedLog);
+                appendRecord(compactedLog, gameState);
+                Path compactedIndex = directory.resolve(indexPath(gameName).getFileName() + ".tmp");
+                Files.deleteIfExists(compactedIndex);
+                appendIndexEntry(compactedIndex, 0);
+                Files.move(compactedLog, logPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                Files.move(compactedIndex, indexPath(gameName), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                return;
+            }
+            long offset = appendRecord(logPath, gameState);
+            appendIndexEntry(indexPath(gameName), offset);
+        }
+    }
+
+    @Override
+    public void invalidate(String gameName) throws IOException {
+        synchronized (lock(gameName)) {
+            if (Files.exists(indexPath(gameName)))
+                appendIndexEntry(indexPath(gameName), -1);
+        }
+    }
+
+    private Object lock(String gameName) {
+        return locks.computeIfAbsent(gameName, _ -> new Object());
+    }
+
+    private Path logPath(String gameName) {
+        return directory.resolve(URLEncoder.encode(gameName, StandardCharsets.UTF_8) + ".log");
+    }
+
+    private Path indexPath(String gameName) {
+        return directory.resolve(URLEncoder.encode(gameName, StandardCharsets.UTF_8) + ".idx");
+    }
+
+    private long latestOffset(String gameName) throws IOException {
+        Path indexPath = indexPath(gameName);
+        if (!Files.exists(indexPath)) return -1;
+        try (FileChannel index = FileChannel.open(indexPath, StandardOpenOption.READ)) {
+            // A partially written last entry from a crash is ignored.
+            long entries = index.size() / Long.BYTES;
+            if (entries == 0) return -1;
+            ByteBuffer entry = ByteBuffer.allocate(Long.BYTES);
+            readFully(index, entry, (entries - 1) * Long.BYTES);
+            return entry.flip().getLong();
+        }
+    }
+
+    private static long appendRecord(Path logPath, byte[] gameState) throws IOException {
+        try (FileChannel log = FileChannel.open(logPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            long offset = log.size();
+            ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER_BYTES + gameState.length)
+                    .putInt(gameState.length)
+                    .putLong(checksum(gameState))
+                    .put(gameState)
+                    .flip();
+            while (record.hasRemaining())
+                log.write(record, offset + record.position());
+            log.force(false);
+            return offset;
+        }
+    }
+
+    private static void appendIndexEntry(Path indexPath, long offset) throws IOException {
+        try (FileChannel index = FileChannel.open(indexPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            long position = index.size() / Long.BYTES * Long.BYTES;
+            ByteBuffer entry = ByteBuffer.allocate(Long.BYTES).putLong(offset).flip();
+            while (entry.hasRemaining())
+                index.write(entry, position + entry.position());
+            index.force(false);
+        }
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0)
+                throw new IOException("Unexpected end of game store file");
+        }
+    }
+
+    private static long checksum(byte[] bytes) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+        return crc.getValue();
+    }
+}
@@ -0,0 +1,109 @@
+package caches;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * The messages currently posted in each game's front-of-shield channel, so a refresh can edit the messages whose
+ * content changed instead of deleting and reposting all of them. Layouts are keyed by channel id.
+ */
+public class FrontOfShieldCache {
+    static Map<String, Layout> layouts = new ConcurrentHashMap<>();
+
+    /**
+     * The front-of-shield messages in the order they appear, with a hash of the content each was last sent with. The
+     * layout of a repost is recorded when the repost is queued, and the id of each message is filled in once it has
+     * been sent, so edits queued behind the repost can find the messages they change.
+     */
+    public static class Layout {
+        private final AtomicReferenceArray<String> messageIds;
+        private final List<Integer> contentHashes;
+
+        /**
+         * @param messageIds    The message ids, oldest first.
+         * @param contentHashes The content hash of each message, or null where the content is not known.
+         */
+        public Layout(List<String> messageIds, List<Integer> contentHashes) {
+            this.messageIds = new AtomicReferenceArray<>(messageIds.toArray(String[]::new));
+            this.contentHashes = Collections.synchronizedList(new ArrayList<>(contentHashes));
+        }
+
+        /**
+         * @param contentHashes The content hash of each message being posted. The ids are set by
+         *                      {@link #setMessageId(int, String)} as the messages are sent.
+         */
+        public Layout(List<Integer> contentHashes) {
+            this(Collections.nCopies(contentHashes.size(), null), contentHashes);
+        }
+
+        public int size() {
+            return messageIds.length();
+        }
+
+        /**
+         * @return The id of the message at the index, or null if it has not been sent yet.
+         */
+        public String getMessageId(int index) {
+            return messageIds.get(index);
+        }
+
+        public void setMessageId(int index, String messageId) {
+            messageIds.set(index, messageId);
+        }
+
+        /**
+         * @return True if the message at the index was last sent with content that has the given hash.
+         */
+        public boolean hasContentHash(int index, int contentHash) {
+            Integer hash = contentHashes.get(index);
+            return hash != null && hash == contentHash;
+        }
+
+        public void setContentHash(int index, int contentHash) {
+            contentHashes.set(index, contentHash);
+        }
+    }
+
+    /**
+     * @param channelId The front-of-shield channel id.
+     * @return The channel's layout, or null if it is not known.
+     */
+    public static Layout getLayout(String channelId) {
+        return layouts.get(channelId);
+    }
+
+    public static void setLayout(String channelId, Layout layout) {
+        layouts.put(channelId, layout);
+    }
+
+    /**
+     * Forgets the channel's layout, so the next refresh reads the channel again.
+     *
+     * @param channelId The front-of-shield channel id.
+     */
+    public static void clearLayout(String channelId) {
+        layouts.remove(channelId);
+    }
+
+    /**
+     * Forgets every channel's layout, so each channel is read again by its next refresh.
+     */
+    public static void clearAll() {
+        layouts.clear();
+    }
+
+    /**
+     * Forgets the channel's layout if it is still the given one, so a failed request for an earlier layout does not
+     * drop a newer one.
+     *
+     * @param channelId The front-of-shield channel id.
+     * @param layout    The layout the failed request was for.
+     */
+    public static void clearLayout(String channelId, Layout layout) {
+        layouts.remove(channelId, layout);
+    }
+}
@@ -1,24 +1,162 @@
 package caches;
 
+import controller.DiscordGame;
+import model.Game;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
+/**
+ * Cache of the latest saved game state for each game category.
+ *
+ * <p>Each entry holds the saved game state, in JSON or binary form, along with a version that is bumped on every
+ * write. Next to the saved state, the cache keeps one pre-decoded {@link Game} per category, decoded off the command
+ * path on a background thread. Decoded instances are single-use: {@link #takeGame(String)} hands the instance to
+ * exactly one caller and schedules a fresh decode of the same state for the next caller. Because no two interactions
+ * ever share a live instance and the cache only ever holds games decoded from saved state, a command that mutates its
+ * game and then fails cannot leak those mutations into later interactions.
+ *
+ * <p>Callers that only read the game, such as autocomplete, use {@link #peekGame(String)} instead, which shares one
+ * separately decoded instance per version and leaves the single-use instance for the next command.
+ */
 public class GameCache {
-    static Map<String, String> gameJson = new ConcurrentHashMap<>();
+    private static final Logger logger = LoggerFactory.getLogger(GameCache.class);
+
+    private record Entry(long version, byte[] gameState) {}
+
+    private record DecodedGame(long version, Game game) {}
+
+    static Map<String, Entry> gameStates = new ConcurrentHashMap<>();
+    static Map<String, DecodedGame> decodedGames = new ConcurrentHashMap<>();
+    static Map<String, DecodedGame> readOnlyGames = new ConcurrentHashMap<>();
+    private static final Map<String, Long> generations = new ConcurrentHashMap<>();
+    private static final ExecutorService decoder = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "game-cache-decoder");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public static byte[] getGameState(String gameName) {
+        Entry entry = gameStates.get(gameName);
+        return entry == null ? null : entry.gameState();
+    }
+
+    /**
+     * @param gameName  The name of the game category.
+     * @param gameState The saved game state, in any format accepted by {@link DiscordGame#decodeGameState(byte[])}.
+     */
+    public static void setGameState(String gameName, byte[] gameState) {
+        Entry entry = gameStates.compute(gameName, (_, previous) -> new Entry(previous == null ? 1 : previous.version() + 1, gameState));
+        decodedGames.remove(gameName);
+        readOnlyGames.remove(gameName);
+        scheduleDecode(gameName, entry);
+    }
+
+    /**
+     * Caches a game state only if none is cached yet and the game has not been cleared since the caller read its
+     * generation, so a state loaded in the background can neither replace a newer one saved by a command in the
+     * meantime nor bring back one that a rewind or refresh dropped.
+     *
+     * @param gameName   The name of the game category.
+     * @param gameState  The saved game state.
+     * @param generation The {@link #getGeneration(String)} read before the game state was loaded.
+     * @return True if the game state was cached.
+     */
+    public static boolean setGameStateIfAbsent(String gameName, byte[] gameState, long generation) {
+        Entry entry = new Entry(1, gameState);
+        if (gameStates.compute(gameName, (_, previous) ->
+                previous == null && getGeneration(gameName) == generation ? entry : previous) != entry)
+            return false;
+        decodedGames.remove(gameName);
+        readOnlyGames.remove(gameName);
+        scheduleDecode(gameName, entry);
+        return true;
+    }
+
+    public static void clearGameState(String gameName) {
+        generations.merge(gameName, 1L, Long::sum);
+        gameStates.remove(gameName);
+        decodedGames.remove(gameName);
+        readOnlyGames.remove(gameName);
+    }
+
+    /**
+     * Returns the number of times the game has been cleared from the cache. A caller that loads a game state outside
+     * of a command reads this first and passes it to {@link #setGameStateIfAbsent(String, byte[], long)}.
+     *
+     * @param gameName The name of the game category.
+     * @return The generation of the game.
+     */
+    public static long getGeneration(String gameName) {
+        return generations.getOrDefault(gameName, 0L);
+    }
+
+    public static boolean hasGameState(String gameName) {
+        return gameStates.containsKey(gameName);
+    }
 
-    public static String getGameJson(String gameName) {
-        return gameJson.get(gameName);
+    /**
+     * Returns the version of the cached game state for the game, or 0 if nothing is cached.
+     *
+     * @param gameName The name of the game category.
+     * @return The version of the cached game state.
+     */
+    public static long getVersion(String gameName) {
+        Entry entry = gameStates.get(gameName);
+        return entry == null ? 0 : entry.version();
     }
 
-    public static void setGameJson(String gameName, String json) {
-        gameJson.put(gameName, json);
+    /**
+     * Hands out the pre-decoded game for the current version of the cached game state, if one is ready. The instance is
+     * removed from the cache so the caller owns it exclusively, and a replacement is decoded in the background.
+     *
+     * @param gameName The name of the game category.
+     * @return A game decoded from the current cached game state that no other caller holds, or null if none is ready.
+     */
+    public static Game takeGame(String gameName) {
+        Entry entry = gameStates.get(gameName);
+        if (entry == null) return null;
+        DecodedGame decoded = decodedGames.remove(gameName);
+        if (decoded == null || decoded.version() != entry.version()) return null;
+        scheduleDecode(gameName, entry);
+        return decoded.game();
     }
 
-    public static void clearGameJson(String gameName) {
-        gameJson.remove(gameName);
+    /**
+     * Returns a game decoded from the current version of the cached game state without taking the single-use instance
+     * that {@link #takeGame(String)} hands to commands. The instance is shared by every reader of the same version, so
+     * callers must not modify it. It is decoded on the calling thread the first time each version is read.
+     *
+     * @param gameName The name of the game category.
+     * @return A shared, read-only game decoded from the current cached game state, or null if nothing is cached.
+     */
+    public static Game peekGame(String gameName) {
+        Entry entry = gameStates.get(gameName);
+        if (entry == null) return null;
+        DecodedGame decoded = readOnlyGames.get(gameName);
+        if (decoded != null && decoded.version() == entry.version()) return decoded.game();
+        Game game = DiscordGame.decodeGameState(entry.gameState());
+        readOnlyGames.compute(gameName, (_, previous) ->
+                gameStates.get(gameName) == entry ? new DecodedGame(entry.version(), game) : previous);
+        return game;
     }
 
-    public static boolean hasGameJson(String gameName) {
-        return gameJson.containsKey(gameName);
+    private static void scheduleDecode(String gameName, Entry entry) {
+        decoder.execute(() -> {
+            if (gameStates.get(gameName) != entry) return;
+            Game game;
+            try {
+                game = DiscordGame.decodeGameState(entry.gameState());
+            } catch (Exception e) {
+                logger.warn("Failed to pre-decode game state for {}", gameName, e);
+                return;
+            }
+            decodedGames.compute(gameName, (_, previous) ->
+                    gameStates.get(gameName) == entry ? new DecodedGame(entry.version(), game) : previous);
+        });
     }
 }
@@ -0,0 +1,106 @@
+package caches;
+
+import controller.DiscordGame;
+import net.dv8tion.jda.api.JDA;
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.entities.channel.concrete.Category;
+import net.dv8tion.jda.api.entities.channel.concrete.TextChannel;
+import net.dv8tion.jda.api.utils.TimeUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Loads the saved state of every game into {@link GameCache} at startup, so the first interaction in each game after a
+ * restart does not wait for the bot-data channel. A game is any category with a bot-data channel.
+ *
+ * <p>Only games saved within the last 14 days, or the window set with {@link #setActiveWithin}, are loaded. Finished
+ * games stay in the server until they are archived but are no longer saved, and loading them would keep their state in
+ * the cache for as long as the bot runs.
+ */
+public class GameCacheWarmup {
+    private static final Logger logger = LoggerFactory.getLogger(GameCacheWarmup.class);
+    private static volatile Duration activeWithin = Duration.ofDays(14);
+
+    /**
+     * Sets how recently a game must have been saved to be loaded at startup.
+     */
+    public static void setActiveWithin(Duration activeWithin) {
+        GameCacheWarmup.activeWithin = activeWithin;
+    }
+
+    public static Duration getActiveWithin() {
+        return activeWithin;
+    }
+
+    /**
+     * Starts loading every game in every guild the bot is in. Games are loaded concurrently on a pool of the given
+     * size, and the time taken for each game is logged.
+     *
+     * @param jda         a connected JDA instance (typically post-{@code awaitReady}).
+     * @param parallelism the maximum number of games loaded at the same time.
+     * @return a future that completes when every game has been loaded or has failed to load.
+     */
+    public static CompletableFuture<Void> warm(JDA jda, int parallelism) {
+        OffsetDateTime activeSince = OffsetDateTime.now().minus(activeWithin);
+        List<Category> gameCategories = new ArrayList<>();
+        for (Guild guild : jda.getGuilds())
+            for (Category category : guild.getCategories())
+                if (category.getTextChannels().stream().anyMatch(c -> c.getName().equals("bot-data") && isSavedSince(c, activeSince)))
+                    gameCategories.add(category);
+        if (gameCategories.isEmpty()) return CompletableFuture.completedFuture(null);
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(parallelism, gameCategories.size()), r -> {
+            Thread thread = new Thread(r, "game-cache-warmup-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        long start = System.nanoTime();
+        AtomicInteger loaded = new AtomicInteger();
+        CompletableFuture<?>[] futures = gameCategories.stream()
+                .map(category -> CompletableFuture.runAsync(() -> {
+                    if (warmGame(category)) loaded.incrementAndGet();
+                }, executor))
+                .toArray(CompletableFuture[]::new);
+
+        return CompletableFuture.allOf(futures).whenComplete((_, _) -> {
+            executor.shutdown();
+            logger.info("Warmed {} of {} games in {} ms", loaded.get(), gameCategories.size(), (System.nanoTime() - start) / 1_000_000);
+        });
+    }
+
+    /**
+     * Tells whether the last message in a bot-data channel was sent after the given time. The time is read from the
+     * message ID, so nothing is fetched from Discord.
+     */
+    static boolean isSavedSince(TextChannel botData, OffsetDateTime since) {
+        long lastMessageId = botData.getLatestMessageIdLong();
+        return lastMessageId != 0 && TimeUtil.getTimeCreated(lastMessageId).isAfter(since);
+    }
+
+    private static boolean warmGame(Category category) {
+        long start = System.nanoTime();
+        try {
+            boolean loaded = new DiscordGame(category).warmGameCache();
+            long elapsed = (System.nanoTime() - start) / 1_000_000;
+            if (loaded)
+                logger.info("Warmed {} in {} ms", category.getName(), elapsed);
+            else
+                logger.info("Skipped warming {}, it was loaded or cleared by a command", category.getName());
+            return loaded;
+        } catch (Exception e) {
+            logger.warn("Failed to warm {}", category.getName(), e);
+            return false;
+        }
+    }
+}
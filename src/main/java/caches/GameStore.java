@@ -0,0 +1,33 @@
+package caches;
+
+import java.io.IOException;
+
+/**
+ * Durable storage for the latest saved game state of each game category. When a store is configured it is the source
+ * of truth for loading games, and the bot-data channel is kept as an asynchronous replica.
+ */
+public interface GameStore {
+    /**
+     * @param gameName The name of the game category.
+     * @return The latest saved game state, or null if the store has none for the game.
+     * @throws IOException If the store could not be read.
+     */
+    byte[] load(String gameName) throws IOException;
+
+    /**
+     * Saves a new latest game state. The state must be durable when this method returns.
+     *
+     * @param gameName  The name of the game category.
+     * @param gameState The saved game state, in any format accepted by {@link controller.DiscordGame#decodeGameState(byte[])}.
+     * @throws IOException If the store could not be written.
+     */
+    void save(String gameName, byte[] gameState) throws IOException;
+
+    /**
+     * Forgets the latest game state, so the next load falls back to the bot-data channel.
+     *
+     * @param gameName The name of the game category.
+     * @throws IOException If the store could not be written.
+     */
+    void invalidate(String gameName) throws IOException;
+}
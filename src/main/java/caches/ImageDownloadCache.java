@@ -0,0 +1,405 @@
+package caches;
+
+import net.dv8tion.jda.api.entities.Message;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Downloaded card art and homebrew images, so an image that is mentioned or drawn again is not downloaded again.
+ *
+ * <p>Images are kept in memory by key, which is the attachment id or the address without its expiring signature. If a
+ * directory is set, images are also written there by the SHA-256 of their content, with a small file per key naming
+ * the content, so they survive restarts and an image posted twice is stored once. The files in the directory are listed
+ * once when it is set and tracked as they are written and deleted after that. An image file whose content no longer
+ * matches its name, that was evicted, or whose key file cannot be read is downloaded again the next time it is used.
+ * The least recently used images are dropped, with the key files naming them, once memory or the directory holds more
+ * than its byte limit.
+ */
+public class ImageDownloadCache {
+    private static final String OBJECTS = "objects";
+    private static final String KEYS = "keys";
+    private static final Set<String> SIGNATURE_PARAMETERS = Set.of("ex", "is", "hm");
+    private static final Pattern HASH = Pattern.compile("[0-9a-f]{64}");
+    private static final Map<String, byte[]> images = new LinkedHashMap<>(16, 0.75f, true);
+    private static final Map<String, CompletableFuture<byte[]>> downloading = new ConcurrentHashMap<>();
+    private static long maxMemoryBytes = 32L * 1024 * 1024;
+    private static long memoryBytes;
+    private static volatile Path directory;
+    private static volatile long maxDiskBytes = 256L * 1024 * 1024;
+    /**
+     * The size of each image file in the directory by its hash, least recently used first.
+     */
+    private static final Map<String, Long> diskObjects = new LinkedHashMap<>(16, 0.75f, true);
+    /**
+     * The hash each key file in the directory names, by key file name.
+     */
+    private static final Map<String, String> diskKeys = new HashMap<>();
+    private static long diskBytes;
+    private static long memoryHits;
+    private static long diskHits;
+    private static long downloads;
+
+    /**
+     * Opens an image that is not in the cache.
+     */
+    @FunctionalInterface
+    public interface Downloader {
+        InputStream open() throws IOException;
+    }
+
+    /**
+     * Sets the directory images are kept in across restarts.
+     *
+     * @param directory The directory, or null to keep images in memory only.
+     */
+    public static synchronized void setDirectory(Path directory) throws IOException {
+        diskObjects.clear();
+        diskKeys.clear();
+        diskBytes = 0;
+        if (directory != null) {
+            Files.createDirectories(directory.resolve(OBJECTS));
+            Files.createDirectories(directory.resolve(KEYS));
+            loadDiskIndex(directory);
+        }
+        ImageDownloadCache.directory = directory;
+    }
+
+    /**
+     * Lists the image files in the directory, oldest first, and the key files naming them. Key files naming an image
+     * that is not there, or that cannot be read, are deleted.
+     */
+    private static void loadDiskIndex(Path directory) throws IOException {
+        List<Path> objects;
+        try (Stream<Path> files = Files.list(directory.resolve(OBJECTS))) {
+            objects = new ArrayList<>(files.filter(f -> !f.getFileName().toString().endsWith(".tmp")).toList());
+        }
+        Map<Path, FileTime> modified = new HashMap<>();
+        for (Path object : objects)
+            modified.put(object, Files.getLastModifiedTime(object));
+        objects.sort(Comparator.comparing(modified::get));
+        for (Path object : objects) {
+            long size = Files.size(object);
+            diskObjects.put(object.getFileName().toString(), size);
+            diskBytes += size;
+        }
+
+        List<Path> keyFiles;
+        try (Stream<Path> files = Files.list(directory.resolve(KEYS))) {
+            keyFiles = files.toList();
+        }
+        for (Path keyFile : keyFiles) {
+            String hash;
+            try {
+                hash = Files.readString(keyFile).strip();
+            } catch (IOException e) {
+                hash = null;
+            }
+            if (hash != null && diskObjects.containsKey(hash)) diskKeys.put(keyFile.getFileName().toString(), hash);
+            else Files.deleteIfExists(keyFile);
+        }
+    }
+
+    public static Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Sets how many bytes of images to keep in memory, dropping the least recently used images if there are more.
+     *
+     * @param maxMemoryBytes The limit.
+     */
+    public static synchronized void setMaxMemoryBytes(long maxMemoryBytes) {
+        if (maxMemoryBytes < 0) throw new IllegalArgumentException("The image cache size cannot be negative");
+        ImageDownloadCache.maxMemoryBytes = maxMemoryBytes;
+        evictMemory();
+    }
+
+    /**
+     * Sets how many bytes of images to keep in the directory. Images are dropped, least recently used first, when the
+     * next image is written.
+     *
+     * @param maxDiskBytes The limit.
+     */
+    public static void setMaxDiskBytes(long maxDiskBytes) {
+        if (maxDiskBytes < 0) throw new IllegalArgumentException("The image cache size cannot be negative");
+        ImageDownloadCache.maxDiskBytes = maxDiskBytes;
+    }
+
+    /**
+     * @param attachment A message attachment.
+     * @return The attachment's bytes.
+     */
+    public static byte[] get(Message.Attachment attachment) throws IOException {
+        String key = attachment.getId() != null ? "attachment-" + attachment.getId()
+                : attachment.getUrl() != null ? keyForUrl(attachment.getUrl()) : null;
+        return get(key, () -> {
+            try {
+                return attachment.getProxy().download().get();
+            } catch (ExecutionException e) {
+                throw new IOException("Could not download " + attachment.getFileName(), e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted downloading " + attachment.getFileName(), e);
+            }
+        });
+    }
+
+    /**
+     * @param url The address of an image.
+     * @return The image's bytes.
+     */
+    public static byte[] get(String url) throws IOException {
+        return get(keyForUrl(url), () -> {
+            try {
+                return new URI(url).toURL().openStream();
+            } catch (URISyntaxException e) {
+                throw new IOException("Invalid image address " + url, e);
+            }
+        });
+    }
+
+    /**
+     * Returns the image with the key, downloading it if it is not in memory or in the directory. Concurrent requests
+     * for an image that is being downloaded wait for that download.
+     *
+     * @param key        Identifies the image's content, or null to download it without caching.
+     * @param downloader Opens the image.
+     * @return The image's bytes.
+     */
+    public static byte[] get(String key, Downloader downloader) throws IOException {
+        if (key == null) return download(downloader);
+        synchronized (ImageDownloadCache.class) {
+            byte[] image = images.get(key);
+            if (image != null) {
+                memoryHits++;
+                return image;
+            }
+        }
+
+        CompletableFuture<byte[]> loading = new CompletableFuture<>();
+        CompletableFuture<byte[]> inProgress = downloading.putIfAbsent(key, loading);
+        if (inProgress != null) {
+            try {
+                return inProgress.join();
+            } catch (Exception e) {
+                throw new IOException("Could not download image " + key, e.getCause());
+            }
+        }
+        try {
+            byte[] image = readFromDisk(key);
+            if (image == null) {
+                image = download(downloader);
+                writeToDisk(key, image);
+            }
+            put(key, image);
+            loading.complete(image);
+            return image;
+        } catch (IOException | RuntimeException e) {
+            loading.completeExceptionally(e);
+            throw e;
+        } finally {
+            downloading.remove(key, loading);
+        }
+    }
+
+    /**
+     * @param url The address of an image.
+     * @return A key for the image that does not change when Discord renews the address's expiry and signature, but
+     * does for any other change to its query.
+     */
+    static String keyForUrl(String url) {
+        int query = url.indexOf('?');
+        String address = url;
+        if (query >= 0) {
+            StringJoiner parameters = new StringJoiner("&");
+            for (String parameter : url.substring(query + 1).split("&")) {
+                int equals = parameter.indexOf('=');
+                String name = equals < 0 ? parameter : parameter.substring(0, equals);
+                if (!parameter.isEmpty() && !SIGNATURE_PARAMETERS.contains(name)) parameters.add(parameter);
+            }
+            address = url.substring(0, query) + (parameters.length() == 0 ? "" : "?" + parameters);
+        }
+        return "url-" + sha256(address.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static synchronized long getMemoryBytes() {
+        return memoryBytes;
+    }
+
+    public static synchronized long getMemoryHits() {
+        return memoryHits;
+    }
+
+    public static synchronized long getDiskHits() {
+        return diskHits;
+    }
+
+    public static synchronized long getDownloads() {
+        return downloads;
+    }
+
+    /**
+     * Drops the images kept in memory. Images in the directory are kept.
+     */
+    public static synchronized void clear() {
+        images.clear();
+        memoryBytes = 0;
+        memoryHits = 0;
+        diskHits = 0;
+        downloads = 0;
+    }
+
+    private static byte[] download(Downloader downloader) throws IOException {
+        byte[] image;
+        try (InputStream inputStream = downloader.open()) {
+            image = inputStream.readAllBytes();
+        }
+        synchronized (ImageDownloadCache.class) {
+            downloads++;
+        }
+        return image;
+    }
+
+    private static synchronized void put(String key, byte[] image) {
+        byte[] previous = images.put(key, image);
+        if (previous != null) memoryBytes -= previous.length;
+        memoryBytes += image.length;
+        evictMemory();
+    }
+
+    private static void evictMemory() {
+        Iterator<byte[]> iterator = images.values().iterator();
+        while (memoryBytes > maxMemoryBytes && iterator.hasNext()) {
+            memoryBytes -= iterator.next().length;
+            iterator.remove();
+        }
+    }
+
+    /**
+     * @return The image with the key in the directory, or null if it is not there. An entry that cannot be read is
+     * deleted, so it is downloaded again.
+     */
+    private static byte[] readFromDisk(String key) {
+        Path directory = ImageDownloadCache.directory;
+        if (directory == null) return null;
+        Path keyFile = keyPath(directory, key);
+        String hash = null;
+        try {
+            if (!Files.exists(keyFile)) return null;
+            hash = Files.readString(keyFile).strip();
+            if (!HASH.matcher(hash).matches()) throw new IOException("Key file " + keyFile + " does not name an image");
+            Path object = directory.resolve(OBJECTS).resolve(hash);
+            byte[] image = Files.readAllBytes(object);
+            if (!sha256(image).equals(hash)) {
+                removeObject(directory, hash);
+                return null;
+            }
+            Files.setLastModifiedTime(object, FileTime.fromMillis(System.currentTimeMillis()));
+            synchronized (ImageDownloadCache.class) {
+                // Marks the image as recently used
+                diskObjects.get(hash);
+                diskHits++;
+            }
+            return image;
+        } catch (IOException e) {
+            try {
+                if (hash != null && HASH.matcher(hash).matches() && !(e instanceof NoSuchFileException))
+                    removeObject(directory, hash);
+                removeKey(keyFile);
+            } catch (IOException ignored) {
+                // The entry is downloaded and written again
+            }
+            return null;
+        }
+    }
+
+    private static void writeToDisk(String key, byte[] image) throws IOException {
+        Path directory = ImageDownloadCache.directory;
+        if (directory == null) return;
+        String hash = sha256(image);
+        Path object = directory.resolve(OBJECTS).resolve(hash);
+        if (Files.exists(object)) {
+            Files.setLastModifiedTime(object, FileTime.fromMillis(System.currentTimeMillis()));
+        } else {
+            Path temporary = Files.createTempFile(directory.resolve(OBJECTS), hash, ".tmp");
+            Files.write(temporary, image);
+            Files.move(temporary, object, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        Path keyFile = keyPath(directory, key);
+        Files.writeString(keyFile, hash);
+        synchronized (ImageDownloadCache.class) {
+            if (directory != ImageDownloadCache.directory) return;
+            Long previous = diskObjects.put(hash, (long) image.length);
+            if (previous == null) diskBytes += image.length;
+            diskKeys.put(keyFile.getFileName().toString(), hash);
+            evictDisk(directory);
+        }
+    }
+
+    private static synchronized void evictDisk(Path directory) throws IOException {
+        Iterator<Map.Entry<String, Long>> iterator = diskObjects.entrySet().iterator();
+        while (diskBytes > maxDiskBytes && iterator.hasNext()) {
+            Map.Entry<String, Long> object = iterator.next();
+            Files.deleteIfExists(directory.resolve(OBJECTS).resolve(object.getKey()));
+            diskBytes -= object.getValue();
+            iterator.remove();
+            deleteKeysNaming(directory, object.getKey());
+        }
+    }
+
+    /**
+     * Deletes an image file that is damaged, and the key files naming it.
+     */
+    private static synchronized void removeObject(Path directory, String hash) throws IOException {
+        Files.deleteIfExists(directory.resolve(OBJECTS).resolve(hash));
+        if (directory != ImageDownloadCache.directory) return;
+        Long size = diskObjects.remove(hash);
+        if (size != null) diskBytes -= size;
+        deleteKeysNaming(directory, hash);
+    }
+
+    private static synchronized void removeKey(Path keyFile) throws IOException {
+        Files.deleteIfExists(keyFile);
+        diskKeys.remove(keyFile.getFileName().toString());
+    }
+
+    private static void deleteKeysNaming(Path directory, String hash) throws IOException {
+        for (Iterator<Map.Entry<String, String>> keys = diskKeys.entrySet().iterator(); keys.hasNext(); ) {
+            Map.Entry<String, String> entry = keys.next();
+            if (!entry.getValue().equals(hash)) continue;
+            Files.deleteIfExists(directory.resolve(KEYS).resolve(entry.getKey()));
+            keys.remove();
+        }
+    }
+
+    static synchronized long getDiskBytes() {
+        return diskBytes;
+    }
+
+    private static Path keyPath(Path directory, String key) {
+        return directory.resolve(KEYS).resolve(URLEncoder.encode(key, StandardCharsets.UTF_8));
+    }
+
+    private static String sha256(byte[] bytes) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
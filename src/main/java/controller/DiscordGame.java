@@ -2,10 +2,16 @@ package controller;
 
 import caches.EmojiCache;
 import caches.GameCache;
+import caches.GameStore;
 import com.google.gson.*;
 import controller.channels.*;
+import enums.GameStateFormat;
 import exceptions.ChannelNotFoundException;
+import helpers.BinaryJson;
+import helpers.CommandMetrics;
 import helpers.DiscordRequest;
+import helpers.DiscordRequestDispatcher;
+import helpers.JsonPatch;
 import helpers.Exclude;
 import io.gsonfire.GsonFireBuilder;
 import model.*;
@@ -19,6 +25,7 @@ import net.dv8tion.jda.api.entities.channel.Channel;
 import net.dv8tion.jda.api.entities.channel.concrete.Category;
 import net.dv8tion.jda.api.entities.channel.concrete.TextChannel;
 import net.dv8tion.jda.api.entities.channel.concrete.ThreadChannel;
+import net.dv8tion.jda.api.entities.channel.middleman.MessageChannel;
 import net.dv8tion.jda.api.entities.channel.unions.MessageChannelUnion;
 import net.dv8tion.jda.api.events.interaction.GenericInteractionCreateEvent;
 import net.dv8tion.jda.api.events.interaction.command.CommandAutoCompleteInteractionEvent;
@@ -34,6 +41,7 @@ import net.dv8tion.jda.api.requests.restaction.WebhookMessageCreateAction;
 import net.dv8tion.jda.api.utils.FileUpload;
 import net.dv8tion.jda.api.utils.messages.MessageCreateBuilder;
 import net.dv8tion.jda.api.utils.messages.MessageCreateData;
+import net.dv8tion.jda.api.utils.messages.MessageEditData;
 import org.jetbrains.annotations.NotNull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -41,12 +49,21 @@ import org.slf4j.LoggerFactory;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 public class DiscordGame {
     private static final Logger logger = LoggerFactory.getLogger(DiscordGame.class);
+    public static final String JOURNAL_FILE_NAME = "gamestate.patch.json";
     private final Guild guild;
     private final Category gameCategory;
     private final List<DiscordRequest> discordRequests = new ArrayList<>();
@@ -133,6 +150,20 @@ public class DiscordGame {
         }
     }
 
+    private static final Gson gsonDeserializer = createGsonDeserializer();
+    private static GameStore gameStore;
+    private static final ExecutorService botDataReplica = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "bot-data-replica");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private static final Gson gsonSerializer = createGsonSerializer();
+    /**
+     * The last game state sent to bot-data for each journaled game. Journal entries are diffed against it rather
+     * than the cached state, since a save that was never uploaded must not be the base of the next entry.
+     */
+    private static final Map<String, byte[]> journalBases = new ConcurrentHashMap<>();
+
     /**
      * Creates a Gson object that can deserialize the GameState object.
      *
@@ -140,22 +171,52 @@ public class DiscordGame {
      */
     public static Gson createGsonDeserializer() {
         GsonFireBuilder builder = new GsonFireBuilder()
-                .registerTypeSelector(Faction.class, new FactionTypeSelector())
-                .registerTypeSelector(Territory.class, new TerritoryTypeSelector())
-                .registerPreProcessor(TreacheryCard.class, (_, src, _) -> {
-                    JsonObject jsonObject = src.getAsJsonObject();
-                    jsonObject.addProperty("name", jsonObject.get("name").getAsString().trim());
-                })
-                .registerPreProcessor(Game.class, (_, src, _) -> {
-                    JsonObject jsonObject = src.getAsJsonObject();
-                    JsonArray jsonArray = jsonObject.get("gameOptions").getAsJsonArray();
-                    jsonArray.remove(new JsonPrimitive("MAP_IN_FRONT_OF_SHIELD"));
-                    jsonObject.add("gameOptions", jsonArray);
-                })
-                ;
-        GsonBuilder gsonBuilder = builder.createGsonBuilder();
-
-        return gsonBuilder.create();
+                .registerTypeSelector(Faction.class, new FactionTypeSelector());
+        GsonBuilder gsonBuilder = builder.createGsonBuilder()
+                .registerTypeAdapter(Game.class, (InstanceCreator<Game>) _ -> Game.createForDeserialization());
+
+        return GameStateTypeAdapters.register(gsonBuilder).create();
+    }
+
+    /**
+     * Creates a Gson object that serializes the GameState object, skipping fields marked with {@link Exclude}.
+     *
+     * @return Gson object that can serialize the GameState object.
+     */
+    public static Gson createGsonSerializer() {
+        ExclusionStrategy strategy = new ExclusionStrategy() {
+            @Override
+            public boolean shouldSkipClass(Class<?> clazz) {
+                return false;
+            }
+
+            @Override
+            public boolean shouldSkipField(FieldAttributes field) {
+                return field.getAnnotation(Exclude.class) != null;
+            }
+        };
+
+        GsonBuilder gsonBuilder = new GsonBuilder()
+                .addSerializationExclusionStrategy(strategy);
+
+        return GameStateTypeAdapters.register(gsonBuilder).create();
+    }
+
+    /**
+     * Gson instances are thread-safe and cache the type adapters they build, so one shared instance is used for
+     * every load instead of building a new one each time.
+     *
+     * @return Shared Gson object that can deserialize the GameState object.
+     */
+    public static Gson getGsonDeserializer() {
+        return gsonDeserializer;
+    }
+
+    /**
+     * @return Shared Gson object that can serialize the GameState object.
+     */
+    public static Gson getGsonSerializer() {
+        return gsonSerializer;
     }
 
     public Category getGameCategory() {
@@ -295,24 +356,79 @@ public class DiscordGame {
         if (this.game == null) {
             String gameName = this.gameCategory.getName();
 
-            if (GameCache.hasGameJson(gameName)) {
-                this.game = gameJsonToGame(GameCache.getGameJson(gameName));
+            if (GameCache.hasGameState(gameName)) {
+                long start = System.nanoTime();
+                Game cachedGame = GameCache.takeGame(gameName);
+                this.game = cachedGame != null ? bindGame(cachedGame) : gameStateToGame(GameCache.getGameState(gameName));
+                CommandMetrics.record(CommandMetrics.Phase.LOAD, start);
 
                 return this.game;
             }
 
+            long start = System.nanoTime();
+            byte[] gameState = fetchLatestGameState();
+            Game game = gameStateToGame(gameState);
+            GameCache.setGameState(gameName, gameState);
+            this.game = game;
+            CommandMetrics.record(CommandMetrics.Phase.LOAD, start);
+        }
+        return this.game;
+    }
+
+    /**
+     * Gets the game for callers that only read it, such as autocomplete. If the game state is cached, this returns
+     * the shared instance from {@link GameCache#peekGame(String)}, which is not attached to the game channels and must
+     * not be modified, and leaves the pre-decoded game for the next command. Otherwise it loads the game as
+     * {@link #getGame()} does.
+     *
+     * @return The game, which must not be modified or saved.
+     * @throws ChannelNotFoundException If the game has to be loaded and a game channel is not found.
+     */
+    public Game getReadOnlyGame() throws ChannelNotFoundException {
+        if (this.game == null) {
+            long start = System.nanoTime();
+            Game cachedGame = GameCache.peekGame(this.gameCategory.getName());
+            if (cachedGame == null) return getGame();
+            this.game = cachedGame;
+            CommandMetrics.record(CommandMetrics.Phase.LOAD, start);
+        }
+        return this.game;
+    }
+
+    /**
+     * Loads the latest saved game state into {@link GameCache} without decoding it, unless it is already cached. The
+     * cache then decodes it in the background, so the first interaction with the game does not wait for either.
+     *
+     * @return True if the game state was loaded, false if it was already cached or was cleared while it loaded.
+     * @throws ChannelNotFoundException If the bot data channel is not found.
+     */
+    public boolean warmGameCache() throws ChannelNotFoundException {
+        String gameName = this.gameCategory.getName();
+        long generation = GameCache.getGeneration(gameName);
+        if (GameCache.hasGameState(gameName)) return false;
+        return GameCache.setGameStateIfAbsent(gameName, fetchLatestGameState(), generation);
+    }
+
+    /**
+     * Reads the latest saved game state from the game store, or from the bot data channel if the store does not
+     * have it. Uploads to the channel queued by earlier commands are sent first, so it is not read before the last
+     * save arrives.
+     */
+    private byte[] fetchLatestGameState() throws ChannelNotFoundException {
+        String gameName = this.gameCategory.getName();
+        byte[] gameState = loadFromGameStore(gameName);
+        if (gameState == null) {
+            awaitBotDataUploads();
             MessageHistory h = this.getBotDataChannel()
                     .getHistory();
 
             h.retrievePast(1).complete();
 
             List<Message> ml = h.getRetrievedHistory();
-            String gameJson = getGameJson(ml.getFirst());
-            Game game = gameJsonToGame(gameJson);
-            GameCache.setGameJson(gameName, gameJson);
-            this.game = game;
+            gameState = loadGameState(ml.getFirst());
+            saveToGameStore(gameName, gameState);
         }
-        return this.game;
+        return gameState;
     }
 
     public void setGame(Game game) {
@@ -326,27 +442,128 @@ public class DiscordGame {
      * @return Game object representing the game state.
      */
     public Game getGame(Message message) throws ChannelNotFoundException {
-        String gameJson = getGameJson(message);
-        return gameJsonToGame(gameJson);
+        byte[] gameState = loadGameState(message);
+        return gameStateToGame(gameState);
     }
 
-    public String getGameJson(Message message) {
+    /**
+     * @param message A bot-data message.
+     * @return True if the message holds a journal entry rather than a full game state.
+     */
+    public static boolean isJournalEntry(Message message) {
+        List<Message.Attachment> attachments = message.getAttachments();
+        return !attachments.isEmpty() && JOURNAL_FILE_NAME.equals(attachments.getFirst().getFileName());
+    }
+
+    /**
+     * Reconstructs the game state as of a bot-data message. A full game state is returned as is. For a journal entry,
+     * the channel is searched backwards for the last full game state, and the journal entries after it are applied.
+     *
+     * @param message A bot-data message.
+     * @return The saved game state, either binary as written by {@link BinaryJson} or UTF-8 JSON.
+     * @throws ChannelNotFoundException If the bot data channel is not found.
+     */
+    public byte[] loadGameState(Message message) throws ChannelNotFoundException {
+        if (!isJournalEntry(message)) return getGameState(message);
+
+        List<Message> journalEntries = new ArrayList<>();
+        journalEntries.add(message);
+        Message checkpoint = null;
+        TextChannel botDataChannel = getBotDataChannel();
+        String beforeId = message.getId();
+        while (checkpoint == null) {
+            List<Message> history = botDataChannel.getHistoryBefore(beforeId, 100).complete().getRetrievedHistory();
+            if (history.isEmpty())
+                throw new IllegalStateException("No full game state found before journal entry " + message.getId());
+            for (Message m : history) {
+                if (m.getAttachments().isEmpty()) continue;
+                if (!isJournalEntry(m)) {
+                    checkpoint = m;
+                    break;
+                }
+                journalEntries.add(m);
+            }
+            beforeId = history.getLast().getId();
+        }
+
+        List<CompletableFuture<InputStream>> downloads = journalEntries.reversed().stream()
+                .map(m -> m.getAttachments().getFirst().getProxy().download())
+                .toList();
+        JsonElement gameState = parseGameState(getGameState(checkpoint));
+        try {
+            for (CompletableFuture<InputStream> download : downloads) {
+                try (InputStream inputStream = download.get()) {
+                    JsonArray patch = JsonParser.parseString(new String(inputStream.readAllBytes(), StandardCharsets.UTF_8)).getAsJsonArray();
+                    gameState = JsonPatch.apply(gameState, patch);
+                }
+            }
+        } catch (IOException | InterruptedException | ExecutionException e) {
+            throw new RuntimeException("Failed to read game state journal", e);
+        }
+        return gameState.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @param gameState The saved game state, either binary as written by {@link BinaryJson} or UTF-8 JSON.
+     * @return The saved game state as a JSON tree.
+     */
+    public static JsonElement parseGameState(byte[] gameState) {
+        return BinaryJson.isBinary(gameState)
+                ? BinaryJson.parse(gameState)
+                : JsonParser.parseString(new String(gameState, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Downloads the game state attached to a bot-data message.
+     *
+     * @param message The bot-data message.
+     * @return The raw attachment, which may be JSON or binary.
+     */
+    public byte[] getGameState(Message message) {
         Message.Attachment encoded = message.getAttachments().getFirst();
         CompletableFuture<InputStream> future = encoded.getProxy().download();
 
         try {
-            String gameJson = new String(future.get().readAllBytes(), StandardCharsets.UTF_8);
+            byte[] gameState = future.get().readAllBytes();
             future.get().close();
-            return gameJson;
+            return gameState;
         } catch (IOException | InterruptedException | ExecutionException e) {
-            logger.error("Failed to read game JSON from attachment", e);
-            return "";
+            logger.error("Failed to read game state from attachment", e);
+            return new byte[0];
         }
     }
 
-    public Game gameJsonToGame(String gameJson) throws ChannelNotFoundException {
-        Gson gson = createGsonDeserializer();
-        Game game = gson.fromJson(gameJson, Game.class);
+    public Game gameStateToGame(byte[] gameState) throws ChannelNotFoundException {
+        return bindGame(decodeGameState(gameState));
+    }
+
+    /**
+     * Decodes a game state without attaching it to any Discord channels. This is the part of loading a game that
+     * does not depend on the DiscordGame, so it can be done ahead of time by {@link GameCache}.
+     *
+     * @param gameState The saved game state, either binary as written by {@link BinaryJson} or UTF-8 JSON.
+     * @return Game object with faction references and inserted territories restored.
+     */
+    public static Game decodeGameState(byte[] gameState) {
+        Game game = BinaryJson.isBinary(gameState)
+                ? getGsonDeserializer().fromJson(BinaryJson.parse(gameState), Game.class)
+                : getGsonDeserializer().fromJson(new String(gameState, StandardCharsets.UTF_8), Game.class);
+        return restoreReferences(game);
+    }
+
+    /**
+     * Decodes a game from the JSON tree the serializer makes of it, such as a copy of a game taken for drawing.
+     *
+     * @param gameState The game as a JSON tree.
+     * @return Game object with faction references and inserted territories restored.
+     */
+    public static Game decodeGameState(JsonElement gameState) {
+        return restoreReferences(getGsonDeserializer().fromJson(gameState, Game.class));
+    }
+
+    private static Game restoreReferences(Game game) {
+        // Options that no longer exist, such as MAP_IN_FRONT_OF_SHIELD, are read as null
+        game.getGameOptions().remove(null);
         addGameReferenceToFactions(game);
 
         for (Territory territory : game.getTerritories().values()) {
@@ -359,7 +576,17 @@ public class DiscordGame {
                 game.putTerritoryInAnotherTerritory(revealedTerritory, territory);
             }
         }
+        return game;
+    }
 
+    /**
+     * Attaches a decoded game to the channels of this DiscordGame.
+     *
+     * @param game Game object returned by {@link #decodeGameState(byte[])}.
+     * @return The same game object, ready for use by commands.
+     * @throws ChannelNotFoundException If one of the game channels is not found.
+     */
+    private Game bindGame(Game game) throws ChannelNotFoundException {
         for (Faction f : game.getFactions()) {
             // Temporary migrations when adding new Faction member variables can be placed here to add them to active games.
             // End Temporary
@@ -384,46 +611,221 @@ public class DiscordGame {
         pushGame();
     }
 
+    /**
+     * Saves the game state to the bot data channel. If the game is journaled, only the changes since the last state
+     * uploaded to bot-data are uploaded, except that a full game state is uploaded every
+     * {@link Game#getJournalCheckpointInterval()} saves, whenever the turn or phase changes, and whenever the last upload
+     * failed or there has not been one. Which is uploaded is decided when the message is sent, so a save whose upload
+     * is never sent, e.g. because the command failed afterward, is never the base of a later journal entry. Full game
+     * states are uploaded in the game's {@link GameStateFormat}; journal entries are always JSON patches.
+     *
+     * @throws ChannelNotFoundException If the bot data channel is not found.
+     */
     public void pushGame() throws ChannelNotFoundException {
+        long start = System.nanoTime();
+        String gameName = this.gameCategory.getName();
+        boolean journaled = this.game.getJournalCheckpointInterval() > 0;
+        boolean journal = journaled && this.game.getJournalLength() < this.game.getJournalCheckpointInterval();
+        boolean binary = this.game.getGameStateFormat() == GameStateFormat.BINARY;
+        this.game.setJournalLength(journal ? this.game.getJournalLength() + 1 : 0);
+
+        byte[] gameState;
+        JsonObject tree = null;
+        String fileName;
+        if (journal) {
+            tree = getGsonSerializer().toJsonTree(this.game).getAsJsonObject();
+            gameState = tree.toString().getBytes(StandardCharsets.UTF_8);
+            fileName = "gamestate.json";
+        } else if (binary) {
+            gameState = BinaryJson.toBinary(getGsonSerializer(), this.game);
+            fileName = "gamestate.bin";
+        } else {
+            gameState = getGsonSerializer().toJson(this.game).getBytes(StandardCharsets.UTF_8);
+            fileName = "gamestate.json";
+        }
+        GameCache.setGameState(gameName, gameState);
 
-        ExclusionStrategy strategy = new ExclusionStrategy() {
-            @Override
-            public boolean shouldSkipClass(Class<?> clazz) {
-                return false;
-            }
-
-            @Override
-            public boolean shouldSkipField(FieldAttributes field) {
-                return field.getAnnotation(Exclude.class) != null;
-            }
-        };
-
-        Gson gson = new GsonBuilder()
-                .addSerializationExclusionStrategy(strategy)
-                .create();
-
-        String gameJson = gson.toJson(this.game);
-        GameCache.setGameJson(this.gameCategory.getName(), gameJson);
-
-        FileUpload fileUpload = FileUpload.fromData(
-                gameJson.getBytes(StandardCharsets.UTF_8), "gamestate.json"
-        );
-
+        String message;
         if (getEvent() instanceof SlashCommandInteractionEvent) {
             SlashCommandInteractionEvent slashCommandInteractionEvent = (SlashCommandInteractionEvent) event;
-            String message = getEvent() == null ? "Manual update" : "Command: `" + slashCommandInteractionEvent.getCommandString() + "`";
-            queueMessage("bot-data", message, fileUpload);
+            message = getEvent() == null ? "Manual update" : "Command: `" + slashCommandInteractionEvent.getCommandString() + "`";
         } else if (getEvent() instanceof ButtonInteractionEvent){
             ButtonInteractionEvent buttonInteractionEvent = (ButtonInteractionEvent) event;
-            String message = getEvent() == null ? "Manual update" : "Button Pressed: `" + buttonInteractionEvent.getComponentId() + " pressed by " + Objects.requireNonNull(buttonInteractionEvent.getMember()).getUser().getName() + "`";
-            queueMessage("bot-data", message, fileUpload);
+            message = getEvent() == null ? "Manual update" : "Button Pressed: `" + buttonInteractionEvent.getComponentId() + " pressed by " + Objects.requireNonNull(buttonInteractionEvent.getMember()).getUser().getName() + "`";
+        } else {
+            message = getEvent() == null ? "Dropdown menu update" : "a bid was entered by " + Objects.requireNonNull(event.getMember()).getUser().getName();
+        }
+        TextChannel botData = getBotDataChannel();
+        JsonObject journalTree = tree;
+        Supplier<MessageCreateAction> upload = () -> {
+            FileUpload fileUpload = journalTree == null ? null : journalEntry(gameName, journalTree);
+            if (fileUpload == null && journalTree != null && binary)
+                fileUpload = FileUpload.fromData(BinaryJson.toBinary(getGsonSerializer(), journalTree), "gamestate.bin");
+            if (fileUpload == null) fileUpload = FileUpload.fromData(gameState, fileName);
+            if (journaled) journalBases.put(gameName, gameState);
+            else journalBases.remove(gameName);
+            return botData.sendMessage(EmojiCache.tagEmojis(message)).addFiles(fileUpload);
+        };
+        Runnable onFailure = () -> journalBases.remove(gameName, gameState);
+        if (gameStore != null) {
+            saveToGameStore(gameName, gameState);
+            replicateToBotData(upload, onFailure);
         } else {
-            String message = getEvent() == null ? "Dropdown menu update" : "a bid was entered by " + Objects.requireNonNull(event.getMember()).getUser().getName();
-            queueMessage("bot-data", message, fileUpload);
+            discordRequests.add(new DiscordRequest(botData.getId(), upload).whenFailed(onFailure));
+        }
+        CommandMetrics.record(CommandMetrics.Phase.SAVE, start);
+    }
+
+    /**
+     * @return The changes from the last game state uploaded to bot-data, or null if there is none for the same turn
+     * and phase, so a full game state must be uploaded.
+     */
+    private static FileUpload journalEntry(String gameName, JsonObject tree) {
+        byte[] base = journalBases.get(gameName);
+        if (base == null) return null;
+        JsonObject baseTree = parseGameState(base).getAsJsonObject();
+        if (baseTree.get("turn").getAsInt() != tree.get("turn").getAsInt()
+                || baseTree.get("phase").getAsInt() != tree.get("phase").getAsInt())
+            return null;
+        return FileUpload.fromData(JsonPatch.diff(baseTree, tree).toString().getBytes(StandardCharsets.UTF_8), JOURNAL_FILE_NAME);
+    }
+
+    /**
+     * Saves a game state that was not produced by this DiscordGame's game, such as an earlier state being restored.
+     * The new state is cached, so the next command uses it even if the bot-data upload has not been sent yet.
+     *
+     * @param gameState           The saved game state, either binary as written by {@link BinaryJson} or UTF-8 JSON.
+     * @param messageCreateAction The bot-data message that uploads the game state.
+     * @throws ChannelNotFoundException If the bot data channel is not found.
+     */
+    public void pushGameState(byte[] gameState, MessageCreateAction messageCreateAction) throws ChannelNotFoundException {
+        String gameName = this.gameCategory.getName();
+        GameCache.setGameState(gameName, gameState);
+        journalBases.remove(gameName);
+        if (gameStore != null) {
+            saveToGameStore(gameName, gameState);
+            replicateToBotData(() -> messageCreateAction, () -> {});
+        } else {
+            queueMessage(getBotDataChannel(), messageCreateAction);
+        }
+    }
+
+    /**
+     * Drops any saved game state held outside the bot-data channel, so the next load reads the channel.
+     */
+    public void clearSavedGameState() {
+        String gameName = this.gameCategory.getName();
+        GameCache.clearGameState(gameName);
+        journalBases.remove(gameName);
+        if (gameStore == null) return;
+        try {
+            gameStore.invalidate(gameName);
+        } catch (IOException e) {
+            logger.error("Failed to invalidate {} in the game store", gameName, e);
+        }
+    }
+
+    /**
+     * Sets the durable store used as the source of truth for game states. While a store is set, every bot-data upload
+     * is sent in order on a background thread instead of with the command's other messages, including those whose
+     * save to the store failed, so bot-data receives a game's states in the order they were saved.
+     *
+     * @param gameStore The store, or null to use only the bot-data channel.
+     */
+    public static void setGameStore(GameStore gameStore) {
+        DiscordGame.gameStore = gameStore;
+    }
+
+    private static byte[] loadFromGameStore(String gameName) {
+        if (gameStore == null) return null;
+        try {
+            return gameStore.load(gameName);
+        } catch (IOException e) {
+            logger.warn("Failed to load {} from the game store, falling back to bot-data", gameName, e);
+            return null;
         }
     }
 
-    private static List<MessageCreateBuilder> splitMessageBuilders(MessageCreateBuilder inMessageCreateBuilder) {
+    /**
+     * @return True if the state was saved. If saving failed, the store's older state is invalidated so it is never
+     * loaded in place of the bot-data channel.
+     */
+    private static boolean saveToGameStore(String gameName, byte[] gameState) {
+        if (gameStore == null) return false;
+        try {
+            gameStore.save(gameName, gameState);
+            return true;
+        } catch (IOException e) {
+            logger.error("Failed to save {} to the game store", gameName, e);
+            try {
+                gameStore.invalidate(gameName);
+            } catch (IOException invalidateException) {
+                logger.error("Failed to invalidate {} in the game store", gameName, invalidateException);
+            }
+            return false;
+        }
+    }
+
+    /**
+     * @param upload    Creates the bot-data message when it is its turn to be sent.
+     * @param onFailure Called if the message could not be sent.
+     */
+    private static void replicateToBotData(Supplier<MessageCreateAction> upload, Runnable onFailure) {
+        botDataReplica.execute(() -> {
+            try {
+                upload.get().complete();
+            } catch (Exception e) {
+                logger.error("Failed to replicate game state to bot-data", e);
+                onFailure.run();
+            }
+        });
+    }
+
+    /**
+     * Waits until the bot-data uploads queued so far, either with the messages of earlier commands or on the replica
+     * thread, have been sent or have failed.
+     *
+     * @throws ChannelNotFoundException If the bot data channel is not found.
+     */
+    private void awaitBotDataUploads() throws ChannelNotFoundException {
+        DiscordRequestDispatcher.awaitSent(getBotDataChannel().getId());
+        if (gameStore != null) awaitBotDataReplica();
+    }
+
+    /**
+     * Waits for the bot-data uploads already queued behind game store saves to be sent.
+     */
+    public static void awaitBotDataReplica() {
+        try {
+            botDataReplica.submit(() -> {}).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | RejectedExecutionException e) {
+            logger.warn("Failed to wait for bot-data uploads", e);
+        }
+    }
+
+    /**
+     * Stops taking bot-data uploads and waits for those already queued to be sent, so a restart does not lose the
+     * latest saves.
+     *
+     * @param timeout The longest time to wait.
+     * @return True if every queued upload was sent or failed in time.
+     * @throws InterruptedException If interrupted while waiting.
+     */
+    public static boolean shutdownBotDataReplica(Duration timeout) throws InterruptedException {
+        botDataReplica.shutdown();
+        return botDataReplica.awaitTermination(timeout.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Splits a message into as many messages as needed to stay within Discord's embed count and length limits. Files
+     * are attached to the last message.
+     *
+     * @param inMessageCreateBuilder The message to split.
+     * @return The messages to send, in order.
+     */
+    public static List<MessageCreateBuilder> splitMessageBuilders(MessageCreateBuilder inMessageCreateBuilder) {
         List<MessageCreateBuilder> messageCreateBuilders = new ArrayList<>();
         messageCreateBuilders.add(new MessageCreateBuilder());
         messageCreateBuilders.getFirst().setContent(inMessageCreateBuilder.getContent());
@@ -456,7 +858,7 @@ public class DiscordGame {
      */
     public void queueMessage(String channelName, String message) throws ChannelNotFoundException {
         TextChannel channel = getTextChannel(channelName);
-        discordRequests.add(new DiscordRequest(channel.sendMessage(EmojiCache.tagEmojis(message))));
+        discordRequests.add(new DiscordRequest(channel.getId(), channel.sendMessage(EmojiCache.tagEmojis(message))));
     }
 
     /**
@@ -471,7 +873,7 @@ public class DiscordGame {
                 .setContent(EmojiCache.tagEmojis(message.getContent()))
                 .build();
         TextChannel channel = getTextChannel(channelName);
-        discordRequests.add(new DiscordRequest(channel.sendMessage(updatedMessage)));
+        discordRequests.add(new DiscordRequest(channel.getId(), channel.sendMessage(updatedMessage)));
     }
 
     /**
@@ -484,7 +886,7 @@ public class DiscordGame {
      */
     public void queueMessage(String channelName, String message, FileUpload fileUpload) throws ChannelNotFoundException {
         TextChannel channel = getTextChannel(channelName);
-        discordRequests.add(new DiscordRequest(channel.sendMessage(EmojiCache.tagEmojis(message)).addFiles(fileUpload)));
+        discordRequests.add(new DiscordRequest(channel.getId(), channel.sendMessage(EmojiCache.tagEmojis(message)).addFiles(fileUpload)));
     }
 
     /**
@@ -497,7 +899,7 @@ public class DiscordGame {
      */
     public void queueMessage(String channelName, String message, List<FileUpload> fileUploads) throws ChannelNotFoundException {
         TextChannel channel = getTextChannel(channelName);
-        discordRequests.add(new DiscordRequest(channel.sendMessage(EmojiCache.tagEmojis(message)).addFiles(fileUploads)));
+        discordRequests.add(new DiscordRequest(channel.getId(), channel.sendMessage(EmojiCache.tagEmojis(message)).addFiles(fileUploads)));
     }
 
     /**
@@ -511,7 +913,7 @@ public class DiscordGame {
         TextChannel channel = getTextChannel(channelName);
         MessageCreateBuilder messageCreateBuilder =
                 (new MessageCreateBuilder()).addFiles(fileUpload);
-        discordRequests.add(new DiscordRequest(channel.sendMessage(messageCreateBuilder.build())));
+        discordRequests.add(new DiscordRequest(channel.getId(), channel.sendMessage(messageCreateBuilder.build())));
     }
 
     /**
@@ -527,7 +929,7 @@ public class DiscordGame {
 
         for ( MessageCreateBuilder m : messageCreateBuilders ) {
             m.setContent(EmojiCache.tagEmojis(m.getContent()));
-            discordRequests.add(new DiscordRequest(channel.sendMessage(m.build())));
+            discordRequests.add(new DiscordRequest(channel.getId(), channel.sendMessage(m.build())));
         }
     }
 
@@ -538,17 +940,90 @@ public class DiscordGame {
      */
     public void queueMessage(WebhookMessageCreateAction<Message> messageCreateAction) {
         messageCreateAction.setContent(EmojiCache.tagEmojis(messageCreateAction.getContent()));
-        discordRequests.add(new DiscordRequest(messageCreateAction));
+        discordRequests.add(new DiscordRequest(getEventChannelId(), messageCreateAction));
     }
 
     /**
-     * Queues a message to be sent.
+     * Queues a message to be sent. Messages queued without a channel are sent in order with each other but not with
+     * messages to any channel.
      *
      * @param messageCreateAction Message to send.
      */
     public void queueMessage(MessageCreateAction messageCreateAction) {
         messageCreateAction.setContent(EmojiCache.tagEmojis(messageCreateAction.getContent()));
-        discordRequests.add(new DiscordRequest(messageCreateAction));
+        discordRequests.add(new DiscordRequest("", messageCreateAction));
+    }
+
+    /**
+     * Queues a message to be sent to the given channel.
+     *
+     * @param channel             Channel the message is sent to.
+     * @param messageCreateAction Message to send.
+     */
+    public void queueMessage(MessageChannel channel, MessageCreateAction messageCreateAction) {
+        messageCreateAction.setContent(EmojiCache.tagEmojis(messageCreateAction.getContent()));
+        discordRequests.add(new DiscordRequest(channel.getId(), messageCreateAction));
+    }
+
+    /**
+     * Queues a message to be sent to the given channel.
+     *
+     * @param channel   Channel to send the message to.
+     * @param message   Message to send. Its content should already have emojis tagged.
+     * @param onSent    Called with the message once it has been sent.
+     * @param onFailure Called if the message could not be sent, or null.
+     */
+    public void queueMessage(MessageChannel channel, MessageCreateData message, Consumer<Message> onSent, Runnable onFailure) {
+        discordRequests.add(new DiscordRequest(channel.getId(), channel.sendMessage(message)).whenSent(onSent).whenFailed(onFailure));
+    }
+
+    /**
+     * Queues a message that is still being built, such as a message with a map that is still being drawn. Only later
+     * messages to the same channel wait for it.
+     *
+     * @param channel Channel to send the message to.
+     * @param message The message once it is built, or null if there turns out to be nothing to send. Its content should
+     *                already have emojis tagged.
+     * @param onSent  Called with the message once it has been sent, or null.
+     */
+    public void queueMessage(MessageChannel channel, CompletableFuture<MessageCreateData> message, Consumer<Message> onSent) {
+        queueMessage(channel, message, onSent, null);
+    }
+
+    /**
+     * Queues a message that is still being built, such as a message with a map that is still being drawn. Only later
+     * messages to the same channel wait for it.
+     *
+     * @param channel   Channel to send the message to.
+     * @param message   The message once it is built, or null if there turns out to be nothing to send. Its content
+     *                  should already have emojis tagged.
+     * @param onSent    Called with the message once it has been sent, or null.
+     * @param onFailure Called if the message could not be built or sent, or null.
+     */
+    public void queueMessage(MessageChannel channel, CompletableFuture<MessageCreateData> message, Consumer<Message> onSent, Runnable onFailure) {
+        discordRequests.add(new DiscordRequest(channel.getId(), () -> {
+            MessageCreateData messageCreateData = message.join();
+            return messageCreateData == null ? null : channel.sendMessage(messageCreateData);
+        }).after(message).whenSent(onSent).whenFailed(onFailure));
+    }
+
+    /**
+     * Queues an edit of a message that may still be being built or posted, such as an edit with a map that is still
+     * being drawn, or of a message that an earlier request to the channel is still sending. The message id is read
+     * when it is the edit's turn to be sent. Only later messages to the same channel wait for it. Only the parts of the
+     * message set in the edit are changed.
+     *
+     * @param channel   Channel the message is in.
+     * @param messageId Gets the id of the message to edit, or null if there turns out to be no message to edit.
+     * @param message   The new message parts once they are built. Its content should already have emojis tagged.
+     * @param onSent    Called with the message once it has been edited.
+     * @param onFailure Called if the edit fails, e.g. because the message was deleted.
+     */
+    public void queueEditMessage(MessageChannel channel, Supplier<String> messageId, CompletableFuture<MessageEditData> message, Consumer<Message> onSent, Runnable onFailure) {
+        discordRequests.add(new DiscordRequest(channel.getId(), () -> {
+            String id = messageId.get();
+            return id == null ? null : channel.editMessageById(id, message.join());
+        }).after(message).whenSent(onSent).whenFailed(onFailure));
     }
 
     /**
@@ -557,7 +1032,7 @@ public class DiscordGame {
      * @param message Message to send.
      */
     public void queueMessage(String message) {
-        discordRequests.add(new DiscordRequest(getHook().sendMessage(EmojiCache.tagEmojis(message))));
+        discordRequests.add(new DiscordRequest(getEventChannelId(), getHook().sendMessage(EmojiCache.tagEmojis(message))));
     }
 
     /**
@@ -567,7 +1042,7 @@ public class DiscordGame {
      */
     public void queueMessage(MessageCreateBuilder message) {
         message.setContent(EmojiCache.tagEmojis(message.getContent()));
-        discordRequests.add(new DiscordRequest(getHook().sendMessage(message.build())));
+        discordRequests.add(new DiscordRequest(getEventChannelId(), getHook().sendMessage(message.build())));
     }
 
     public void queueMessage(String parentChannel, String threadChannel, String message) throws ChannelNotFoundException {
@@ -575,7 +1050,7 @@ public class DiscordGame {
         ThreadChannel thread = parent.getThreadChannels().stream()
                 .filter(channel -> channel.getName().equals(threadChannel))
                 .findFirst().orElseThrow(() -> new ChannelNotFoundException("Thread not found"));
-        discordRequests.add(new DiscordRequest(thread.sendMessage(EmojiCache.tagEmojis(message))));
+        discordRequests.add(new DiscordRequest(thread.getId(), thread.sendMessage(EmojiCache.tagEmojis(message))));
     }
 
     /**
@@ -592,7 +1067,7 @@ public class DiscordGame {
         ThreadChannel thread = parent.getThreadChannels().stream()
                 .filter(channel -> channel.getName().equals(threadName))
                 .findFirst().orElseThrow(() -> new ChannelNotFoundException("Thread not found"));
-        discordRequests.add(new DiscordRequest(thread.sendMessage(messageCreateBuilder.build())));
+        discordRequests.add(new DiscordRequest(thread.getId(), thread.sendMessage(messageCreateBuilder.build())));
     }
 
     /**
@@ -601,7 +1076,7 @@ public class DiscordGame {
      * @param message Message to send.
      */
     public void queueMessageToEphemeral(String message) {
-        discordRequests.add(new DiscordRequest(getHook().sendMessage(EmojiCache.tagEmojis(message)).setEphemeral(true)));
+        discordRequests.add(new DiscordRequest(getEventChannelId(), getHook().sendMessage(EmojiCache.tagEmojis(message)).setEphemeral(true)));
     }
 
     /**
@@ -609,9 +1084,9 @@ public class DiscordGame {
      */
     public void queueDeleteMessage() {
         if (event instanceof ButtonInteractionEvent) {
-            discordRequests.add(new DiscordRequest(((ButtonInteractionEvent) event).getMessage().delete()));
+            discordRequests.add(new DiscordRequest(((ButtonInteractionEvent) event).getMessage().getChannelId(), ((ButtonInteractionEvent) event).getMessage().delete()));
         } else if (event instanceof StringSelectInteractionEvent) {
-            discordRequests.add(new DiscordRequest(((StringSelectInteractionEvent) event).getMessage().delete()));
+            discordRequests.add(new DiscordRequest(((StringSelectInteractionEvent) event).getMessage().getChannelId(), ((StringSelectInteractionEvent) event).getMessage().delete()));
         } else {
             throw new IllegalArgumentException("Unknown event type");
         }
@@ -623,7 +1098,22 @@ public class DiscordGame {
      * @param message Message to delete.
      */
     public void queueDeleteMessage(Message message) {
-        discordRequests.add(new DiscordRequest(message.delete()));
+        discordRequests.add(new DiscordRequest(message.getChannelId(), message.delete()));
+    }
+
+    /**
+     * Queues the deletion of the messages in a channel. The channel is read when it is its turn to be sent, so messages
+     * queued for it before are deleted too, and the command does not wait for the channel to be read.
+     *
+     * @param channel The channel to clear.
+     * @param limit   The most messages to delete, starting from the oldest.
+     */
+    public void queueDeleteHistory(MessageChannel channel, int limit) {
+        discordRequests.add(new DiscordRequest(channel.getId(), () -> {
+            for (Message message : channel.getHistoryFromBeginning(limit).complete().getRetrievedHistory())
+                message.delete().complete();
+            return null;
+        }));
     }
 
     /**
@@ -641,18 +1131,34 @@ public class DiscordGame {
     }
 
     /**
-     * Sends all messages in the message queue.
+     * Get the id of the channel the current event happened in, which is where its replies appear.
+     *
+     * @return The channel id, or an empty string if there is no event.
+     */
+    private String getEventChannelId() {
+        if (event == null || event.getChannelId() == null) return "";
+        return event.getChannelId();
+    }
+
+    /**
+     * Sends all messages in the message queue. Consecutive text messages to the same channel are combined, messages to
+     * the same channel are sent in the order they were queued, after those queued by earlier commands, and different
+     * channels are sent concurrently. Does not wait for the messages to be sent, so a message waiting for a map to be
+     * drawn does not hold up the next command for the game, unless
+     * {@link DiscordRequestDispatcher#setSynchronous(boolean)} is set.
      */
     public void sendAllMessages() {
         if (this.game.getMute()) return;
-        for (DiscordRequest discordRequest : discordRequests) {
-            try {
-                discordRequest.complete();
-            } catch (Exception e) {
-                logger.error("Failed to send Discord message", e);
-            }
-        }
+        long start = System.nanoTime();
+        CommandMetrics.CommandTimer command = CommandMetrics.current();
+        CompletableFuture<List<DiscordRequestDispatcher.Failure>> sent = DiscordRequestDispatcher.dispatchAsync(DiscordRequestDispatcher.coalesce(discordRequests))
+                .whenComplete((failures, _) -> {
+                    if (command != null) command.recordOffThread(CommandMetrics.Phase.DISPATCH, System.nanoTime() - start);
+                    for (DiscordRequestDispatcher.Failure failure : failures)
+                        logger.error("Failed to send Discord message to channel {}", failure.request().getChannelId(), failure.exception());
+                });
         discordRequests.clear();
+        if (DiscordRequestDispatcher.isSynchronous()) sent.join();
     }
 
     /**
@@ -1,8 +1,19 @@
 package controller;
 
+import exceptions.StuckCommandException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
 import java.util.Map;
+import java.util.TreeMap;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
 
 /**
  * Per-id serialized work queue. Each id (a Discord game category name, in production) owns a
@@ -13,16 +24,97 @@ import java.util.concurrent.ConcurrentHashMap;
  * {@link #submitSync} exist to guarantee — callers must go through these methods rather than
  * building chains manually, otherwise one bad command can lock up an entire game until the
  * JVM restarts.
+ *
+ * Every submission is kept as an entry with the time it was queued and started until it
+ * completes, so the backlog of each id can be reported. A watchdog thread passes work that has
+ * been running longer than the stuck threshold to the stuck handler, once, with the stack of
+ * the thread running it, and drops ids that have been idle longer than the idle timeout.
  */
 public class Queue {
-    private static final Map<String, CompletableFuture<Void>> queue = new ConcurrentHashMap<>();
+    private static final Logger logger = LoggerFactory.getLogger(Queue.class);
+    private static final long CHECK_INTERVAL_SECONDS = 10;
+    private static final Map<String, IdQueue> queue = new ConcurrentHashMap<>();
+    private static volatile Duration stuckThreshold = Duration.ofMinutes(2);
+    private static volatile Duration idleTimeout = Duration.ofHours(1);
+    /**
+     * Logs a warning with the stack of the stuck work.
+     */
+    static final BiConsumer<String, StuckCommandException> DEFAULT_STUCK_HANDLER =
+            (id, stuck) -> logger.warn("Queue for {} is stuck", id, stuck);
+    private static volatile BiConsumer<String, StuckCommandException> stuckHandler = DEFAULT_STUCK_HANDLER;
 
-    public static CompletableFuture<Void> getFuture(String id) {
-        return queue.computeIfAbsent(id, _ -> CompletableFuture.completedFuture(null));
+    static {
+        ScheduledExecutorService watchdog = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "queue-watchdog");
+            thread.setDaemon(true);
+            return thread;
+        });
+        watchdog.scheduleWithFixedDelay(() -> {
+            try {
+                checkQueues();
+            } catch (Exception e) {
+                logger.error("Failed to check queues", e);
+            }
+        }, CHECK_INTERVAL_SECONDS, CHECK_INTERVAL_SECONDS, TimeUnit.SECONDS);
     }
 
-    public static void putFuture(String id, CompletableFuture<Void> future) {
-        queue.put(id, future);
+    /**
+     * The submissions of one id that have not completed, oldest first, and the end of its chain.
+     */
+    private static class IdQueue {
+        private final ConcurrentLinkedDeque<Entry> entries = new ConcurrentLinkedDeque<>();
+        private volatile CompletableFuture<Void> tail = CompletableFuture.completedFuture(null);
+        private volatile long lastActivityNanos = System.nanoTime();
+        private volatile long completed;
+
+        private synchronized void complete(Entry entry) {
+            entries.remove(entry);
+            completed++;
+            lastActivityNanos = System.nanoTime();
+        }
+    }
+
+    private static class Entry {
+        private final String description;
+        private final long queuedNanos = System.nanoTime();
+        private volatile long startedNanos;
+        private volatile Thread thread;
+        private volatile boolean flagged;
+
+        private Entry(String description) {
+            this.description = description;
+        }
+
+        private void run(Runnable work) {
+            startedNanos = System.nanoTime();
+            thread = Thread.currentThread();
+            try {
+                work.run();
+            } finally {
+                thread = null;
+            }
+        }
+
+        private boolean isRunning() {
+            return startedNanos != 0 && thread != null;
+        }
+    }
+
+    /**
+     * The work not yet completed for one id.
+     *
+     * @param waiting     The number of submissions that have not started.
+     * @param running     The description of the submission running, or null if none is.
+     * @param runningFor  How long the running submission has been running, or zero.
+     * @param longestWait How long the oldest submission that has not started has been waiting, or zero.
+     * @param completed   The number of submissions completed since the id was last idle long enough to be dropped.
+     */
+    public record Backlog(int waiting, String running, Duration runningFor, Duration longestWait, long completed) {
+    }
+
+    public static CompletableFuture<Void> getFuture(String id) {
+        IdQueue idQueue = queue.get(id);
+        return idQueue == null ? CompletableFuture.completedFuture(null) : idQueue.tail;
     }
 
     /**
@@ -33,14 +125,24 @@ public class Queue {
      * await completion; production callers may ignore it.
      */
     public static CompletableFuture<Void> submit(String id, Runnable work, Runnable... cleanups) {
-        CompletableFuture<Void> chain = getFuture(id)
+        return submit(id, "work", work, cleanups);
+    }
+
+    /**
+     * Same as {@link #submit(String, Runnable, Runnable...)}, with a description of the work for
+     * backlog reports and stuck warnings, such as the command it runs.
+     */
+    public static CompletableFuture<Void> submit(String id, String description, Runnable work, Runnable... cleanups) {
+        Entry entry = new Entry(description);
+        CompletableFuture<Void> tail = new CompletableFuture<>();
+        Enqueued enqueued = enqueue(id, entry, tail);
+        CompletableFuture<Void> chain = enqueued.previous()
                 .handleAsync((_, _) -> null)
-                .thenRunAsync(work);
+                .thenRunAsync(() -> entry.run(work));
         for (Runnable cleanup : cleanups) {
             chain = chain.whenCompleteAsync((_, _) -> cleanup.run());
         }
-        putFuture(id, chain);
-        return chain;
+        return complete(enqueued.idQueue(), entry, chain, tail);
     }
 
     /**
@@ -49,13 +151,132 @@ public class Queue {
      * Same self-healing + always-cleanup semantics as {@link #submit}.
      */
     public static CompletableFuture<Void> submitSync(String id, Runnable work, Runnable... cleanups) {
-        CompletableFuture<Void> chain = getFuture(id)
+        return submitSync(id, "work", work, cleanups);
+    }
+
+    /**
+     * Same as {@link #submitSync(String, Runnable, Runnable...)}, with a description of the work.
+     */
+    public static CompletableFuture<Void> submitSync(String id, String description, Runnable work, Runnable... cleanups) {
+        Entry entry = new Entry(description);
+        CompletableFuture<Void> tail = new CompletableFuture<>();
+        Enqueued enqueued = enqueue(id, entry, tail);
+        CompletableFuture<Void> chain = enqueued.previous()
                 .handle((_, _) -> null)
-                .thenRun(work);
+                .thenRun(() -> entry.run(work));
         for (Runnable cleanup : cleanups) {
             chain = chain.whenComplete((_, _) -> cleanup.run());
         }
-        putFuture(id, chain);
-        return chain;
+        return complete(enqueued.idQueue(), entry, chain, tail);
+    }
+
+    private record Enqueued(IdQueue idQueue, CompletableFuture<Void> previous) {
+    }
+
+    /**
+     * Adds the entry and makes tail the end of the id's chain, then returns the stage it runs after. The chain is
+     * built outside the map's lock, since synchronous work runs while it is built.
+     */
+    private static Enqueued enqueue(String id, Entry entry, CompletableFuture<Void> tail) {
+        Enqueued[] enqueued = new Enqueued[1];
+        queue.compute(id, (_, idQueue) -> {
+            if (idQueue == null) idQueue = new IdQueue();
+            idQueue.entries.add(entry);
+            enqueued[0] = new Enqueued(idQueue, idQueue.tail);
+            idQueue.tail = tail;
+            return idQueue;
+        });
+        return enqueued[0];
+    }
+
+    private static CompletableFuture<Void> complete(IdQueue idQueue, Entry entry, CompletableFuture<Void> chain, CompletableFuture<Void> tail) {
+        chain.whenComplete((_, e) -> {
+            idQueue.complete(entry);
+            if (e == null) tail.complete(null);
+            else tail.completeExceptionally(e);
+        });
+        return tail;
+    }
+
+    /**
+     * @return The backlog of every id with work that has not completed, by id.
+     */
+    public static Map<String, Backlog> getBacklogs() {
+        Map<String, Backlog> backlogs = new TreeMap<>();
+        long now = System.nanoTime();
+        queue.forEach((id, idQueue) -> {
+            int waiting = 0;
+            String running = null;
+            long runningFor = 0;
+            long longestWait = 0;
+            for (Entry entry : idQueue.entries) {
+                if (entry.isRunning()) {
+                    running = entry.description;
+                    runningFor = now - entry.startedNanos;
+                } else if (entry.startedNanos == 0) {
+                    waiting++;
+                    longestWait = Math.max(longestWait, now - entry.queuedNanos);
+                }
+            }
+            if (running != null || waiting > 0)
+                backlogs.put(id, new Backlog(waiting, running, Duration.ofNanos(runningFor), Duration.ofNanos(longestWait), idQueue.completed));
+        });
+        return backlogs;
+    }
+
+    /**
+     * Passes work running longer than the stuck threshold to the stuck handler, and drops ids that have been idle
+     * longer than the idle timeout. The watchdog thread calls this every few seconds.
+     */
+    static void checkQueues() {
+        long now = System.nanoTime();
+        long stuckNanos = stuckThreshold.toNanos();
+        long idleNanos = idleTimeout.toNanos();
+        for (Map.Entry<String, IdQueue> idEntry : queue.entrySet()) {
+            IdQueue idQueue = idEntry.getValue();
+            for (Entry entry : idQueue.entries) {
+                Thread thread = entry.thread;
+                if (thread == null || entry.flagged || now - entry.startedNanos < stuckNanos) continue;
+                entry.flagged = true;
+                String message = String.format("%s has been running for %d s with %d more waiting behind it",
+                        entry.description, Duration.ofNanos(now - entry.startedNanos).toSeconds(), idQueue.entries.size() - 1);
+                try {
+                    stuckHandler.accept(idEntry.getKey(), new StuckCommandException(message, thread.getStackTrace()));
+                } catch (Exception e) {
+                    logger.error("Failed to report stuck queue for {}", idEntry.getKey(), e);
+                }
+            }
+            queue.computeIfPresent(idEntry.getKey(), (_, q) ->
+                    q.entries.isEmpty() && q.tail.isDone() && now - q.lastActivityNanos >= idleNanos ? null : q);
+        }
+    }
+
+    /**
+     * @return The number of ids with a chain, including those idle but not yet dropped.
+     */
+    public static int size() {
+        return queue.size();
+    }
+
+    /**
+     * Sets how long work may run before it is reported as stuck.
+     */
+    public static void setStuckThreshold(Duration threshold) {
+        stuckThreshold = threshold;
+    }
+
+    /**
+     * Sets how long an id must have had no work before its chain is dropped.
+     */
+    public static void setIdleTimeout(Duration timeout) {
+        idleTimeout = timeout;
+    }
+
+    /**
+     * Sets what is done with work found running longer than the stuck threshold. It is given the id and an exception
+     * with the stack of the thread running the work. The default logs a warning.
+     */
+    public static void setStuckHandler(BiConsumer<String, StuckCommandException> handler) {
+        stuckHandler = handler;
     }
 }
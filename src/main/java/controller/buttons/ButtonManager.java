@@ -5,6 +5,7 @@ import controller.Queue;
 import controller.commands.ShowCommands;
 import exceptions.InvalidGameStateException;
 import controller.DiscordGame;
+import helpers.CommandMetrics;
 import helpers.ExceptionHandler;
 import helpers.MessageHelper;
 import model.Game;
@@ -90,24 +91,26 @@ public class ButtonManager extends ListenerAdapter {
         CommandCompletionGuard.incrementCommandCount();
         event.deferReply().queue();
 
+        long queuedNanos = System.nanoTime();
         if (runSynchronously) {
             // Run synchronously for tests
             try {
-                runButtonCommand(event);
+                runButtonCommand(event, queuedNanos);
             } finally {
                 buttonMessageIds.remove(messageId);
                 CommandCompletionGuard.decrementCommandCount();
             }
         } else {
             String categoryName = Objects.requireNonNull(DiscordGame.categoryFromEvent(event)).getName();
-            Queue.submit(categoryName,
-                    () -> runButtonCommand(event),
+            Queue.submit(categoryName, "button " + event.getComponentId() + " pressed by " + event.getUser().getName(),
+                    () -> runButtonCommand(event, queuedNanos),
                     () -> buttonMessageIds.remove(messageId),
                     CommandCompletionGuard::decrementCommandCount);
         }
     }
 
-    private void runButtonCommand(@NotNull ButtonInteractionEvent event) {
+    private void runButtonCommand(@NotNull ButtonInteractionEvent event, long queuedNanos) {
+        CommandMetrics.start("button " + event.getComponentId().split("-")[0], queuedNanos);
         try {
             DiscordGame discordGame = new DiscordGame(event);
             Game game = discordGame.getGame();
@@ -203,6 +206,8 @@ public class ButtonManager extends ListenerAdapter {
                     logger.error("Failed to report button exception to mod-info", reportFailure);
                 }
             }
+        } finally {
+            CommandMetrics.finish();
         }
     }
 
@@ -74,7 +74,7 @@ public class IxButtons implements Pressable {
         Territory from = faction.getTerritoryWithHMS();
 
         faction.getMovement().setMovingFrom(from.getTerritoryName());
-        Set<String> moveableTerritories = ShipmentAndMovementButtons.getAdjacentTerritoryNames(from.getTerritoryName().replaceAll("\\(.*\\)", "").strip(), 1, game)
+        Set<String> moveableTerritories = game.getMovementGraph().getTerritoryNamesWithin(from.getTerritoryName().replaceAll("\\(.*\\)", "").strip(), 1)
                 .stream().filter(t -> game.getTerritories().isNotStronghold(t)).collect(Collectors.toSet());
         TreeSet<DuneChoice> moveToChoices = new TreeSet<>(Comparator.comparing(DuneChoice::getLabel));
         moveableTerritories.stream().map(t -> new DuneChoice("ix-hms-move-" + t, t)).forEach(moveToChoices::add);
@@ -89,11 +89,9 @@ public class IxButtons implements Pressable {
         String hmsMoveString = "ix-hms-move-";
         String territoryName = event.getComponentId().replace(hmsMoveString, "").replace("-", " ");
         IxFaction faction = game.getIxFaction();
-        List<Territory> territory = game.getTerritories().values().stream()
+        List<Territory> territory = game.getTerritories().getTerritorySectorsInStormOrder(territoryName).stream()
                 .filter(t -> t.getSector() != game.getStorm())
-                .filter(t -> t.getTerritoryName().replaceAll("\\s*\\([^)]*\\)\\s*", "")
-                .equalsIgnoreCase(territoryName)
-        ).toList();
+                .toList();
 
         if (territory.size() == 1) {
             faction.getMovement().setMovingTo(territory.getFirst().getTerritoryName());
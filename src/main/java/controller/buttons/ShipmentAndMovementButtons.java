@@ -328,45 +328,16 @@ public class ShipmentAndMovementButtons implements Pressable {
         Territory from = game.getTerritory(event.getComponentId().replace("moving-from-", "").replace("ornithopter-", "").replace("token-", ""));
         String territoryName = from.getTerritoryName();
         faction.getMovement().setMovingFrom(territoryName);
-        int spacesCanMove = 1;
-        if (faction instanceof FremenFaction || (faction instanceof IxFaction && from.getForceStrength("Ix*") > 0))
-            spacesCanMove = 2;
-        if (faction.canUseOrnithopters(game, from, ornithopter))
-            spacesCanMove = 3;
-        if (!faction.getSkilledLeaders().isEmpty() && faction.getSkilledLeaders().getFirst().getSkillCard().name().equals("Planetologist") && spacesCanMove < 3)
-            spacesCanMove++;
-        Set<String> moveableTerritories;
-        if (territoryName.equals("Kaitain"))
-            moveableTerritories = Set.of("Salusa Secundus");
-        else if (territoryName.equals("Salusa Secundus"))
-            moveableTerritories = Set.of("Kaitain");
-        else
-            moveableTerritories = getAdjacentTerritoryNames(territoryName.replaceAll("\\(.*\\)", "").strip(), spacesCanMove, game);
         TreeSet<Button> moveToButtons = new TreeSet<>(Comparator.comparing(Button::getLabel));
-        moveableTerritories.stream().map(territory -> moveToTerritoryButton(game, faction, territory)).forEach(moveToButtons::add);
+        Reachability.getDestinations(game, faction, from, ornithopter).stream().map(ShipmentAndMovementButtons::moveToTerritoryButton).forEach(moveToButtons::add);
         arrangeButtonsAndSend("Where will your forces move to?", moveToButtons, discordGame);
         discordGame.pushGame();
     }
 
-    private static Button moveToTerritoryButton(Game game, Faction faction, String territoryName) {
-        String labelSuffix = "-" + territoryName;
-        Button button = Button.primary("move" + labelSuffix, territoryName);
-        List<Territory> sectors = game.getTerritories().values().stream().filter(s -> s.getTerritoryName().startsWith(territoryName)).toList();
-        return button.withDisabled(sectors.stream().anyMatch(s -> s.factionMayNotEnter(game, faction, false, false)));
-    }
-
-    public static Set<String> getAdjacentTerritoryNames(String territory, int spacesAway, Game game) {
-        if (spacesAway == 0) return new HashSet<>();
-
-        List<String> adjacency = game.getAdjacencyList().get(territory);
-        if (adjacency == null) return new HashSet<>();
-        Set<String> adjacentTerritories = new HashSet<>(adjacency);
-        Set<String> second = new HashSet<>();
-        for (String adjacentTerritory : adjacentTerritories) {
-            second.addAll(getAdjacentTerritoryNames(adjacentTerritory, spacesAway - 1, game));
-        }
-        adjacentTerritories.addAll(second);
-        return adjacentTerritories;
+    private static Button moveToTerritoryButton(Reachability.Destination destination) {
+        String labelSuffix = "-" + destination.territoryName();
+        Button button = Button.primary("move" + labelSuffix, destination.territoryName());
+        return button.withDisabled(destination.mayNotEnter());
     }
 
     private static void executeShipment(ButtonInteractionEvent event, Game game, DiscordGame discordGame, boolean karama) throws ChannelNotFoundException, InvalidGameStateException, IOException {
@@ -762,7 +733,7 @@ public class ShipmentAndMovementButtons implements Pressable {
                     if (!territory.hasForce(faction.getName()) && !territory.hasForce(faction.getName() + "*"))
                         continue;
 
-                    Set<String> territoriesInRange = getAdjacentTerritoryNames(territory.getTerritoryName().replaceAll("\\(.*\\)", "").strip(), spacesCanMove, game);
+                    Set<String> territoriesInRange = Reachability.getTerritoryNamesWithin(game, territory, spacesCanMove);
                     if (!territoriesInRange.contains(faction.getMovement().getMovingTo().replaceAll("\\(.*\\)", "").strip()))
                         continue;
 
@@ -833,11 +804,7 @@ public class ShipmentAndMovementButtons implements Pressable {
                 .replace("starting-forces-", "")
                 .replace("hms-placement-", "")
                 .replace("-", " ");
-        List<Territory> territory = new ArrayList<>(game.getTerritories().values().stream().filter(t -> t.getTerritoryName().replaceAll("\\s*\\([^)]*\\)\\s*", "").equalsIgnoreCase(aggregateTerritoryName)).toList());
-        territory.sort(Comparator.comparingInt(Territory::getSector));
-        if (aggregateTerritoryName.equals("Cielago North") || aggregateTerritoryName.equals("Cielago Depression") || aggregateTerritoryName.equals("Meridian")) {
-            territory.addFirst(territory.removeLast());
-        }
+        List<Territory> territory = game.getTerritories().getTerritorySectorsInStormOrder(aggregateTerritoryName);
 
         if (territory.size() == 1) {
             if (shaiHuludPlacement || greatMakerPlacement) {
@@ -18,6 +18,7 @@ import net.dv8tion.jda.api.utils.messages.MessageCreateBuilder;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 public class DiscordChannel implements DuneTopic {
     final DiscordGame discordGame;
@@ -59,7 +60,7 @@ public class DiscordChannel implements DuneTopic {
     }
 
     public void showMap(Game game) throws IOException {
-        queueMessage(ShowCommands.drawGameBoard(discordGame, game));
+        queueMessage(ShowCommands.drawGameBoardAsync(discordGame, game, false));
         game.setUpdated(UpdateType.MAP);
     }
 
@@ -91,26 +92,35 @@ public class DiscordChannel implements DuneTopic {
     }
 
     public void queueMessage(String message) {
-        discordGame.queueMessage(messageChannel.sendMessage(message));
+        discordGame.queueMessage(messageChannel, messageChannel.sendMessage(message));
     }
 
     public void queueMessage(String message, List<Button> buttons) {
         MessageCreateBuilder messageCreateBuilder = arrangeButtons(message, buttons);
-        discordGame.queueMessage(messageChannel.sendMessage(messageCreateBuilder.build()));
+        discordGame.queueMessage(messageChannel, messageChannel.sendMessage(messageCreateBuilder.build()));
     }
 
     public void queueMessage(MessageCreateBuilder messageCreateBuilder) {
-        discordGame.queueMessage(messageChannel.sendMessage(messageCreateBuilder.build()));
+        discordGame.queueMessage(messageChannel, messageChannel.sendMessage(messageCreateBuilder.build()));
     }
 
     public void queueMessage(String message, FileUpload fileUpload) {
-        discordGame.queueMessage(messageChannel.sendMessage(message).addFiles(fileUpload));
+        discordGame.queueMessage(messageChannel, messageChannel.sendMessage(message).addFiles(fileUpload));
     }
 
     public void queueMessage(FileUpload fileUpload) {
         MessageCreateBuilder messageCreateBuilder = new MessageCreateBuilder()
                 .addFiles(fileUpload);
-        discordGame.queueMessage(messageChannel.sendMessage(messageCreateBuilder.build()));
+        discordGame.queueMessage(messageChannel, messageChannel.sendMessage(messageCreateBuilder.build()));
+    }
+
+    /**
+     * Queues a message with a file that is still being drawn. Only later messages to this channel wait for the file.
+     *
+     * @param fileUpload The file once it is drawn.
+     */
+    public void queueMessage(CompletableFuture<FileUpload> fileUpload) {
+        discordGame.queueMessage(messageChannel, fileUpload.thenApply(file -> new MessageCreateBuilder().addFiles(file).build()), null);
     }
 
     public void queueReplyMessage(String message) {
@@ -11,6 +11,7 @@ import enums.GameOption;
 import enums.UpdateType;
 import exceptions.ChannelNotFoundException;
 import exceptions.InvalidGameStateException;
+import helpers.CommandMetrics;
 import helpers.ExceptionHandler;
 import model.*;
 import model.factions.*;
@@ -223,14 +224,15 @@ public class CommandManager extends ListenerAdapter {
                 // Incrementing count again because it will be decremented when the future is resolved.
                 CommandCompletionGuard.incrementCommandCount();
 
+                long queuedNanos = System.nanoTime();
                 if (runSynchronously) {
                     // Synchronous execution in test mode to avoid thread-local mock issues.
-                    Queue.submitSync(categoryName,
-                            () -> runGameCommand(event),
+                    Queue.submitSync(categoryName, event.getCommandString(),
+                            () -> runGameCommand(event, queuedNanos),
                             CommandCompletionGuard::decrementCommandCount);
                 } else {
-                    Queue.submit(categoryName,
-                            () -> runGameCommand(event),
+                    Queue.submit(categoryName, event.getCommandString(),
+                            () -> runGameCommand(event, queuedNanos),
                             CommandCompletionGuard::decrementCommandCount);
                 }
             }
@@ -250,9 +252,10 @@ public class CommandManager extends ListenerAdapter {
         }
     }
 
-    private void runGameCommand(@NotNull SlashCommandInteractionEvent event) {
+    private void runGameCommand(@NotNull SlashCommandInteractionEvent event, long queuedNanos) {
         String ephemeralMessage = "";
 
+        CommandMetrics.start("/" + event.getFullCommandName(), queuedNanos);
         try {
             Member member = event.getMember();
             String name = event.getName();
@@ -361,6 +364,8 @@ public class CommandManager extends ListenerAdapter {
                     logger.error("Failed to report game command exception to mod-info", reportFailure);
                 }
             }
+        } finally {
+            CommandMetrics.finish();
         }
     }
 
@@ -382,7 +387,7 @@ public class CommandManager extends ListenerAdapter {
         DiscordGame discordGame = new DiscordGame(event);
 
         try {
-            Game game = discordGame.getGame();
+            Game game = discordGame.getReadOnlyGame();
             event.replyChoices(CommandOptions.getCommandChoices(event, discordGame, game)).queue();
         } catch (ChannelNotFoundException e) {
             logger.error("Command autocomplete failed: channel not found", e);
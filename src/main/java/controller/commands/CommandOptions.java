@@ -1,7 +1,6 @@
 package controller.commands;
 
 import controller.DiscordGame;
-import controller.buttons.ShipmentAndMovementButtons;
 import enums.GameOption;
 import exceptions.ChannelNotFoundException;
 import exceptions.InvalidGameStateException;
@@ -202,6 +201,13 @@ public class CommandOptions {
             new OptionData(OptionType.STRING, "choam-inflation-type", "Type of CHOAM inflation.", true)
                     .addChoice("Double", "DOUBLE")
                     .addChoice("Cancel", "CANCEL");
+    public static final OptionData gameStateFormat =
+            new OptionData(OptionType.STRING, "format", "File format for saved game states.", true)
+                    .addChoice("JSON", "JSON")
+                    .addChoice("Binary", "BINARY");
+    public static final OptionData journalCheckpointInterval =
+            new OptionData(OptionType.INTEGER, "checkpoint-interval", "Commands between full game states, or 0 to always save the full game state.", true)
+                    .setRequiredRange(0, 100);
 
     private static OptionData waitingListOptionData(String name, String description) {
         return new OptionData(OptionType.STRING, name, description, true)
@@ -402,15 +408,13 @@ public class CommandOptions {
                     .limit(25)
                     .collect(Collectors.toList());
 
-        Set<String> moveableTerritories = ShipmentAndMovementButtons.getAdjacentTerritoryNames("Hidden Mobile Stronghold", 3, game)
+        Set<String> moveableTerritories = game.getMovementGraph().getTerritoryNamesWithin("Hidden Mobile Stronghold", 3)
                 .stream().filter(t -> game.getTerritories().isNotStronghold(t)).collect(Collectors.toSet());
         List<Territory> territories = new ArrayList<>();
         for (String territoryName : moveableTerritories) {
-            territories.addAll(game.getTerritories().values().stream()
+            territories.addAll(game.getTerritories().getTerritorySectorsInStormOrder(territoryName).stream()
                     .filter(t -> t.getSector() != game.getStorm())
-                    .filter(t -> t.getTerritoryName().replaceAll("\\s*\\([^)]*\\)\\s*", "")
-                            .equalsIgnoreCase(territoryName)
-                    ).toList());
+                    .toList());
         }
 
         returnlist.addAll(territories.stream()
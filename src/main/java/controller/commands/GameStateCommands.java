@@ -1,9 +1,9 @@
 package controller.commands;
 
-import caches.GameCache;
 import controller.channels.DiscordChannel;
 import exceptions.ChannelNotFoundException;
 import controller.DiscordGame;
+import enums.GameStateFormat;
 import model.Game;
 import net.dv8tion.jda.api.entities.Message;
 import net.dv8tion.jda.api.entities.channel.middleman.MessageChannel;
@@ -16,11 +16,8 @@ import net.dv8tion.jda.api.requests.restaction.MessageCreateAction;
 import net.dv8tion.jda.api.utils.FileUpload;
 import net.dv8tion.jda.api.utils.messages.MessageCreateBuilder;
 
-import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ExecutionException;
 
 public class GameStateCommands {
     public static List<CommandData> getCommands() {
@@ -38,14 +35,22 @@ public class GameStateCommands {
                         new SubcommandData(
                                 "create-button",
                                 "Create a button"
-                        ).addOptions(CommandOptions.buttonId, CommandOptions.buttonName)
+                        ).addOptions(CommandOptions.buttonId, CommandOptions.buttonName),
+                        new SubcommandData(
+                                "save-format",
+                                "Choose the file format for saved game states"
+                        ).addOptions(CommandOptions.gameStateFormat),
+                        new SubcommandData(
+                                "journal",
+                                "Save only the changes made by each command, with a full game state every few commands"
+                        ).addOptions(CommandOptions.journalCheckpointInterval)
                 )
         );
 
         return commandData;
     }
 
-    public static void runCommand(SlashCommandInteractionEvent event, DiscordGame discordGame, Game game) throws ChannelNotFoundException, ExecutionException, InterruptedException {
+    public static void runCommand(SlashCommandInteractionEvent event, DiscordGame discordGame, Game game) throws ChannelNotFoundException {
         String name = event.getSubcommandName();
         if (name == null) throw new IllegalArgumentException("Invalid command name: null");
 
@@ -54,10 +59,12 @@ public class GameStateCommands {
             case "rewind" -> rewind(discordGame);
             case "refresh" -> refresh(discordGame);
             case "create-button" -> createButton(event, discordGame);
+            case "save-format" -> saveFormat(discordGame, game);
+            case "journal" -> journal(discordGame, game);
         }
     }
 
-    public static void rewind(DiscordGame discordGame) throws ChannelNotFoundException, ExecutionException, InterruptedException {
+    public static void rewind(DiscordGame discordGame) throws ChannelNotFoundException {
         MessageChannel botDataChannel = discordGame.getTextChannel("bot-data");
         String messageId = discordGame.required(CommandOptions.gameState).getAsString();
         Message message = botDataChannel.retrieveMessageById(messageId).complete();
@@ -66,10 +73,9 @@ public class GameStateCommands {
 
         if (attachments.isEmpty()) throw new IllegalArgumentException("No state found");
 
-        Message.Attachment attachment = attachments.getFirst();
-        CompletableFuture<InputStream> future = attachment.getProxy().download();
-        InputStream inputStream = future.get();
-        FileUpload fileUpload = FileUpload.fromData(inputStream, "gamestate.json");
+        byte[] gameState = discordGame.loadGameState(message);
+        String fileName = DiscordGame.isJournalEntry(message) ? "gamestate.json" : attachments.getFirst().getFileName();
+        FileUpload fileUpload = FileUpload.fromData(gameState, fileName);
         MessageCreateBuilder messageCreateBuilder = new MessageCreateBuilder();
         messageCreateBuilder.setContent("Rewind to previous state");
         messageCreateBuilder.addFiles(fileUpload);
@@ -78,13 +84,28 @@ public class GameStateCommands {
                 .sendMessage(messageCreateBuilder.build())
                 .setMessageReference(message.getId());
 
-        discordGame.queueMessage(messageCreateAction);
-        GameCache.clearGameJson(discordGame.getGameCategory().getName());
+        discordGame.pushGameState(gameState, messageCreateAction);
     }
 
     public static void refresh(DiscordGame discordGame) {
-        String gameName = discordGame.getGameCategory().getName();
-        GameCache.clearGameJson(gameName);
+        discordGame.clearSavedGameState();
+    }
+
+    public static void saveFormat(DiscordGame discordGame, Game game) throws ChannelNotFoundException {
+        GameStateFormat gameStateFormat = GameStateFormat.valueOf(discordGame.required(CommandOptions.gameStateFormat).getAsString());
+        game.setGameStateFormat(gameStateFormat);
+        discordGame.getModInfo().queueMessage("Game states will be saved as " + gameStateFormat + ".");
+        discordGame.pushGame();
+    }
+
+    public static void journal(DiscordGame discordGame, Game game) throws ChannelNotFoundException {
+        int checkpointInterval = discordGame.required(CommandOptions.journalCheckpointInterval).getAsInt();
+        game.setJournalCheckpointInterval(checkpointInterval);
+        if (checkpointInterval == 0)
+            discordGame.getModInfo().queueMessage("Every command will save a full game state.");
+        else
+            discordGame.getModInfo().queueMessage("A full game state will be saved every " + checkpointInterval + " commands and at every phase change.");
+        discordGame.pushGame();
     }
 
     public static void createButton(SlashCommandInteractionEvent event, DiscordGame discordGame) {
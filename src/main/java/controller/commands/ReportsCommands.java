@@ -4,9 +4,10 @@ import caches.EmojiCache;
 import com.google.gson.*;
 import constants.Emojis;
 import controller.DiscordGame;
+import controller.Queue;
 import exceptions.ChannelNotFoundException;
 import exceptions.InvalidGameStateException;
-import helpers.Exclude;
+import helpers.CommandMetrics;
 import helpers.GameResult;
 import model.Bidding;
 import model.Game;
@@ -73,7 +74,9 @@ public class ReportsCommands {
                 new SubcommandData("faction-masters", "Top players for a given faction").addOptions(allFactions),
                 new SubcommandData("most-player-alliance-wins", "Which players have won as allies the most?"),
                 new SubcommandData("longest-games", "The 10 longest games and the tortured mod."),
-                new SubcommandData("fastest-games", "The 20 fastest games by days per turn.")
+                new SubcommandData("fastest-games", "The 20 fastest games by days per turn."),
+                new SubcommandData("metrics", "Show how long each command and button takes, for moderators."),
+                new SubcommandData("queues", "Show games with commands waiting or running, for moderators.")
         ));
 
         return commandData;
@@ -83,6 +86,9 @@ public class ReportsCommands {
         String name = event.getSubcommandName();
         if (name == null) throw new IllegalArgumentException("Invalid command name: null");
 
+        if (name.equals("metrics")) return metrics(event);
+        if (name.equals("queues")) return queues(event);
+
         String responseMessage = "";
         GRList grList = gatherGameResults(event.getGuild()).grList;
         switch (name) {
@@ -109,6 +115,38 @@ public class ReportsCommands {
         return responseMessage;
     }
 
+    private static String metrics(SlashCommandInteractionEvent event) {
+        if (!isModerator(event)) return "You do not have permission to use this command.";
+        return CommandMetrics.report(2000);
+    }
+
+    private static String queues(SlashCommandInteractionEvent event) {
+        if (!isModerator(event)) return "You do not have permission to use this command.";
+        Map<String, Queue.Backlog> backlogs = Queue.getBacklogs();
+        if (backlogs.isEmpty()) return "No games have commands waiting or running.";
+        StringBuilder report = new StringBuilder("```\n");
+        report.append(String.format("%-20s %7s %9s %9s  %s%n", "game", "waiting", "longest", "running", "command"));
+        int shown = 0;
+        for (Map.Entry<String, Queue.Backlog> entry : backlogs.entrySet()) {
+            Queue.Backlog backlog = entry.getValue();
+            String line = String.format("%-20s %7d %8ds %8ds  %s%n", StringUtils.abbreviate(entry.getKey(), 20), backlog.waiting(),
+                    backlog.longestWait().toSeconds(), backlog.runningFor().toSeconds(),
+                    backlog.running() == null ? "-" : StringUtils.abbreviate(backlog.running(), 60));
+            if (report.length() + line.length() + 24 > 2000) {
+                report.append("... ").append(backlogs.size() - shown).append(" more\n");
+                break;
+            }
+            report.append(line);
+            shown++;
+        }
+        return report.append("```").toString();
+    }
+
+    private static boolean isModerator(SlashCommandInteractionEvent event) {
+        Member member = event.getMember();
+        return member != null && member.getRoles().stream().anyMatch(role -> role.getName().equals("Moderators"));
+    }
+
     private static class PlayerGame {
         String player;
         List<String> games;
@@ -1393,21 +1431,7 @@ public class ReportsCommands {
         TextChannel playerStatsChannel = category.getTextChannels().stream().filter(c -> c.getName().equalsIgnoreCase("player-stats")).findFirst().orElseThrow(() -> new IllegalStateException("The player-stats channel was not found."));
         ThreadChannel parsedResults = playerStatsChannel.getThreadChannels().stream().filter(c -> c.getName().equalsIgnoreCase("parsed-results")).findFirst().orElseThrow(() -> new IllegalStateException("The parsed-results thread was not found."));
 
-        ExclusionStrategy strategy = new ExclusionStrategy() {
-            @Override
-            public boolean shouldSkipClass(Class<?> clazz) {
-                return false;
-            }
-
-            @Override
-            public boolean shouldSkipField(FieldAttributes field) {
-                return field.getAnnotation(Exclude.class) != null;
-            }
-        };
-
-        Gson gson = new GsonBuilder()
-                .addSerializationExclusionStrategy(strategy)
-                .create();
+        Gson gson = DiscordGame.getGsonSerializer();
         FileUpload jsonFileUpload = FileUpload.fromData(
                 gson.toJson(grList).getBytes(StandardCharsets.UTF_8), "dune-by-discord-results.json"
         );
@@ -1536,7 +1560,7 @@ public class ReportsCommands {
                 jsonResults = jsonResults.replace("victoryType\":\"g", "victoryType\":\"G");
             }
         }
-        Gson gson = DiscordGame.createGsonDeserializer();
+        Gson gson = DiscordGame.getGsonDeserializer();
         GRList grList;
         if (!jsonResults.contains("{\"gameResults\":"))
             grList = gson.fromJson("{\"gameResults\":" + jsonResults + "}", GRList.class);
@@ -2244,14 +2268,14 @@ public class ReportsCommands {
 
             for (Message message : messages) {
                 CompletableFuture<InputStream> future = message.getAttachments().getFirst().getProxy().download();
-                String botData = new String(future.get().readAllBytes(), StandardCharsets.UTF_8);
+                byte[] botData = future.get().readAllBytes();
                 future.get().close();
 
                 String messageTimestamp = message.getTimeCreated().toString();
                 String messageText = message.getContentRaw();
                 String user = message.getAuthor().getName();
 
-                String botDataBase64 = Base64.getEncoder().encodeToString(botData.getBytes());
+                String botDataBase64 = Base64.getEncoder().encodeToString(botData);
 
                 JsonObject jsonObject = new JsonObject();
                 jsonObject.addProperty("user", user);
@@ -442,7 +442,7 @@ public class SetupCommands {
         faction = new HomebrewFaction(factionName, playerName, userName);
         game.addFaction(faction);
         String jsonResults = loadJsonString(discordGame, factionName);
-        Gson gson = DiscordGame.createGsonDeserializer();
+        Gson gson = DiscordGame.getGsonDeserializer();
         HomebrewFaction.FactionSpecs specs;
         specs = gson.fromJson(jsonResults, HomebrewFaction.FactionSpecs.class);
         faction.initalizeFromSpecs(specs);
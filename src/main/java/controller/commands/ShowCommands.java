@@ -1,6 +1,11 @@
 package controller.commands;
 
+import caches.BoardImageCache;
+import caches.BoardPngCache;
 import caches.EmojiCache;
+import caches.FrontOfShieldCache;
+import caches.ImageDownloadCache;
+import com.google.gson.JsonElement;
 import constants.Emojis;
 import controller.DiscordGame;
 import enums.ChoamInflationType;
@@ -8,6 +13,10 @@ import enums.GameOption;
 import enums.UpdateType;
 import exceptions.ChannelNotFoundException;
 import exceptions.InvalidGameStateException;
+import helpers.CommandMetrics;
+import helpers.DiscordRequestDispatcher;
+import helpers.PngEncoder;
+import helpers.RenderExecutor;
 import model.*;
 import model.factions.*;
 import net.dv8tion.jda.api.EmbedBuilder;
@@ -27,24 +36,23 @@ import net.dv8tion.jda.api.components.buttons.Button;
 import net.dv8tion.jda.api.components.selections.StringSelectMenu;
 import net.dv8tion.jda.api.utils.FileUpload;
 import net.dv8tion.jda.api.utils.messages.MessageCreateBuilder;
+import net.dv8tion.jda.api.utils.messages.MessageCreateData;
+import net.dv8tion.jda.api.utils.messages.MessageEditBuilder;
+import net.dv8tion.jda.api.utils.messages.MessageEditData;
 import net.dv8tion.jda.internal.utils.tuple.ImmutablePair;
 import net.dv8tion.jda.internal.utils.tuple.Pair;
-import org.apache.commons.csv.CSVFormat;
-import org.apache.commons.csv.CSVParser;
-import org.apache.commons.csv.CSVRecord;
 import utils.CardImages;
 import view.factions.FactionView;
 
 import javax.imageio.ImageIO;
 import java.awt.*;
-import java.awt.geom.AffineTransform;
 import java.awt.image.BufferedImage;
 import java.io.*;
-import java.net.URI;
-import java.net.URISyntaxException;
 import java.net.URL;
 import java.util.List;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 import static controller.commands.CommandOptions.faction;
@@ -78,7 +86,7 @@ public class ShowCommands {
 
     public static void showBoard(DiscordGame discordGame, Game game) throws ChannelNotFoundException, IOException {
         if (game.getMute()) return;
-        discordGame.getTurnSummary().queueMessage(drawGameBoard(discordGame, game));
+        discordGame.getTurnSummary().queueMessage(drawGameBoardAsync(discordGame, game, false));
         game.setUpdated(UpdateType.MAP);
     }
     public static void showFactionInfoHandler(DiscordGame discordGame) throws ChannelNotFoundException, IOException, InvalidGameStateException {
@@ -91,10 +99,10 @@ public class ShowCommands {
         else writeFactionInfo(discordGame, factionName);
     }
 
-    private static BufferedImage getSigilImage(Faction faction) throws IOException {
+    private static String getSigilName(Faction faction) {
         if (faction instanceof HomebrewFaction hbFaction)
-            return getResourceImage(hbFaction.getFactionProxy() + " Sigil");
-        return getResourceImage(faction.getName() + " Sigil");
+            return hbFaction.getFactionProxy() + " Sigil";
+        return faction.getName() + " Sigil";
     }
 
     private static BufferedImage getHomeworldImage(DiscordGame discordGame, Faction faction) throws IOException {
@@ -102,9 +110,9 @@ public class ShowCommands {
             String imageUrl = getHomebrewFactionImageUrlFromHomebrewChannel(discordGame, faction.getName().toLowerCase(), "homeworld", faction.getHomeworld());
             if (imageUrl != null) {
                 try {
-                    InputStream is = new URI(imageUrl).toURL().openStream();
+                    InputStream is = new ByteArrayInputStream(ImageDownloadCache.get(imageUrl));
                     BufferedImage bi = ImageIO.read(is);
-                    bi = resize(bi, 1024, 1024);
+                    bi = BoardImageCache.resize(bi, 1024, 1024);
                     return bi;
                 } catch (Exception ignored) {}
             }
@@ -114,10 +122,7 @@ public class ShowCommands {
     }
 
     private static BufferedImage getResourceImage(String name) throws IOException {
-        URL file = ShowCommands.class.getClassLoader().getResource("Board Components/" + name + ".png");
-        if (file == null) file = ShowCommands.class.getClassLoader().getResource("Board Components/" + name + ".jpg");
-        assert file != null;
-        return ImageIO.read(file);
+        return BoardImageCache.getImage(name);
     }
 
     private static FileUpload getResourceFile(String name) throws IOException {
@@ -138,11 +143,8 @@ public class ShowCommands {
             if (!channels.isEmpty()) {
                 TextChannel homebrewResources = channels.getFirst();
                 List<ThreadChannel> threadChannels = homebrewResources.getThreadChannels().stream().filter(t -> t.getName().equals(imageType)).toList();
-                if (!threadChannels.isEmpty()) {
-                    Optional<Message> optMsg = threadChannels.getFirst().getIterableHistory().stream().filter(m -> m.getContentRaw().equals(name)).findFirst();
-                    if (optMsg.isPresent())
-                        return optMsg.get().getAttachments().getFirst().getUrl();
-                }
+                if (!threadChannels.isEmpty())
+                    return CardImages.getHomebrewAttachment(threadChannels.getFirst(), name).map(Message.Attachment::getUrl).orElse(null);
             }
         }
         return null;
@@ -158,10 +160,10 @@ public class ShowCommands {
                 String imageUrl = getHomebrewFactionImageUrlFromHomebrewChannel(discordGame, leader.getOriginalFactionName().toLowerCase(), "leaders", leader.getName());
                 if (imageUrl != null) {
                     try {
-                        InputStream is = new URI(imageUrl).toURL().openStream();
+                        InputStream is = new ByteArrayInputStream(ImageDownloadCache.get(imageUrl));
                         leaderImage = ImageIO.read(is);
                         leadersAndImages.add(new ImmutablePair<>(leader, leaderImage));
-                    } catch (URISyntaxException e) {
+                    } catch (IOException e) {
                         leadersAndImages.add(new ImmutablePair<>(leader, null));
                     }
                 } else {
@@ -175,23 +177,93 @@ public class ShowCommands {
         return leadersAndImages;
     }
 
+    /**
+     * What the faction info image could not show, found while drawing it, to be written as text after it.
+     */
+    private static class FactionInfoText {
+        private boolean nexusCardMissing;
+        private final List<String> unplacedLeaders = new ArrayList<>();
+        private final List<String> homebrewTraitors = new ArrayList<>();
+    }
+
+    /**
+     * Replaces the messages in a faction's info channel with an image of what is behind their shield. The image is
+     * drawn on the {@link RenderExecutor} from a copy of the game, and the old messages are read and deleted when the
+     * new ones are sent, so the command waits only for the copy. Later messages to the info channel wait for the image.
+     */
     public static void drawFactionInfo(DiscordGame discordGame, Game game, String factionName) throws IOException, ChannelNotFoundException, InvalidGameStateException {
         if (game.getMute()) return;
 
         Faction faction = game.getFaction(factionName);
 
-        MessageChannel infoChannel = discordGame.getTextChannel(faction.getInfoChannelPrefix() + "-info");
-        MessageHistory messageHistory = MessageHistory.getHistoryFromBeginning(infoChannel).complete();
+        String infoChannelName = faction.getInfoChannelPrefix() + "-info";
+        MessageChannel infoChannel = discordGame.getTextChannel(infoChannelName);
+        discordGame.queueDeleteHistory(infoChannel, 50);
+
+        JsonElement snapshot = DiscordGame.getGsonSerializer().toJsonTree(game);
+        FactionInfoText text = new FactionInfoText();
+        CompletableFuture<byte[]> image = RenderExecutor.render(null, () -> {
+            Game copy = DiscordGame.decodeGameState(snapshot);
+            return drawFactionInfoPng(discordGame, copy, copy.getFaction(factionName), text);
+        });
+        CompletableFuture<FactionInfoText> drawn = image.thenApply(_ -> text);
+
+        discordGame.queueMessage(infoChannel, image.thenApply(png -> new MessageCreateBuilder().setContent("Faction Info")
+                .addFiles(FileUpload.fromData(png, "behind shield.png")).build()), null);
+        String nexusCard = faction.getNexusCard() == null ? null : faction.getNexusCard().name();
+        discordGame.queueMessage(infoChannel, drawn.thenApply(drawnText -> drawnText.nexusCardMissing
+                ? infoText("__Nexus Card:__\n" + Emojis.NEXUS + nexusCard) : null), null);
+        discordGame.queueMessage(infoChannel, drawn.thenApply(drawnText -> drawnText.unplacedLeaders.isEmpty() ? null
+                : infoText("__Leaders:__\n" + String.join("\n", drawnText.unplacedLeaders))), null);
+
+        List<Leader> capturedSkilledLeaders = faction.getLeaders().stream()
+                .filter(leader -> !leader.getOriginalFactionName().equals(faction.getName()) && leader.getSkillCard() != null)
+                .toList();
+        MessageCreateBuilder builder = new MessageCreateBuilder();
+        if (!capturedSkilledLeaders.isEmpty()) {
+            for (Leader leader : capturedSkilledLeaders) {
+                FactionView fv = new FactionView(discordGame, discordGame.getGame().getFaction(leader.getOriginalFactionName()));
+                builder.addEmbeds(fv.getLeaderSkillEmbed(game, leader));
+            }
+            discordGame.queueMessage(infoChannelName, builder.build());
+        }
 
-        List<Message> messages = messageHistory.getRetrievedHistory();
+        discordGame.queueMessage(infoChannel, drawn.thenApply(drawnText -> drawnText.homebrewTraitors.isEmpty() ? null
+                : infoText("__Traitors:__\n" + String.join("\n", drawnText.homebrewTraitors))), null);
+        String leadersInTerritories = faction.getLeaders().stream()
+                .filter(leader -> leader.getBattleTerritoryName() != null)
+                .map(leader -> leader.getName() + " is in " + leader.getBattleTerritoryName() + "\n")
+                .collect(Collectors.joining());
+        if (!leadersInTerritories.isEmpty())
+            discordGame.queueMessage(infoChannelName, leadersInTerritories);
+        if (faction instanceof MoritaniFaction moritani)
+            discordGame.queueMessage(infoChannelName, moritani.getTerrorTokenMessage(true));
+        else if (faction instanceof RicheseFaction richese)
+            writeRicheseCardCache(discordGame, infoChannelName, richese);
+        else if (faction instanceof BTFaction)
+            writeFaceDownLeaders(discordGame, game, infoChannelName);
 
-        messages.forEach(discordGame::queueDeleteMessage);
+        sendInfoButtons(game, discordGame, faction);
+    }
+
+    private static MessageCreateData infoText(String text) {
+        return new MessageCreateBuilder().setContent(EmojiCache.tagEmojis(text)).build();
+    }
 
+    /**
+     * Draws what is behind a faction's shield.
+     *
+     * @param game    A copy of the game that the command does not change.
+     * @param faction The faction in the copy.
+     * @param text    Collects what the image could not show.
+     * @return The image as a png.
+     */
+    private static byte[] drawFactionInfoPng(DiscordGame discordGame, Game game, Faction faction, FactionInfoText text) throws IOException {
         BufferedImage table = getHomeworldImage(discordGame, faction);
         if (faction instanceof EmperorFaction emperorFaction) {
             table = getResourceImage(emperorFaction.getSecondHomeworld());
         }
-        table = resize(table, 5000, 5000);
+        table = BoardImageCache.resize(table, 5000, 5000);
 
         //Place reserves
         int reserves = faction.getReservesStrength();
@@ -199,12 +271,12 @@ public class ShowCommands {
 
         if (reserves > 0) {
             BufferedImage reservesImage = buildForceImage(game, new Force(faction.getName(), reserves));
-            reservesImage = resize(reservesImage, 353, 218);
+            reservesImage = BoardImageCache.resize(reservesImage, 353, 218);
             table = overlay(table, reservesImage, new Point(300, 200), 1);
         }
         if (specialReserves > 0) {
             BufferedImage specialReservesImage = buildForceImage(game, new Force(faction.getName() + "*", specialReserves));
-            specialReservesImage = resize(specialReservesImage, 353, 218);
+            specialReservesImage = BoardImageCache.resize(specialReservesImage, 353, 218);
             table = overlay(table, specialReservesImage, new Point(300, 375), 1);
         }
 
@@ -215,25 +287,25 @@ public class ShowCommands {
         while (spice != 0) {
             if (spice >= 10) {
                 BufferedImage spiceImage = getResourceImage("10 Spice");
-                spiceImage = resize(spiceImage, 200, 200);
+                spiceImage = BoardImageCache.resize(spiceImage, 200, 200);
                 Point spicePlacementOffset = new Point(spicePlacement.x + offset, spicePlacement.y);
                 table = overlay(table, spiceImage, spicePlacementOffset, 1);
                 spice -= 10;
             } else if (spice == 5) {
                 BufferedImage spiceImage = getResourceImage("5 Spice");
-                spiceImage = resize(spiceImage, 200, 200);
+                spiceImage = BoardImageCache.resize(spiceImage, 200, 200);
                 Point spicePlacementOffset = new Point(spicePlacement.x + offset, spicePlacement.y);
                 table = overlay(table, spiceImage, spicePlacementOffset, 1);
                 spice -= 5;
             } else if (spice >= 2) {
                 BufferedImage spiceImage = getResourceImage("2 Spice");
-                spiceImage = resize(spiceImage, 200, 200);
+                spiceImage = BoardImageCache.resize(spiceImage, 200, 200);
                 Point spicePlacementOffset = new Point(spicePlacement.x + offset, spicePlacement.y);
                 table = overlay(table, spiceImage, spicePlacementOffset, 1);
                 spice -= 2;
             } else {
                 BufferedImage spiceImage = getResourceImage("1 Spice");
-                spiceImage = resize(spiceImage, 200, 200);
+                spiceImage = BoardImageCache.resize(spiceImage, 200, 200);
                 Point spicePlacementOffset = new Point(spicePlacement.x + offset, spicePlacement.y);
                 table = overlay(table, spiceImage, spicePlacementOffset, 1);
                 spice -= 1;
@@ -244,31 +316,24 @@ public class ShowCommands {
         //Place Ornithopter token
         if (faction.hasOrnithoperToken()) {
             BufferedImage ornithopterImage = getResourceImage("Ornithopter");
-            ornithopterImage = resize(ornithopterImage, 250, 250);
+            ornithopterImage = BoardImageCache.resize(ornithopterImage, 250, 250);
             table = overlay(table, ornithopterImage, new Point(1200 + offset, 200), 1);
         }
 
         //Place leaders
-        StringBuilder leadersInTerritories = new StringBuilder();
         int numLeaders = faction.getLeaders().size();
         offset = (numLeaders - 1) * 450;
-        List<Leader> unplacedLeaders = new ArrayList<>();
-        List<Leader> capturedSkilledLeaders = new ArrayList<>();
         for (Pair<Leader, BufferedImage> leaderAndImage : getLeaderImagesForGraphicMode(discordGame, faction)) {
             Leader leader = leaderAndImage.getLeft();
-            if (!leader.getOriginalFactionName().equals(faction.getName()) && leader.getSkillCard() != null)
-                capturedSkilledLeaders.add(leader);
-            if (leader.getBattleTerritoryName() != null)
-                leadersInTerritories.append(leader.getName()).append(" is in ").append(leader.getBattleTerritoryName()).append("\n");
             BufferedImage leaderImage = leaderAndImage.getRight();
             if (leaderImage == null) {
-                unplacedLeaders.add(leader);
+                text.unplacedLeaders.add(leader.getEmoiNameAndValueString());
                 continue;
             }
             if (!leader.getName().equals("Kwisatz Haderach"))
-                leaderImage = resize(leaderImage, 500, 500);
+                leaderImage = BoardImageCache.resize(leaderImage, 500, 500);
             else
-                leaderImage = resize(leaderImage, 500, 301);
+                leaderImage = BoardImageCache.resize(leaderImage, 500, 301);
             Point leaderPoint = new Point(300, 750 + offset);
             table = overlay(table, leaderImage, leaderPoint, 1);
             offset -= 450;
@@ -283,7 +348,7 @@ public class ShowCommands {
             Optional<FileUpload> image = CardImages.getTreacheryCardImage(discordGame.getEvent().getGuild(), treacheryCard.name());
             if (image.isPresent()) {
                 BufferedImage cardImage = ImageIO.read(image.get().getData());
-                cardImage = resize(cardImage, 988, 1376);
+                cardImage = BoardImageCache.resize(cardImage, 988, 1376);
                 Point cardPoint = new Point(1250 + offset, 1250 + offsetY);
                 table = overlay(table, cardImage, cardPoint, 1);
                 offset += 900;
@@ -298,17 +363,16 @@ public class ShowCommands {
         offset = 0;
 
         //Place Traitor Cards
-        List<String> homebrewTraitors = new ArrayList<>();
         for (TraitorCard traitorCard : faction.getTraitorHand()) {
             Optional<FileUpload> image = CardImages.getTraitorImage(discordGame.getEvent().getGuild(), traitorCard.getName());
             if (image.isEmpty() && game.getFaction(traitorCard.getFactionName()) instanceof HomebrewFaction) {
-                homebrewTraitors.add("Cheap Hero (0) Traitor above is really " + traitorCard.getEmojiNameAndStrengthString());
+                text.homebrewTraitors.add("Cheap Hero (0) Traitor above is really " + traitorCard.getEmojiNameAndStrengthString());
                 traitorCard = new TraitorCard("Cheap Hero", "Any", 0);
                 image = CardImages.getTraitorImage(discordGame.getEvent().getGuild(), traitorCard.getName());
             }
             if (image.isPresent()) {
                 BufferedImage cardImage = ImageIO.read(image.get().getData());
-                cardImage = resize(cardImage, 988, 1376);
+                cardImage = BoardImageCache.resize(cardImage, 988, 1376);
                 Point cardPoint = new Point(1050 + offset, 3500);
                 table = overlay(table, cardImage, cardPoint, 1);
                 offset += 900;
@@ -356,7 +420,7 @@ public class ShowCommands {
             }
             BufferedImage KHCounter = getResourceImage("KH token");
             KHCounterImage = overlay(KHCounterImage, KHCounter, new Point(x, y), 1);
-            table = overlay(table, resize(KHCounterImage, 988, 1376), new Point(1100 + offset, 3500), 1);
+            table = overlay(table, BoardImageCache.resize(KHCounterImage, 988, 1376), new Point(1100 + offset, 3500), 1);
         }
 
         //Place Homeworld Card
@@ -366,7 +430,7 @@ public class ShowCommands {
             Optional<FileUpload> image = CardImages.getHomeworldImage(discordGame.getEvent().getGuild(), homeworldName + " " + lowHigh);
             if (image.isPresent()) {
                 BufferedImage cardImage = ImageIO.read(image.get().getData());
-                cardImage = resize(cardImage, 988, 1376);
+                cardImage = BoardImageCache.resize(cardImage, 988, 1376);
                 Point cardPoint = new Point(4500, 750);
                 table = overlay(table, cardImage, cardPoint, 1);
             }
@@ -375,7 +439,7 @@ public class ShowCommands {
                 image = CardImages.getHomeworldImage(discordGame.getEvent().getGuild(), emperor.getSecondHomeworld() + " " + lowHigh);
                 if (image.isPresent()) {
                     BufferedImage cardImage = ImageIO.read(image.get().getData());
-                    cardImage = resize(cardImage, 988, 1376);
+                    cardImage = BoardImageCache.resize(cardImage, 988, 1376);
                     Point cardPoint = new Point(4500, 2250);
                     table = overlay(table, cardImage, cardPoint, 1);
                 }
@@ -383,17 +447,16 @@ public class ShowCommands {
             }
         }
 
-        String nexusCard = "";
         //Place nexus card if any
         if (faction.getNexusCard() != null) {
             Optional<FileUpload> image = CardImages.getNexusImage(discordGame.getEvent().getGuild(), faction.getNexusCard().name());
             if (image.isPresent()) {
                 BufferedImage cardImage = ImageIO.read(image.get().getData());
-                cardImage = resize(cardImage, 988, 1376);
+                cardImage = BoardImageCache.resize(cardImage, 988, 1376);
                 Point cardPoint = new Point(750 + offset, 3500);
                 table = overlay(table, cardImage, cardPoint, 1);
             } else
-                nexusCard = Emojis.NEXUS + " " + faction.getNexusCard().name();
+                text.nexusCardMissing = true;
         }
 
         //BG Prediction
@@ -402,7 +465,7 @@ public class ShowCommands {
             Optional<FileUpload> image = CardImages.getPredictionImage(discordGame.getEvent().getGuild(), "Turn " + bgFaction.getPredictionRound());
             if (image.isPresent()) {
                 BufferedImage cardImage = ImageIO.read(image.get().getData());
-                cardImage = resize(cardImage, 988, 1376);
+                cardImage = BoardImageCache.resize(cardImage, 988, 1376);
                 Point cardPoint = new Point(750 + offset, 3500);
                 table = overlay(table, cardImage, cardPoint, 1);
             }
@@ -410,7 +473,7 @@ public class ShowCommands {
             image = CardImages.getPredictionImage(discordGame.getEvent().getGuild(), bgFaction.getPredictionFactionName());
             if (image.isPresent()) {
                 BufferedImage cardImage = ImageIO.read(image.get().getData());
-                cardImage = resize(cardImage, 988, 1376);
+                cardImage = BoardImageCache.resize(cardImage, 988, 1376);
                 Point cardPoint = new Point(750 + offset, 3500);
                 table = overlay(table, cardImage, cardPoint, 1);
             }
@@ -422,7 +485,7 @@ public class ShowCommands {
         if (faction instanceof EcazFaction ecazFaction) {
             for (String ambassador : ecazFaction.getAmbassadorSupply()) {
                 BufferedImage ambassadorImage = getResourceImage(ambassador + " Ambassador");
-                table = overlay(table, resize(ambassadorImage, 300, 300), new Point(750 + offset, 2250), 1);
+                table = overlay(table, BoardImageCache.resize(ambassadorImage, 300, 300), new Point(750 + offset, 2250), 1);
                 offset += 330;
             }
         }
@@ -431,46 +494,13 @@ public class ShowCommands {
         if (faction instanceof MoritaniFaction moritaniFaction) {
             for (String terrorToken : moritaniFaction.getTerrorTokens()) {
                 BufferedImage terrorTokenImage = getResourceImage(terrorToken);
-                table = overlay(table, resize(terrorTokenImage, 300, 300), new Point(750 + offset, 2250), 1);
+                table = overlay(table, BoardImageCache.resize(terrorTokenImage, 300, 300), new Point(750 + offset, 2250), 1);
                 offset += 330;
             }
         }
 
-        table = resize(table, 1024, 1024);
-        ByteArrayOutputStream boardOutputStream = new ByteArrayOutputStream();
-        ImageIO.write(table, "png", boardOutputStream);
-
-        FileUpload boardFileUpload = FileUpload.fromData(boardOutputStream.toByteArray(), "behind shield.png");
-
-        String infoChannelName = faction.getInfoChannelPrefix() + "-info";
-        discordGame.queueMessage(infoChannelName, "Faction Info", boardFileUpload);
-        if (!nexusCard.isEmpty())
-            discordGame.queueMessage(infoChannelName, "__Nexus Card:__\n" + Emojis.NEXUS + faction.getNexusCard().name());
-
-        List<Leader> leadersToWriteAsText = faction.getLeaders().stream().filter(unplacedLeaders::contains).toList();
-        if (!leadersToWriteAsText.isEmpty())
-            discordGame.queueMessage(infoChannelName, "__Leaders:__\n" + String.join("\n", leadersToWriteAsText.stream().map(Leader::getEmoiNameAndValueString).toList()));
-        MessageCreateBuilder builder = new MessageCreateBuilder();
-        if (!capturedSkilledLeaders.isEmpty()) {
-            for (Leader leader : capturedSkilledLeaders) {
-                FactionView fv = new FactionView(discordGame, discordGame.getGame().getFaction(leader.getOriginalFactionName()));
-                builder.addEmbeds(fv.getLeaderSkillEmbed(game, leader));
-            }
-            discordGame.queueMessage(infoChannelName, builder.build());
-        }
-
-        if (!homebrewTraitors.isEmpty())
-            discordGame.queueMessage(infoChannelName, "__Traitors:__\n" + String.join("\n", homebrewTraitors));
-        if (!leadersInTerritories.isEmpty())
-            discordGame.queueMessage(infoChannelName, leadersInTerritories.toString());
-        if (faction instanceof MoritaniFaction moritani)
-            discordGame.queueMessage(infoChannelName, moritani.getTerrorTokenMessage(true));
-        else if (faction instanceof RicheseFaction richese)
-            writeRicheseCardCache(discordGame, infoChannelName, richese);
-        else if (faction instanceof BTFaction)
-            writeFaceDownLeaders(discordGame, game, infoChannelName);
-
-        sendInfoButtons(game, discordGame, faction);
+        table = BoardImageCache.resize(table, 1024, 1024);
+        return PngEncoder.encode(table, "faction info");
     }
 
     public static void sendInfoButtons(Game game, DiscordGame discordGame, Faction faction) throws ChannelNotFoundException, InvalidGameStateException, IOException {
@@ -500,12 +530,9 @@ public class ShowCommands {
 
         if (faction.getTreacheryHand().stream().anyMatch(treacheryCard -> treacheryCard.name().equals("Tleilaxu Ghola"))) {
             playCardMenu.addOption("Play Tleilaxu Ghola to revive 5 forces for free", "Tleilaxu Ghola-forces");
-            BufferedReader bufferedReader = new BufferedReader(new InputStreamReader(
-                    Objects.requireNonNull(Faction.class.getClassLoader().getResourceAsStream("Leaders.csv"))
-            ));
-            for (CSVRecord csvRecord : CSVParser.parse(bufferedReader, CSVFormat.EXCEL)) {
-                if (csvRecord.get(0).equals(faction.getName()) && game.getLeaderTanks().stream().anyMatch(l -> l.getName().equals(csvRecord.get(1)))) {
-                    playCardMenu.addOption("Play Tleilaxu Ghola to revive " + csvRecord.get(1) + " for free", "Tleilaxu Ghola-leader-" + csvRecord.get(1));
+            for (ReferenceData.LeaderDefinition leader : ReferenceData.get().getLeaders(faction.getName())) {
+                if (game.getLeaderTanks().stream().anyMatch(l -> l.getName().equals(leader.name()))) {
+                    playCardMenu.addOption("Play Tleilaxu Ghola to revive " + leader.name() + " for free", "Tleilaxu Ghola-leader-" + leader.name());
                 }
             }
         }
@@ -733,77 +760,222 @@ public class ShowCommands {
         }
     }
 
+    /**
+     * A homeworld drawn under the board, with where its sigil and forces go on the full size homeworld image.
+     */
+    private record HomeworldTile(String territoryName, BufferedImage image, String sigilName, Point sigilPlacement,
+                                 Point forcePlacement, boolean cacheable) {
+    }
+
+    private record BaseLayerKey(boolean fremenShipBorder, boolean shieldWallDestroyed, List<String> homeworlds,
+                                int sigilWidth) {
+    }
+
+    private record ForceImageKey(String forceName, int strength) {
+    }
+
     public static FileUpload drawGameBoard(DiscordGame discordGame, Game game) throws IOException {
+        return drawGameBoard(discordGame, game, false);
+    }
+
+    /**
+     * Draws the board, or reuses the image of an identical board drawn recently.
+     *
+     * @param mobile True for the smaller variant if a mobile width is set in {@link PngEncoder}.
+     * @return The board as a png.
+     */
+    public static FileUpload drawGameBoard(DiscordGame discordGame, Game game, boolean mobile) throws IOException {
+        mobile = mobile && PngEncoder.getMobileWidth() > 0;
+        String fingerprint = getBoardFingerprint(game, mobile);
+        byte[] png = fingerprint == null ? null : BoardPngCache.getPng(fingerprint);
+        if (png == null) {
+            long start = System.nanoTime();
+            png = drawGameBoardPng(discordGame, game, fingerprint, mobile);
+            CommandMetrics.record(CommandMetrics.Phase.RENDER, start);
+        }
+        return FileUpload.fromData(png, "board.png");
+    }
+
+    /**
+     * Starts drawing the board on the {@link RenderExecutor} from a copy of the game, so the command can go on changing
+     * the game while the board is drawn. Only the JSON tree of the copy is made on the command's thread; it is decoded
+     * on the render thread. A board identical to one drawn recently is reused without drawing.
+     *
+     * @param mobile True for the smaller variant if a mobile width is set in {@link PngEncoder}.
+     * @return The board as a png once it is drawn.
+     */
+    public static CompletableFuture<FileUpload> drawGameBoardAsync(DiscordGame discordGame, Game game, boolean mobile) {
+        boolean mobileVariant = mobile && PngEncoder.getMobileWidth() > 0;
+        String fingerprint = getBoardFingerprint(game, mobileVariant);
+        byte[] png = fingerprint == null ? null : BoardPngCache.getPng(fingerprint);
+        if (png != null)
+            return CompletableFuture.completedFuture(FileUpload.fromData(png, "board.png"));
+        JsonElement snapshot = DiscordGame.getGsonSerializer().toJsonTree(game);
+        return RenderExecutor.render(fingerprint, () -> drawGameBoardPng(discordGame, DiscordGame.decodeGameState(snapshot), fingerprint, mobileVariant))
+                .thenApply(board -> FileUpload.fromData(board, "board.png"));
+    }
+
+    private static String getBoardFingerprint(Game game, boolean mobile) {
+        String fingerprint = getBoardFingerprint(game);
+        return fingerprint == null || !mobile ? fingerprint : fingerprint + "|mobile " + PngEncoder.getMobileWidth();
+    }
+
+    /**
+     * Describes everything drawGameBoard draws: the options, markers, sigils, tech tokens, and the contents of every
+     * territory and the tanks. Boards with the same description are drawn the same.
+     *
+     * @return The description, or null if the board has images from homebrew channels, which can change.
+     */
+    static String getBoardFingerprint(Game game) {
+        if (game.getFactions().stream().anyMatch(f -> f instanceof HomebrewFaction)) return null;
+        StringBuilder fingerprint = new StringBuilder();
+        fingerprint.append(game.hasGameOption(GameOption.HOMEWORLDS)).append('|').append(game.isShieldWallDestroyed())
+                .append("|turn ").append(game.getTurn()).append("|phase ").append(game.getPhaseForTracker())
+                .append("|storm ").append(game.getStorm()).append("|hms ").append(game.getHmsRotation());
+        for (Faction faction : game.getFactions()) {
+            fingerprint.append('|').append(faction.getName()).append(" ally ").append(faction.hasAlly() ? faction.getAlly() : "");
+            for (TechToken token : faction.getTechTokens())
+                fingerprint.append(',').append(token.getName());
+            if (faction.getLeaders().stream().anyMatch(l -> l.getName().equals("Duke Vidal")))
+                fingerprint.append(",Duke Vidal");
+        }
+        if (game.hasCHOAMFaction() && game.getFaction("CHOAM") instanceof ChoamFaction choam)
+            fingerprint.append("|inflation ").append(choam.getFirstInflationRound()).append(' ').append(choam.getInflationType(game.getTurn()));
+        for (Territory territory : game.getTerritories().values()) {
+            if (territory.getForces().isEmpty() && territory.getSpice() == 0
+                    && !territory.hasRicheseNoField() && territory.getEcazAmbassador() == null
+                    && !territory.isAftermathToken() && !territory.hasTerrorToken()
+                    && territory.getDiscoveryToken() == null) continue;
+            fingerprint.append('|').append(territory.getTerritoryName()).append(' ').append(territory.getForces())
+                    .append(" spice ").append(territory.getSpice()).append(' ').append(territory.hasRicheseNoField())
+                    .append(' ').append(territory.getEcazAmbassador()).append(' ').append(territory.isAftermathToken())
+                    .append(' ').append(territory.getTerrorTokens()).append(' ').append(territory.getDiscoveryToken())
+                    .append(' ').append(territory.isDiscovered());
+        }
+        fingerprint.append("|tanks ").append(game.getTleilaxuTanks().getForces());
+        for (Leader leader : game.getLeaderTanks())
+            fingerprint.append(',').append(leader.getName()).append(leader.isFaceDown() ? " face down" : "");
+        return fingerprint.toString();
+    }
+
+    private static byte[] drawGameBoardPng(DiscordGame discordGame, Game game, String fingerprint, boolean mobile) throws IOException {
+        List<HomeworldTile> homeworldTiles = game.hasGameOption(GameOption.HOMEWORLDS) ? getHomeworldTiles(discordGame, game) : List.of();
+        BufferedImage baseLayer = getBaseLayer(game, homeworldTiles);
+        BufferedImage board = new BufferedImage(baseLayer.getWidth(), baseLayer.getHeight(), BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = board.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.drawImage(baseLayer, 0, 0, null);
+            drawGameBoardPieces(g, discordGame, game, homeworldTiles);
+        } finally {
+            g.dispose();
+        }
+
+        byte[] png = mobile ? PngEncoder.encodeMobile(board, "board") : PngEncoder.encode(board, "board");
+        if (fingerprint != null) BoardPngCache.setPng(fingerprint, png);
+        return png;
+    }
+
+    private static List<HomeworldTile> getHomeworldTiles(DiscordGame discordGame, Game game) throws IOException {
+        List<HomeworldTile> homeworldTiles = new ArrayList<>();
+        Point sigilPlacement = new Point(500, 850);
+        Point forcePlacement = new Point(500, 175);
+        for (Faction faction : game.getFactions()) {
+            boolean homebrew = faction instanceof HomebrewFaction;
+            if (faction instanceof EmperorFaction emperorFaction) {
+                homeworldTiles.add(new HomeworldTile(faction.getHomeworld(), getHomeworldImage(discordGame, faction), getSigilName(faction), new Point(920, 950), new Point(920, 275), true));
+                homeworldTiles.add(new HomeworldTile(emperorFaction.getSecondHomeworld(), getResourceImage("Salusa Secundus"), getSigilName(faction), sigilPlacement, forcePlacement, true));
+            } else {
+                homeworldTiles.add(new HomeworldTile(faction.getHomeworld(), getHomeworldImage(discordGame, faction), getSigilName(faction), sigilPlacement, forcePlacement, !homebrew));
+            }
+        }
+        return homeworldTiles;
+    }
+
+    /**
+     * Returns the board with the homeworlds and sigils under it, the Fremen shipping border and the destroyed Shield
+     * Wall. These only change with the game's options, so the drawing is reused unless a homeworld image comes from a
+     * homebrew channel.
+     */
+    private static BufferedImage getBaseLayer(Game game, List<HomeworldTile> homeworldTiles) throws IOException {
+        boolean fremenShipBorder = game.hasFremenFaction();
+        boolean shieldWallDestroyed = game.isShieldWallDestroyed();
+        int sigilWidth = game.hasEmperorFaction() ? 350 : 300;
+        if (homeworldTiles.stream().anyMatch(tile -> !tile.cacheable()))
+            return drawBaseLayer(homeworldTiles, fremenShipBorder, shieldWallDestroyed, sigilWidth);
+        List<String> homeworlds = homeworldTiles.stream().map(tile -> tile.territoryName() + "/" + tile.sigilName()).toList();
+        return BoardImageCache.getBaseLayer(new BaseLayerKey(fremenShipBorder, shieldWallDestroyed, homeworlds, sigilWidth),
+                () -> drawBaseLayer(homeworldTiles, fremenShipBorder, shieldWallDestroyed, sigilWidth));
+    }
+
+    private static BufferedImage drawBaseLayer(List<HomeworldTile> homeworldTiles, boolean fremenShipBorder, boolean shieldWallDestroyed, int sigilWidth) throws IOException {
         BufferedImage board = getResourceImage("Board");
 
         //If Homeworlds are in play, concatenate homeworlds under the board.
-        if (game.hasGameOption(GameOption.HOMEWORLDS)) {
+        if (!homeworldTiles.isEmpty()) {
             BufferedImage homeworlds = new BufferedImage(1, 1024, BufferedImage.TYPE_INT_ARGB);
-            int sigilWidth = game.hasEmperorFaction() ? 350 : 300;
-            for (Faction faction : game.getFactions()) {
-                BufferedImage homeworld = getHomeworldImage(discordGame, faction);
-                int offset = 0;
-                BufferedImage sigil = getSigilImage(faction);
-                sigil = resize(sigil, sigilWidth, 250);
-                Point sigilPlacement = new Point(500, 850);
-                Point kaitainSigilPlacement = new Point(920, 950);
-                homeworld = overlay(homeworld, sigil, faction instanceof EmperorFaction ? kaitainSigilPlacement : sigilPlacement, 1);
-                for (Force force : game.getTerritory(faction.getHomeworld()).getForces()) {
-                    BufferedImage forceImage = buildForceImage(game, force);
-                    forceImage = resize(forceImage, 376, 232);
-                    Point forcePlacement = new Point(500, 175 + offset);
-                    if (faction instanceof EmperorFaction)
-                        forcePlacement = new Point(920, 275 + offset);
-                    homeworld = overlay(homeworld, forceImage, forcePlacement, 1);
-                    offset += 240;
-                }
-                offset = 0;
-                homeworlds = concatenateHorizontally(homeworlds, homeworld);
-                if (faction instanceof EmperorFaction emperorFaction) {
-                    BufferedImage salusa = getResourceImage("Salusa Secundus");
-                    salusa = overlay(salusa, sigil, sigilPlacement, 1);
-                    for (Force force : game.getTerritory(emperorFaction.getSecondHomeworld()).getForces()) {
-                        BufferedImage forceImage = buildForceImage(game, force);
-                        forceImage = resize(forceImage, 376, 232);
-                        Point forcePlacement = new Point(500, 175 + offset);
-                        salusa = overlay(salusa, forceImage, forcePlacement, 1);
-                        offset += 240;
-                    }
-                    homeworlds = concatenateHorizontally(homeworlds, salusa);
-                }
+            for (HomeworldTile tile : homeworldTiles) {
+                BufferedImage sigil = BoardImageCache.getImage(tile.sigilName(), sigilWidth, 250);
+                homeworlds = concatenateHorizontally(homeworlds, overlay(tile.image(), sigil, tile.sigilPlacement(), 1));
             }
-            homeworlds = resize(homeworlds, board.getWidth(), 200);
+            homeworlds = BoardImageCache.resize(homeworlds, board.getWidth(), 200);
             board = concatenateVertically(board, homeworlds);
         }
 
         // Add border to show where Fremen can ship
-        if (game.hasFremenFaction()) {
-            BufferedImage fremenShipBorder = getResourceImage("Fremen Ship Border");
-            fremenShipBorder = resize(fremenShipBorder, 461, 716);
-            Point coordinates = new Point(316, 475);
-            board = overlay(board, fremenShipBorder, coordinates, 1);
-        }
+        if (fremenShipBorder)
+            board = overlay(board, BoardImageCache.getImage("Fremen Ship Border", 461, 716), new Point(316, 475), 1);
 
         //Place destroyed Shield Wall
-        if (game.isShieldWallDestroyed()) {
-            BufferedImage brokenShieldWallImage = getResourceImage("Shield Wall Destroyed");
-            brokenShieldWallImage = resize(brokenShieldWallImage, 256, 231);
-            Point coordinates = Initializers.getDrawCoordinates("shield wall");
-            board = overlay(board, brokenShieldWallImage, coordinates, 1);
+        if (shieldWallDestroyed)
+            board = overlay(board, BoardImageCache.getImage("Shield Wall Destroyed", 256, 231), Initializers.getDrawCoordinates("shield wall"), 1);
+
+        return board;
+    }
+
+    /**
+     * Draws the forces on each homeworld where they would be if they were drawn on the full size homeworld image
+     * before it was scaled down under the board.
+     */
+    private static void drawHomeworldForces(Graphics2D g, Game game, List<HomeworldTile> homeworldTiles) throws IOException {
+        BufferedImage boardImage = getResourceImage("Board");
+        int homeworldsWidth = 1;
+        int homeworldsHeight = 1024;
+        List<Integer> tileXs = new ArrayList<>();
+        for (HomeworldTile tile : homeworldTiles) {
+            tileXs.add(homeworldsWidth + 2);
+            homeworldsWidth += tile.image().getWidth() + 2;
+            homeworldsHeight = Math.max(homeworldsHeight, tile.image().getHeight()) + 2;
         }
+        double scaleX = (double) boardImage.getWidth() / homeworldsWidth;
+        double scaleY = 200.0 / homeworldsHeight;
+        int top = boardImage.getHeight() + 2;
+        int width = (int) Math.round(376 * scaleX);
+        int height = (int) Math.round(232 * scaleY);
+
+        for (int t = 0; t < homeworldTiles.size(); t++) {
+            HomeworldTile tile = homeworldTiles.get(t);
+            int offset = 0;
+            for (Force force : game.getTerritory(tile.territoryName()).getForces()) {
+                int x = (int) Math.round((tileXs.get(t) + tile.forcePlacement().x - 188) * scaleX);
+                int y = top + (int) Math.round((tile.forcePlacement().y + offset - 116) * scaleY);
+                g.drawImage(buildForceImage(game, force), x, y, width, height, null);
+                offset += 240;
+            }
+        }
+    }
+
+    private static void drawGameBoardPieces(Graphics2D g, DiscordGame discordGame, Game game, List<HomeworldTile> homeworldTiles) throws IOException {
+        if (!homeworldTiles.isEmpty())
+            drawHomeworldForces(g, game, homeworldTiles);
 
         //Place turn, phase, and storm markers
-        BufferedImage turnMarker = getResourceImage("Turn Marker");
-        turnMarker = resize(turnMarker, 55, 55);
         int markerTurn = game.getTurn() == 0 ? 1 : (game.getTurn() % 10);
         float angle = markerTurn * 36 + 74f;
-        turnMarker = rotateImageByDegrees(turnMarker, angle);
         Point coordinates = Initializers.getDrawCoordinates("turn " + markerTurn);
-        board = overlay(board, turnMarker, coordinates, 1);
-        BufferedImage phaseMarker = getResourceImage("Phase Marker");
-        phaseMarker = resize(phaseMarker, 50, 50);
+        draw(g, BoardImageCache.getImage("Turn Marker", 55, 55, angle), coordinates);
         coordinates = Initializers.getDrawCoordinates("phase " + (game.getPhaseForTracker()));
-        board = overlay(board, phaseMarker, coordinates, 1);
+        draw(g, BoardImageCache.getImage("Phase Marker", 50, 50), coordinates);
 
         //Place CHOAM inflation token if active
         if (game.hasCHOAMFaction()) {
@@ -820,10 +992,8 @@ public class ShowCommands {
                         case DOUBLE -> "Inflation Double";
                         case CANCEL -> "Inflation Cancel";
                     };
-                    BufferedImage inflationToken = getResourceImage(inflationImageName);
-                    inflationToken = resize(inflationToken, 50, 50);
                     Point inflationCoordinates = Initializers.getDrawCoordinates("phase 3");
-                    board = overlay(board, inflationToken, inflationCoordinates, 1);
+                    draw(g, BoardImageCache.getImage(inflationImageName, 50, 50), inflationCoordinates);
                 }
             }
         }
@@ -840,28 +1010,22 @@ public class ShowCommands {
             int i = 0;
 
             if (territory.isAftermathToken()) {
-                BufferedImage aftermath = getResourceImage("Atomics");
-                aftermath = resize(aftermath, 50, 50);
                 Point placement = Initializers.getPoints(territory.getTerritoryName()).getFirst();
-                Point placementCorner = new Point(placement.x, placement.y);
-                board = overlay(board, aftermath, placementCorner, 1);
+                draw(g, BoardImageCache.getImage("Atomics", 50, 50), placement);
             }
 
             if (territory.getEcazAmbassador() != null) {
-                BufferedImage ambassador = resize(getResourceImage(territory.getEcazAmbassador() + " Ambassador"), 40, 40);
                 Point placement = Initializers.getPoints(territory.getTerritoryName()).get(1);
                 Point placementCorner = new Point(placement.x + 40, placement.y);
-                board = overlay(board, ambassador, placementCorner, 1);
+                draw(g, BoardImageCache.getImage(territory.getEcazAmbassador() + " Ambassador", 40, 40), placementCorner);
             }
 
             if (!territory.getTerrorTokens().isEmpty()) {
                 for (int j = 0; j < territory.getTerrorTokens().size(); j++) {
                     if (territory.getTerritoryName().equals("Jacurutu Sietch")) continue;
-                    BufferedImage terrorToken = getResourceImage("Terror Token");
-                    terrorToken = resize(terrorToken, 40, 40);
                     Point placement = Initializers.getPoints(territory.getTerritoryName()).get(1);
                     Point placementCorner = new Point(placement.x - 20 + offset, placement.y);
-                    board = overlay(board, terrorToken, placementCorner, 1);
+                    draw(g, BoardImageCache.getImage("Terror Token", 40, 40), placementCorner);
                     offset += 20;
                 }
             }
@@ -870,50 +1034,12 @@ public class ShowCommands {
             if (territory.getSpice() != 0) {
                 i = 1;
                 int spice = territory.getSpice();
+                Point spicePlacement = Initializers.getPoints(territory.getTerritoryName()).getFirst();
                 while (spice != 0) {
-                    if (spice >= 10) {
-                        BufferedImage spiceImage = getResourceImage("10 Spice");
-                        spiceImage = resize(spiceImage, 25, 25);
-                        Point spicePlacement = Initializers.getPoints(territory.getTerritoryName()).getFirst();
-                        Point spicePlacementOffset = new Point(spicePlacement.x + offset, spicePlacement.y - offset);
-                        board = overlay(board, spiceImage, spicePlacementOffset, 1);
-                        spice -= 10;
-                    } else if (spice >= 8) {
-                        BufferedImage spiceImage = getResourceImage("8 Spice");
-                        spiceImage = resize(spiceImage, 25, 25);
-                        Point spicePlacement = Initializers.getPoints(territory.getTerritoryName()).getFirst();
-                        Point spicePlacementOffset = new Point(spicePlacement.x + offset, spicePlacement.y - offset);
-                        board = overlay(board, spiceImage, spicePlacementOffset, 1);
-                        spice -= 8;
-                    } else if (spice >= 6) {
-                        BufferedImage spiceImage = getResourceImage("6 Spice");
-                        spiceImage = resize(spiceImage, 25, 25);
-                        Point spicePlacement = Initializers.getPoints(territory.getTerritoryName()).getFirst();
-                        Point spicePlacementOffset = new Point(spicePlacement.x + offset, spicePlacement.y - offset);
-                        board = overlay(board, spiceImage, spicePlacementOffset, 1);
-                        spice -= 6;
-                    } else if (spice == 5) {
-                        BufferedImage spiceImage = getResourceImage("5 Spice");
-                        spiceImage = resize(spiceImage, 25, 25);
-                        Point spicePlacement = Initializers.getPoints(territory.getTerritoryName()).getFirst();
-                        Point spicePlacementOffset = new Point(spicePlacement.x + offset, spicePlacement.y - offset);
-                        board = overlay(board, spiceImage, spicePlacementOffset, 1);
-                        spice -= 5;
-                    } else if (spice >= 2) {
-                        BufferedImage spiceImage = getResourceImage("2 Spice");
-                        spiceImage = resize(spiceImage, 25, 25);
-                        Point spicePlacement = Initializers.getPoints(territory.getTerritoryName()).getFirst();
-                        Point spicePlacementOffset = new Point(spicePlacement.x + offset, spicePlacement.y - offset);
-                        board = overlay(board, spiceImage, spicePlacementOffset, 1);
-                        spice -= 2;
-                    } else {
-                        BufferedImage spiceImage = getResourceImage("1 Spice");
-                        spiceImage = resize(spiceImage, 25, 25);
-                        Point spicePlacement = Initializers.getPoints(territory.getTerritoryName()).getFirst();
-                        Point spicePlacementOffset = new Point(spicePlacement.x + offset, spicePlacement.y - offset);
-                        board = overlay(board, spiceImage, spicePlacementOffset, 1);
-                        spice -= 1;
-                    }
+                    int spiceToken = spice >= 10 ? 10 : spice >= 8 ? 8 : spice >= 6 ? 6 : spice == 5 ? 5 : spice >= 2 ? 2 : 1;
+                    Point spicePlacementOffset = new Point(spicePlacement.x + offset, spicePlacement.y - offset);
+                    draw(g, BoardImageCache.getImage(spiceToken + " Spice", 25, 25), spicePlacementOffset);
+                    spice -= spiceToken;
                     offset += 15;
                 }
             }
@@ -925,53 +1051,46 @@ public class ShowCommands {
                 } catch (Exception ignored) {
                 }
                 if (territory.isDiscovered() && discoveryToken != null) {
-                    discoveryToken = resize(discoveryToken, 500, 500);
+                    discoveryToken = BoardImageCache.resize(discoveryToken, 500, 500);
+                    Graphics2D tokenGraphics = discoveryToken.createGraphics();
                     for (String ignored : game.getTerritory(territory.getDiscoveryToken()).getTerrorTokens()) {
-                        BufferedImage terrorToken = getResourceImage("Terror Token");
-                        terrorToken = resize(terrorToken, 250, 250);
-                        Point tokenPlacement = new Point(250, 150);
-                        Point tokenPlacementOffset = new Point(tokenPlacement.x, tokenPlacement.y + offset);
-                        discoveryToken = overlay(discoveryToken, terrorToken, tokenPlacementOffset, 1);
+                        Point tokenPlacementOffset = new Point(250, 150 + offset);
+                        draw(tokenGraphics, BoardImageCache.getImage("Terror Token", 250, 250), tokenPlacementOffset);
                         offset += 100;
                     }
 
                     for (Force force : game.getTerritory(territory.getDiscoveryToken()).getForces()) {
-                        BufferedImage forceImage = buildForceImage(game, force);
-                        forceImage = resize(forceImage, 376, 232);
-                        Point forcePlacement = new Point(250, 150);
-                        Point forcePlacementOffset = new Point(forcePlacement.x, forcePlacement.y + offset);
-                        discoveryToken = overlay(discoveryToken, forceImage, forcePlacementOffset, 1);
+                        BufferedImage forceImage = BoardImageCache.resize(buildForceImage(game, force), 376, 232);
+                        Point forcePlacementOffset = new Point(250, 150 + offset);
+                        draw(tokenGraphics, forceImage, forcePlacementOffset);
                         offset += 100;
                     }
 
                     if (game.getTerritory(territory.getDiscoveryToken()).hasRicheseNoField()) {
-                        BufferedImage noFieldImage = resize(getResourceImage("No-Field Hidden"), 240, 240);
-                        Point forcePlacement = new Point(250, 150);
-                        Point forcePlacementOffset = new Point(forcePlacement.x, forcePlacement.y + offset);
-                        discoveryToken = overlay(discoveryToken, noFieldImage, forcePlacementOffset, 1);
-//                        offset += 100;
+                        Point forcePlacementOffset = new Point(250, 150 + offset);
+                        draw(tokenGraphics, BoardImageCache.getImage("No-Field Hidden", 240, 240), forcePlacementOffset);
                     }
-                }
-                else {
+                    tokenGraphics.dispose();
+                    discoveryToken = BoardImageCache.resize(discoveryToken, 60, 60);
+                } else {
                     String imageName = territory.isRock() ? "Smuggler Token" : "Hiereg Token";
-                    discoveryToken = getResourceImage(imageName);
+                    discoveryToken = BoardImageCache.getImage(imageName, 60, 60);
                 }
-                discoveryToken = resize(discoveryToken, 60, 60);
-                board = overlay(board, discoveryToken, Initializers.getPoints(territory.getTerritoryName()).get(i), 1);
+                draw(g, discoveryToken, Initializers.getPoints(territory.getTerritoryName()).get(i));
                 i++;
             }
             offset = 0;
             for (Force force : territory.getForces()) {
                 if (territory.getTerritoryName().equals("Jacurutu Sietch")) continue;
                 if (force.getName().equals("Hidden Mobile Stronghold")) {
-                    BufferedImage hms = getResourceImage("Hidden Mobile Stronghold");
-                    hms = resize(hms, 150, 100);
+                    BufferedImage hms = new BufferedImage(150, 100, BufferedImage.TYPE_INT_ARGB);
+                    Graphics2D hmsGraphics = hms.createGraphics();
+                    hmsGraphics.drawImage(BoardImageCache.getImage("Hidden Mobile Stronghold", 150, 100), 0, 0, null);
                     List<Force> hmsForces = game.getTerritories().get("Hidden Mobile Stronghold").getForces();
                     if (hmsForces.size() <= 3) {
                         int forceOffset = 0;
                         for (Force f : hmsForces) {
-                            BufferedImage forceImage = buildForceImage(game, f);
-                            hms = overlay(hms, forceImage, new Point(40, 20 + forceOffset), 1);
+                            draw(hmsGraphics, buildForceImage(game, f), new Point(40, 20 + forceOffset));
                             forceOffset += 30;
                         }
                     } else {
@@ -979,8 +1098,7 @@ public class ShowCommands {
                         int forceYOffset = hmsForces.size() <= 4 ? 15 : 0;
                         boolean offsetY = false;
                         for (Force f : hmsForces) {
-                            BufferedImage forceImage = buildForceImage(game, f);
-                            hms = overlay(hms, forceImage, new Point(30 + forceXOffset, 20 + forceYOffset), 1);
+                            draw(hmsGraphics, buildForceImage(game, f), new Point(30 + forceXOffset, 20 + forceYOffset));
                             if (offsetY) {
                                 forceYOffset += 30;
                                 forceXOffset = 40;
@@ -989,6 +1107,7 @@ public class ShowCommands {
                             offsetY = !offsetY;
                         }
                     }
+                    hmsGraphics.dispose();
                     Point forcePlacement = Initializers.getPoints(territory.getTerritoryName()).get(i);
                     int hmsRotation = game.getHmsRotation();
                     int xOffset = -55;
@@ -1002,14 +1121,12 @@ public class ShowCommands {
                         yOffset = offset + 55;
                     }
                     Point forcePlacementOffset = new Point(forcePlacement.x +xOffset, forcePlacement.y + yOffset);
-                    hms = rotateImageByDegrees(hms, hmsRotation);
-                    board = overlay(board, hms, forcePlacementOffset, 1);
+                    draw(g, BoardImageCache.rotate(hms, hmsRotation), forcePlacementOffset);
                     continue;
                 }
-                BufferedImage forceImage = buildForceImage(game, force);
                 Point forcePlacement = Initializers.getPoints(territory.getTerritoryName()).get(i);
                 Point forcePlacementOffset = new Point(forcePlacement.x, forcePlacement.y + offset);
-                board = overlay(board, forceImage, forcePlacementOffset, 1);
+                draw(g, buildForceImage(game, force), forcePlacementOffset);
                 i++;
                 if (i == Initializers.getPoints(territory.getTerritoryName()).size()) {
                     offset += 20;
@@ -1018,36 +1135,27 @@ public class ShowCommands {
             }
 
             if (territory.hasRicheseNoField() && !territory.isDiscoveryToken()) {
-                BufferedImage noFieldImage = resize(getResourceImage("No-Field Hidden"), 30, 30);
                 Point noFieldPlacement = Initializers.getPoints(territory.getTerritoryName())
                         .get(i);
-                board = overlay(board, noFieldImage, noFieldPlacement, 1);
+                draw(g, BoardImageCache.getImage("No-Field Hidden", 30, 30), noFieldPlacement);
             }
 
             //Storm overlay
-            BufferedImage stormOverlay = getResourceImage("Storm Overlay");
-            stormOverlay = rotateImageByDegrees(stormOverlay, -(game.getStorm() * 20) + 20);
-            board = overlay(board, stormOverlay, Initializers.calculateStormCoordinates(game.getStorm()), .15F);
-            BufferedImage stormMarker = getResourceImage("storm");
-            stormMarker = resize(stormMarker, 172, 96);
-            stormMarker = rotateImageByDegrees(stormMarker, -(game.getStorm() * 20));
-            board = overlay(board, stormMarker, Initializers.getDrawCoordinates("storm " + game.getStorm()), 1);
+            BufferedImage stormOverlay = BoardImageCache.getImage("Storm Overlay", 0, 0, -(game.getStorm() * 20) + 20);
+            draw(g, stormOverlay, Initializers.calculateStormCoordinates(game.getStorm()), .15F);
+            BufferedImage stormMarker = BoardImageCache.getImage("storm", 172, 96, -(game.getStorm() * 20));
+            draw(g, stormMarker, Initializers.getDrawCoordinates("storm " + game.getStorm()));
 
             //Place sigils
             for (int k = 1; k <= game.getFactions().size(); k++) {
                 Faction faction = game.getFactions().get(k - 1);
-                BufferedImage sigil;
-                sigil = getSigilImage(faction);
                 coordinates = Initializers.getDrawCoordinates("sigil " + k);
-                sigil = resize(sigil, 50, 50);
-                board = overlay(board, sigil, coordinates, 1);
+                draw(g, BoardImageCache.getImage(getSigilName(faction), 50, 50), coordinates);
 
                 // Check for alliances
                 if (faction.hasAlly()) {
-                    BufferedImage allySigil = getSigilImage(game.getFaction(faction.getAlly()));
                     coordinates = Initializers.getDrawCoordinates("ally " + k);
-                    allySigil = resize(allySigil, 40, 40);
-                    board = overlay(board, allySigil, coordinates, 1);
+                    draw(g, BoardImageCache.getImage(getSigilName(game.getFaction(faction.getAlly())), 40, 40), coordinates);
                 }
             }
         }
@@ -1057,12 +1165,9 @@ public class ShowCommands {
         int offset = 0;
         for (Force force : game.getTleilaxuTanks().getForces()) {
             if (force.getStrength() == 0) continue;
-            BufferedImage forceImage = buildForceImage(game, force);
-
             Point tanksCoordinates = Initializers.getPoints("Forces Tanks").get(i);
             Point tanksOffset = new Point(tanksCoordinates.x, tanksCoordinates.y - offset);
-
-            board = overlay(board, forceImage, tanksOffset, 1);
+            draw(g, buildForceImage(game, force), tanksOffset);
             i++;
             if (i > 1) {
                 offset += 30;
@@ -1079,27 +1184,26 @@ public class ShowCommands {
                 leaderFaction = game.getMoritaniFaction();
             else
                 leaderFaction = game.getFaction(leader.getOriginalFactionName());
-            BufferedImage leaderImage;
+            int leaderHeight = leader.getName().equals("Kwisatz Haderach") ? 42 : 70;
+            BufferedImage leaderImage = null;
             if (leaderFaction instanceof HomebrewFaction) {
-                leaderImage = getSigilImage(leaderFaction);
                 String imageUrl = getHomebrewFactionImageUrlFromHomebrewChannel(discordGame, leaderFaction.getName().toLowerCase(), "leaders", leader.getName());
                 if (imageUrl != null) {
                     try {
-                        InputStream is = new URI(imageUrl).toURL().openStream();
-                        leaderImage = ImageIO.read(is);
+                        InputStream is = new ByteArrayInputStream(ImageDownloadCache.get(imageUrl));
+                        leaderImage = BoardImageCache.resize(ImageIO.read(is), 70, leaderHeight);
                     } catch (Exception ignored) {}
                 }
+                if (leaderImage == null)
+                    leaderImage = BoardImageCache.getImage(getSigilName(leaderFaction), 70, leaderHeight);
             } else if (leader.isFaceDown()) {
-                leaderImage = getSigilImage(leaderFaction);
+                leaderImage = BoardImageCache.getImage(getSigilName(leaderFaction), 70, leaderHeight);
             } else {
-                leaderImage = getResourceImage(leader.getName());
+                leaderImage = BoardImageCache.getImage(leader.getName(), 70, leaderHeight);
             }
-            assert leaderImage != null;
-            if (!leader.getName().equals("Kwisatz Haderach")) leaderImage = resize(leaderImage, 70, 70);
-            else leaderImage = resize(leaderImage, 70, 42);
             Point tanksCoordinates = Initializers.getPoints("Leaders Tanks").get(i);
             Point tanksOffset = new Point(tanksCoordinates.x, tanksCoordinates.y - offset);
-            board = overlay(board, leaderImage, tanksOffset, 1);
+            draw(g, leaderImage, tanksOffset);
             i++;
             if (i > Initializers.getPoints("Leaders Tanks").size() - 1) {
                 offset += 70;
@@ -1113,11 +1217,9 @@ public class ShowCommands {
             if (faction.getTechTokens().isEmpty()) continue;
             int ttoffset = 0;
             for (TechToken token : faction.getTechTokens()) {
-                BufferedImage tokenImage = getResourceImage(token.getName());
-                tokenImage = resize(tokenImage, 50, 50);
                 coordinates = Initializers.getDrawCoordinates("tech token " + x);
                 Point coordinatesOffset = new Point(coordinates.x + ttoffset, coordinates.y);
-                board = overlay(board, tokenImage, coordinatesOffset, 1);
+                draw(g, BoardImageCache.getImage(token.getName(), 50, 50), coordinatesOffset);
                 ttoffset += 50;
             }
         }
@@ -1126,57 +1228,42 @@ public class ShowCommands {
             Leader dukeVidal = game.getDukeVidal();
             boolean someoneHasVidal = game.getFactions().stream().anyMatch(f -> f.getLeaders().stream().anyMatch(l -> l.getName().equals("Duke Vidal")));
             boolean vidalIsInTheTanks = game.getLeaderTanks().stream().anyMatch(l -> l.getName().equals("Duke Vidal"));
-            if (!someoneHasVidal && !vidalIsInTheTanks) {
-                BufferedImage leaderImage = getResourceImage(dukeVidal.getName());
-                leaderImage = resize(leaderImage, 70, 70);
-                board = overlay(board, leaderImage, new Point(904, 46), 1);
-            }
+            if (!someoneHasVidal && !vidalIsInTheTanks)
+                draw(g, BoardImageCache.getImage(dukeVidal.getName(), 70, 70), new Point(904, 46));
         }
-
-        ByteArrayOutputStream boardOutputStream = new ByteArrayOutputStream();
-        ImageIO.write(board, "png", boardOutputStream);
-
-        return FileUpload.fromData(boardOutputStream.toByteArray(), "board.png");
     }
 
+    /**
+     * Returns the force token with its strength. Tokens are drawn once for each force name and strength and shared.
+     */
     private static BufferedImage buildForceImage(Game game, Force force) throws IOException {
-        String forceName = force.getName();
-        int strength = force.getStrength();
         Faction faction = game.getFaction(force.getFactionName());
-        if (faction instanceof HomebrewFaction hbFaction)
-            forceName = hbFaction.getFactionProxy();
-        BufferedImage forceImage = !forceName.equals("Advisor") ? getResourceImage(forceName.replace("*", "") + " Troop") : getResourceImage("BG Advisor");
-        forceImage = resize(forceImage, 47, 29);
-        if (forceName.contains("*")) {
-            BufferedImage star = getResourceImage("star");
-            star = resize(star, 8, 8);
-            forceImage = overlay(forceImage, star, new Point(20, 7), 1);
-        }
-        if (strength > 9) {
-            BufferedImage tensImage = getResourceImage(String.valueOf(strength / 10));
-            BufferedImage digitImage = getResourceImage(String.valueOf(strength % 10));
-            tensImage = resize(tensImage, 12, 12);
-            digitImage = resize(digitImage, 12, 12);
-            forceImage = overlay(forceImage, tensImage, new Point(28, 14), 1);
-            forceImage = overlay(forceImage, digitImage, new Point(36, 14), 1);
-        } else {
-            BufferedImage numberImage = getResourceImage(String.valueOf(strength));
-            numberImage = resize(numberImage, 12, 12);
-            forceImage = overlay(forceImage, numberImage, new Point(30, 14), 1);
-
-        }
-        return forceImage;
+        String forceName = faction instanceof HomebrewFaction hbFaction ? hbFaction.getFactionProxy() : force.getName();
+        int strength = force.getStrength();
+        return BoardImageCache.getComposite(new ForceImageKey(forceName, strength), () -> {
+            BufferedImage forceImage = !forceName.equals("Advisor") ? getResourceImage(forceName.replace("*", "") + " Troop") : getResourceImage("BG Advisor");
+            forceImage = BoardImageCache.resize(forceImage, 47, 29);
+            Graphics2D g = forceImage.createGraphics();
+            if (forceName.contains("*"))
+                draw(g, BoardImageCache.getImage("star", 8, 8), new Point(20, 7));
+            if (strength > 9) {
+                draw(g, BoardImageCache.getImage(String.valueOf(strength / 10), 12, 12), new Point(28, 14));
+                draw(g, BoardImageCache.getImage(String.valueOf(strength % 10), 12, 12), new Point(36, 14));
+            } else {
+                draw(g, BoardImageCache.getImage(String.valueOf(strength), 12, 12), new Point(30, 14));
+            }
+            g.dispose();
+            return forceImage;
+        });
     }
 
-    private static BufferedImage resize(BufferedImage img, int newW, int newH) {
-        Image tmp = img.getScaledInstance(newW, newH, Image.SCALE_SMOOTH);
-        BufferedImage dimg = new BufferedImage(newW, newH, BufferedImage.TYPE_INT_ARGB);
-
-        Graphics2D g2d = dimg.createGraphics();
-        g2d.drawImage(tmp, 0, 0, null);
-        g2d.dispose();
+    private static void draw(Graphics2D g, BufferedImage piece, Point coordinates) {
+        draw(g, piece, coordinates, 1);
+    }
 
-        return dimg;
+    private static void draw(Graphics2D g, BufferedImage piece, Point coordinates, float alpha) {
+        g.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, alpha));
+        g.drawImage(piece, coordinates.x - (piece.getWidth() / 2), coordinates.y - (piece.getHeight() / 2), null);
     }
 
     private static BufferedImage overlay(BufferedImage board, BufferedImage piece, Point coordinates, float alpha) {
@@ -1229,30 +1316,6 @@ public class ShowCommands {
         return newImage;
     }
 
-    private static BufferedImage rotateImageByDegrees(BufferedImage img, double angle) {
-        double rads = Math.toRadians(angle);
-        double sin = Math.abs(Math.sin(rads)), cos = Math.abs(Math.cos(rads));
-        int w = img.getWidth();
-        int h = img.getHeight();
-        int newWidth = (int) Math.floor(w * cos + h * sin);
-        int newHeight = (int) Math.floor(h * cos + w * sin);
-
-        BufferedImage rotated = new BufferedImage(newWidth, newHeight, BufferedImage.TYPE_INT_ARGB);
-        Graphics2D g2d = rotated.createGraphics();
-        AffineTransform at = new AffineTransform();
-        at.translate((double) (newWidth - w) / 2, (double) (newHeight - h) / 2);
-
-        int x = w / 2;
-        int y = h / 2;
-
-        at.rotate(rads, x, y);
-        g2d.setTransform(at);
-        g2d.drawImage(img, 0, 0, null);
-        g2d.dispose();
-
-        return rotated;
-    }
-
     public static List<Pair<Leader, FileUpload>> getLeaderImagesForTextMode(DiscordGame discordGame, Faction faction) throws IOException {
         List<Pair<Leader, FileUpload>> leadersAndImages = new ArrayList<>();
         for (Leader leader : faction.getLeaders()) {
@@ -1263,10 +1326,10 @@ public class ShowCommands {
                 String imageUrl = getHomebrewFactionImageUrlFromHomebrewChannel(discordGame, leader.getOriginalFactionName().toLowerCase(), "leaders", leader.getName());
                 if (imageUrl != null) {
                     try {
-                        InputStream is = new URI(imageUrl).toURL().openStream();
+                        InputStream is = new ByteArrayInputStream(ImageDownloadCache.get(imageUrl));
                         leaderImage = FileUpload.fromData(is, leader.getName() + ".png");
                         leadersAndImages.add(new ImmutablePair<>(leader, leaderImage));
-                    } catch (URISyntaxException e) {
+                    } catch (IOException e) {
                         leadersAndImages.add(new ImmutablePair<>(leader, null));
                     }
                 } else {
@@ -1294,7 +1357,7 @@ public class ShowCommands {
      */
     public static void writeFactionInfo(DiscordGame discordGame, Faction faction) throws ChannelNotFoundException, IOException, InvalidGameStateException {
         MessageChannel infoChannel = discordGame.getTextChannel(faction.getInfoChannelPrefix() + "-info");
-        MessageHistory messageHistory = MessageHistory.getHistoryFromBeginning(infoChannel).complete();
+        MessageHistory messageHistory = infoChannel.getHistoryFromBeginning(50).complete();
 
         List<Message> messages = messageHistory.getRetrievedHistory();
 
@@ -1439,26 +1502,30 @@ public class ShowCommands {
     }
 
     public static void refreshFrontOfShieldInfo(DiscordGame discordGame, Game game) throws ChannelNotFoundException, IOException {
-        MessageChannel frontOfShieldChannel = discordGame.getTextChannel("front-of-shield");
-        MessageHistory messageHistory = MessageHistory.getHistoryFromBeginning(frontOfShieldChannel).complete();
-
-        List<Message> messages = messageHistory.getRetrievedHistory();
-
-        messages.forEach(discordGame::queueDeleteMessage);
+        refreshFrontOfShieldInfo(discordGame, game, true);
+    }
 
-        FileUpload newMap = drawGameBoard(discordGame, game).setName("game-map.png");
+    /**
+     * Updates the front-of-shield channel. When the channel still has the messages from the last refresh, only the
+     * messages whose content changed are edited. Otherwise every message is deleted and the channel is reposted.
+     *
+     * @param discordGame The discord game.
+     * @param game        The game.
+     * @param mapChanged  True if the board has changed and the map must be redrawn.
+     */
+    public static void refreshFrontOfShieldInfo(DiscordGame discordGame, Game game, boolean mapChanged) throws ChannelNotFoundException, IOException {
+        TextChannel frontOfShieldChannel = discordGame.getTextChannel("front-of-shield");
         MessageCreateBuilder builder = new MessageCreateBuilder();
-        builder.addFiles(newMap);
 
         EmbedBuilder embedBuilder = new EmbedBuilder().setColor(Color.BLACK);
         String biddingMarketSize = "";
         try {
             Bidding bidding = game.getBidding();
-            biddingMarketSize = ":convenience_store: " + (bidding.getMarket().size() + (bidding.getBidCard() != null ? 1 : 0)) + " ";
+            biddingMarketSize = ":convenience_store: " + (bidding.getMarket().size() + (bidding.getBidCard() != null ? 1 : 0)) + " ";
         } catch (InvalidGameStateException ignored) {}
         String deckSizes = EmojiCache.tagEmojis(biddingMarketSize + Emojis.TREACHERY + " " + game.getTreacheryDeck().size()
-                        + " :wastebasket: " + game.getTreacheryDiscard().size()
-                        + " " + Emojis.SPICE + " " + game.getSpiceDeck().size());
+                        + " :wastebasket: " + game.getTreacheryDiscard().size()
+                        + " " + Emojis.SPICE + " " + game.getSpiceDeck().size());
         embedBuilder.addField("Deck Sizes", deckSizes, false);
 
         List<String> discoveryTokensLocations = game.getTerritories().values().stream().filter(t -> t.getDiscoveryToken() != null && t.isDiscovered()).map(t -> t.getDiscoveryToken() + " is in " + t.getTerritoryName()).toList();
@@ -1480,18 +1547,87 @@ public class ShowCommands {
         }
 
         builder.addEmbeds(embedBuilder.build());
-        discordGame.queueMessage("front-of-shield", builder);
+        List<MessageCreateBuilder> builders = new ArrayList<>(DiscordGame.splitMessageBuilders(builder));
+        // The map is attached to the last message of the shared summary
+        int mapIndex = builders.size() - 1;
 
         // Use the same FactionView instances for public messages
         for (FactionView factionView : factionViews) {
-            builder = factionView.getPublicMessage();
-            discordGame.queueMessage("front-of-shield", builder);
+            builders.addAll(DiscordGame.splitMessageBuilders(factionView.getPublicMessage()));
+        }
+
+        List<MessageCreateData> messages = new ArrayList<>();
+        List<Integer> contentHashes = new ArrayList<>();
+        for (MessageCreateBuilder messageBuilder : builders) {
+            messageBuilder.setContent(EmojiCache.tagEmojis(messageBuilder.getContent()));
+            MessageCreateData message = messageBuilder.build();
+            messages.add(message);
+            contentHashes.add(frontOfShieldContentHash(message));
         }
+
+        String channelId = frontOfShieldChannel.getId();
+        FrontOfShieldCache.Layout layout = FrontOfShieldCache.getLayout(channelId);
+        if (layout == null && !DiscordRequestDispatcher.isSending(channelId)) {
+            // After a restart, take over the messages already in the channel if there are the right number of them
+            List<Message> history = new ArrayList<>(frontOfShieldChannel.getHistoryFromBeginning(50).complete().getRetrievedHistory());
+            history.sort(Comparator.comparingLong(Message::getIdLong));
+            if (history.size() == messages.size()) {
+                layout = new FrontOfShieldCache.Layout(history.stream().map(Message::getId).toList(), Collections.nCopies(messages.size(), null));
+                FrontOfShieldCache.setLayout(channelId, layout);
+                mapChanged = true;
+            }
+        }
+
+        if (layout == null || layout.size() != messages.size()) {
+            // The channel is read when the deletes are sent, so messages an earlier refresh is still posting are deleted too
+            discordGame.queueDeleteHistory(frontOfShieldChannel, 50);
+
+            // Later refreshes edit the reposted messages once they are sent. A muted game never sends them, and a
+            // failed message leaves the channel incomplete, so the next refresh reposts in either case.
+            FrontOfShieldCache.Layout reposted = new FrontOfShieldCache.Layout(contentHashes);
+            if (game.getMute()) FrontOfShieldCache.clearLayout(channelId);
+            else FrontOfShieldCache.setLayout(channelId, reposted);
+            Runnable onFailure = () -> FrontOfShieldCache.clearLayout(channelId, reposted);
+
+            CompletableFuture<FileUpload> newMap = drawGameBoardAsync(discordGame, game, true);
+            for (int i = 0; i < messages.size(); i++) {
+                int index = i;
+                MessageCreateData message = messages.get(i);
+                Consumer<Message> onSent = sentMessage -> reposted.setMessageId(index, sentMessage.getId());
+                if (i == mapIndex)
+                    discordGame.queueMessage(frontOfShieldChannel, newMap.thenApply(map -> MessageCreateBuilder.from(message).addFiles(map.setName("game-map.png")).build()), onSent, onFailure);
+                else
+                    discordGame.queueMessage(frontOfShieldChannel, message, onSent, onFailure);
+            }
+            return;
+        }
+
+        FrontOfShieldCache.Layout editedLayout = layout;
+        Runnable onFailure = () -> FrontOfShieldCache.clearLayout(channelId, editedLayout);
+        for (int i = 0; i < messages.size(); i++) {
+            boolean redrawMap = i == mapIndex && mapChanged;
+            if (!redrawMap && layout.hasContentHash(i, contentHashes.get(i))) continue;
+            MessageCreateData message = messages.get(i);
+            MessageEditBuilder edit = new MessageEditBuilder().setContent(message.getContent()).setEmbeds(message.getEmbeds());
+            // The hash is only kept once the edit is made, so an edit that is never sent is retried by the next refresh
+            int index = i;
+            Consumer<Message> onEdited = _ -> editedLayout.setContentHash(index, contentHashes.get(index));
+            // The message may still be being posted by an earlier refresh, so its id is read when the edit is sent
+            CompletableFuture<MessageEditData> edited = redrawMap
+                    ? drawGameBoardAsync(discordGame, game, true).thenApply(map -> edit.setFiles(map.setName("game-map.png")).build())
+                    : CompletableFuture.completedFuture(edit.build());
+            discordGame.queueEditMessage(frontOfShieldChannel, () -> editedLayout.getMessageId(index), edited, onEdited, onFailure);
+        }
+    }
+
+    private static int frontOfShieldContentHash(MessageCreateData message) {
+        return Objects.hash(message.getContent(), message.getEmbeds().stream().map(embed -> embed.toData().toString()).toList());
     }
 
     public static void refreshChangedInfo(DiscordGame discordGame) throws ChannelNotFoundException, IOException, InvalidGameStateException {
         Game game = discordGame.getGame();
         boolean frontOfShieldModified = false;
+        boolean mapChanged = false;
         for (Faction faction : game.getFactions()) {
             Set<UpdateType> updateTypes = faction.getUpdateTypes();
             if (
@@ -1517,19 +1653,22 @@ public class ShowCommands {
 
             if (updateTypes.contains(UpdateType.MAP)) {
                 frontOfShieldModified = true;
+                mapChanged = true;
             }
         }
         if (game.getUpdateTypes().contains(UpdateType.MAP)) {
             frontOfShieldModified = true;
+            mapChanged = true;
         }
 
         if (game.getUpdateTypes().contains(UpdateType.MAP_ALSO_IN_TURN_SUMMARY)) {
             frontOfShieldModified = true;
-            discordGame.getTurnSummary().queueMessage(drawGameBoard(discordGame, game));
+            mapChanged = true;
+            discordGame.getTurnSummary().queueMessage(drawGameBoardAsync(discordGame, game, false));
         }
 
         if (frontOfShieldModified) {
-            refreshFrontOfShieldInfo(discordGame, game);
+            refreshFrontOfShieldInfo(discordGame, game, mapChanged);
         }
     }
 }
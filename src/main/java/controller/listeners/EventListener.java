@@ -1,5 +1,6 @@
 package controller.listeners;
 
+import caches.CardImageIndex;
 import caches.EmojiCache;
 import caches.LastChannelMessageCache;
 import constants.Emojis;
@@ -14,7 +15,9 @@ import net.dv8tion.jda.api.JDA;
 import net.dv8tion.jda.api.entities.Guild;
 import net.dv8tion.jda.api.entities.Message;
 import net.dv8tion.jda.api.entities.channel.concrete.ThreadChannel;
+import net.dv8tion.jda.api.events.message.MessageDeleteEvent;
 import net.dv8tion.jda.api.events.message.MessageReceivedEvent;
+import net.dv8tion.jda.api.events.message.MessageUpdateEvent;
 import net.dv8tion.jda.api.hooks.ListenerAdapter;
 import net.dv8tion.jda.api.components.actionrow.ActionRow;
 import net.dv8tion.jda.api.components.buttons.Button;
@@ -46,12 +49,23 @@ public class EventListener extends ListenerAdapter {
 
     @Override
     public void onMessageReceived(@NotNull MessageReceivedEvent event) {
+        CardImageIndex.invalidateChannelId(event.getChannel().getId());
         CommandCompletionGuard.incrementCommandCount();
         CompletableFuture
                 .runAsync(() -> runOnMessageReceived(event))
                 .thenRunAsync(CommandCompletionGuard::decrementCommandCount);
     }
 
+    @Override
+    public void onMessageUpdate(@NotNull MessageUpdateEvent event) {
+        CardImageIndex.invalidateChannelId(event.getChannel().getId());
+    }
+
+    @Override
+    public void onMessageDelete(@NotNull MessageDeleteEvent event) {
+        CardImageIndex.invalidateChannelId(event.getChannel().getId());
+    }
+
     public void runOnMessageReceived(@NotNull MessageReceivedEvent event) {
         try {
             Guild guild = event.getGuild();
@@ -0,0 +1,92 @@
+package devtools;
+
+import exceptions.ChannelNotFoundException;
+import io.github.cdimascio.dotenv.Dotenv;
+import net.dv8tion.jda.api.JDA;
+import net.dv8tion.jda.api.JDABuilder;
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.entities.Message;
+import net.dv8tion.jda.api.entities.MessageHistory;
+import net.dv8tion.jda.api.entities.channel.concrete.Category;
+import net.dv8tion.jda.api.entities.channel.concrete.TextChannel;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Downloads the bot-data history of a game into a directory, oldest message first, so the game can be replayed
+ * without Discord. Each message with a game state becomes two files named by its position in the channel:
+ * {@code 000001.txt} with the message text, which names the command or button that saved the state, and
+ * {@code 000001-gamestate.json} with the attachment under its original name. The attachment is a full game state
+ * ({@code gamestate.json} or {@code gamestate.bin}) or a journal entry ({@code gamestate.patch.json}).
+ */
+public class ExportBotData {
+    private static final int PAGE_SIZE = 100;
+
+    public static void main(String[] args) throws ChannelNotFoundException, InterruptedException, IOException {
+        String token = Dotenv.configure().load().get("MAIN_TOKEN");
+        String guildId = Dotenv.configure().load().get("MAIN_GUILD_ID");
+        String category = Dotenv.configure().load().get("EXPORT_CATEGORY");
+        Path directory = Path.of(Dotenv.configure().load().get("EXPORT_DIRECTORY"));
+
+        System.out.println("Exporting bot-data from " + category + " to " + directory);
+
+        JDA jda = JDABuilder.createDefault(token).build().awaitReady();
+        try {
+            int exported = export(getBotDataChannel(jda, guildId, category), directory);
+            System.out.println("Exported " + exported + " game states");
+        } finally {
+            jda.shutdownNow();
+        }
+        System.exit(0);
+    }
+
+    /**
+     * @return The number of game states written.
+     */
+    public static int export(TextChannel botData, Path directory) throws IOException {
+        Files.createDirectories(directory);
+        int sequence = 0;
+        String id = "0";
+        List<Message> page;
+        do {
+            // Each page is newest first
+            page = MessageHistory.getHistoryAfter(botData, id).limit(PAGE_SIZE).complete().getRetrievedHistory();
+            for (Message message : new ArrayList<>(page).reversed()) {
+                if (message.getAttachments().isEmpty()) continue;
+                sequence++;
+                String prefix = String.format("%06d", sequence);
+                Message.Attachment attachment = message.getAttachments().getFirst();
+                Files.writeString(directory.resolve(prefix + ".txt"), message.getContentRaw(), StandardCharsets.UTF_8);
+                Files.write(directory.resolve(prefix + "-" + attachment.getFileName()), download(attachment));
+            }
+            if (!page.isEmpty()) id = page.getFirst().getId();
+        } while (page.size() == PAGE_SIZE);
+        return sequence;
+    }
+
+    private static byte[] download(Message.Attachment attachment) throws IOException {
+        try (InputStream inputStream = attachment.getProxy().download().get()) {
+            return inputStream.readAllBytes();
+        } catch (InterruptedException | ExecutionException e) {
+            throw new IOException("Failed to download " + attachment.getFileName(), e);
+        }
+    }
+
+    private static TextChannel getBotDataChannel(JDA jda, String guildId, String category) throws ChannelNotFoundException {
+        Guild guild = jda.getGuildById(guildId);
+        if (guild == null) throw new ChannelNotFoundException("Guild not found");
+        List<Category> categories = guild.getCategoriesByName(category, true);
+        if (categories.isEmpty()) throw new ChannelNotFoundException("Category " + category + " not found");
+        return categories.getFirst().getTextChannels().stream()
+                .filter(c -> c.getName().equals("bot-data"))
+                .findFirst()
+                .orElseThrow(() -> new ChannelNotFoundException("bot-data not found in " + category));
+    }
+}
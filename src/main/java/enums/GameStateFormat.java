@@ -0,0 +1,9 @@
+package enums;
+
+/**
+ * Represents the file format used when saving a game state to the bot-data channel.
+ */
+public enum GameStateFormat {
+    JSON,
+    BINARY
+}
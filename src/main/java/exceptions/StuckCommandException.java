@@ -0,0 +1,12 @@
+package exceptions;
+
+/**
+ * Reports a command that has held its game's queue for too long. The stack trace is where the command's thread was
+ * when it was found, not where this was created.
+ */
+public class StuckCommandException extends Exception {
+    public StuckCommandException(String message, StackTraceElement[] stackTrace) {
+        super(message);
+        setStackTrace(stackTrace);
+    }
+}
@@ -0,0 +1,313 @@
+package helpers;
+
+import com.google.gson.*;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.*;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Compact binary encoding of a JSON document, used for saved game states.
+ *
+ * <p>The encoding is a stream of one-byte tags in document order. Every string, including property names, is written
+ * in full the first time it appears and as a varint reference to that first occurrence afterwards, so repeated
+ * territory, faction, card and field names cost one or two bytes each. Integers are zigzag varints. The data starts
+ * with a magic number and format version so readers can tell it apart from a plain JSON save.
+ */
+public class BinaryJson {
+    private static final byte[] MAGIC = {'D', 'U', 'N', 'B'};
+    private static final int VERSION = 1;
+
+    private static final int BEGIN_OBJECT = 1;
+    private static final int END_OBJECT = 2;
+    private static final int BEGIN_ARRAY = 3;
+    private static final int END_ARRAY = 4;
+    private static final int NAME = 5;
+    private static final int STRING = 6;
+    private static final int NULL = 7;
+    private static final int TRUE = 8;
+    private static final int FALSE = 9;
+    private static final int INTEGER = 10;
+    private static final int DOUBLE = 11;
+    private static final int NUMBER = 12;
+
+    /**
+     * Serializes an object with the given Gson straight to the binary encoding, without building JSON text.
+     *
+     * @param gson The Gson object whose type adapters and exclusion strategies should be used.
+     * @param src  The object to serialize.
+     * @return The encoded bytes, including the header.
+     */
+    public static byte[] toBinary(Gson gson, Object src) {
+        BinaryJsonWriter writer = new BinaryJsonWriter();
+        gson.toJson(src, src.getClass(), writer);
+        return writer.toByteArray();
+    }
+
+    /**
+     * @param data Saved data of unknown format.
+     * @return True if the data starts with the binary header.
+     */
+    public static boolean isBinary(byte[] data) {
+        return data.length > MAGIC.length && Arrays.equals(data, 0, MAGIC.length, MAGIC, 0, MAGIC.length);
+    }
+
+    /**
+     * Decodes binary data produced by {@link #toBinary(Gson, Object)}.
+     *
+     * @param data The encoded bytes, including the header.
+     * @return The decoded document.
+     * @throws JsonParseException If the data is not a supported version of the binary encoding.
+     */
+    public static JsonElement parse(byte[] data) {
+        if (!isBinary(data)) throw new JsonParseException("Data is not in the binary game state format");
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(data, MAGIC.length, data.length - MAGIC.length));
+        try {
+            int version = in.readUnsignedByte();
+            if (version != VERSION) throw new JsonParseException("Unsupported binary game state version " + version);
+            return readElement(in, in.readUnsignedByte(), new ArrayList<>());
+        } catch (IOException e) {
+            throw new JsonParseException("Truncated binary game state", e);
+        }
+    }
+
+    private static JsonElement readElement(DataInputStream in, int tag, List<String> strings) throws IOException {
+        return switch (tag) {
+            case BEGIN_OBJECT -> {
+                JsonObject object = new JsonObject();
+                for (int next = in.readUnsignedByte(); next != END_OBJECT; next = in.readUnsignedByte()) {
+                    if (next != NAME) throw new JsonParseException("Expected a name but found tag " + next);
+                    String name = readString(in, strings);
+                    object.add(name, readElement(in, in.readUnsignedByte(), strings));
+                }
+                yield object;
+            }
+            case BEGIN_ARRAY -> {
+                JsonArray array = new JsonArray();
+                for (int next = in.readUnsignedByte(); next != END_ARRAY; next = in.readUnsignedByte())
+                    array.add(readElement(in, next, strings));
+                yield array;
+            }
+            case STRING -> new JsonPrimitive(readString(in, strings));
+            case NULL -> JsonNull.INSTANCE;
+            case TRUE -> new JsonPrimitive(true);
+            case FALSE -> new JsonPrimitive(false);
+            case INTEGER -> {
+                long zigzag = readVarLong(in);
+                yield new JsonPrimitive((zigzag >>> 1) ^ -(zigzag & 1));
+            }
+            case DOUBLE -> new JsonPrimitive(in.readDouble());
+            case NUMBER -> new JsonPrimitive(new BigDecimal(readString(in, strings)));
+            default -> throw new JsonParseException("Unexpected tag " + tag);
+        };
+    }
+
+    private static String readString(DataInputStream in, List<String> strings) throws IOException {
+        int reference = (int) readVarLong(in);
+        if (reference > 0) return strings.get(reference - 1);
+        byte[] bytes = new byte[(int) readVarLong(in)];
+        in.readFully(bytes);
+        String string = new String(bytes, StandardCharsets.UTF_8);
+        strings.add(string);
+        return string;
+    }
+
+    private static long readVarLong(DataInputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return value;
+        }
+        throw new JsonParseException("Malformed varint");
+    }
+
+    /**
+     * JsonWriter that produces the binary encoding instead of JSON text. Like the text writer, a property whose value
+     * is null is dropped unless the writer is configured to serialize nulls.
+     */
+    static class BinaryJsonWriter extends JsonWriter {
+        private static final Writer UNWRITABLE_WRITER = new Writer() {
+            @Override
+            public void write(char[] buffer, int offset, int counter) {
+                throw new AssertionError();
+            }
+
+            @Override
+            public void flush() {
+                throw new AssertionError();
+            }
+
+            @Override
+            public void close() {
+                throw new AssertionError();
+            }
+        };
+
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private final Map<String, Integer> stringIds = new HashMap<>();
+        private String pendingName;
+
+        BinaryJsonWriter() {
+            super(UNWRITABLE_WRITER);
+            bytes.writeBytes(MAGIC);
+            bytes.write(VERSION);
+        }
+
+        byte[] toByteArray() {
+            return bytes.toByteArray();
+        }
+
+        private void writeVarLong(long value) {
+            while ((value & ~0x7FL) != 0) {
+                bytes.write((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            bytes.write((int) value);
+        }
+
+        private void writeString(String string) {
+            Integer id = stringIds.get(string);
+            if (id != null) {
+                writeVarLong(id);
+                return;
+            }
+            stringIds.put(string, stringIds.size() + 1);
+            byte[] utf8 = string.getBytes(StandardCharsets.UTF_8);
+            writeVarLong(0);
+            writeVarLong(utf8.length);
+            bytes.writeBytes(utf8);
+        }
+
+        private void writePendingName() {
+            if (pendingName == null) return;
+            bytes.write(NAME);
+            writeString(pendingName);
+            pendingName = null;
+        }
+
+        @Override
+        public JsonWriter beginArray() {
+            writePendingName();
+            bytes.write(BEGIN_ARRAY);
+            return this;
+        }
+
+        @Override
+        public JsonWriter endArray() {
+            bytes.write(END_ARRAY);
+            return this;
+        }
+
+        @Override
+        public JsonWriter beginObject() {
+            writePendingName();
+            bytes.write(BEGIN_OBJECT);
+            return this;
+        }
+
+        @Override
+        public JsonWriter endObject() {
+            if (pendingName != null) throw new IllegalStateException("Dangling name: " + pendingName);
+            bytes.write(END_OBJECT);
+            return this;
+        }
+
+        @Override
+        public JsonWriter name(String name) {
+            Objects.requireNonNull(name, "name == null");
+            if (pendingName != null) throw new IllegalStateException("Already wrote a name, expecting a value.");
+            pendingName = name;
+            return this;
+        }
+
+        @Override
+        public JsonWriter value(String value) {
+            if (value == null) return nullValue();
+            writePendingName();
+            bytes.write(STRING);
+            writeString(value);
+            return this;
+        }
+
+        @Override
+        public JsonWriter jsonValue(String value) {
+            throw new UnsupportedOperationException("Raw JSON values cannot be written in the binary format");
+        }
+
+        @Override
+        public JsonWriter nullValue() {
+            if (pendingName != null && !getSerializeNulls()) {
+                pendingName = null;
+                return this;
+            }
+            writePendingName();
+            bytes.write(NULL);
+            return this;
+        }
+
+        @Override
+        public JsonWriter value(boolean value) {
+            writePendingName();
+            bytes.write(value ? TRUE : FALSE);
+            return this;
+        }
+
+        @Override
+        public JsonWriter value(Boolean value) {
+            return value == null ? nullValue() : value(value.booleanValue());
+        }
+
+        @Override
+        public JsonWriter value(float value) {
+            return value((double) value);
+        }
+
+        @Override
+        public JsonWriter value(double value) {
+            writePendingName();
+            bytes.write(DOUBLE);
+            long bits = Double.doubleToLongBits(value);
+            for (int shift = 56; shift >= 0; shift -= 8)
+                bytes.write((int) (bits >>> shift));
+            return this;
+        }
+
+        @Override
+        public JsonWriter value(long value) {
+            writePendingName();
+            bytes.write(INTEGER);
+            writeVarLong((value << 1) ^ (value >> 63));
+            return this;
+        }
+
+        @Override
+        public JsonWriter value(Number value) {
+            return switch (value) {
+                case null -> nullValue();
+                case Integer i -> value(i.longValue());
+                case Long l -> value(l.longValue());
+                case Short s -> value(s.longValue());
+                case Byte b -> value(b.longValue());
+                case Double d -> value(d.doubleValue());
+                case Float f -> value(f.doubleValue());
+                default -> {
+                    writePendingName();
+                    bytes.write(NUMBER);
+                    writeString(value.toString());
+                    yield this;
+                }
+            };
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
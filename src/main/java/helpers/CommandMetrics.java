@@ -0,0 +1,297 @@
+package helpers;
+
+import controller.Queue;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Latency of every slash command and button press, overall and split into the phases of handling it, kept per
+ * command name (e.g. {@code /show board}) and per button prefix (e.g. {@code button bidding}).
+ * <p>
+ * The command manager starts timing when it runs a command and finishes when the command is done. In between, the
+ * code that loads, saves and draws records how long it took with {@link #record}. Logic is what is left of the
+ * command's time after the phases recorded on its own thread.
+ * <p>
+ * Drawing on the {@link RenderExecutor} and sending the command's messages carry on after the command is done, so
+ * they are recorded as render and dispatch time with {@link CommandTimer#recordOffThread} when they finish, and are
+ * part of neither logic nor the command's total. Dispatch runs from when the messages are handed to the
+ * {@link DiscordRequestDispatcher} until the last one is sent, including any wait for a drawing they attach.
+ */
+public class CommandMetrics {
+    public static final String OBJECT_NAME = "dunebot:type=CommandMetrics";
+    private static final Map<String, Timings> timings = new ConcurrentHashMap<>();
+    private static final ThreadLocal<CommandTimer> current = new ThreadLocal<>();
+
+    public enum Phase {
+        QUEUE_WAIT("queue"),
+        LOAD("load"),
+        LOGIC("logic"),
+        SAVE("save"),
+        RENDER("render"),
+        DISPATCH("dispatch");
+
+        private final String label;
+
+        Phase(String label) {
+            this.label = label;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+    }
+
+    /**
+     * The total and per phase latencies of one command name.
+     */
+    public record Timings(LatencyHistogram total, Map<Phase, LatencyHistogram> phases) {
+        private Timings() {
+            this(new LatencyHistogram(), new EnumMap<>(Phase.class));
+            for (Phase phase : Phase.values()) phases.put(phase, new LatencyHistogram());
+        }
+    }
+
+    /**
+     * The phases of the command running on a thread. Work the command hands to another thread records its time with
+     * {@link #recordOffThread}.
+     */
+    public static class CommandTimer {
+        private final Timings commandTimings;
+        private final long startNanos;
+        private final long[] phaseNanos = new long[Phase.values().length];
+        private final boolean[] recorded = new boolean[Phase.values().length];
+        private long commandThreadNanos;
+        private boolean finished;
+
+        private CommandTimer(String name, long startNanos) {
+            this.commandTimings = timings.computeIfAbsent(name, _ -> new Timings());
+            this.startNanos = startNanos;
+        }
+
+        synchronized void add(Phase phase, long nanos, boolean onCommandThread) {
+            if (finished) return;
+            phaseNanos[phase.ordinal()] += nanos;
+            recorded[phase.ordinal()] = true;
+            if (onCommandThread) commandThreadNanos += nanos;
+        }
+
+        /**
+         * Records time spent for the command on another thread straight into the latencies for its name, whether or
+         * not the command has finished. It is not taken from logic.
+         *
+         * @param phase The phase, such as render or dispatch.
+         * @param nanos How long it took.
+         */
+        public void recordOffThread(Phase phase, long nanos) {
+            commandTimings.phases().get(phase).recordNanos(nanos);
+        }
+
+        private synchronized void finish(long endNanos) {
+            finished = true;
+            long total = endNanos - startNanos;
+            phaseNanos[Phase.LOGIC.ordinal()] = total - commandThreadNanos;
+            recorded[Phase.LOGIC.ordinal()] = true;
+            commandTimings.total().recordNanos(total + phaseNanos[Phase.QUEUE_WAIT.ordinal()]);
+            for (Phase phase : Phase.values())
+                if (recorded[phase.ordinal()]) commandTimings.phases().get(phase).recordNanos(phaseNanos[phase.ordinal()]);
+        }
+    }
+
+    /**
+     * Starts timing a command on this thread.
+     *
+     * @param name        The command name, e.g. {@code /show board}, or the button prefix, e.g. {@code button bidding}.
+     * @param queuedNanos The {@link System#nanoTime()} when the command was queued behind earlier commands for its
+     *                    game.
+     */
+    public static void start(String name, long queuedNanos) {
+        long now = System.nanoTime();
+        CommandTimer timer = new CommandTimer(name, now);
+        timer.add(Phase.QUEUE_WAIT, now - queuedNanos, false);
+        current.set(timer);
+    }
+
+    /**
+     * Finishes timing the command on this thread and adds its latencies to the totals for its name.
+     */
+    public static void finish() {
+        CommandTimer timer = current.get();
+        if (timer == null) return;
+        current.remove();
+        timer.finish(System.nanoTime());
+    }
+
+    /**
+     * Adds the time since the start of a phase to the command running on this thread, if any.
+     *
+     * @param phase      The phase.
+     * @param startNanos The {@link System#nanoTime()} when the phase started.
+     */
+    public static void record(Phase phase, long startNanos) {
+        CommandTimer timer = current.get();
+        if (timer != null) timer.add(phase, System.nanoTime() - startNanos, true);
+    }
+
+    /**
+     * @return The command running on this thread, or null, so work handed to another thread can add to it.
+     */
+    public static CommandTimer current() {
+        return current.get();
+    }
+
+    public static Map<String, Timings> getTimings() {
+        return new TreeMap<>(timings);
+    }
+
+    public static void reset() {
+        timings.clear();
+    }
+
+    /**
+     * Describes the commands run most often, with their overall latency and the 99th percentile of each phase, in
+     * milliseconds.
+     *
+     * @param maxLength The longest text to return.
+     * @return The description, as a code block.
+     */
+    public static String report(int maxLength) {
+        List<Map.Entry<String, Timings>> entries = new ArrayList<>(timings.entrySet());
+        if (entries.isEmpty()) return "No commands have been timed since the bot started.";
+        entries.sort(Comparator.comparingLong((Map.Entry<String, Timings> e) -> e.getValue().total().getCount()).reversed()
+                .thenComparing(Map.Entry::getKey));
+
+        StringBuilder header = new StringBuilder("```\n");
+        header.append(String.format("%-28s %6s %7s %7s %7s%n", "command", "count", "p50", "p99", "max"));
+        String phaseNames = String.join("/", Arrays.stream(Phase.values()).map(Phase::getLabel).toList());
+        header.append("  p99 ").append(phaseNames).append('\n');
+        StringBuilder report = new StringBuilder(header);
+        int shown = 0;
+        for (Map.Entry<String, Timings> entry : entries) {
+            String lines = formatTimings(entry.getKey(), entry.getValue());
+            // Leaves room for the line saying how many more there are and the end of the code block
+            if (report.length() + lines.length() + 24 > maxLength) {
+                report.append("... ").append(entries.size() - shown).append(" more\n");
+                break;
+            }
+            report.append(lines);
+            shown++;
+        }
+        return report.append("```").toString();
+    }
+
+    private static String formatTimings(String name, Timings commandTimings) {
+        LatencyHistogram total = commandTimings.total();
+        StringBuilder lines = new StringBuilder(String.format("%-28s %6d %7s %7s %7s%n",
+                name.length() > 28 ? name.substring(0, 28) : name, total.getCount(),
+                millis(total.getPercentileMicros(50)), millis(total.getPercentileMicros(99)), millis(total.getMaxMicros())));
+        List<String> phases = new ArrayList<>();
+        for (Phase phase : Phase.values()) {
+            LatencyHistogram histogram = commandTimings.phases().get(phase);
+            phases.add(histogram.getCount() == 0 ? "-" : millis(histogram.getPercentileMicros(99)));
+        }
+        return lines.append("  p99 ").append(String.join("/", phases)).append('\n').toString();
+    }
+
+    private static String millis(long micros) {
+        return micros < 10_000 ? String.format("%.1f", micros / 1000.0) : Long.toString(micros / 1000);
+    }
+
+    /**
+     * Writes the latencies in the Prometheus text format, as a summary per command and phase in seconds.
+     */
+    public static String toPrometheus() {
+        StringBuilder text = new StringBuilder();
+        text.append("# HELP dunebot_command_seconds Latency of slash commands and button presses by phase.\n");
+        text.append("# TYPE dunebot_command_seconds summary\n");
+        for (Map.Entry<String, Timings> entry : getTimings().entrySet()) {
+            appendSummary(text, entry.getKey(), "total", entry.getValue().total());
+            for (Phase phase : Phase.values()) {
+                LatencyHistogram histogram = entry.getValue().phases().get(phase);
+                if (histogram.getCount() > 0) appendSummary(text, entry.getKey(), phase.getLabel(), histogram);
+            }
+        }
+        return text.toString();
+    }
+
+    /**
+     * Writes the backlog of every game with commands waiting or running in the Prometheus text format.
+     */
+    public static String queuesToPrometheus() {
+        StringBuilder text = new StringBuilder();
+        text.append("# HELP dunebot_queue_waiting Commands waiting behind the running command of a game.\n");
+        text.append("# TYPE dunebot_queue_waiting gauge\n");
+        text.append("# HELP dunebot_queue_running_seconds How long the running command of a game has been running.\n");
+        text.append("# TYPE dunebot_queue_running_seconds gauge\n");
+        for (Map.Entry<String, Queue.Backlog> entry : Queue.getBacklogs().entrySet()) {
+            String labels = "{game=\"" + escape(entry.getKey()) + "\"} ";
+            text.append("dunebot_queue_waiting").append(labels).append(entry.getValue().waiting()).append('\n');
+            text.append("dunebot_queue_running_seconds").append(labels).append(entry.getValue().runningFor().toMillis() / 1000.0).append('\n');
+        }
+        return text.toString();
+    }
+
+    private static String escape(String label) {
+        return label.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+
+    private static void appendSummary(StringBuilder text, String name, String phase, LatencyHistogram histogram) {
+        String labels = "command=\"" + escape(name) + "\",phase=\"" + phase + "\"";
+        for (double quantile : new double[]{0.5, 0.9, 0.99})
+            text.append("dunebot_command_seconds{").append(labels).append(",quantile=\"").append(quantile).append("\"} ")
+                    .append(histogram.getPercentileMicros(quantile * 100) / 1e6).append('\n');
+        text.append("dunebot_command_seconds_sum{").append(labels).append("} ").append(histogram.getSumMicros() / 1e6).append('\n');
+        text.append("dunebot_command_seconds_count{").append(labels).append("} ").append(histogram.getCount()).append('\n');
+    }
+
+    /**
+     * Reads the latencies over JMX, e.g. from JConsole or VisualVM.
+     */
+    public interface CommandMetricsMXBean {
+        String getReport();
+
+        Map<String, Long> getCounts();
+
+        Map<String, Double> getP99Millis();
+
+        void reset();
+    }
+
+    /**
+     * Registers the latencies with the platform MBean server under {@value #OBJECT_NAME}.
+     */
+    public static void registerMBean() throws JMException {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(new CommandMetricsMXBean() {
+                @Override
+                public String getReport() {
+                    return report(Integer.MAX_VALUE);
+                }
+
+                @Override
+                public Map<String, Long> getCounts() {
+                    Map<String, Long> counts = new TreeMap<>();
+                    timings.forEach((name, t) -> counts.put(name, t.total().getCount()));
+                    return counts;
+                }
+
+                @Override
+                public Map<String, Double> getP99Millis() {
+                    Map<String, Double> p99 = new TreeMap<>();
+                    timings.forEach((name, t) -> p99.put(name, t.total().getPercentileMicros(99) / 1000.0));
+                    return p99;
+                }
+
+                @Override
+                public void reset() {
+                    CommandMetrics.reset();
+                }
+            }, new ObjectName(OBJECT_NAME));
+        } catch (InstanceAlreadyExistsException ignored) {
+        }
+    }
+}
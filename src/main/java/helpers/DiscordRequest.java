@@ -1,34 +1,181 @@
 package helpers;
 
+import net.dv8tion.jda.api.entities.Message;
+import net.dv8tion.jda.api.requests.RestAction;
 import net.dv8tion.jda.api.requests.restaction.AuditableRestAction;
 import net.dv8tion.jda.api.requests.restaction.MessageCreateAction;
+import net.dv8tion.jda.api.requests.restaction.MessageEditAction;
 import net.dv8tion.jda.api.requests.restaction.WebhookMessageCreateAction;
 
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
 @SuppressWarnings("rawtypes")
 public class DiscordRequest {
+    String channelId;
     MessageCreateAction messageCreateAction;
     WebhookMessageCreateAction webhookMessageCreateAction;
     AuditableRestAction auditableRestAction;
+    MessageEditAction messageEditAction;
+    Supplier<? extends RestAction<?>> deferredAction;
+    Consumer<Message> onSent;
+    Runnable onFailure;
+    CompletableFuture<?> ready = CompletableFuture.completedFuture(null);
 
-    public DiscordRequest(MessageCreateAction messageCreateAction) {
+    /**
+     * @param channelId           The channel or thread the message is sent to, or an empty string if it is not known.
+     * @param messageCreateAction The message to send.
+     */
+    public DiscordRequest(String channelId, MessageCreateAction messageCreateAction) {
+        this.channelId = channelId;
         this.messageCreateAction = messageCreateAction;
     }
 
-    public DiscordRequest(WebhookMessageCreateAction webhookMessageCreateAction) {
+    /**
+     * @param channelId                  The channel the interaction happened in.
+     * @param webhookMessageCreateAction The interaction reply to send.
+     */
+    public DiscordRequest(String channelId, WebhookMessageCreateAction webhookMessageCreateAction) {
+        this.channelId = channelId;
         this.webhookMessageCreateAction = webhookMessageCreateAction;
     }
 
-    public DiscordRequest(AuditableRestAction auditableRestAction) {
+    /**
+     * @param channelId           The channel the action affects.
+     * @param auditableRestAction The action to run, e.g. deleting a message.
+     */
+    public DiscordRequest(String channelId, AuditableRestAction auditableRestAction) {
+        this.channelId = channelId;
         this.auditableRestAction = auditableRestAction;
     }
 
+    /**
+     * @param channelId         The channel the edited message is in.
+     * @param messageEditAction The edit to make.
+     */
+    public DiscordRequest(String channelId, MessageEditAction messageEditAction) {
+        this.channelId = channelId;
+        this.messageEditAction = messageEditAction;
+    }
+
+    /**
+     * @param channelId      The channel the action affects.
+     * @param deferredAction Creates the action when it is its turn to be sent, e.g. once a map being drawn for it is
+     *                       ready, or returns null if there turns out to be nothing to send. Requests queued before it
+     *                       for other channels are not held up.
+     */
+    public DiscordRequest(String channelId, Supplier<? extends RestAction<?>> deferredAction) {
+        this.channelId = channelId;
+        this.deferredAction = deferredAction;
+    }
+
+    /**
+     * @param onSent Called with the message once a message is sent or edited.
+     * @return This request.
+     */
+    public DiscordRequest whenSent(Consumer<Message> onSent) {
+        this.onSent = onSent;
+        return this;
+    }
+
+    /**
+     * @param onFailure Called if the request fails.
+     * @return This request.
+     */
+    public DiscordRequest whenFailed(Runnable onFailure) {
+        this.onFailure = onFailure;
+        return this;
+    }
+
+    /**
+     * @param ready Completes when the request can be sent without waiting, e.g. once the map a deferred message
+     *              attaches has been drawn. The request and later requests to its channel are held back until then.
+     * @return This request.
+     */
+    public DiscordRequest after(CompletableFuture<?> ready) {
+        this.ready = ready;
+        return this;
+    }
+
+    CompletableFuture<?> getReady() {
+        return ready;
+    }
+
+    void failed() {
+        if (onFailure != null) onFailure.run();
+    }
+
+    /**
+     * @return The channel or thread the request affects. Requests for the same channel are sent in the order queued.
+     */
+    public String getChannelId() {
+        return channelId;
+    }
+
+    /**
+     * @return True if this is a channel message with only text content, so it can be combined with other text. A
+     * message with callbacks is never combined, since they would not be called for the message it was merged into.
+     */
+    boolean isPlainText() {
+        return messageCreateAction != null && !channelId.isEmpty() && onSent == null && onFailure == null && ready.isDone()
+                && messageCreateAction.getContent() != null && !messageCreateAction.getContent().isEmpty()
+                && isEmpty(messageCreateAction.getEmbeds())
+                && isEmpty(messageCreateAction.getComponents())
+                && isEmpty(messageCreateAction.getAttachments())
+                && messageCreateAction.getPoll() == null;
+    }
+
+    private static boolean isEmpty(List<?> list) {
+        return list != null && list.isEmpty();
+    }
+
+    /**
+     * Appends the text of a later plain text message to the same channel onto this one, if the combined text fits in
+     * one Discord message and both are sent the same way.
+     *
+     * @param next The message queued after this one.
+     * @return True if the next message was merged and should not be sent.
+     */
+    boolean mergeWith(DiscordRequest next) {
+        if (!isPlainText() || !next.isPlainText() || !channelId.equals(next.channelId)) return false;
+        MessageCreateAction other = next.messageCreateAction;
+        if (messageCreateAction.isSuppressEmbeds() != other.isSuppressEmbeds()
+                || !Objects.equals(messageCreateAction.getAllowedMentions(), other.getAllowedMentions())
+                || !Objects.equals(messageCreateAction.getMentionedUsers(), other.getMentionedUsers())
+                || !Objects.equals(messageCreateAction.getMentionedRoles(), other.getMentionedRoles()))
+            return false;
+        String content = messageCreateAction.getContent() + "\n" + other.getContent();
+        if (content.length() > Message.MAX_CONTENT_LENGTH) return false;
+        messageCreateAction.setContent(content);
+        return true;
+    }
+
+    /**
+     * Sends the request and waits for Discord to respond.
+     *
+     * @throws IllegalStateException If the request was created without an action, e.g. because the channel returned
+     *                               null instead of a message action.
+     */
     public void complete() {
+        Object result;
         if (messageCreateAction != null) {
-            messageCreateAction.complete();
+            result = messageCreateAction.complete();
         } else if (webhookMessageCreateAction != null) {
-            webhookMessageCreateAction.complete();
+            result = webhookMessageCreateAction.complete();
+        } else if (messageEditAction != null) {
+            result = messageEditAction.complete();
+        } else if (deferredAction != null) {
+            RestAction<?> action = deferredAction.get();
+            result = action == null ? null : action.complete();
+        } else if (auditableRestAction != null) {
+            result = auditableRestAction.complete();
         } else {
-            auditableRestAction.complete();
+            throw new IllegalStateException("The request for channel " + channelId + " has no action to send");
         }
+        if (onSent != null && result instanceof Message message)
+            onSent.accept(message);
     }
 }
@@ -0,0 +1,188 @@
+package helpers;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends queued Discord requests. Requests for the same channel or thread are sent one at a time in the order they were
+ * queued, and different channels are sent concurrently, so a button press that posts to many channels waits for the
+ * slowest channel rather than for every request in turn.
+ *
+ * <p>Each channel keeps the end of its chain of requests across dispatches, so the requests of a command are sent after
+ * those of earlier commands even when the earlier ones are still waiting. A request that waits for something, such as
+ * a map being drawn, holds up only the later requests to its channel, and no thread waits with it.
+ */
+public class DiscordRequestDispatcher {
+    private static final AtomicInteger threadNumber = new AtomicInteger();
+    private static final Map<String, CompletableFuture<Void>> tails = new ConcurrentHashMap<>();
+    private static final Executor currentExecutor = r -> getExecutor().execute(r);
+    private static volatile boolean synchronous = false;
+    private static int maxInFlight = 8;
+    private static ExecutorService executor = newExecutor(maxInFlight);
+
+    /**
+     * A request that threw when it was sent.
+     *
+     * @param request   The request.
+     * @param exception What it threw.
+     */
+    public record Failure(DiscordRequest request, Exception exception) {
+    }
+
+    /**
+     * Sets how many requests may be in flight at once across all games.
+     *
+     * @param maxInFlight The maximum number of channels sent to at the same time.
+     */
+    public static synchronized void setMaxInFlight(int maxInFlight) {
+        if (maxInFlight < 1) throw new IllegalArgumentException("At least 1 request must be allowed in flight");
+        ExecutorService previous = executor;
+        DiscordRequestDispatcher.maxInFlight = maxInFlight;
+        executor = newExecutor(maxInFlight);
+        previous.shutdown();
+    }
+
+    public static synchronized int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    /**
+     * @param synchronous True for commands to wait until their messages are sent, so tests can check what was sent as
+     *                    soon as a command returns.
+     */
+    public static void setSynchronous(boolean synchronous) {
+        DiscordRequestDispatcher.synchronous = synchronous;
+    }
+
+    public static boolean isSynchronous() {
+        return synchronous;
+    }
+
+    /**
+     * Waits until the requests already dispatched to a channel have been sent or have failed.
+     *
+     * @param channelId The channel or thread.
+     */
+    public static void awaitSent(String channelId) {
+        CompletableFuture<Void> tail = tails.get(channelId);
+        if (tail != null) tail.join();
+    }
+
+    /**
+     * @param channelId The channel or thread.
+     * @return True if requests dispatched to the channel have not all been sent yet.
+     */
+    public static boolean isSending(String channelId) {
+        return tails.containsKey(channelId);
+    }
+
+    /**
+     * Waits until every request already dispatched to any channel has been sent or has failed, such as before the bot
+     * exits.
+     */
+    public static void awaitAll() {
+        CompletableFuture.allOf(tails.values().toArray(CompletableFuture[]::new)).join();
+    }
+
+    private static synchronized ExecutorService getExecutor() {
+        return executor;
+    }
+
+    private static ExecutorService newExecutor(int threads) {
+        return Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "discord-dispatcher-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Merges plain text messages with the plain text message queued just before them for the same channel, up to
+     * Discord's message length limit. Messages with files, embeds, components or polls are never merged and nothing is
+     * merged across them.
+     *
+     * @param requests The requests in the order they were queued. Merged messages are updated in place.
+     * @return The requests to send, in the same order.
+     */
+    public static List<DiscordRequest> coalesce(List<DiscordRequest> requests) {
+        List<DiscordRequest> coalesced = new ArrayList<>();
+        Map<String, DiscordRequest> lastInChannel = new HashMap<>();
+        for (DiscordRequest request : requests) {
+            DiscordRequest last = lastInChannel.get(request.getChannelId());
+            if (last != null && last.mergeWith(request)) continue;
+            coalesced.add(request);
+            lastInChannel.put(request.getChannelId(), request);
+        }
+        return coalesced;
+    }
+
+    /**
+     * Sends the requests and waits for all of them to finish. A failed request does not stop later requests to the same
+     * channel.
+     *
+     * @param requests The requests in the order they were queued.
+     * @return The requests that failed, in the order they were queued.
+     */
+    public static List<Failure> dispatch(List<DiscordRequest> requests) {
+        return dispatchAsync(requests).join();
+    }
+
+    /**
+     * Starts sending the requests after any requests to the same channels that are still being sent, without waiting
+     * for them. A failed request does not stop later requests to the same channel.
+     *
+     * @param requests The requests in the order they were queued.
+     * @return The requests that failed, in the order they were queued, once every request has been sent or has failed.
+     */
+    public static CompletableFuture<List<Failure>> dispatchAsync(List<DiscordRequest> requests) {
+        Map<String, List<DiscordRequest>> channels = new LinkedHashMap<>();
+        for (DiscordRequest request : requests)
+            channels.computeIfAbsent(Objects.requireNonNullElse(request.getChannelId(), ""), _ -> new ArrayList<>()).add(request);
+
+        List<Failure> failures = Collections.synchronizedList(new ArrayList<>());
+        CompletableFuture<?>[] sent = channels.entrySet().stream()
+                .map(channel -> chain(channel.getKey(), channel.getValue(), failures))
+                .toArray(CompletableFuture[]::new);
+        return CompletableFuture.allOf(sent).thenApply(_ -> {
+            List<Failure> ordered = new ArrayList<>(failures);
+            ordered.sort(Comparator.comparingInt(failure -> requests.indexOf(failure.request())));
+            return ordered;
+        });
+    }
+
+    /**
+     * Adds the requests to the end of the channel's chain. Each request is sent once the one before it has been sent
+     * and it is ready.
+     *
+     * @return The new end of the chain, which never completes exceptionally.
+     */
+    private static CompletableFuture<Void> chain(String channelId, List<DiscordRequest> requests, List<Failure> failures) {
+        CompletableFuture<Void> tail = tails.compute(channelId, (_, previous) -> {
+            CompletableFuture<Void> next = previous == null ? CompletableFuture.completedFuture(null) : previous;
+            for (DiscordRequest request : requests)
+                next = next.thenCompose(_ -> request.getReady().handle((_, _) -> null))
+                        .thenRunAsync(() -> send(request, failures), currentExecutor)
+                        .exceptionally(e -> {
+                            fail(request, e instanceof CompletionException && e.getCause() != null ? e.getCause() : e, failures);
+                            return null;
+                        });
+            return next;
+        });
+        tail.whenComplete((_, _) -> tails.remove(channelId, tail));
+        return tail;
+    }
+
+    private static void send(DiscordRequest request, List<Failure> failures) {
+        try {
+            request.complete();
+        } catch (Exception e) {
+            fail(request, e, failures);
+        }
+    }
+
+    private static void fail(DiscordRequest request, Throwable e, List<Failure> failures) {
+        failures.add(new Failure(request, e instanceof Exception exception ? exception : new RuntimeException(e)));
+        request.failed();
+    }
+}
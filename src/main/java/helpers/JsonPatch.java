@@ -0,0 +1,138 @@
+package helpers;
+
+import com.google.gson.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Computes and applies differences between JSON documents as a list of JSON Patch (RFC 6902) add, remove and replace
+ * operations. Paths are JSON Pointers, e.g. "/territories/Arrakeen/spice".
+ */
+public class JsonPatch {
+    /**
+     * Computes the operations that turn one document into another. Arrays are compared after skipping their common
+     * first and last elements, so appending to a list or drawing from the top of a deck produces a single operation.
+     *
+     * @param source The original document.
+     * @param target The updated document.
+     * @return The operations that turn source into target, or an empty array if they are equal.
+     */
+    public static JsonArray diff(JsonElement source, JsonElement target) {
+        JsonArray patch = new JsonArray();
+        diff("", source, target, patch);
+        return patch;
+    }
+
+    /**
+     * Applies the operations returned by {@link #diff(JsonElement, JsonElement)}. The document is modified in place.
+     *
+     * @param document The document to patch.
+     * @param patch    The operations to apply, in order.
+     * @return The patched document, which is a new element only if the patch replaces the whole document.
+     * @throws IllegalArgumentException If an operation is not supported or its path does not exist.
+     */
+    public static JsonElement apply(JsonElement document, JsonArray patch) {
+        for (JsonElement element : patch) {
+            JsonObject operation = element.getAsJsonObject();
+            String op = operation.get("op").getAsString();
+            List<String> path = parsePath(operation.get("path").getAsString());
+            JsonElement value = operation.has("value") ? operation.get("value").deepCopy() : null;
+
+            if (path.isEmpty()) {
+                if (op.equals("remove")) throw new IllegalArgumentException("Cannot remove the whole document");
+                document = value;
+                continue;
+            }
+            JsonElement parent = document;
+            for (String token : path.subList(0, path.size() - 1)) {
+                parent = parent.isJsonArray() ? parent.getAsJsonArray().get(Integer.parseInt(token)) : parent.getAsJsonObject().get(token);
+                if (parent == null) throw new IllegalArgumentException("Path does not exist: " + operation.get("path").getAsString());
+            }
+            String last = path.getLast();
+
+            if (parent.isJsonArray()) {
+                List<JsonElement> array = parent.getAsJsonArray().asList();
+                int index = last.equals("-") ? array.size() : Integer.parseInt(last);
+                switch (op) {
+                    case "add" -> array.add(index, value);
+                    case "remove" -> array.remove(index);
+                    case "replace" -> array.set(index, value);
+                    default -> throw new IllegalArgumentException("Unsupported operation: " + op);
+                }
+            } else {
+                JsonObject object = parent.getAsJsonObject();
+                switch (op) {
+                    case "add", "replace" -> object.add(last, value);
+                    case "remove" -> object.remove(last);
+                    default -> throw new IllegalArgumentException("Unsupported operation: " + op);
+                }
+            }
+        }
+        return document;
+    }
+
+    private static void diff(String path, JsonElement source, JsonElement target, JsonArray patch) {
+        if (source.equals(target)) return;
+        if (source.isJsonObject() && target.isJsonObject()) {
+            JsonObject sourceObject = source.getAsJsonObject();
+            JsonObject targetObject = target.getAsJsonObject();
+            for (String key : sourceObject.keySet())
+                if (!targetObject.has(key))
+                    patch.add(operation("remove", path + "/" + escape(key), null));
+            for (Map.Entry<String, JsonElement> member : targetObject.entrySet()) {
+                String memberPath = path + "/" + escape(member.getKey());
+                if (sourceObject.has(member.getKey()))
+                    diff(memberPath, sourceObject.get(member.getKey()), member.getValue(), patch);
+                else
+                    patch.add(operation("add", memberPath, member.getValue()));
+            }
+        } else if (source.isJsonArray() && target.isJsonArray()) {
+            diffArray(path, source.getAsJsonArray(), target.getAsJsonArray(), patch);
+        } else {
+            patch.add(operation("replace", path, target));
+        }
+    }
+
+    private static void diffArray(String path, JsonArray source, JsonArray target, JsonArray patch) {
+        int prefix = 0;
+        while (prefix < source.size() && prefix < target.size() && source.get(prefix).equals(target.get(prefix)))
+            prefix++;
+        int suffix = 0;
+        while (suffix < source.size() - prefix && suffix < target.size() - prefix
+                && source.get(source.size() - 1 - suffix).equals(target.get(target.size() - 1 - suffix)))
+            suffix++;
+
+        int removed = source.size() - prefix - suffix;
+        int added = target.size() - prefix - suffix;
+        int changed = Math.min(removed, added);
+        for (int i = 0; i < changed; i++)
+            diff(path + "/" + (prefix + i), source.get(prefix + i), target.get(prefix + i), patch);
+        for (int i = changed; i < removed; i++)
+            patch.add(operation("remove", path + "/" + (prefix + changed), null));
+        for (int i = changed; i < added; i++)
+            patch.add(operation("add", path + "/" + (prefix + i), target.get(prefix + i)));
+    }
+
+    private static JsonObject operation(String op, String path, JsonElement value) {
+        JsonObject operation = new JsonObject();
+        operation.addProperty("op", op);
+        operation.addProperty("path", path);
+        if (value != null) operation.add("value", value);
+        return operation;
+    }
+
+    private static String escape(String token) {
+        return token.replace("~", "~0").replace("/", "~1");
+    }
+
+    private static List<String> parsePath(String path) {
+        List<String> tokens = new ArrayList<>();
+        if (path.isEmpty()) return tokens;
+        if (!path.startsWith("/")) throw new IllegalArgumentException("Invalid path: " + path);
+        for (String token : path.substring(1).split("/", -1))
+            tokens.add(token.replace("~1", "/").replace("~0", "~"));
+        return tokens;
+    }
+}
@@ -0,0 +1,209 @@
+package helpers;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.IndexColorModel;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Encodes the drawn images that are uploaded to Discord. Images without transparency are written without an alpha
+ * channel, and images with at most 256 colors are written with a palette, so attachments are smaller without losing
+ * any detail. The time and size of every encoding are recorded by image name.
+ */
+public class PngEncoder {
+    private static final int MAX_PALETTE_SIZE = 256;
+    private static final Map<String, Stats> stats = new ConcurrentHashMap<>();
+    private static volatile int compressionLevel = -1;
+    private static volatile int mobileWidth = 0;
+
+    /**
+     * The encodings of one image name.
+     */
+    public static class Stats {
+        private long count;
+        private long totalBytes;
+        private long totalNanos;
+        private long maxNanos;
+        private int lastBytes;
+
+        private synchronized void record(int bytes, long nanos) {
+            count++;
+            totalBytes += bytes;
+            totalNanos += nanos;
+            maxNanos = Math.max(maxNanos, nanos);
+            lastBytes = bytes;
+        }
+
+        public synchronized long getCount() {
+            return count;
+        }
+
+        public synchronized long getTotalBytes() {
+            return totalBytes;
+        }
+
+        public synchronized long getTotalNanos() {
+            return totalNanos;
+        }
+
+        public synchronized long getMaxNanos() {
+            return maxNanos;
+        }
+
+        public synchronized int getLastBytes() {
+            return lastBytes;
+        }
+
+        @Override
+        public synchronized String toString() {
+            return count + " encoded, " + (count == 0 ? 0 : totalBytes / count / 1024) + " KB and "
+                    + (count == 0 ? 0 : totalNanos / count / 1_000_000) + " ms on average, " + maxNanos / 1_000_000 + " ms at most";
+        }
+    }
+
+    /**
+     * Sets the deflate level images are written with.
+     *
+     * @param compressionLevel 0 for the fastest and largest images to 9 for the slowest and smallest, or -1 for the
+     *                         image writer's default.
+     */
+    public static void setCompressionLevel(int compressionLevel) {
+        if (compressionLevel < -1 || compressionLevel > 9)
+            throw new IllegalArgumentException("The PNG compression level must be from 0 to 9, or -1 for the default");
+        PngEncoder.compressionLevel = compressionLevel;
+    }
+
+    public static int getCompressionLevel() {
+        return compressionLevel;
+    }
+
+    /**
+     * Sets the width of the smaller variant of images that are viewed at a glance, such as the map in front of the
+     * shield.
+     *
+     * @param mobileWidth The width in pixels, or 0 to always send the full size image.
+     */
+    public static void setMobileWidth(int mobileWidth) {
+        if (mobileWidth < 0) throw new IllegalArgumentException("The mobile image width cannot be negative");
+        PngEncoder.mobileWidth = mobileWidth;
+    }
+
+    public static int getMobileWidth() {
+        return mobileWidth;
+    }
+
+    /**
+     * @param image The image.
+     * @param name  The name the encoding is recorded under.
+     * @return The image as a png.
+     */
+    public static byte[] encode(BufferedImage image, String name) throws IOException {
+        long start = System.nanoTime();
+        BufferedImage reduced = reduce(image);
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("png").next();
+        try (ImageOutputStream imageOutputStream = ImageIO.createImageOutputStream(outputStream)) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            if (compressionLevel >= 0) {
+                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                param.setCompressionQuality(1 - compressionLevel / 9f);
+            }
+            writer.setOutput(imageOutputStream);
+            writer.write(null, new IIOImage(reduced, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        byte[] png = outputStream.toByteArray();
+        stats.computeIfAbsent(name, _ -> new Stats()).record(png.length, System.nanoTime() - start);
+        return png;
+    }
+
+    /**
+     * Encodes the image scaled down to the mobile width, or at full size if there is no mobile width or the image is
+     * already narrower.
+     *
+     * @param image The image.
+     * @param name  The name the encoding is recorded under.
+     * @return The image as a png.
+     */
+    public static byte[] encodeMobile(BufferedImage image, String name) throws IOException {
+        int width = mobileWidth;
+        if (width == 0 || image.getWidth() <= width) return encode(image, name);
+        int height = Math.max(1, Math.round((float) image.getHeight() * width / image.getWidth()));
+        BufferedImage scaled = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = scaled.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+        g.drawImage(image, 0, 0, width, height, null);
+        g.dispose();
+        return encode(scaled, name + " (mobile)");
+    }
+
+    /**
+     * @return The encodings so far by image name.
+     */
+    public static Map<String, Stats> getStats() {
+        return new TreeMap<>(stats);
+    }
+
+    public static void clearStats() {
+        stats.clear();
+    }
+
+    /**
+     * Returns an image with the same pixels that drops the alpha channel if every pixel is opaque, and uses a palette
+     * if there are few enough colors.
+     */
+    static BufferedImage reduce(BufferedImage image) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        int[] pixels = image.getRGB(0, 0, width, height, null, 0, width);
+        boolean opaque = true;
+        Map<Integer, Integer> palette = new HashMap<>();
+        for (int pixel : pixels) {
+            if (pixel >>> 24 != 0xFF) opaque = false;
+            if (palette != null && palette.putIfAbsent(pixel, palette.size()) == null && palette.size() > MAX_PALETTE_SIZE)
+                palette = null;
+            if (!opaque && palette == null) break;
+        }
+
+        if (palette != null) {
+            byte[] r = new byte[palette.size()];
+            byte[] g = new byte[palette.size()];
+            byte[] b = new byte[palette.size()];
+            byte[] a = new byte[palette.size()];
+            for (Map.Entry<Integer, Integer> color : palette.entrySet()) {
+                int pixel = color.getKey();
+                int index = color.getValue();
+                a[index] = (byte) (pixel >>> 24);
+                r[index] = (byte) (pixel >> 16);
+                g[index] = (byte) (pixel >> 8);
+                b[index] = (byte) pixel;
+            }
+            IndexColorModel colorModel = opaque ? new IndexColorModel(8, palette.size(), r, g, b)
+                    : new IndexColorModel(8, palette.size(), r, g, b, a);
+            BufferedImage indexed = new BufferedImage(width, height, BufferedImage.TYPE_BYTE_INDEXED, colorModel);
+            int[] indexes = new int[pixels.length];
+            for (int i = 0; i < pixels.length; i++)
+                indexes[i] = palette.get(pixels[i]);
+            indexed.getRaster().setPixels(0, 0, width, height, indexes);
+            return indexed;
+        }
+        if (opaque && image.getType() != BufferedImage.TYPE_INT_RGB) {
+            BufferedImage rgb = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            rgb.setRGB(0, 0, width, height, pixels, 0, width);
+            return rgb;
+        }
+        return image;
+    }
+}
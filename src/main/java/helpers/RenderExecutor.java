@@ -0,0 +1,94 @@
+package helpers;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Draws images on a small pool of threads, so a command can carry on changing the game, saving it and queueing its
+ * other messages while its map is drawn. Requests for an image that is already being drawn share the drawing. When
+ * more drawings are waiting than the pool can hold, the caller draws the image itself.
+ */
+public class RenderExecutor {
+    private static final int MAX_WAITING = 64;
+    private static final AtomicInteger threadNumber = new AtomicInteger();
+    private static final Map<String, CompletableFuture<byte[]>> drawing = new ConcurrentHashMap<>();
+    private static int threads = 2;
+    private static ExecutorService executor = newExecutor(threads);
+
+    /**
+     * Draws and encodes an image.
+     */
+    @FunctionalInterface
+    public interface Renderer {
+        byte[] render() throws IOException;
+    }
+
+    /**
+     * Sets how many images may be drawn at once across all games.
+     *
+     * @param threads The number of drawing threads.
+     */
+    public static synchronized void setThreads(int threads) {
+        if (threads < 1) throw new IllegalArgumentException("At least 1 render thread is required");
+        ExecutorService previous = executor;
+        RenderExecutor.threads = threads;
+        executor = newExecutor(threads);
+        previous.shutdown();
+    }
+
+    public static synchronized int getThreads() {
+        return threads;
+    }
+
+    private static ExecutorService newExecutor(int threads) {
+        return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(MAX_WAITING), r -> {
+            Thread thread = new Thread(r, "board-renderer-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }, (r, _) -> r.run());
+    }
+
+    /**
+     * Starts drawing an image.
+     *
+     * @param key      Identifies the image so concurrent requests for it share one drawing, or null if it cannot be
+     *                 shared.
+     * @param renderer Draws and encodes the image. It must not read anything the caller may change.
+     * @return The encoded image once it is drawn.
+     */
+    public static CompletableFuture<byte[]> render(String key, Renderer renderer) {
+        CompletableFuture<byte[]> future = new CompletableFuture<>();
+        if (key != null) {
+            CompletableFuture<byte[]> inProgress = drawing.putIfAbsent(key, future);
+            if (inProgress != null) return inProgress;
+        }
+        ExecutorService renderExecutor;
+        synchronized (RenderExecutor.class) {
+            renderExecutor = executor;
+        }
+        CommandMetrics.CommandTimer command = CommandMetrics.current();
+        renderExecutor.execute(() -> {
+            byte[] image = null;
+            Throwable failure = null;
+            long start = System.nanoTime();
+            try {
+                image = renderer.render();
+            } catch (Throwable e) {
+                failure = e;
+            }
+            if (command != null) {
+                long nanos = System.nanoTime() - start;
+                // The caller draws the image itself when too many are waiting, which is taken from its logic
+                if (CommandMetrics.current() == command) command.add(CommandMetrics.Phase.RENDER, nanos, true);
+                else command.recordOffThread(CommandMetrics.Phase.RENDER, nanos);
+            }
+            // Stop sharing before completing, so a request made after this drawing is seen to finish draws again
+            if (key != null) drawing.remove(key, future);
+            if (failure == null) future.complete(image);
+            else future.completeExceptionally(failure);
+        });
+        return future;
+    }
+}
@@ -1,11 +1,9 @@
 package model;
 
 import caches.LeaderSkillCardsCache;
-import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
-import com.google.gson.JsonParser;
 import constants.Emojis;
 import enums.GameOption;
+import enums.GameStateFormat;
 import enums.SetupStep;
 import enums.UpdateType;
 import exceptions.InvalidGameStateException;
@@ -14,8 +12,6 @@ import model.factions.*;
 import model.topics.DuneTopic;
 import net.dv8tion.jda.internal.utils.tuple.ImmutablePair;
 import net.dv8tion.jda.internal.utils.tuple.Pair;
-import org.apache.commons.csv.CSVParser;
-import org.apache.commons.csv.CSVRecord;
 import org.jetbrains.annotations.NotNull;
 
 import java.io.IOException;
@@ -23,9 +19,6 @@ import java.text.MessageFormat;
 import java.util.*;
 import java.util.stream.Collectors;
 
-import static model.Initializers.getCSVFile;
-import static model.Initializers.getJSONString;
-
 public class Game {
     private String gameRole;
     private int turn;
@@ -57,6 +50,7 @@ public class Game {
     private final LinkedList<Leader> leaderTanks;
     private Leader dukeVidal;
     private transient final HashMap<String, List<String>> adjacencyList;
+    private transient MovementGraph movementGraph;
     private final HashMap<String, String> homeworlds;
     private final List<String> hieregTokens;
     private final List<String> smugglerTokens;
@@ -85,6 +79,9 @@ public class Game {
     private int stormMovement;
     private final ArrayList<Integer> stormDeck;
     private boolean onHold;
+    private GameStateFormat gameStateFormat;
+    private int journalCheckpointInterval;
+    private int journalLength;
 
     @Exclude
     private Set<UpdateType> updateTypes;
@@ -105,7 +102,22 @@ public class Game {
     private DuneTopic bribes;
 
     public Game() throws IOException {
+        this(true);
+    }
+
+    /**
+     * Creates an empty game for Gson to populate when loading a saved game. The territories, decks and quotes are
+     * all part of the saved state, so they are not built from the reference data only to be overwritten.
+     *
+     * @return A game with no territories and empty decks.
+     */
+    public static Game createForDeserialization() {
+        return new Game(false);
+    }
+
+    private Game(boolean populateFromReferenceData) {
         super();
+        ReferenceData referenceData = ReferenceData.get();
 
         this.turn = 0;
         this.phase = 0;
@@ -117,10 +129,6 @@ public class Game {
         factions = new LinkedList<>();
         forceEmojis = new HashMap<>();
         territories = new Territories();
-        CSVParser csvParser = getCSVFile("Territories.csv");
-        for (CSVRecord csvRecord : csvParser) {
-            territories.put(csvRecord.get(0), new Territory(csvRecord.get(0), Integer.parseInt(csvRecord.get(1)), Boolean.parseBoolean(csvRecord.get(2)), Boolean.parseBoolean(csvRecord.get(3)), false, Boolean.parseBoolean(csvRecord.get(4)), Boolean.parseBoolean(csvRecord.get(5))));
-        }
 
         this.gameOptions = new HashSet<>();
         this.spiceDeck = new LinkedList<>();
@@ -151,29 +159,15 @@ public class Game {
         this.stormMovement = 0;
         this.stormDeck = null;
         this.onHold = false;
-        this.quotes = new HashMap<>();
-
-        csvParser = getCSVFile("TreacheryCards.csv");
-        for (CSVRecord csvRecord : csvParser) {
-            treacheryDeck.add(new TreacheryCard(csvRecord.get(0)));
-        }
 
-        csvParser = getCSVFile("SpiceCards.csv");
-        for (CSVRecord csvRecord : csvParser) {
-            spiceDeck.add(new SpiceCard(csvRecord.get(0), Integer.parseInt(csvRecord.get(1)), Integer.parseInt(csvRecord.get(2)), null, null));
-        }
-
-        LeaderSkillCardsCache.getNames().forEach(name -> leaderSkillDeck.add(new LeaderSkillCard(LeaderSkillCardsCache.getCardInfo(name).get("Name"))));
-
-        csvParser = getCSVFile("NexusCards.csv");
-        for (CSVRecord csvRecord : csvParser) {
-            nexusDeck.add(new NexusCard(csvRecord.get(0)));
-        }
-
-        csvParser = getCSVFile("quotes.csv");
-        for (CSVRecord csvRecord : csvParser) {
-            quotes.computeIfAbsent(Integer.valueOf(csvRecord.get(0)), _ -> new LinkedList<>());
-            quotes.get(Integer.valueOf(csvRecord.get(0))).add(csvRecord.get(1));
+        if (populateFromReferenceData) {
+            referenceData.getTerritories().forEach(t -> territories.put(t.name(), t.newTerritory()));
+            treacheryDeck.addAll(referenceData.getTreacheryCards());
+            spiceDeck.addAll(referenceData.getSpiceCards());
+            LeaderSkillCardsCache.getNames().forEach(name -> leaderSkillDeck.add(new LeaderSkillCard(LeaderSkillCardsCache.getCardInfo(name).get("Name"))));
+            nexusDeck.addAll(referenceData.getNexusCards());
+            this.quotes = new HashMap<>();
+            referenceData.getQuotes().forEach((phase, phaseQuotes) -> quotes.put(phase, new LinkedList<>(phaseQuotes)));
         }
 
         smugglerTokens.add("Orgiz Processing Station");
@@ -190,16 +184,9 @@ public class Game {
         Collections.shuffle(smugglerTokens);
         Collections.shuffle(hieregTokens);
 
-        String json = getJSONString("AdjacencyList.json");
         this.adjacencyList = new HashMap<>();
-        JsonObject jsonObject = JsonParser.parseString(json).getAsJsonObject();
-        for (Map.Entry<String, JsonElement> territory : jsonObject.entrySet()) {
-            List<String> adjacent = new LinkedList<>();
-            for (JsonElement adj : territory.getValue().getAsJsonArray().asList()) {
-                adjacent.add(adj.getAsString());
-            }
-            adjacencyList.put(territory.getKey(), adjacent);
-        }
+        referenceData.getAdjacencyList().forEach((territory, adjacent) -> adjacencyList.put(territory, new LinkedList<>(adjacent)));
+        this.movementGraph = referenceData.getMovementGraph();
 
         this.sandtroutInPlay = false;
     }
@@ -356,6 +343,36 @@ public class Game {
         this.onHold = onHold;
     }
 
+    public GameStateFormat getGameStateFormat() {
+        return gameStateFormat == null ? GameStateFormat.JSON : gameStateFormat;
+    }
+
+    public void setGameStateFormat(GameStateFormat gameStateFormat) {
+        this.gameStateFormat = gameStateFormat;
+    }
+
+    /**
+     * @return The number of journal entries saved between full game states, or 0 if every save is a full game state.
+     */
+    public int getJournalCheckpointInterval() {
+        return journalCheckpointInterval;
+    }
+
+    public void setJournalCheckpointInterval(int journalCheckpointInterval) {
+        this.journalCheckpointInterval = journalCheckpointInterval;
+    }
+
+    /**
+     * @return The number of journal entries saved since the last full game state.
+     */
+    public int getJournalLength() {
+        return journalLength;
+    }
+
+    public void setJournalLength(int journalLength) {
+        this.journalLength = journalLength;
+    }
+
     public void choamCharity() {
         turnSummary.publish("**Turn " + turn + " CHOAM Charity Phase**");
         setPhaseForWhispers("Turn " + turn + " CHOAM Charity Phase\n");
@@ -1134,6 +1151,23 @@ public class Game {
         return adjacencyList;
     }
 
+    /**
+     * The graph is shared with {@link ReferenceData} until a territory is placed in another territory, and is kept in
+     * sync with {@link #getAdjacencyList()} by {@link #putTerritoryInAnotherTerritory(Territory, Territory)} and
+     * {@link #removeTerritoryFromAnotherTerritory(Territory, Territory)}.
+     *
+     * @return Movement distances between the aggregate territories of this game's board.
+     */
+    public MovementGraph getMovementGraph() {
+        return movementGraph;
+    }
+
+    private MovementGraph mutableMovementGraph() {
+        if (movementGraph == ReferenceData.get().getMovementGraph())
+            movementGraph = movementGraph.copy();
+        return movementGraph;
+    }
+
     protected Deque<String> getTurnOrder() {
         return turnOrder;
     }
@@ -1161,11 +1195,7 @@ public class Game {
     public HashMap<Integer, List<String>> getQuotes() throws IOException {
         if (quotes == null) {
             this.quotes = new HashMap<>();
-            CSVParser csvParser = getCSVFile("quotes.csv");
-            for (CSVRecord csvRecord : csvParser) {
-                quotes.computeIfAbsent(Integer.valueOf(csvRecord.get(0)), _ -> new LinkedList<>());
-                quotes.get(Integer.valueOf(csvRecord.get(0))).add(csvRecord.get(1));
-            }
+            ReferenceData.get().getQuotes().forEach((phase, phaseQuotes) -> quotes.put(phase, new LinkedList<>(phaseQuotes)));
         }
         return quotes;
     }
@@ -2012,6 +2042,8 @@ public class Game {
         adjacencyList.putIfAbsent(insertedName, new ArrayList<>());
         adjacencyList.get(insertedName).add(containingName);
         adjacencyList.get(containingName).add(insertedName);
+        mutableMovementGraph().addEdge(insertedName, containingName);
+        mutableMovementGraph().addEdge(containingName, insertedName);
     }
 
     public void removeTerritoryFromAnotherTerritory(Territory insertedTerritory, Territory containingTerritory) {
@@ -2027,6 +2059,11 @@ public class Game {
         } catch (NullPointerException e) {
             // inserted was not adjacent to containing
         }
+        // The lists may hold the same territory more than once, so an edge is only removed when none are left
+        if (!adjacencyList.getOrDefault(insertedName, List.of()).contains(containingName))
+            mutableMovementGraph().removeEdge(insertedName, containingName);
+        if (!adjacencyList.getOrDefault(containingName, List.of()).contains(insertedName))
+            mutableMovementGraph().removeEdge(containingName, insertedName);
     }
 
     public void addNewBribe(String bribeFactionsAndReason) {
@@ -0,0 +1,293 @@
+package model;
+
+import com.google.gson.GsonBuilder;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Streaming Gson adapters for the model types that appear most often in a saved game. They read and write the same
+ * JSON that reflective binding produces, so saves stay compatible in both directions, but avoid reflection and the
+ * intermediate JSON tree that type selectors and pre-processors require.
+ */
+public class GameStateTypeAdapters {
+    private static final Set<String> homeworldNames = Set.of("Caladan", "Wallach IX", "Tleilax", "Tupile", "Ecaz",
+            "Kaitain", "Salusa Secundus", "Southern Hemisphere", "Junction", "Giedi Prime", "Ix", "Grumman", "Richese");
+
+    public static GsonBuilder register(GsonBuilder builder) {
+        return builder
+                .registerTypeHierarchyAdapter(Territory.class, new TerritoryAdapter().nullSafe())
+                .registerTypeAdapter(Force.class, new ForceAdapter().nullSafe())
+                .registerTypeAdapter(Leader.class, new LeaderAdapter().nullSafe())
+                .registerTypeAdapter(TreacheryCard.class, new TreacheryCardAdapter().nullSafe());
+    }
+
+    private static String nextNullableString(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        return in.nextString();
+    }
+
+    private static List<String> readStringList(JsonReader in) throws IOException {
+        List<String> strings = new ArrayList<>();
+        in.beginArray();
+        while (in.hasNext())
+            strings.add(nextNullableString(in));
+        in.endArray();
+        return strings;
+    }
+
+    private static void writeNonNull(JsonWriter out, String name, String value) throws IOException {
+        if (value != null) out.name(name).value(value);
+    }
+
+    private static void writeNonNull(JsonWriter out, String name, Integer value) throws IOException {
+        if (value != null) out.name(name).value(value);
+    }
+
+    static class TerritoryAdapter extends TypeAdapter<Territory> {
+        private final ForceAdapter forceAdapter = new ForceAdapter();
+
+        @Override
+        public void write(JsonWriter out, Territory territory) throws IOException {
+            out.beginObject();
+            if (territory instanceof HomeworldTerritory homeworld) {
+                writeNonNull(out, "nativeName", homeworld.getNativeName());
+                writeNonNull(out, "occupierName", homeworld.getOccupierName());
+            }
+            out.name("territoryName").value(territory.getTerritoryName());
+            out.name("sector").value(territory.getSector());
+            out.name("isStronghold").value(territory.isStronghold());
+            out.name("inFremenRange").value(territory.isInFremenRange());
+            out.name("isDiscoveryToken").value(territory.isDiscoveryToken());
+            out.name("justDiscovered").value(territory.isJustDiscovered());
+            out.name("isNearShieldWall").value(territory.isNearShieldWall());
+            out.name("forces").beginArray();
+            for (Force force : territory.getForces())
+                forceAdapter.write(out, force);
+            out.endArray();
+            out.name("isRock").value(territory.isRock());
+            out.name("spice").value(territory.getSpice());
+            writeNonNull(out, "richeseNoField", territory.getRicheseNoField());
+            writeNonNull(out, "ecazAmbassador", territory.getEcazAmbassador());
+            out.name("terrorTokens").beginArray();
+            for (String terrorToken : territory.getTerrorTokens())
+                out.value(terrorToken);
+            out.endArray();
+            out.name("aftermathToken").value(territory.isAftermathToken());
+            writeNonNull(out, "discoveryToken", territory.getDiscoveryToken());
+            out.name("discovered").value(territory.isDiscovered());
+            out.endObject();
+        }
+
+        @Override
+        public Territory read(JsonReader in) throws IOException {
+            String nativeName = null;
+            String occupierName = null;
+            String territoryName = null;
+            int sector = 0;
+            boolean isStronghold = false;
+            boolean inFremenRange = false;
+            boolean isDiscoveryToken = false;
+            boolean justDiscovered = false;
+            boolean isNearShieldWall = false;
+            List<Force> forces = new ArrayList<>();
+            boolean isRock = false;
+            int spice = 0;
+            Integer richeseNoField = null;
+            String ecazAmbassador = null;
+            List<String> terrorTokens = new ArrayList<>();
+            boolean aftermathToken = false;
+            String discoveryToken = null;
+            boolean discovered = false;
+
+            in.beginObject();
+            while (in.hasNext()) {
+                String name = in.nextName();
+                if (in.peek() == JsonToken.NULL) {
+                    in.skipValue();
+                    continue;
+                }
+                switch (name) {
+                    case "nativeName" -> nativeName = in.nextString();
+                    case "occupierName" -> occupierName = in.nextString();
+                    case "territoryName" -> territoryName = in.nextString();
+                    case "sector" -> sector = in.nextInt();
+                    case "isStronghold" -> isStronghold = in.nextBoolean();
+                    case "inFremenRange" -> inFremenRange = in.nextBoolean();
+                    case "isDiscoveryToken" -> isDiscoveryToken = in.nextBoolean();
+                    case "justDiscovered" -> justDiscovered = in.nextBoolean();
+                    case "isNearShieldWall" -> isNearShieldWall = in.nextBoolean();
+                    case "forces" -> {
+                        in.beginArray();
+                        while (in.hasNext()) {
+                            Force force = forceAdapter.read(in);
+                            if (force != null) forces.add(force);
+                        }
+                        in.endArray();
+                    }
+                    case "isRock" -> isRock = in.nextBoolean();
+                    case "spice" -> spice = in.nextInt();
+                    case "richeseNoField" -> richeseNoField = in.nextInt();
+                    case "ecazAmbassador" -> ecazAmbassador = in.nextString();
+                    case "terrorTokens" -> terrorTokens = readStringList(in);
+                    case "aftermathToken" -> aftermathToken = in.nextBoolean();
+                    case "discoveryToken" -> discoveryToken = in.nextString();
+                    case "discovered" -> discovered = in.nextBoolean();
+                    default -> in.skipValue();
+                }
+            }
+            in.endObject();
+
+            Territory territory;
+            if (homeworldNames.contains(territoryName)) {
+                HomeworldTerritory homeworld = new HomeworldTerritory(null, territoryName, nativeName);
+                homeworld.setOccupierName(occupierName);
+                territory = homeworld;
+            } else {
+                territory = new Territory(territoryName, sector, isRock, isStronghold, isDiscoveryToken, isNearShieldWall, inFremenRange);
+            }
+            territory.setStronghold(isStronghold);
+            territory.setRock(isRock);
+            territory.setJustDiscovered(justDiscovered);
+            territory.getForces().addAll(forces);
+            territory.setSpice(spice);
+            territory.setRicheseNoField(richeseNoField);
+            territory.setEcazAmbassador(ecazAmbassador);
+            territory.getTerrorTokens().addAll(terrorTokens);
+            territory.setAftermathToken(aftermathToken);
+            territory.setDiscoveryToken(discoveryToken);
+            territory.setDiscovered(discovered);
+            return territory;
+        }
+    }
+
+    static class ForceAdapter extends TypeAdapter<Force> {
+        @Override
+        public void write(JsonWriter out, Force force) throws IOException {
+            out.beginObject();
+            out.name("name").value(force.getName());
+            out.name("factionName").value(force.getFactionName());
+            out.name("strength").value(force.getStrength());
+            out.endObject();
+        }
+
+        @Override
+        public Force read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            String name = null;
+            int strength = 0;
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "name" -> name = nextNullableString(in);
+                    case "strength" -> strength = in.nextInt();
+                    default -> in.skipValue();
+                }
+            }
+            in.endObject();
+            return new Force(name, strength);
+        }
+    }
+
+    static class LeaderAdapter extends TypeAdapter<Leader> {
+        @Override
+        public void write(JsonWriter out, Leader leader) throws IOException {
+            out.beginObject();
+            out.name("name").value(leader.getName());
+            out.name("value").value(leader.getValue());
+            writeNonNull(out, "originalFactionName", leader.getOriginalFactionName());
+            writeNonNull(out, "emojiFaction", leader.getEmojiFaction());
+            if (leader.getSkillCard() != null)
+                out.name("skillCard").beginObject().name("name").value(leader.getSkillCard().name()).endObject();
+            out.name("faceDown").value(leader.isFaceDown());
+            writeNonNull(out, "battleTerritoryName", leader.getBattleTerritoryName());
+            out.name("pulledBehindShield").value(leader.isPulledBehindShield());
+            writeNonNull(out, "homebrewImageMessage", leader.getHomebrewImageMessage());
+            out.endObject();
+        }
+
+        @Override
+        public Leader read(JsonReader in) throws IOException {
+            String name = null;
+            int value = 0;
+            String originalFactionName = null;
+            String emojiFaction = null;
+            LeaderSkillCard skillCard = null;
+            boolean faceDown = false;
+            String battleTerritoryName = null;
+            boolean pulledBehindShield = false;
+            String homebrewImageMessage = null;
+
+            in.beginObject();
+            while (in.hasNext()) {
+                String fieldName = in.nextName();
+                if (in.peek() == JsonToken.NULL) {
+                    in.skipValue();
+                    continue;
+                }
+                switch (fieldName) {
+                    case "name" -> name = in.nextString();
+                    case "value" -> value = in.nextInt();
+                    case "originalFactionName" -> originalFactionName = in.nextString();
+                    case "emojiFaction" -> emojiFaction = in.nextString();
+                    case "skillCard" -> {
+                        in.beginObject();
+                        while (in.hasNext()) {
+                            if (in.nextName().equals("name")) skillCard = new LeaderSkillCard(nextNullableString(in));
+                            else in.skipValue();
+                        }
+                        in.endObject();
+                    }
+                    case "faceDown" -> faceDown = in.nextBoolean();
+                    case "battleTerritoryName" -> battleTerritoryName = in.nextString();
+                    case "pulledBehindShield" -> pulledBehindShield = in.nextBoolean();
+                    case "homebrewImageMessage" -> homebrewImageMessage = in.nextString();
+                    default -> in.skipValue();
+                }
+            }
+            in.endObject();
+
+            Leader leader = new Leader(name, value, originalFactionName, emojiFaction, skillCard, faceDown);
+            leader.setBattleTerritoryName(battleTerritoryName);
+            leader.setPulledBehindShield(pulledBehindShield);
+            leader.setHomebrewImageMessage(homebrewImageMessage);
+            return leader;
+        }
+    }
+
+    /**
+     * Card names are trimmed on read because some older saves have trailing whitespace on treachery card names.
+     */
+    static class TreacheryCardAdapter extends TypeAdapter<TreacheryCard> {
+        @Override
+        public void write(JsonWriter out, TreacheryCard card) throws IOException {
+            out.beginObject();
+            writeNonNull(out, "name", card.name());
+            out.endObject();
+        }
+
+        @Override
+        public TreacheryCard read(JsonReader in) throws IOException {
+            String name = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                if (in.nextName().equals("name")) name = nextNullableString(in);
+                else in.skipValue();
+            }
+            in.endObject();
+            return new TreacheryCard(name == null ? null : name.trim());
+        }
+    }
+}
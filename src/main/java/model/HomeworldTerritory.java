@@ -33,6 +33,10 @@ public class HomeworldTerritory extends Territory {
         return occupierName;
     }
 
+    void setOccupierName(String occupierName) {
+        this.occupierName = occupierName;
+    }
+
     public void increaseHandLimitForTupile(Faction faction) {
         faction.setHandLimit(faction.getHandLimit() + 1);
         game.getTurnSummary().publish(faction.getEmoji() + " " + Emojis.TREACHERY + " limit has been increased to " + faction.getHandLimit() + ".");
@@ -49,6 +49,10 @@ public class Leader {
         return originalFactionName;
     }
 
+    public String getEmojiFaction() {
+        return emojiFaction;
+    }
+
     public String getNameAndValueString() {
         String valueString = String.valueOf(value);
         if (name.equals("Zoal"))
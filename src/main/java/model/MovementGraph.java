@@ -0,0 +1,252 @@
+package model;
+
+import java.util.*;
+
+/**
+ * Movement distances between aggregate territories, e.g. "Cielago North" rather than its sectors. Territories are
+ * numbered, their adjacencies are kept as bitsets, and the distance between every pair of territories is found with a
+ * breadth-first search from each one.
+ *
+ * <p>The base board's graph is built once by {@link ReferenceData}. Territories placed inside others during a game,
+ * such as the Hidden Mobile Stronghold and discovery tokens, update the distances in place when their edges are added,
+ * and trigger a new search from every territory when their edges are removed.
+ *
+ * <p>The graph keeps a fingerprint of its edges, so graphs with the same edges can share results computed from them.
+ */
+public class MovementGraph {
+    private static final int UNREACHABLE = Integer.MAX_VALUE / 2;
+
+    private final Map<String, Integer> ids;
+    private final List<String> names;
+    private final List<BitSet> edges;
+    private int[][] distances;
+    private long fingerprint;
+
+    /**
+     * @param adjacencyList Territories adjacent to each territory. Edges are directed, so each direction must be listed.
+     */
+    public MovementGraph(Map<String, List<String>> adjacencyList) {
+        ids = new HashMap<>();
+        names = new ArrayList<>();
+        edges = new ArrayList<>();
+        for (Map.Entry<String, List<String>> territory : adjacencyList.entrySet()) {
+            int from = idOrAdd(territory.getKey());
+            for (String adjacent : territory.getValue()) {
+                int to = idOrAdd(adjacent);
+                if (!edges.get(from).get(to)) {
+                    edges.get(from).set(to);
+                    fingerprint ^= edgeHash(territory.getKey(), adjacent);
+                }
+            }
+        }
+        computeAllDistances();
+    }
+
+    private MovementGraph(MovementGraph other) {
+        ids = new HashMap<>(other.ids);
+        names = new ArrayList<>(other.names);
+        edges = new ArrayList<>();
+        for (BitSet adjacent : other.edges)
+            edges.add((BitSet) adjacent.clone());
+        distances = new int[other.distances.length][];
+        for (int i = 0; i < distances.length; i++)
+            distances[i] = other.distances[i].clone();
+        fingerprint = other.fingerprint;
+    }
+
+    public MovementGraph copy() {
+        return new MovementGraph(this);
+    }
+
+    /**
+     * Returns the territories that can be reached by moving through exactly 1 to spaces territories. The starting
+     * territory is included when it can be reached again by moving out and back.
+     *
+     * @param territoryName The aggregate territory name.
+     * @param spaces        The maximum number of territories to move.
+     * @return The names of the reachable territories, or an empty set if the territory is not on the board.
+     */
+    public Set<String> getTerritoryNamesWithin(String territoryName, int spaces) {
+        Set<String> territoryNames = new HashSet<>();
+        Integer id = ids.get(territoryName);
+        if (id == null) return territoryNames;
+        BitSet neighborhood = getNeighborhood(id, spaces);
+        for (int i = neighborhood.nextSetBit(0); i >= 0; i = neighborhood.nextSetBit(i + 1))
+            territoryNames.add(names.get(i));
+        return territoryNames;
+    }
+
+    /**
+     * @param from The aggregate territory name to move from.
+     * @param to   The aggregate territory name to move to.
+     * @return The fewest territories moved through to get from one to the other, 0 if they are the same territory, or
+     * -1 if there is no path.
+     */
+    public int getDistance(String from, String to) {
+        Integer fromId = ids.get(from);
+        Integer toId = ids.get(to);
+        if (fromId == null || toId == null) return from.equals(to) ? 0 : -1;
+        int distance = distances[fromId][toId];
+        return distance == UNREACHABLE ? -1 : distance;
+    }
+
+    BitSet getNeighborhood(int id, int spaces) {
+        BitSet neighborhood = new BitSet(names.size());
+        if (spaces <= 0) return neighborhood;
+        int[] row = distances[id];
+        for (int i = 0; i < row.length; i++)
+            if (i != id && row[i] <= spaces)
+                neighborhood.set(i);
+        if (returnDistance(id) <= spaces)
+            neighborhood.set(id);
+        return neighborhood;
+    }
+
+    /**
+     * Returns the territories that can be reached by moving through 1 to spaces territories without entering a blocked
+     * one, using the same rules as {@link #getTerritoryNamesWithin(String, int)}.
+     *
+     * @param id      The territory to start from. It is never treated as blocked.
+     * @param spaces  The maximum number of territories to move.
+     * @param blocked The territories that cannot be moved into or through.
+     */
+    BitSet getNeighborhood(int id, int spaces, BitSet blocked) {
+        BitSet neighborhood = new BitSet(names.size());
+        if (spaces <= 0) return neighborhood;
+        int[] depth = new int[names.size()];
+        Arrays.fill(depth, -1);
+        depth[id] = 0;
+        int[] queue = new int[names.size()];
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = id;
+        while (head < tail) {
+            int current = queue[head++];
+            if (depth[current] == spaces) continue;
+            BitSet adjacent = edges.get(current);
+            for (int next = adjacent.nextSetBit(0); next >= 0; next = adjacent.nextSetBit(next + 1)) {
+                if (next == id) {
+                    neighborhood.set(id);
+                } else if (depth[next] < 0 && !blocked.get(next)) {
+                    depth[next] = depth[current] + 1;
+                    neighborhood.set(next);
+                    queue[tail++] = next;
+                }
+            }
+        }
+        return neighborhood;
+    }
+
+    /**
+     * @return The id of the aggregate territory, or -1 if it is not on the board.
+     */
+    int getId(String territoryName) {
+        Integer id = ids.get(territoryName);
+        return id == null ? -1 : id;
+    }
+
+    String getName(int id) {
+        return names.get(id);
+    }
+
+    /**
+     * @return A hash of the edges that is the same for every graph with the same edges.
+     */
+    long getFingerprint() {
+        return fingerprint;
+    }
+
+    /**
+     * Adds a directed edge and lowers any distances that can now use it.
+     */
+    void addEdge(String from, String to) {
+        int u = idOrAdd(from);
+        int v = idOrAdd(to);
+        if (edges.get(u).get(v)) return;
+        edges.get(u).set(v);
+        fingerprint ^= edgeHash(from, to);
+        int n = names.size();
+        for (int a = 0; a < n; a++) {
+            int throughEdge = distances[a][u] + 1;
+            if (throughEdge >= UNREACHABLE) continue;
+            int[] row = distances[a];
+            int[] fromV = distances[v];
+            for (int b = 0; b < n; b++)
+                if (throughEdge + fromV[b] < row[b])
+                    row[b] = throughEdge + fromV[b];
+        }
+    }
+
+    /**
+     * Removes a directed edge. Distances may grow, so all of them are recomputed.
+     */
+    void removeEdge(String from, String to) {
+        Integer u = ids.get(from);
+        Integer v = ids.get(to);
+        if (u == null || v == null || !edges.get(u).get(v)) return;
+        edges.get(u).clear(v);
+        fingerprint ^= edgeHash(from, to);
+        computeAllDistances();
+    }
+
+    private static long edgeHash(String from, String to) {
+        long hash = from.hashCode() * 0x9E3779B97F4A7C15L + to.hashCode();
+        hash = (hash ^ (hash >>> 33)) * 0xFF51AFD7ED558CCDL;
+        hash = (hash ^ (hash >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return hash ^ (hash >>> 33);
+    }
+
+    private int returnDistance(int id) {
+        int best = UNREACHABLE;
+        for (int u = 0; u < names.size(); u++)
+            if (edges.get(u).get(id))
+                best = Math.min(best, distances[id][u] + 1);
+        return best;
+    }
+
+    private int idOrAdd(String name) {
+        Integer id = ids.get(name);
+        if (id != null) return id;
+        id = names.size();
+        ids.put(name, id);
+        names.add(name);
+        edges.add(new BitSet());
+        if (distances != null) {
+            int[][] grown = new int[id + 1][];
+            for (int i = 0; i < id; i++) {
+                grown[i] = Arrays.copyOf(distances[i], id + 1);
+                grown[i][id] = UNREACHABLE;
+            }
+            grown[id] = new int[id + 1];
+            Arrays.fill(grown[id], UNREACHABLE);
+            grown[id][id] = 0;
+            distances = grown;
+        }
+        return id;
+    }
+
+    private void computeAllDistances() {
+        int n = names.size();
+        distances = new int[n][];
+        int[] queue = new int[n];
+        for (int source = 0; source < n; source++) {
+            int[] row = new int[n];
+            Arrays.fill(row, UNREACHABLE);
+            row[source] = 0;
+            int head = 0;
+            int tail = 0;
+            queue[tail++] = source;
+            while (head < tail) {
+                int current = queue[head++];
+                BitSet adjacent = edges.get(current);
+                for (int next = adjacent.nextSetBit(0); next >= 0; next = adjacent.nextSetBit(next + 1)) {
+                    if (row[next] == UNREACHABLE) {
+                        row[next] = row[current] + 1;
+                        queue[tail++] = next;
+                    }
+                }
+            }
+            distances[source] = row;
+        }
+    }
+}
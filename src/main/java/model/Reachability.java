@@ -0,0 +1,137 @@
+package model;
+
+import model.factions.Faction;
+import model.factions.FremenFaction;
+import model.factions.IxFaction;
+
+import java.util.*;
+
+/**
+ * Finds every territory a faction's forces can move to from one sector in a single bounded search of the
+ * {@link MovementGraph}. Forces cannot move into, out of or through a sector in the storm, so forces in a storm sector
+ * cannot move and a territory with every sector in the storm is skipped over.
+ *
+ * <p>The territories in range depend only on the board, the origin, the number of spaces and the storm sector, so they
+ * are memoized for menus and autocomplete that ask again. Whether the faction may enter each destination depends on
+ * who is there and is checked on every call.
+ */
+public class Reachability {
+    private static final int MAX_MEMOIZED_SEARCHES = 256;
+    private static final Map<SearchKey, Set<String>> searches = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<SearchKey, Set<String>> eldest) {
+            return size() > MAX_MEMOIZED_SEARCHES;
+        }
+    });
+
+    private record SearchKey(long graphFingerprint, String origin, int spaces, int storm) {
+    }
+
+    /**
+     * A territory forces can reach.
+     *
+     * @param territoryName The aggregate territory name.
+     * @param sectors       The sectors of the territory that are not in the storm.
+     * @param mayNotEnter   True if the faction may not enter the territory, e.g. because their ally is there.
+     */
+    public record Destination(String territoryName, List<Territory> sectors, boolean mayNotEnter) {
+    }
+
+    /**
+     * @param game        The game.
+     * @param faction     The faction moving.
+     * @param from        The sector the forces are moving from.
+     * @param ornithopter True if the faction is playing an ornithopter card or token.
+     * @return The number of territories the faction's forces in the sector can move through.
+     */
+    public static int getMovementAllowance(Game game, Faction faction, Territory from, boolean ornithopter) {
+        int spaces = 1;
+        if (faction instanceof FremenFaction || (faction instanceof IxFaction && from.getForceStrength("Ix*") > 0))
+            spaces = 2;
+        if (faction.canUseOrnithopters(game, from, ornithopter))
+            spaces = 3;
+        if (!faction.getSkilledLeaders().isEmpty() && faction.getSkilledLeaders().getFirst().getSkillCard().name().equals("Planetologist") && spaces < 3)
+            spaces++;
+        return spaces;
+    }
+
+    /**
+     * @param game        The game.
+     * @param faction     The faction moving.
+     * @param from        The sector the forces are moving from.
+     * @param ornithopter True if the faction is playing an ornithopter card or token.
+     * @return Every territory within the faction's movement allowance, sorted by name.
+     */
+    public static List<Destination> getDestinations(Game game, Faction faction, Territory from, boolean ornithopter) {
+        return getDestinations(game, faction, from, getMovementAllowance(game, faction, from, ornithopter));
+    }
+
+    /**
+     * @param game    The game.
+     * @param faction The faction moving.
+     * @param from    The sector the forces are moving from.
+     * @param spaces  The maximum number of territories to move through.
+     * @return Every territory within range, sorted by name.
+     */
+    public static List<Destination> getDestinations(Game game, Faction faction, Territory from, int spaces) {
+        List<Destination> destinations = new ArrayList<>();
+        for (String territoryName : new TreeSet<>(getTerritoryNamesWithin(game, from, spaces))) {
+            List<Territory> sectors = game.getTerritories().getTerritorySectorsInStormOrder(territoryName).stream()
+                    .filter(t -> t.getSector() != game.getStorm())
+                    .toList();
+            boolean mayNotEnter = sectors.stream().anyMatch(s -> s.factionMayNotEnter(game, faction, false, false));
+            destinations.add(new Destination(territoryName, sectors, mayNotEnter));
+        }
+        return destinations;
+    }
+
+    /**
+     * Returns the territories that can be reached by moving through 1 to spaces territories without moving out of,
+     * into or through the storm. The starting territory is included when it can be reached again by moving out and
+     * back.
+     *
+     * @param game   The game.
+     * @param from   The sector the forces are moving from.
+     * @param spaces The maximum number of territories to move through.
+     * @return The aggregate names of the reachable territories.
+     */
+    public static Set<String> getTerritoryNamesWithin(Game game, Territory from, int spaces) {
+        String origin = from.getAggregateTerritoryName();
+        if (origin.equals("Kaitain"))
+            return Set.of("Salusa Secundus");
+        else if (origin.equals("Salusa Secundus"))
+            return Set.of("Kaitain");
+        int storm = game.getStorm();
+        if (from.getSector() == storm)
+            return Set.of();
+
+        MovementGraph graph = game.getMovementGraph();
+        SearchKey key = new SearchKey(graph.getFingerprint(), origin, spaces, storm);
+        Set<String> territoryNames = searches.get(key);
+        if (territoryNames == null) {
+            territoryNames = search(game, graph, origin, spaces, storm);
+            searches.put(key, territoryNames);
+        }
+        return territoryNames;
+    }
+
+    private static Set<String> search(Game game, MovementGraph graph, String origin, int spaces, int storm) {
+        int id = graph.getId(origin);
+        if (id < 0) return Set.of();
+
+        Territories territories = game.getTerritories();
+        BitSet blocked = new BitSet();
+        for (Territory territory : territories.getTerritoriesInSector(storm)) {
+            String aggregateTerritoryName = territory.getAggregateTerritoryName();
+            int blockedId = graph.getId(aggregateTerritoryName);
+            if (blockedId >= 0 && territories.getTerritorySectorsInStormOrder(aggregateTerritoryName).stream().allMatch(t -> t.getSector() == storm))
+                blocked.set(blockedId);
+        }
+
+        Set<String> territoryNames = new HashSet<>();
+        BitSet neighborhood = graph.getNeighborhood(id, spaces, blocked);
+        for (int i = neighborhood.nextSetBit(0); i >= 0; i = neighborhood.nextSetBit(i + 1))
+            territoryNames.add(graph.getName(i));
+        return Collections.unmodifiableSet(territoryNames);
+    }
+}
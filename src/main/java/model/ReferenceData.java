@@ -0,0 +1,147 @@
+package model;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.*;
+
+import static model.Initializers.getCSVFile;
+import static model.Initializers.getJSONString;
+
+/**
+ * Static game data bundled with the bot as resources. Everything is parsed once on first use and exposed as
+ * immutable collections, so callers that need to modify the data must copy it.
+ */
+public class ReferenceData {
+    public record TerritoryDefinition(String name, int sector, boolean isRock, boolean isStronghold,
+                                      boolean isNearShieldWall, boolean inFremenRange) {
+        public Territory newTerritory() {
+            return new Territory(name, sector, isRock, isStronghold, false, isNearShieldWall, inFremenRange);
+        }
+    }
+
+    public record LeaderDefinition(String factionName, String name, int value) {
+        public Leader newLeader() {
+            return new Leader(name, value, factionName, null, false);
+        }
+    }
+
+    private static final ReferenceData instance;
+
+    static {
+        try {
+            instance = new ReferenceData();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private final List<TerritoryDefinition> territories;
+    private final List<TreacheryCard> treacheryCards;
+    private final List<SpiceCard> spiceCards;
+    private final List<NexusCard> nexusCards;
+    private final Map<Integer, List<String>> quotes;
+    private final Map<String, List<String>> adjacencyList;
+    private final Map<String, List<LeaderDefinition>> leaders;
+    private final MovementGraph movementGraph;
+
+    private ReferenceData() throws IOException {
+        List<TerritoryDefinition> territoryDefinitions = new ArrayList<>();
+        for (CSVRecord csvRecord : getCSVFile("Territories.csv"))
+            territoryDefinitions.add(new TerritoryDefinition(csvRecord.get(0), Integer.parseInt(csvRecord.get(1)), Boolean.parseBoolean(csvRecord.get(2)), Boolean.parseBoolean(csvRecord.get(3)), Boolean.parseBoolean(csvRecord.get(4)), Boolean.parseBoolean(csvRecord.get(5))));
+        territories = List.copyOf(territoryDefinitions);
+
+        List<TreacheryCard> treacheryCardList = new ArrayList<>();
+        for (CSVRecord csvRecord : getCSVFile("TreacheryCards.csv"))
+            treacheryCardList.add(new TreacheryCard(csvRecord.get(0)));
+        treacheryCards = List.copyOf(treacheryCardList);
+
+        List<SpiceCard> spiceCardList = new ArrayList<>();
+        for (CSVRecord csvRecord : getCSVFile("SpiceCards.csv"))
+            spiceCardList.add(new SpiceCard(csvRecord.get(0), Integer.parseInt(csvRecord.get(1)), Integer.parseInt(csvRecord.get(2)), null, null));
+        spiceCards = List.copyOf(spiceCardList);
+
+        List<NexusCard> nexusCardList = new ArrayList<>();
+        for (CSVRecord csvRecord : getCSVFile("NexusCards.csv"))
+            nexusCardList.add(new NexusCard(csvRecord.get(0)));
+        nexusCards = List.copyOf(nexusCardList);
+
+        Map<Integer, List<String>> quotesByPhase = new HashMap<>();
+        for (CSVRecord csvRecord : getCSVFile("quotes.csv"))
+            quotesByPhase.computeIfAbsent(Integer.valueOf(csvRecord.get(0)), _ -> new ArrayList<>()).add(csvRecord.get(1));
+        Map<Integer, List<String>> immutableQuotes = new HashMap<>();
+        quotesByPhase.forEach((phase, phaseQuotes) -> immutableQuotes.put(phase, List.copyOf(phaseQuotes)));
+        quotes = Map.copyOf(immutableQuotes);
+
+        Map<String, List<String>> adjacency = new HashMap<>();
+        JsonObject jsonObject = JsonParser.parseString(getJSONString("AdjacencyList.json")).getAsJsonObject();
+        for (Map.Entry<String, JsonElement> territory : jsonObject.entrySet())
+            adjacency.put(territory.getKey(), territory.getValue().getAsJsonArray().asList().stream().map(JsonElement::getAsString).toList());
+        adjacencyList = Map.copyOf(adjacency);
+        movementGraph = new MovementGraph(adjacencyList);
+
+        Map<String, List<LeaderDefinition>> leadersByFaction = new HashMap<>();
+        BufferedReader bufferedReader = new BufferedReader(new InputStreamReader(
+                Objects.requireNonNull(ReferenceData.class.getClassLoader().getResourceAsStream("Leaders.csv"))
+        ));
+        for (CSVRecord csvRecord : CSVParser.parse(bufferedReader, CSVFormat.RFC4180.builder().setHeader().setSkipHeaderRecord(true).build()))
+            leadersByFaction.computeIfAbsent(csvRecord.get(0), _ -> new ArrayList<>())
+                    .add(new LeaderDefinition(csvRecord.get(0), csvRecord.get(1), Integer.parseInt(csvRecord.get(2))));
+        Map<String, List<LeaderDefinition>> immutableLeaders = new HashMap<>();
+        leadersByFaction.forEach((factionName, factionLeaders) -> immutableLeaders.put(factionName, List.copyOf(factionLeaders)));
+        leaders = Map.copyOf(immutableLeaders);
+    }
+
+    public static ReferenceData get() {
+        return instance;
+    }
+
+    public List<TerritoryDefinition> getTerritories() {
+        return territories;
+    }
+
+    public List<TreacheryCard> getTreacheryCards() {
+        return treacheryCards;
+    }
+
+    public List<SpiceCard> getSpiceCards() {
+        return spiceCards;
+    }
+
+    public List<NexusCard> getNexusCards() {
+        return nexusCards;
+    }
+
+    public Map<Integer, List<String>> getQuotes() {
+        return quotes;
+    }
+
+    /**
+     * @return Adjacency of the aggregate territories on the base board, without HMS or discovery tokens.
+     */
+    public Map<String, List<String>> getAdjacencyList() {
+        return adjacencyList;
+    }
+
+    /**
+     * @return Movement distances on the base board. Games share this instance and copy it before changing it.
+     */
+    MovementGraph getMovementGraph() {
+        return movementGraph;
+    }
+
+    /**
+     * @param factionName The faction's name, e.g. "Atreides".
+     * @return The leaders printed for the faction in Leaders.csv, or an empty list for homebrew factions.
+     */
+    public List<LeaderDefinition> getLeaders(String factionName) {
+        return leaders.getOrDefault(factionName, List.of());
+    }
+}
@@ -6,7 +6,94 @@ import model.factions.BGFaction;
 import java.util.*;
 import java.util.stream.Collectors;
 
+/**
+ * The territory sectors in a game, by name. Sectors are also indexed by aggregate territory name and by storm sector.
+ * The indexes are built on first use after a load and discarded whenever a sector is added or removed. A game shared
+ * for reading, such as the one {@link caches.GameCache#peekGame} gives autocomplete, may be read from several threads
+ * at once, so each index is only published once it is complete. Threads that find it missing at the same time may
+ * each build it.
+ */
 public class Territories extends HashMap<String, Territory> {
+    private transient volatile Map<String, List<Territory>> sectorsByAggregateName;
+    private transient volatile Map<Integer, List<Territory>> territoriesBySector;
+
+    @Override
+    public Territory put(String name, Territory territory) {
+        clearIndexes();
+        return super.put(name, territory);
+    }
+
+    @Override
+    public void putAll(Map<? extends String, ? extends Territory> territories) {
+        clearIndexes();
+        super.putAll(territories);
+    }
+
+    @Override
+    public Territory putIfAbsent(String name, Territory territory) {
+        clearIndexes();
+        return super.putIfAbsent(name, territory);
+    }
+
+    @Override
+    public Territory remove(Object name) {
+        clearIndexes();
+        return super.remove(name);
+    }
+
+    @Override
+    public boolean remove(Object name, Object territory) {
+        clearIndexes();
+        return super.remove(name, territory);
+    }
+
+    @Override
+    public void clear() {
+        clearIndexes();
+        super.clear();
+    }
+
+    private void clearIndexes() {
+        sectorsByAggregateName = null;
+        territoriesBySector = null;
+    }
+
+    private Map<String, List<Territory>> getSectorsByAggregateName() {
+        Map<String, List<Territory>> index = sectorsByAggregateName;
+        if (index == null) {
+            index = new HashMap<>();
+            for (Territory territory : values())
+                index.computeIfAbsent(territory.getAggregateTerritoryName().toLowerCase(), _ -> new ArrayList<>()).add(territory);
+            for (List<Territory> territorySectors : index.values()) {
+                territorySectors.sort(Comparator.comparingInt(Territory::getSector));
+                String aggregateTerritoryName = territorySectors.getFirst().getAggregateTerritoryName();
+                if (aggregateTerritoryName.equals("Cielago North") || aggregateTerritoryName.equals("Cielago Depression") || aggregateTerritoryName.equals("Meridian"))
+                    territorySectors.addFirst(territorySectors.removeLast());
+            }
+            sectorsByAggregateName = index;
+        }
+        return index;
+    }
+
+    private Map<Integer, List<Territory>> getTerritoriesBySector() {
+        Map<Integer, List<Territory>> index = territoriesBySector;
+        if (index == null) {
+            index = new HashMap<>();
+            for (Territory territory : values())
+                index.computeIfAbsent(territory.getSector(), _ -> new ArrayList<>()).add(territory);
+            territoriesBySector = index;
+        }
+        return index;
+    }
+
+    /**
+     * @param sector The storm sector.
+     * @return The territory sectors in the storm sector, or an empty list if there are none.
+     */
+    public List<Territory> getTerritoriesInSector(int sector) {
+        return Collections.unmodifiableList(getTerritoriesBySector().getOrDefault(sector, List.of()));
+    }
+
     public HomeworldTerritory addHomeworld(Game game, String homeworldName, String factionName) {
         HomeworldTerritory homeworld = new HomeworldTerritory(game, homeworldName, factionName);
         put(homeworldName, homeworld);
@@ -44,7 +131,7 @@ public class Territories extends HashMap<String, Territory> {
         List<Territory> territoriesInStorm = new ArrayList<>();
         for (int i = 0; i < game.getStormMovement(); i++) {
             game.advanceStorm(1);
-            territoriesInStorm.addAll(values().stream().filter(t -> t.getSector() == game.getStorm() && !t.isRock()).toList());
+            territoriesInStorm.addAll(getTerritoriesInSector(game.getStorm()).stream().filter(t -> !t.isRock()).toList());
         }
         territoriesInStorm.forEach(t -> t.stormTroops(game));
         territoriesInStorm.forEach(t -> t.stormRemoveSpice(game));
@@ -52,15 +139,16 @@ public class Territories extends HashMap<String, Territory> {
     }
 
     public Set<String> getDistinctAggregateTerritoryNames() {
-        return values().stream().map(Territory::getAggregateTerritoryName).collect(Collectors.toSet());
+        return getSectorsByAggregateName().values().stream().map(sectors -> sectors.getFirst().getAggregateTerritoryName()).collect(Collectors.toSet());
     }
 
+    /**
+     * @param aggregateTerritoryName The name of the entire territory, ignoring case.
+     * @return The territory's sectors in the order the storm passes over them, or an empty list if there is no such
+     * territory.
+     */
     public List<Territory> getTerritorySectorsInStormOrder(String aggregateTerritoryName) {
-        List<Territory> territorySectors = new ArrayList<>(this.values().stream().filter(t -> t.getTerritoryName().replaceAll("\\s*\\([^)]*\\)\\s*", "").equalsIgnoreCase(aggregateTerritoryName)).toList());
-        territorySectors.sort(Comparator.comparingInt(Territory::getSector));
-        if (aggregateTerritoryName.equals("Cielago North") || aggregateTerritoryName.equals("Cielago Depression") || aggregateTerritoryName.equals("Meridian"))
-            territorySectors.addFirst(territorySectors.removeLast());
-        return territorySectors;
+        return new ArrayList<>(getSectorsByAggregateName().getOrDefault(aggregateTerritoryName.toLowerCase(), List.of()));
     }
 
     public List<List<Territory>> getAggregateTerritoryList(String aggregateTerritoryName, int storm, boolean includeSectorsUnderStorm) {
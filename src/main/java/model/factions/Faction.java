@@ -10,15 +10,10 @@ import exceptions.InvalidGameStateException;
 import helpers.Exclude;
 import model.*;
 import model.topics.DuneTopic;
-import org.apache.commons.csv.CSVFormat;
-import org.apache.commons.csv.CSVParser;
-import org.apache.commons.csv.CSVRecord;
 import org.jetbrains.annotations.NotNull;
 
 import java.awt.*;
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStreamReader;
 import java.text.MessageFormat;
 import java.util.*;
 import java.util.List;
@@ -115,12 +110,7 @@ public class Faction {
         this.isHighThreshold = true;
         this.ornithoperToken = false;
 
-        BufferedReader bufferedReader = new BufferedReader(new InputStreamReader(
-                Objects.requireNonNull(Faction.class.getClassLoader().getResourceAsStream("Leaders.csv"))
-        ));
-        for (CSVRecord csvRecord : CSVParser.parse(bufferedReader, CSVFormat.EXCEL))
-            if (csvRecord.get(0).equals(this.getName()))
-                this.leaders.add(new Leader(csvRecord.get(1), Integer.parseInt(csvRecord.get(2)), csvRecord.get(0), null, false));
+        ReferenceData.get().getLeaders(this.getName()).forEach(l -> this.leaders.add(l.newLeader()));
     }
 
     public void joinGame(@NotNull Game game) {
@@ -1,5 +1,7 @@
 package utils;
 
+import caches.CardImageIndex;
+import caches.ImageDownloadCache;
 import net.dv8tion.jda.api.entities.Guild;
 import net.dv8tion.jda.api.entities.Message;
 import net.dv8tion.jda.api.entities.MessageHistory;
@@ -8,52 +10,33 @@ import net.dv8tion.jda.api.entities.channel.concrete.TextChannel;
 import net.dv8tion.jda.api.entities.channel.concrete.ThreadChannel;
 import net.dv8tion.jda.api.utils.FileUpload;
 
-import java.io.InputStream;
-import java.net.URI;
+import java.io.IOException;
 import java.util.*;
-import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ExecutionException;
-import java.util.regex.Pattern;
+import java.util.function.Function;
 
 public class CardImages {
-    private static final Map<String, List<Message>> cardChannelMessages = new HashMap<>();
+    /**
+     * The Game Resources channels card images are looked up in.
+     */
+    public static final List<String> RESOURCE_CHANNELS = List.of("treachery-cards", "leader-skills", "stronghold-cards",
+            "nexus-cards", "homeworlds", "traitor-cards", "bg-prediction-cards", "homeworld-images", "homeworld-cards",
+            "ecaz-ambassadors", "leaders");
+    private static final int PAGE_SIZE = 100;
 
     public static Optional<FileUpload> getTreacheryCardImage(Guild guild, String cardName) {
-        Pattern pattern = Pattern.compile(
-                ".*Name:\\s*" +
-                        Pattern.quote(cardName.trim()) +
-                        "\\s*\\R.*(Expansion: Ixian and Tleilaxu|Expansion: CHOAM and Richese|Expansion: Base Game|Expansion: Richese|Expansion: Ecaz & Moritani).*",
-                Pattern.DOTALL | Pattern.CASE_INSENSITIVE
-        );
-
-        return getCardImage(guild, "treachery-cards", pattern, cardName);
+        return getCardImage(guild, "treachery-cards", index -> index.findTreacheryCard(cardName), cardName);
     }
 
     public static Optional<FileUpload> getLeaderSkillImage(Guild guild, String cardName) {
-        Pattern pattern = Pattern.compile(
-                ".*" + Pattern.quote(cardName.trim()) + ".*",
-                Pattern.DOTALL | Pattern.CASE_INSENSITIVE
-        );
-
-        return getCardImage(guild, "leader-skills", pattern, cardName);
+        return getCardImage(guild, "leader-skills", index -> index.findContaining(cardName), cardName);
     }
 
     public static Optional<FileUpload> getStrongholdImage(Guild guild, String cardName) {
-        Pattern pattern = Pattern.compile(
-                ".*" + Pattern.quote(cardName.trim()) + ".*",
-                Pattern.DOTALL | Pattern.CASE_INSENSITIVE
-        );
-
-        return getCardImage(guild, "stronghold-cards", pattern, cardName);
+        return getCardImage(guild, "stronghold-cards", index -> index.findContaining(cardName), cardName);
     }
 
     public static Optional<FileUpload> getNexusImage(Guild guild, String cardName) {
-        Pattern pattern = Pattern.compile(
-                ".*" + Pattern.quote(cardName.trim()) + ".*",
-                Pattern.DOTALL | Pattern.CASE_INSENSITIVE
-        );
-
-        Optional<FileUpload> ofu = getCardImage(guild, "nexus-cards", pattern, cardName);
+        Optional<FileUpload> ofu = getCardImage(guild, "nexus-cards", index -> index.findContaining(cardName), cardName);
         if (ofu.isPresent())
             return ofu;
         else {
@@ -65,12 +48,7 @@ public class CardImages {
     }
 
     public static Optional<FileUpload> getTraitorImage(Guild guild, String cardName) {
-        Pattern pattern = Pattern.compile(
-                ".*" + Pattern.quote(cardName.trim()) + ".*",
-                Pattern.DOTALL | Pattern.CASE_INSENSITIVE
-        );
-
-        Optional<FileUpload> ofu = getCardImage(guild, "traitor-cards", pattern, cardName);
+        Optional<FileUpload> ofu = getCardImage(guild, "traitor-cards", index -> index.findContaining(cardName), cardName);
         if (ofu.isPresent())
             return ofu;
         else {
@@ -82,11 +60,7 @@ public class CardImages {
     }
 
     public static Optional<FileUpload> getHomeworldImage(Guild guild, String cardName) {
-        Pattern pattern = Pattern.compile(
-                Pattern.quote(cardName.trim()) + ".*",
-                Pattern.DOTALL | Pattern.CASE_INSENSITIVE
-        );
-        Optional<FileUpload> ofu = getCardImage(guild, "homeworlds", pattern, cardName);
+        Optional<FileUpload> ofu = getCardImage(guild, "homeworlds", index -> index.findStartingWith(cardName), cardName);
         if (ofu.isPresent())
             return ofu;
         else {
@@ -105,19 +79,11 @@ public class CardImages {
             for (TextChannel c : channels) {
                 List<ThreadChannel> threadChannels = c.getThreadChannels().stream().filter(t -> t.getName().equals(cardType)).toList();
                 if (!threadChannels.isEmpty()) {
-                    Optional<Message> optMsg = threadChannels.getFirst().getIterableHistory().stream().filter(m -> m.getContentRaw().equals(cardName)).findFirst();
-                    if (optMsg.isPresent()) {
-                        List<Message.Attachment> atts = optMsg.get().getAttachments();
-                        if (!atts.isEmpty()) {
-                            Message.Attachment att = atts.getFirst();
-                            String imageUrl = att.getUrl();
-                            if (!imageUrl.isEmpty()) {
-                                try {
-                                    InputStream is = new URI(imageUrl).toURL().openStream();
-                                    return FileUpload.fromData(is, att.getFileName());
-                                } catch (Exception ignored) {}
-                            }
-                        }
+                    Optional<Message.Attachment> attachment = getHomebrewAttachment(threadChannels.getFirst(), cardName);
+                    if (attachment.isPresent()) {
+                        try {
+                            return FileUpload.fromData(ImageDownloadCache.get(attachment.get()), attachment.get().getFileName());
+                        } catch (Exception ignored) {}
                     }
                 }
             }
@@ -125,95 +91,86 @@ public class CardImages {
         return null;
     }
 
-    public static Optional<FileUpload> getPredictionImage(Guild guild, String cardName) {
-        Pattern pattern = Pattern.compile(
-                ".*" + Pattern.quote(cardName.trim()) + ".*",
-                Pattern.DOTALL | Pattern.CASE_INSENSITIVE
-        );
+    /**
+     * @param thread A thread of a Homebrew Resources channel.
+     * @param name   The exact content of the message with the image.
+     * @return The first attachment of the newest message with the name.
+     */
+    public static Optional<Message.Attachment> getHomebrewAttachment(ThreadChannel thread, String name) {
+        CardImageIndex.ChannelIndex index = CardImageIndex.get("homebrew-" + thread.getId(),
+                () -> new CardImageIndex.ChannelIndex(thread.getId(), thread.getIterableHistory().stream().toList()));
+        return index.findExactly(name).map(Message::getAttachments).filter(a -> !a.isEmpty()).map(List::getFirst);
+    }
 
-        return getCardImage(guild, "bg-prediction-cards", pattern, cardName);
+    public static Optional<FileUpload> getPredictionImage(Guild guild, String cardName) {
+        return getCardImage(guild, "bg-prediction-cards", index -> index.findContaining(cardName), cardName);
     }
 
     public static String getHomeworldImageLink(Guild guild, String cardName) {
-        Pattern pattern = Pattern.compile(
-                Pattern.quote(cardName.trim()) + ".*",
-                Pattern.DOTALL | Pattern.CASE_INSENSITIVE
-        );
-
-        return getCardImageLink(guild, "homeworld-images", pattern);
+        return getCardImageLink(guild, "homeworld-images", index -> index.findStartingWith(cardName));
     }
 
     public static String getEcazAmbassadorImageLink(Guild guild, String cardName) {
-        Pattern pattern = Pattern.compile(
-                Pattern.quote(cardName.trim()) + ".*",
-                Pattern.DOTALL | Pattern.CASE_INSENSITIVE
-        );
-
-        return getCardImageLink(guild, "ecaz-ambassadors", pattern);
+        return getCardImageLink(guild, "ecaz-ambassadors", index -> index.findStartingWith(cardName));
     }
 
     public static String getLeaderImageLink(Guild guild, String leaderName) {
-        Pattern pattern = Pattern.compile(
-                Pattern.quote(leaderName.trim()) + ".*",
-                Pattern.DOTALL | Pattern.CASE_INSENSITIVE
-        );
-
-        return getCardImageLink(guild, "leaders", pattern);
+        return getCardImageLink(guild, "leaders", index -> index.findStartingWith(leaderName));
     }
 
     public static String getStrongholdCardLink(Guild guild, String cardName) {
-        Pattern pattern = Pattern.compile(
-                Pattern.quote(cardName.trim()) + ".*",
-                Pattern.DOTALL | Pattern.CASE_INSENSITIVE
-        );
-
-        return getMessageLink(guild, "stronghold-cards", pattern);
+        return getMessageLink(guild, "stronghold-cards", index -> index.findStartingWith(cardName));
     }
 
     public static String getLeaderSkillCardLink(Guild guild, String cardName) {
-        Pattern pattern = Pattern.compile(
-                Pattern.quote(cardName.trim()) + ".*",
-                Pattern.DOTALL | Pattern.CASE_INSENSITIVE
-        );
-
-        return getMessageLink(guild, "leader-skills", pattern);
+        return getMessageLink(guild, "leader-skills", index -> index.findStartingWith(cardName));
     }
 
     public static String getHomeworldCardLink(Guild guild, String cardName) {
-        Pattern pattern = Pattern.compile(
-                ".*" + Pattern.quote(cardName.trim()) + ".*",
-                Pattern.DOTALL | Pattern.CASE_INSENSITIVE
-        );
-
-        return getMessageLink(guild, "homeworld-cards", pattern);
-    }
+        return getMessageLink(guild, "homeworld-cards", index -> index.findContaining(cardName));
+    }
+
+    /**
+     * Loads a Game Resources channel again, so cards posted or changed since it was loaded are found.
+     *
+     * @param guild       The guild.
+     * @param channelName The channel name.
+     * @return The number of messages in the channel.
+     */
+    public static int refreshChannel(Guild guild, String channelName) {
+        return CardImageIndex.refresh(channelName, () -> loadChannel(guild, channelName)).size();
+    }
+
+    /**
+     * Loads a Game Resources channel if it has not been loaded, sharing the load with any lookup already loading it.
+     *
+     * @param guild       The guild.
+     * @param channelName The channel name.
+     * @return The number of messages in the channel.
+     */
+    public static int preloadChannel(Guild guild, String channelName) {
+        return CardImageIndex.get(channelName, () -> loadChannel(guild, channelName)).size();
+    }
+
+    private static CardImageIndex.ChannelIndex loadChannel(Guild guild, String channelName) {
+        Category gameResources = getGameResourcesCategory(guild);
+        Optional<TextChannel> channel = gameResources.getTextChannels().stream()
+                .filter(c -> c.getName().equalsIgnoreCase(channelName))
+                .findFirst();
 
-    private static void clearChennalMessageCache(String channelName) {
-        cardChannelMessages.remove(channelName);
-    }
+        if (channel.isEmpty()) return new CardImageIndex.ChannelIndex(null, List.of());
+        List<Message> messages = new ArrayList<>();
+        String id = "0";
+        List<Message> page;
 
-    private static List<Message> getChannelMessages(Guild guild, String channelName) {
-        if (cardChannelMessages.containsKey(channelName)) {
-            return cardChannelMessages.get(channelName);
-        } else {
-            Category gameResources = getGameResourcesCategory(guild);
-            Optional<TextChannel> channel = gameResources.getTextChannels().stream()
-                    .filter(c -> c.getName().equalsIgnoreCase(channelName))
-                    .findFirst();
-
-            if (channel.isEmpty()) return new ArrayList<>();
-            List<Message> messages = new LinkedList<>();
-            String id = "0";
-
-            while (!MessageHistory.getHistoryAfter(channel.get(), id).complete().isEmpty()) {
-                MessageHistory history = MessageHistory.getHistoryAfter(channel.get(), id).complete();
-                messages.addAll(history.getRetrievedHistory());
-                id = history.getRetrievedHistory().getFirst().getId();
-            }
+        // Each page is requested once, and a short page is the last one
+        do {
+            page = MessageHistory.getHistoryAfter(channel.get(), id).limit(PAGE_SIZE).complete().getRetrievedHistory();
+            messages.addAll(page);
+            if (!page.isEmpty()) id = page.getFirst().getId();
+        } while (page.size() == PAGE_SIZE);
 
-            cardChannelMessages.put(channelName, messages);
-            return messages;
-        }
+        return new CardImageIndex.ChannelIndex(channel.get().getId(), messages);
     }
 
     public static Category getGameResourcesCategory(Guild guild) {
@@ -230,8 +187,8 @@ public class CardImages {
         return category;
     }
 
-    private static Optional<Message.Attachment> getCardImageAttachment(Guild guild, String channelName, Pattern pattern ) {
-        Optional<Message> message = getCardMessage(guild, channelName, pattern);
+    private static Optional<Message.Attachment> getCardImageAttachment(Guild guild, String channelName, Function<CardImageIndex.ChannelIndex, Optional<Message>> lookup) {
+        Optional<Message> message = getCardMessage(guild, channelName, lookup);
         if (message.isEmpty()) return Optional.empty();
 
         List<Message.Attachment> attachments = message.get().getAttachments();
@@ -242,22 +199,18 @@ public class CardImages {
         return Optional.of(attachment);
     }
 
-    private static Optional<Message> getCardMessage(Guild guild, String channelName, Pattern pattern) {
-        List<Message> messages = getChannelMessages(guild, channelName);
-
-        return messages.stream()
-                .filter(m -> pattern.matcher(m.getContentRaw()).matches())
-                .findFirst();
+    private static Optional<Message> getCardMessage(Guild guild, String channelName, Function<CardImageIndex.ChannelIndex, Optional<Message>> lookup) {
+        return lookup.apply(CardImageIndex.get(channelName, () -> loadChannel(guild, channelName)));
     }
 
-    private static String getMessageLink(Guild guild, String channelName, Pattern pattern) {
-        Optional<Message> optionalMessage = getCardMessage(guild, channelName, pattern);
+    private static String getMessageLink(Guild guild, String channelName, Function<CardImageIndex.ChannelIndex, Optional<Message>> lookup) {
+        Optional<Message> optionalMessage = getCardMessage(guild, channelName, lookup);
 
         return optionalMessage.map(Message::getJumpUrl).orElse("");
     }
 
-    private static String getCardImageLink(Guild guild, String channelName, Pattern pattern) {
-        Optional<Message.Attachment> optionalAttachment = getCardImageAttachment(guild, channelName, pattern);
+    private static String getCardImageLink(Guild guild, String channelName, Function<CardImageIndex.ChannelIndex, Optional<Message>> lookup) {
+        Optional<Message.Attachment> optionalAttachment = getCardImageAttachment(guild, channelName, lookup);
 
         if (optionalAttachment.isEmpty()) return "";
 
@@ -266,28 +219,26 @@ public class CardImages {
     }
 
     private static Optional<FileUpload> getCardImageAttachmentFileUpload(
-            Guild guild, String channelName, Pattern pattern, String cardName
-    ) throws ExecutionException, InterruptedException {
-        Optional<Message.Attachment> optionalAttachment = getCardImageAttachment(guild, channelName, pattern);
+            Guild guild, String channelName, Function<CardImageIndex.ChannelIndex, Optional<Message>> lookup, String cardName
+    ) throws IOException {
+        Optional<Message.Attachment> optionalAttachment = getCardImageAttachment(guild, channelName, lookup);
 
         if (optionalAttachment.isEmpty()) return Optional.empty();
 
         Message.Attachment attachment = optionalAttachment.get();
-        CompletableFuture<InputStream> future = attachment.getProxy().download();
-
-        InputStream inputStream = future.get();
-        FileUpload fileUpload = FileUpload.fromData(inputStream, cardName + ".jpg");
+        FileUpload fileUpload = FileUpload.fromData(ImageDownloadCache.get(attachment), cardName + ".jpg");
         return Optional.of(fileUpload);
     }
 
-    private static Optional<FileUpload> getCardImage(Guild guild, String channelName, Pattern pattern, String cardName) {
+    private static Optional<FileUpload> getCardImage(Guild guild, String channelName, Function<CardImageIndex.ChannelIndex, Optional<Message>> lookup, String cardName) {
         try {
-            return getCardImageAttachmentFileUpload(guild, channelName, pattern, cardName);
-        } catch (InterruptedException | ExecutionException e) {
-            clearChennalMessageCache(channelName);
+            return getCardImageAttachmentFileUpload(guild, channelName, lookup, cardName);
+        } catch (IOException e) {
+            // The attachment may have been replaced since the channel was loaded
+            CardImageIndex.invalidate(channelName);
             try {
-                return getCardImageAttachmentFileUpload(guild, channelName, pattern, cardName);
-            } catch (InterruptedException | ExecutionException ex) {
+                return getCardImageAttachmentFileUpload(guild, channelName, lookup, cardName);
+            } catch (IOException ex) {
                 return Optional.empty();
             }
         }
@@ -0,0 +1,71 @@
+package caches;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.awt.image.BufferedImage;
+import java.io.FileNotFoundException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BoardImageCacheTest {
+    @AfterEach
+    void tearDown() {
+        BoardImageCache.clear();
+    }
+
+    @Test
+    void testImagesAreDecodedOnce() throws Exception {
+        BufferedImage board = BoardImageCache.getImage("Board");
+        assertSame(board, BoardImageCache.getImage("Board"));
+        assertThrows(FileNotFoundException.class, () -> BoardImageCache.getImage("Not A Component"));
+    }
+
+    @Test
+    void testScaledAndRotatedVariants() throws Exception {
+        BufferedImage marker = BoardImageCache.getImage("storm", 172, 96);
+        assertEquals(172, marker.getWidth());
+        assertEquals(96, marker.getHeight());
+        assertSame(marker, BoardImageCache.getImage("storm", 172, 96));
+
+        BufferedImage rotated = BoardImageCache.getImage("storm", 172, 96, 90);
+        assertEquals(96, rotated.getWidth());
+        assertEquals(172, rotated.getHeight());
+        assertSame(rotated, BoardImageCache.getImage("storm", 172, 96, 90));
+        assertNotSame(rotated, BoardImageCache.getImage("storm", 172, 96, 270));
+
+        BufferedImage original = BoardImageCache.getImage("Storm Overlay");
+        BufferedImage rotatedOriginal = BoardImageCache.getImage("Storm Overlay", 0, 0, 180);
+        assertEquals(original.getWidth(), rotatedOriginal.getWidth());
+        assertEquals(original.getHeight(), rotatedOriginal.getHeight());
+    }
+
+    @Test
+    void testCompositesAreDrawnOnce() throws Exception {
+        AtomicInteger drawn = new AtomicInteger();
+        BoardImageCache.ImageSupplier supplier = () -> {
+            drawn.incrementAndGet();
+            return new BufferedImage(47, 29, BufferedImage.TYPE_INT_ARGB);
+        };
+        BufferedImage first = BoardImageCache.getComposite("Atreides 5", supplier);
+        assertSame(first, BoardImageCache.getComposite("Atreides 5", supplier));
+        assertEquals(1, drawn.get());
+    }
+
+    @Test
+    void testOnlyRecentBaseLayersAreKept() throws Exception {
+        AtomicInteger drawn = new AtomicInteger();
+        BoardImageCache.ImageSupplier supplier = () -> {
+            drawn.incrementAndGet();
+            return new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB);
+        };
+        for (int i = 0; i < 20; i++)
+            BoardImageCache.getBaseLayer(i, supplier);
+        assertEquals(20, drawn.get());
+        BoardImageCache.getBaseLayer(19, supplier);
+        assertEquals(20, drawn.get());
+        BoardImageCache.getBaseLayer(0, supplier);
+        assertEquals(21, drawn.get());
+    }
+}
@@ -0,0 +1,45 @@
+package caches;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BoardPngCacheTest {
+    @AfterEach
+    void tearDown() {
+        BoardPngCache.setMaxBytes(64L * 1024 * 1024);
+        BoardPngCache.clear();
+    }
+
+    @Test
+    void testLeastRecentlyUsedImagesAreDroppedOverTheLimit() {
+        BoardPngCache.setMaxBytes(300);
+        BoardPngCache.setPng("storm 1", new byte[100]);
+        BoardPngCache.setPng("storm 2", new byte[100]);
+        BoardPngCache.setPng("storm 3", new byte[100]);
+        assertNotNull(BoardPngCache.getPng("storm 1"));
+
+        BoardPngCache.setPng("storm 4", new byte[100]);
+        assertNull(BoardPngCache.getPng("storm 2"));
+        assertNotNull(BoardPngCache.getPng("storm 1"));
+        assertEquals(300, BoardPngCache.getBytes());
+    }
+
+    @Test
+    void testReplacingAnImageCountsItsSizeOnce() {
+        BoardPngCache.setPng("storm 1", new byte[100]);
+        BoardPngCache.setPng("storm 1", new byte[50]);
+        assertEquals(50, BoardPngCache.getBytes());
+    }
+
+    @Test
+    void testShrinkingTheLimitEvicts() {
+        BoardPngCache.setPng("storm 1", new byte[100]);
+        BoardPngCache.setPng("storm 2", new byte[100]);
+        BoardPngCache.setMaxBytes(150);
+        assertNull(BoardPngCache.getPng("storm 1"));
+        assertEquals(1, BoardPngCache.getMisses());
+        assertThrows(IllegalArgumentException.class, () -> BoardPngCache.setMaxBytes(-1));
+    }
+}
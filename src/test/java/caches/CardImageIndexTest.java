@@ -0,0 +1,129 @@
+package caches;
+
+import net.dv8tion.jda.api.entities.Message;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class CardImageIndexTest {
+    @AfterEach
+    void tearDown() {
+        CardImageIndex.invalidateAll();
+    }
+
+    private static Message message(String content) {
+        Message message = mock(Message.class);
+        when(message.getContentRaw()).thenReturn(content);
+        return message;
+    }
+
+    @Test
+    void testTreacheryCardsAreFoundByName() {
+        Message lasgun = message("Name: Lasgun\nType: Weapon - Special\nExpansion: Base Game");
+        Message chaumas = message("Name:  Chaumas  \r\nExpansion: Base Game");
+        Message unlisted = message("Name: Cheap Hero\nNo expansion");
+        CardImageIndex.ChannelIndex index = new CardImageIndex.ChannelIndex("1", List.of(lasgun, chaumas, unlisted));
+
+        assertEquals(Optional.of(lasgun), index.findTreacheryCard(" lasgun "));
+        assertEquals(Optional.of(chaumas), index.findTreacheryCard("Chaumas"));
+        assertEquals(Optional.empty(), index.findTreacheryCard("Cheap Hero"));
+        assertEquals(Optional.empty(), index.findTreacheryCard("Las"));
+    }
+
+    @Test
+    void testFirstMatchingMessageIsFound() {
+        Message arrakeen = message("Arrakeen\nStronghold card");
+        Message carthag = message("Carthag\nArrakeen is nearby");
+        CardImageIndex.ChannelIndex index = new CardImageIndex.ChannelIndex("1", List.of(carthag, arrakeen));
+
+        assertEquals(Optional.of(carthag), index.findContaining("ARRAKEEN"));
+        assertEquals(Optional.of(arrakeen), index.findStartingWith("arrakeen"));
+        assertEquals(Optional.empty(), index.findStartingWith("Tuek's Sietch"));
+    }
+
+    @Test
+    void testMemoizedLookupsAreBounded() {
+        Message arrakeen = message("Arrakeen\nStronghold card");
+        CardImageIndex.ChannelIndex index = new CardImageIndex.ChannelIndex("1", List.of(arrakeen));
+        for (int i = 0; i < 1000; i++) {
+            index.findContaining("typed " + i);
+            index.findStartingWith("typed " + i);
+        }
+        assertTrue(index.memoizedLookups() <= 512, "Only the most recent lookups are kept");
+        assertEquals(Optional.of(arrakeen), index.findContaining("Stronghold"));
+        assertEquals(Optional.of(arrakeen), index.findStartingWith("Arrakeen"));
+    }
+
+    @Test
+    void testChannelsAreLoadedOnceUntilInvalidated() {
+        AtomicInteger loads = new AtomicInteger();
+        CardImageIndex.ChannelIndex first = CardImageIndex.get("treachery-cards", () -> {
+            loads.incrementAndGet();
+            return new CardImageIndex.ChannelIndex("1", List.of());
+        });
+        assertSame(first, CardImageIndex.get("treachery-cards", () -> {
+            loads.incrementAndGet();
+            return new CardImageIndex.ChannelIndex("1", List.of());
+        }));
+        assertEquals(1, loads.get());
+
+        CardImageIndex.invalidateChannelId("2");
+        assertEquals(Set.of("treachery-cards"), CardImageIndex.getChannelNames());
+        CardImageIndex.invalidateChannelId("1");
+        assertTrue(CardImageIndex.getChannelNames().isEmpty());
+
+        CardImageIndex.ChannelIndex refreshed = CardImageIndex.refresh("treachery-cards", () -> new CardImageIndex.ChannelIndex("1", List.of(message("Name: Lasgun"))));
+        assertSame(refreshed, CardImageIndex.get("treachery-cards", () -> fail("The refreshed index should be used")));
+        assertEquals(1, refreshed.size());
+    }
+
+    @Test
+    void testChannelInvalidatedWhileLoadingIsLoadedAgain() {
+        AtomicInteger loads = new AtomicInteger();
+        CardImageIndex.ChannelIndex index = CardImageIndex.get("treachery-cards", () -> {
+            // A message is posted after the channel history was read
+            if (loads.incrementAndGet() == 1) {
+                CardImageIndex.invalidateChannelId("1");
+                return new CardImageIndex.ChannelIndex("1", List.of());
+            }
+            return new CardImageIndex.ChannelIndex("1", List.of(message("Name: Lasgun")));
+        });
+        assertEquals(2, loads.get());
+        assertEquals(1, index.size());
+        assertEquals(0, CardImageIndex.trackedInvalidations(), "Forgotten once the reload is done");
+        assertSame(index, CardImageIndex.get("treachery-cards", () -> fail("The reloaded index should be kept")));
+
+        CardImageIndex.invalidateChannelId("2");
+        assertSame(index, CardImageIndex.get("treachery-cards", () -> fail("Other channels do not reload it")));
+    }
+
+    @Test
+    void testInvalidationsAreOnlyTrackedWhileLoading() {
+        for (int i = 0; i < 100; i++)
+            CardImageIndex.invalidateChannelId(String.valueOf(i));
+        assertEquals(0, CardImageIndex.trackedInvalidations());
+
+        CardImageIndex.get("leaders", () -> {
+            CardImageIndex.invalidateChannelId("2");
+            assertEquals(1, CardImageIndex.trackedInvalidations());
+            return new CardImageIndex.ChannelIndex("1", List.of());
+        });
+        assertEquals(0, CardImageIndex.trackedInvalidations());
+    }
+
+    @Test
+    void testFailedLoadsAreRetried() {
+        assertThrows(IllegalStateException.class, () -> CardImageIndex.get("leaders", () -> {
+            throw new IllegalStateException("Discord is down");
+        }));
+        assertEquals(0, CardImageIndex.get("leaders", () -> new CardImageIndex.ChannelIndex(null, List.of())).size());
+    }
+}
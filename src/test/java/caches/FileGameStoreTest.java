@@ -0,0 +1,75 @@
+package caches;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FileGameStoreTest {
+    @TempDir
+    Path directory;
+
+    private static byte[] bytes(String s) {
+        return s.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void testLoadReturnsLatestState() throws IOException {
+        FileGameStore store = new FileGameStore(directory);
+        assertNull(store.load("Dune Discord #5: The Tortoise and the Hajr"));
+        store.save("Dune Discord #5: The Tortoise and the Hajr", bytes("{\"turn\":1}"));
+        store.save("Dune Discord #5: The Tortoise and the Hajr", bytes("{\"turn\":2}"));
+        store.save("Other Game", bytes("{\"turn\":7}"));
+        assertArrayEquals(bytes("{\"turn\":2}"), store.load("Dune Discord #5: The Tortoise and the Hajr"));
+        assertArrayEquals(bytes("{\"turn\":7}"), new FileGameStore(directory).load("Other Game"));
+    }
+
+    @Test
+    void testInvalidate() throws IOException {
+        FileGameStore store = new FileGameStore(directory);
+        store.invalidate("Game");
+        assertNull(store.load("Game"));
+        store.save("Game", bytes("one"));
+        store.invalidate("Game");
+        assertNull(store.load("Game"));
+        store.save("Game", bytes("two"));
+        assertArrayEquals(bytes("two"), store.load("Game"));
+    }
+
+    @Test
+    void testLogIsCompacted() throws IOException {
+        FileGameStore store = new FileGameStore(directory, 100);
+        for (int i = 0; i < 20; i++)
+            store.save("Game", bytes("state number " + i));
+        assertArrayEquals(bytes("state number 19"), store.load("Game"));
+        assertTrue(Files.size(directory.resolve("Game.log")) <= 100);
+    }
+
+    @Test
+    void testPartialIndexEntryIsIgnored() throws IOException {
+        FileGameStore store = new FileGameStore(directory);
+        store.save("Game", bytes("one"));
+        Files.write(directory.resolve("Game.idx"), new byte[]{1, 2, 3}, StandardOpenOption.APPEND);
+        assertArrayEquals(bytes("one"), store.load("Game"));
+        store.save("Game", bytes("two"));
+        assertArrayEquals(bytes("two"), store.load("Game"));
+    }
+
+    @Test
+    void testCorruptRecordIsRejected() throws IOException {
+        FileGameStore store = new FileGameStore(directory);
+        store.save("Game", bytes("one"));
+        try (RandomAccessFile log = new RandomAccessFile(directory.resolve("Game.log").toFile(), "rw")) {
+            log.seek(log.length() - 1);
+            log.write('X');
+        }
+        assertThrows(IOException.class, () -> store.load("Game"));
+    }
+}
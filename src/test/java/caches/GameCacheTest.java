@@ -0,0 +1,71 @@
+package caches;
+
+import controller.DiscordGame;
+import model.Game;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GameCacheTest {
+    private static final String GAME_NAME = "GameCacheTest";
+
+    @AfterEach
+    void tearDown() {
+        GameCache.clearGameState(GAME_NAME);
+    }
+
+    @Test
+    void testSetGameStateIfAbsentKeepsNewerState() {
+        byte[] saved = "{\"turn\":2}".getBytes(StandardCharsets.UTF_8);
+        byte[] warmed = "{\"turn\":1}".getBytes(StandardCharsets.UTF_8);
+        GameCache.setGameState(GAME_NAME, saved);
+        assertFalse(GameCache.setGameStateIfAbsent(GAME_NAME, warmed, GameCache.getGeneration(GAME_NAME)));
+        assertArrayEquals(saved, GameCache.getGameState(GAME_NAME));
+
+        GameCache.clearGameState(GAME_NAME);
+        assertTrue(GameCache.setGameStateIfAbsent(GAME_NAME, warmed, GameCache.getGeneration(GAME_NAME)));
+        assertArrayEquals(warmed, GameCache.getGameState(GAME_NAME));
+    }
+
+    @Test
+    void testSetGameStateIfAbsentAfterClearIsDropped() {
+        long generation = GameCache.getGeneration(GAME_NAME);
+        GameCache.setGameState(GAME_NAME, "{\"turn\":2}".getBytes(StandardCharsets.UTF_8));
+        GameCache.clearGameState(GAME_NAME);
+        assertFalse(GameCache.setGameStateIfAbsent(GAME_NAME, "{\"turn\":1}".getBytes(StandardCharsets.UTF_8), generation),
+                "A state loaded before the game was cleared is stale");
+        assertFalse(GameCache.hasGameState(GAME_NAME));
+    }
+
+    @Test
+    void testVersionIncreasesOnEverySave() {
+        assertEquals(0, GameCache.getVersion(GAME_NAME));
+        GameCache.setGameState(GAME_NAME, new byte[]{'{', '}'});
+        long version = GameCache.getVersion(GAME_NAME);
+        GameCache.setGameState(GAME_NAME, new byte[]{'{', '}'});
+        assertTrue(GameCache.getVersion(GAME_NAME) > version);
+    }
+
+    @Test
+    void testPeekGameDoesNotTakeTheDecodedGame() throws Exception {
+        byte[] gameState = DiscordGame.getGsonSerializer().toJson(new Game()).getBytes(StandardCharsets.UTF_8);
+        GameCache.setGameState(GAME_NAME, gameState);
+        Game peeked = GameCache.peekGame(GAME_NAME);
+        assertNotNull(peeked);
+        assertSame(peeked, GameCache.peekGame(GAME_NAME), "Readers of the same version share one instance");
+
+        Game taken = null;
+        for (int i = 0; i < 500 && taken == null; i++) {
+            taken = GameCache.takeGame(GAME_NAME);
+            if (taken == null) Thread.sleep(10);
+        }
+        assertNotNull(taken, "Peeking leaves the pre-decoded game for the next command");
+        assertNotSame(peeked, taken);
+
+        GameCache.setGameState(GAME_NAME, gameState);
+        assertNotSame(peeked, GameCache.peekGame(GAME_NAME), "A new version is decoded again");
+    }
+}
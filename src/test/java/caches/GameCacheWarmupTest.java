@@ -0,0 +1,35 @@
+package caches;
+
+import net.dv8tion.jda.api.entities.channel.concrete.TextChannel;
+import net.dv8tion.jda.api.utils.TimeUtil;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class GameCacheWarmupTest {
+    @Test
+    void testOnlyGamesSavedRecentlyAreWarmed() {
+        OffsetDateTime since = OffsetDateTime.now().minus(GameCacheWarmup.getActiveWithin());
+        assertTrue(GameCacheWarmup.isSavedSince(botData(OffsetDateTime.now().minusHours(1)), since));
+        assertFalse(GameCacheWarmup.isSavedSince(botData(OffsetDateTime.now().minus(GameCacheWarmup.getActiveWithin()).minus(Duration.ofDays(1))), since),
+                "A game not saved for longer than the limit has finished");
+    }
+
+    @Test
+    void testEmptyBotDataIsNotWarmed() {
+        TextChannel botData = mock(TextChannel.class);
+        when(botData.getLatestMessageIdLong()).thenReturn(0L);
+        assertFalse(GameCacheWarmup.isSavedSince(botData, OffsetDateTime.now().minus(GameCacheWarmup.getActiveWithin())));
+    }
+
+    private static TextChannel botData(OffsetDateTime lastSave) {
+        TextChannel botData = mock(TextChannel.class);
+        when(botData.getLatestMessageIdLong()).thenReturn(TimeUtil.getDiscordTimestamp(lastSave.toInstant().toEpochMilli()));
+        return botData;
+    }
+}
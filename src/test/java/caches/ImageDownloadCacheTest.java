@@ -0,0 +1,152 @@
+package caches;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ImageDownloadCacheTest {
+    @TempDir
+    Path directory;
+
+    @AfterEach
+    void tearDown() throws IOException {
+        ImageDownloadCache.setDirectory(null);
+        ImageDownloadCache.setMaxMemoryBytes(32L * 1024 * 1024);
+        ImageDownloadCache.setMaxDiskBytes(256L * 1024 * 1024);
+        ImageDownloadCache.clear();
+    }
+
+    private static ImageDownloadCache.Downloader counting(AtomicInteger downloads, byte[] image) {
+        return () -> {
+            downloads.incrementAndGet();
+            return new ByteArrayInputStream(image);
+        };
+    }
+
+    private long objectCount() throws IOException {
+        return fileCount("objects");
+    }
+
+    private long fileCount(String subdirectory) throws IOException {
+        try (Stream<Path> files = Files.list(directory.resolve(subdirectory))) {
+            return files.count();
+        }
+    }
+
+    @Test
+    void testImagesAreDownloadedOnce() throws IOException {
+        AtomicInteger downloads = new AtomicInteger();
+        byte[] image = {1, 2, 3};
+        assertArrayEquals(image, ImageDownloadCache.get("attachment-1", counting(downloads, image)));
+        assertArrayEquals(image, ImageDownloadCache.get("attachment-1", counting(downloads, image)));
+        assertEquals(1, downloads.get());
+        assertEquals(1, ImageDownloadCache.getMemoryHits());
+        assertEquals(3, ImageDownloadCache.getMemoryBytes());
+    }
+
+    @Test
+    void testImagesAreReadFromTheDirectoryAfterARestart() throws IOException {
+        ImageDownloadCache.setDirectory(directory);
+        AtomicInteger downloads = new AtomicInteger();
+        byte[] image = {4, 5, 6};
+        ImageDownloadCache.get("attachment-2", counting(downloads, image));
+        ImageDownloadCache.get("attachment-3", counting(downloads, image));
+        assertEquals(1, objectCount());
+
+        ImageDownloadCache.clear();
+        assertArrayEquals(image, ImageDownloadCache.get("attachment-2", counting(downloads, image)));
+        assertEquals(2, downloads.get());
+        assertEquals(1, ImageDownloadCache.getDiskHits());
+    }
+
+    @Test
+    void testDamagedAndEvictedImagesAreDownloadedAgain() throws IOException {
+        ImageDownloadCache.setDirectory(directory);
+        ImageDownloadCache.setMaxMemoryBytes(0);
+        AtomicInteger downloads = new AtomicInteger();
+        ImageDownloadCache.get("attachment-4", counting(downloads, new byte[]{7, 8}));
+        try (Stream<Path> objects = Files.list(directory.resolve("objects"))) {
+            Files.write(objects.findFirst().orElseThrow(), new byte[]{9});
+        }
+        assertArrayEquals(new byte[]{7, 8}, ImageDownloadCache.get("attachment-4", counting(downloads, new byte[]{7, 8})));
+        assertEquals(2, downloads.get());
+
+        try (Stream<Path> objects = Files.list(directory.resolve("objects"))) {
+            Files.setLastModifiedTime(objects.findFirst().orElseThrow(), FileTime.fromMillis(0));
+        }
+        ImageDownloadCache.setMaxDiskBytes(2);
+        ImageDownloadCache.get("attachment-5", counting(downloads, new byte[]{10, 11}));
+        assertEquals(1, objectCount());
+        ImageDownloadCache.get("attachment-4", counting(downloads, new byte[]{7, 8}));
+        assertEquals(4, downloads.get());
+    }
+
+    @Test
+    void testKeyFilesAreDeletedWithTheirImage() throws IOException {
+        ImageDownloadCache.setDirectory(directory);
+        ImageDownloadCache.setMaxDiskBytes(4);
+        AtomicInteger downloads = new AtomicInteger();
+        ImageDownloadCache.get("attachment-6", counting(downloads, new byte[]{1, 2}));
+        ImageDownloadCache.get("attachment-7", counting(downloads, new byte[]{1, 2}));
+        ImageDownloadCache.get("attachment-8", counting(downloads, new byte[]{3, 4}));
+        assertEquals(4, ImageDownloadCache.getDiskBytes());
+        assertEquals(3, fileCount("keys"));
+
+        ImageDownloadCache.get("attachment-9", counting(downloads, new byte[]{5, 6}));
+        assertEquals(2, objectCount());
+        assertEquals(2, fileCount("keys"));
+        assertFalse(Files.exists(directory.resolve("keys").resolve("attachment-6")));
+        assertFalse(Files.exists(directory.resolve("keys").resolve("attachment-7")));
+        assertEquals(4, ImageDownloadCache.getDiskBytes());
+    }
+
+    @Test
+    void testDiskBytesAreCountedWhenTheDirectoryIsSet() throws IOException {
+        ImageDownloadCache.setDirectory(directory);
+        AtomicInteger downloads = new AtomicInteger();
+        ImageDownloadCache.get("attachment-10", counting(downloads, new byte[]{1, 2, 3}));
+        Files.writeString(directory.resolve("keys").resolve("attachment-11"), "0".repeat(64));
+
+        ImageDownloadCache.setDirectory(directory);
+        assertEquals(3, ImageDownloadCache.getDiskBytes());
+        assertFalse(Files.exists(directory.resolve("keys").resolve("attachment-11")), "Names an image that is not there");
+    }
+
+    @Test
+    void testUnreadableKeyFilesAreDownloadedAgain() throws IOException {
+        ImageDownloadCache.setDirectory(directory);
+        Files.createDirectory(directory.resolve("keys").resolve("attachment-12"));
+        Files.writeString(directory.resolve("keys").resolve("attachment-13"), "../../secret");
+        AtomicInteger downloads = new AtomicInteger();
+
+        assertArrayEquals(new byte[]{1}, ImageDownloadCache.get("attachment-12", counting(downloads, new byte[]{1})));
+        assertArrayEquals(new byte[]{2}, ImageDownloadCache.get("attachment-13", counting(downloads, new byte[]{2})));
+        assertEquals(2, downloads.get());
+
+        ImageDownloadCache.clear();
+        assertArrayEquals(new byte[]{1}, ImageDownloadCache.get("attachment-12", counting(downloads, new byte[]{1})));
+        assertEquals(2, downloads.get(), "Written again after the bad entry was deleted");
+    }
+
+    @Test
+    void testUrlKeysIgnoreTheSignature() {
+        assertEquals(ImageDownloadCache.keyForUrl("https://cdn.discordapp.com/attachments/1/2/leader.png?ex=1&hm=a"),
+                ImageDownloadCache.keyForUrl("https://cdn.discordapp.com/attachments/1/2/leader.png?ex=2&hm=b"));
+        assertEquals(ImageDownloadCache.keyForUrl("https://cdn.discordapp.com/attachments/1/2/leader.png"),
+                ImageDownloadCache.keyForUrl("https://cdn.discordapp.com/attachments/1/2/leader.png?ex=1&is=2&hm=a"));
+        assertNotEquals(ImageDownloadCache.keyForUrl("https://cdn.discordapp.com/attachments/1/2/leader.png"),
+                ImageDownloadCache.keyForUrl("https://cdn.discordapp.com/attachments/1/3/leader.png"));
+        assertNotEquals(ImageDownloadCache.keyForUrl("https://example.com/image?id=1&ex=1"),
+                ImageDownloadCache.keyForUrl("https://example.com/image?id=2&ex=1"));
+    }
+}
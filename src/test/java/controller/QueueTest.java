@@ -1,12 +1,21 @@
 package controller;
 
+import exceptions.StuckCommandException;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
@@ -18,6 +27,13 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
  */
 class QueueTest {
 
+    @AfterEach
+    void tearDown() {
+        Queue.setStuckThreshold(Duration.ofMinutes(2));
+        Queue.setIdleTimeout(Duration.ofHours(1));
+        Queue.setStuckHandler(Queue.DEFAULT_STUCK_HANDLER);
+    }
+
     @Test
     void submitSyncRunsWorkOnceAndThenSecondSubmissionAfterFirstThrows() {
         String id = "submitSyncRunsWorkOnceAndThenSecondSubmissionAfterFirstThrows";
@@ -101,4 +117,82 @@ class QueueTest {
 
         assertTrue(b.get() == 1, "failure on one id must not affect another id");
     }
+
+    @Test
+    void backlogReportsRunningAndWaitingWork() throws Exception {
+        String id = "backlogReportsRunningAndWaitingWork";
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        Queue.submit(id, "/show board", () -> {
+            started.countDown();
+            await(release);
+        });
+        Queue.submit(id, "/add-spice", () -> {});
+        CompletableFuture<Void> last = Queue.submit(id, "/remove-spice", () -> {});
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        Queue.Backlog backlog = Queue.getBacklogs().get(id);
+        assertEquals("/show board", backlog.running());
+        assertEquals(2, backlog.waiting());
+        assertEquals(0, backlog.completed());
+
+        release.countDown();
+        last.get(5, TimeUnit.SECONDS);
+        assertNull(Queue.getBacklogs().get(id), "finished work is not reported");
+    }
+
+    @Test
+    void stuckWorkIsReportedOnceWithItsStack() throws Exception {
+        String id = "stuckWorkIsReportedOnceWithItsStack";
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<StuckCommandException> reported = new CopyOnWriteArrayList<>();
+        Queue.setStuckThreshold(Duration.ZERO);
+        Queue.setStuckHandler((stuckId, stuck) -> {
+            if (stuckId.equals(id)) reported.add(stuck);
+        });
+
+        Queue.submit(id, "/run advance", () -> {
+            started.countDown();
+            await(release);
+        });
+        CompletableFuture<Void> last = Queue.submit(id, "/show board", () -> {});
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        Queue.checkQueues();
+        Queue.checkQueues();
+        release.countDown();
+        last.get(5, TimeUnit.SECONDS);
+
+        assertEquals(1, reported.size());
+        assertTrue(reported.getFirst().getMessage().startsWith("/run advance has been running for"));
+        assertTrue(reported.getFirst().getMessage().endsWith("with 1 more waiting behind it"));
+        assertTrue(Arrays.stream(reported.getFirst().getStackTrace()).anyMatch(e -> e.getMethodName().startsWith("lambda$stuckWorkIsReportedOnceWithItsStack")),
+                "the stack is where the stuck work is");
+    }
+
+    @Test
+    void idleIdsAreDropped() {
+        String id = "idleIdsAreDropped";
+        Queue.submitSync(id, () -> {});
+        Queue.checkQueues();
+        assertTrue(Queue.getFuture(id).isDone());
+        int withId = Queue.size();
+
+        Queue.setIdleTimeout(Duration.ZERO);
+        Queue.checkQueues();
+        assertTrue(Queue.size() < withId);
+
+        AtomicInteger afterDrop = new AtomicInteger();
+        Queue.submitSync(id, afterDrop::incrementAndGet);
+        assertEquals(1, afterDrop.get(), "a dropped id starts a new chain");
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+        }
+    }
 }
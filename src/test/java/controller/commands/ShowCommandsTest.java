@@ -0,0 +1,83 @@
+package controller.commands;
+
+import caches.BoardPngCache;
+import model.Game;
+import model.Territory;
+import model.TestTopic;
+import model.factions.AtreidesFaction;
+import model.factions.HarkonnenFaction;
+import net.dv8tion.jda.api.utils.FileUpload;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShowCommandsTest {
+    private Game game;
+    private Territory arrakeen;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        game = new Game();
+        AtreidesFaction atreides = new AtreidesFaction("at", "at");
+        atreides.setLedger(new TestTopic());
+        game.addFaction(atreides);
+        game.addFaction(new HarkonnenFaction("ha", "ha"));
+        game.setStorm(5);
+        arrakeen = game.getTerritory("Arrakeen");
+        arrakeen.addForces("Atreides", 10);
+    }
+
+    @AfterEach
+    void tearDown() {
+        BoardPngCache.clear();
+    }
+
+    @Test
+    void testFingerprintChangesWithTheBoard() {
+        String fingerprint = ShowCommands.getBoardFingerprint(game);
+        assertEquals(fingerprint, ShowCommands.getBoardFingerprint(game));
+
+        game.setStorm(6);
+        String movedStorm = ShowCommands.getBoardFingerprint(game);
+        assertNotEquals(fingerprint, movedStorm);
+
+        arrakeen.removeForces(game, "Atreides", 1);
+        String fewerForces = ShowCommands.getBoardFingerprint(game);
+        assertNotEquals(movedStorm, fewerForces);
+
+        game.getTerritory("Funeral Plain").setSpice(6);
+        String spiceBlow = ShowCommands.getBoardFingerprint(game);
+        assertNotEquals(fewerForces, spiceBlow);
+
+        game.getFaction("Atreides").setAlly("Harkonnen");
+        assertNotEquals(spiceBlow, ShowCommands.getBoardFingerprint(game));
+    }
+
+    @Test
+    void testUnchangedBoardIsNotDrawnAgain() throws IOException {
+        byte[] first = ShowCommands.drawGameBoard(null, game).getData().readAllBytes();
+        assertEquals(1, BoardPngCache.getMisses());
+        byte[] second = ShowCommands.drawGameBoard(null, game).getData().readAllBytes();
+        assertEquals(1, BoardPngCache.getHits());
+        assertArrayEquals(first, second);
+
+        game.setStorm(6);
+        ShowCommands.drawGameBoard(null, game);
+        assertEquals(2, BoardPngCache.getMisses());
+    }
+
+    @Test
+    void testAsyncDrawingUsesACopyOfTheGame() throws IOException {
+        byte[] expected = ShowCommands.drawGameBoard(null, game).getData().readAllBytes();
+        BoardPngCache.clear();
+
+        CompletableFuture<FileUpload> board = ShowCommands.drawGameBoardAsync(null, game, false);
+        arrakeen.removeForces(game, "Atreides", 5);
+        assertArrayEquals(expected, board.join().getData().readAllBytes());
+    }
+}
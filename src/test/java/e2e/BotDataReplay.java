@@ -0,0 +1,489 @@
+package e2e;
+
+import caches.GameCache;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import controller.DiscordGame;
+import controller.buttons.ButtonManager;
+import controller.commands.CommandManager;
+import helpers.JsonPatch;
+import model.Game;
+import model.factions.Faction;
+import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
+import net.dv8tion.jda.api.events.interaction.component.ButtonInteractionEvent;
+import net.dv8tion.jda.api.interactions.commands.build.CommandData;
+import net.dv8tion.jda.api.interactions.commands.build.OptionData;
+import net.dv8tion.jda.api.interactions.commands.build.SlashCommandData;
+import net.dv8tion.jda.api.interactions.commands.build.SubcommandData;
+import testutil.discord.StatefulMockFactory;
+import testutil.discord.builders.MockButtonEventBuilder;
+import testutil.discord.builders.MockSlashCommandEventBuilder;
+import testutil.discord.state.MockCategoryState;
+import testutil.discord.state.MockChannelState;
+import testutil.discord.state.MockDiscordServer;
+import testutil.discord.state.MockGuildState;
+import testutil.discord.state.MockMemberState;
+import testutil.discord.state.MockMessageState;
+import testutil.discord.state.MockRoleState;
+import testutil.discord.state.MockThreadChannelState;
+import testutil.discord.state.MockUserState;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Replays a game's bot-data history, as exported by {@link devtools.ExportBotData}, against a {@link MockDiscordServer}.
+ *
+ * <p>Each recorded command or button press is run again through {@link CommandManager} or {@link ButtonManager},
+ * starting from the game state saved before it, and the state it saves is compared with the one that was recorded.
+ * Every step starts from the recorded state, so one difference does not carry over into the rest of the game.
+ * Messages the replayed commands send go to the mock channels, which are emptied after each step.
+ *
+ * <p>Commands that draw or shuffle give different results each time they run, so their differences are expected. A
+ * {@code /player} command does not record who sent it, so it is run as each player and the closest result is kept.
+ * Saves that name neither a command nor a button, such as bids entered from menus, are not replayed; their state is
+ * the starting point for the next step.
+ */
+public class BotDataReplay implements AutoCloseable {
+    private static final String GAME_NAME = "Replay";
+    private static final Pattern COMMAND = Pattern.compile("Command: `(/.*)`", Pattern.DOTALL);
+    private static final Pattern BUTTON = Pattern.compile("Button Pressed: `(\\S+) pressed by (.*)`", Pattern.DOTALL);
+    private static final Pattern TAGGED_EMOJI = Pattern.compile("<a?(:\\w+:)\\d+>");
+    private static final Pattern ENTRY_TEXT = Pattern.compile("(\\d+)\\.txt");
+    private static final Pattern EXCEPTION = Pattern.compile("\\*\\*Exception:\\*\\* (.*)");
+    private static final int DIFFERENCES_SHOWN = 5;
+
+    /**
+     * One exported bot-data message.
+     *
+     * @param name           The position of the message in the channel, e.g. "000001".
+     * @param content        The message text.
+     * @param attachmentName The original name of the attached game state.
+     * @param attachment     The attached game state or journal entry.
+     */
+    public record Entry(String name, String content, String attachmentName, byte[] attachment) {
+        public boolean isJournalEntry() {
+            return DiscordGame.JOURNAL_FILE_NAME.equals(attachmentName);
+        }
+    }
+
+    /**
+     * The result of replaying one entry.
+     *
+     * @param entry       The name of the entry that was replayed.
+     * @param action      The command or button press, as recorded.
+     * @param commandType The command without its options, or the button without its arguments.
+     * @param time        How long the command took to run.
+     * @param differences The JSON Patch operations from the recorded state to the replayed one, as "op path".
+     * @param error       The error the command reported to mod-info, or null.
+     */
+    public record Step(String entry, String action, String commandType, Duration time, List<String> differences,
+                       String error) {
+        public boolean matches() {
+            return differences.isEmpty() && error == null;
+        }
+    }
+
+    /**
+     * @param steps   The replayed entries, in order.
+     * @param skipped The number of entries that could not be replayed.
+     */
+    public record Report(List<Step> steps, int skipped) {
+        public long mismatches() {
+            return steps.stream().filter(s -> !s.matches()).count();
+        }
+
+        public String format() {
+            StringBuilder report = new StringBuilder();
+            report.append(String.format("%d steps replayed, %d matched, %d differed, %d skipped%n",
+                    steps.size(), steps.size() - mismatches(), mismatches(), skipped));
+            report.append(String.format("%-32s %7s %8s %9s %9s %9s %9s%n", "Command", "Count", "Differ", "Total ms", "Mean ms", "p50 ms", "Max ms"));
+            Map<String, List<Step>> byType = steps.stream()
+                    .collect(Collectors.groupingBy(Step::commandType, TreeMap::new, Collectors.toList()));
+            for (Map.Entry<String, List<Step>> type : byType.entrySet()) {
+                List<Long> times = type.getValue().stream().map(s -> s.time().toNanos()).sorted().toList();
+                long total = times.stream().mapToLong(Long::longValue).sum();
+                report.append(String.format("%-32s %7d %8d %9.1f %9.1f %9.1f %9.1f%n", type.getKey(), times.size(),
+                        type.getValue().stream().filter(s -> !s.matches()).count(), total / 1e6, total / 1e6 / times.size(),
+                        times.get((times.size() - 1) / 2) / 1e6, times.getLast() / 1e6));
+            }
+            for (Step step : steps) {
+                if (step.matches()) continue;
+                report.append(String.format("%n%s %s%n", step.entry(), step.action()));
+                if (step.error() != null)
+                    report.append("  error: ").append(step.error()).append('\n');
+                step.differences().stream().limit(DIFFERENCES_SHOWN)
+                        .forEach(d -> report.append("  ").append(d).append('\n'));
+                if (step.differences().size() > DIFFERENCES_SHOWN)
+                    report.append(String.format("  ... %d more%n", step.differences().size() - DIFFERENCES_SHOWN));
+            }
+            return report.toString();
+        }
+    }
+
+    private record Actor(MockMemberState member, Faction faction) {
+    }
+
+    private record Outcome(Duration time, JsonElement state, String error) {
+    }
+
+    private final MockDiscordServer server;
+    private final MockGuildState guildState;
+    private final CommandManager commandManager = new CommandManager();
+    private final ButtonManager buttonManager = new ButtonManager();
+    private final Map<String, SlashCommandData> commands = new HashMap<>();
+    private final Map<String, MockMemberState> membersByName = new HashMap<>();
+    private final Map<String, MockRoleState> rolesByName = new HashMap<>();
+    private final E2EFixture fixture;
+    private MockCategoryState category;
+    private MockMemberState moderator;
+
+    public BotDataReplay() {
+        server = MockDiscordServer.create();
+        guildState = server.createGuild(123456789L, "Replay Server");
+        StatefulMockFactory.mockGuild(guildState);
+        for (CommandData command : CommandManager.getAllCommands())
+            if (command instanceof SlashCommandData slashCommand)
+                commands.put(slashCommand.getName(), slashCommand);
+
+        fixture = new E2EFixture();
+        // No card images are uploaded, so the lookups find nothing instead of paging the empty channels
+        fixture.withoutCardImages();
+    }
+
+    /**
+     * Reads an exported bot-data history.
+     *
+     * @param directory The directory written by {@link devtools.ExportBotData}.
+     * @return The entries, oldest first.
+     */
+    public static List<Entry> load(Path directory) throws IOException {
+        List<Entry> entries = new ArrayList<>();
+        List<Path> texts;
+        try (Stream<Path> files = Files.list(directory)) {
+            texts = files.filter(f -> ENTRY_TEXT.matcher(f.getFileName().toString()).matches()).sorted().toList();
+        }
+        for (Path text : texts) {
+            String name = text.getFileName().toString().replace(".txt", "");
+            Path attachment;
+            try (Stream<Path> files = Files.list(directory)) {
+                attachment = files.filter(f -> f.getFileName().toString().startsWith(name + "-"))
+                        .findFirst()
+                        .orElseThrow(() -> new IOException("No game state for " + text));
+            }
+            entries.add(new Entry(name, Files.readString(text, StandardCharsets.UTF_8),
+                    attachment.getFileName().toString().substring(name.length() + 1), Files.readAllBytes(attachment)));
+        }
+        return entries;
+    }
+
+    /**
+     * Replays every entry after the first against the state recorded before it.
+     */
+    public Report replay(List<Entry> entries) {
+        ButtonManager.setAllowModButtonPress();
+        List<Step> steps = new ArrayList<>();
+        int skipped = 0;
+        JsonElement previous = null;
+        for (Entry entry : entries) {
+            JsonElement recorded;
+            if (entry.isJournalEntry()) {
+                if (previous == null)
+                    throw new IllegalStateException("Journal entry " + entry.name() + " has no game state before it");
+                JsonArray patch = JsonParser.parseString(new String(entry.attachment(), StandardCharsets.UTF_8)).getAsJsonArray();
+                recorded = JsonPatch.apply(previous.deepCopy(), patch);
+            } else {
+                recorded = DiscordGame.parseGameState(entry.attachment());
+            }
+
+            Optional<Step> step = previous == null ? Optional.empty() : replay(entry, previous, recorded);
+            if (step.isPresent())
+                steps.add(step.get());
+            else
+                skipped++;
+            previous = recorded;
+        }
+        return new Report(steps, skipped);
+    }
+
+    private Optional<Step> replay(Entry entry, JsonElement before, JsonElement recorded) {
+        String content = TAGGED_EMOJI.matcher(entry.content()).replaceAll("$1");
+        Matcher command = COMMAND.matcher(content);
+        Matcher button = BUTTON.matcher(content);
+        if (!command.matches() && !button.matches())
+            return Optional.empty();
+
+        Game game = DiscordGame.decodeGameState(before.toString().getBytes(StandardCharsets.UTF_8));
+        setUpGame(game);
+        byte[] seed = seed(before, game).getBytes(StandardCharsets.UTF_8);
+        String expected = canonical(recorded);
+
+        String action;
+        String commandType;
+        List<Runnable> dispatches = new ArrayList<>();
+        if (command.matches()) {
+            action = command.group(1);
+            Optional<SlashCommand> slashCommand = parseCommand(action);
+            if (slashCommand.isEmpty())
+                return Optional.empty();
+            commandType = "/" + slashCommand.get().fullName();
+            // The player who sent a /player command is not recorded
+            List<Actor> actors = slashCommand.get().name().equals("player") ? players(game) : List.of(new Actor(moderator, null));
+            for (Actor actor : actors)
+                dispatches.add(() -> commandManager.onSlashCommandInteraction(slashCommand.get().build(actor.member())));
+        } else {
+            action = button.group(1) + " pressed by " + button.group(2);
+            commandType = "button " + button.group(1).split("-")[0];
+            Actor presser = players(game).stream()
+                    .filter(a -> a.faction().getUserName().equals(button.group(2)))
+                    .findFirst()
+                    .orElse(new Actor(moderator, null));
+            dispatches.add(() -> buttonManager.onButtonInteraction(buttonEvent(button.group(1), presser)));
+        }
+
+        Step best = null;
+        for (Runnable dispatch : dispatches) {
+            Outcome outcome = run(seed, dispatch);
+            List<String> differences = differences(expected, outcome.state());
+            Step step = new Step(entry.name(), action, commandType, outcome.time(), differences, outcome.error());
+            if (best == null || step.differences().size() < best.differences().size())
+                best = step;
+            if (best.matches()) break;
+        }
+        return Optional.ofNullable(best);
+    }
+
+    private Outcome run(byte[] seed, Runnable dispatch) {
+        GameCache.setGameState(GAME_NAME, seed);
+        MockChannelState modInfo = channel("mod-info");
+        long start = System.nanoTime();
+        dispatch.run();
+        Duration time = Duration.ofNanos(System.nanoTime() - start);
+
+        String error = modInfo.getMessages().stream()
+                .map(MockMessageState::getContent)
+                .filter(c -> c.startsWith("**Error occurred at"))
+                .map(c -> {
+                    Matcher exception = EXCEPTION.matcher(c);
+                    return exception.find() ? exception.group(1) : c;
+                })
+                .findFirst()
+                .orElse(null);
+        JsonElement state = DiscordGame.parseGameState(GameCache.getGameState(GAME_NAME));
+        for (MockChannelState channel : guildState.getChannelsInCategory(category.getCategoryId())) {
+            channel.clearMessages();
+            for (MockThreadChannelState thread : guildState.getThreadsInChannel(channel.getChannelId()))
+                thread.clearMessages();
+        }
+        return new Outcome(time, state, error);
+    }
+
+    private List<String> differences(String expected, JsonElement actual) {
+        JsonArray patch = JsonPatch.diff(JsonParser.parseString(expected), JsonParser.parseString(canonical(actual)));
+        List<String> differences = new ArrayList<>();
+        for (JsonElement operation : patch)
+            differences.add(operation.getAsJsonObject().get("op").getAsString() + " "
+                    + operation.getAsJsonObject().get("path").getAsString());
+        return differences;
+    }
+
+    /**
+     * Creates the game's category the first time, and the channels, roles and members for the factions and roles in
+     * the game that do not have them yet.
+     */
+    private void setUpGame(Game game) {
+        if (category == null) {
+            guildState.createTextChannel("waiting-list", 0L);
+            guildState.createCategory("Game Resources");
+            guildState.createRole("Observer");
+            guildState.createRole("EasyPoll");
+            category = guildState.createCategory(GAME_NAME);
+            for (String channelName : List.of("chat", "pre-game-voting", "front-of-shield", "game-actions", "bribes",
+                    "bidding-phase", "rules", "bot-data", "mod-info"))
+                guildState.createTextChannel(channelName, category.getCategoryId());
+            guildState.createThread("whispers", channel("front-of-shield").getChannelId());
+            guildState.createThread("turn-summary", channel("game-actions").getChannelId());
+            moderator = member("Moderator");
+        }
+
+        MockRoleState modRole = role(game.getModRole());
+        if (modRole != null && !moderator.hasRole(modRole.getRoleId()))
+            moderator.addRole(modRole.getRoleId());
+        MockRoleState gameRole = role(game.getGameRole());
+        for (Faction faction : game.getFactions()) {
+            MockMemberState member = member(faction.getUserName());
+            if (gameRole != null && !member.hasRole(gameRole.getRoleId()))
+                member.addRole(gameRole.getRoleId());
+            String infoChannelName = faction.getInfoChannelPrefix() + "-info";
+            if (guildState.getChannelsInCategory(category.getCategoryId()).stream().noneMatch(c -> c.getChannelName().equals(infoChannelName))) {
+                MockChannelState infoChannel = guildState.createTextChannel(infoChannelName, category.getCategoryId());
+                for (String threadName : List.of("chat", "notes", "ledger"))
+                    guildState.createThread(threadName, infoChannel.getChannelId());
+            }
+        }
+    }
+
+    private MockRoleState role(String name) {
+        if (name == null) return null;
+        return rolesByName.computeIfAbsent(name, guildState::createRole);
+    }
+
+    private MockMemberState member(String userName) {
+        return membersByName.computeIfAbsent(userName, _ -> guildState.createMember(guildState.createUser(userName).getUserId()));
+    }
+
+    private MockChannelState channel(String channelName) {
+        return guildState.getChannelsInCategory(category.getCategoryId()).stream()
+                .filter(c -> c.getChannelName().equals(channelName))
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException(channelName + " not found"));
+    }
+
+    private List<Actor> players(Game game) {
+        return game.getFactions().stream()
+                .map(f -> new Actor(member(f.getUserName()), f))
+                .toList();
+    }
+
+    /**
+     * The state before a step, with the recorded players and moderator replaced by the mock members.
+     */
+    private String seed(JsonElement before, Game game) {
+        String json = before.toString();
+        for (Faction faction : game.getFactions())
+            if (faction.getPlayer() != null && !faction.getPlayer().isEmpty())
+                json = json.replace(faction.getPlayer(), "<@" + member(faction.getUserName()).getUserId() + ">");
+        if (game.getMod() != null && !game.getMod().isEmpty())
+            json = json.replace(game.getMod(), "<@" + moderator.getUserId() + ">");
+        return json;
+    }
+
+    /**
+     * A state with each player's mention replaced by their name, so recorded and replayed states can be compared.
+     */
+    private static String canonical(JsonElement state) {
+        Game game = DiscordGame.decodeGameState(state.toString().getBytes(StandardCharsets.UTF_8));
+        String json = state.toString();
+        for (Faction faction : game.getFactions())
+            if (faction.getPlayer() != null && !faction.getPlayer().isEmpty())
+                json = json.replace(faction.getPlayer(), "@" + faction.getUserName());
+        if (game.getMod() != null && !game.getMod().isEmpty())
+            json = json.replace(game.getMod(), "@moderator");
+        return json;
+    }
+
+    private ButtonInteractionEvent buttonEvent(String buttonId, Actor presser) {
+        MockButtonEventBuilder builder = new MockButtonEventBuilder(guildState)
+                .setMember(presser.member())
+                .setButtonId(buttonId);
+        MockMessageState message;
+        if (presser.faction() != null) {
+            MockChannelState infoChannel = channel(presser.faction().getInfoChannelPrefix() + "-info");
+            MockThreadChannelState chat = guildState.getThreadsInChannel(infoChannel.getChannelId()).stream()
+                    .filter(t -> t.getThreadName().equals("chat"))
+                    .findFirst()
+                    .orElseThrow();
+            message = new MockMessageState(server.nextMessageId(), chat.getThreadId(), 0L, "Replayed buttons");
+            chat.addMessage(message);
+            builder.setChannel(chat);
+        } else {
+            MockChannelState gameActions = channel("game-actions");
+            message = new MockMessageState(server.nextMessageId(), gameActions.getChannelId(), 0L, "Replayed buttons");
+            gameActions.addMessage(message);
+            builder.setChannel(gameActions);
+        }
+        return builder.setMessage(message).build();
+    }
+
+    /**
+     * A slash command parsed from the text JDA gives for it, e.g. "/add-spice factionname: Atreides amount: 2".
+     */
+    private record SlashCommand(String name, String subcommand, List<OptionData> optionData, Map<String, String> values,
+                                BotDataReplay replay) {
+        String fullName() {
+            return subcommand == null ? name : name + " " + subcommand;
+        }
+
+        SlashCommandInteractionEvent build(MockMemberState member) {
+            MockSlashCommandEventBuilder builder = new MockSlashCommandEventBuilder(replay.guildState)
+                    .setMember(member)
+                    .setCommandName(name)
+                    .setSubcommandName(subcommand)
+                    .setChannel(replay.channel("game-actions"));
+            for (OptionData option : optionData) {
+                String value = values.get(option.getName());
+                if (value == null) continue;
+                switch (option.getType()) {
+                    case INTEGER -> builder.addIntegerOption(option.getName(), Integer.parseInt(value));
+                    case NUMBER -> builder.addNumberOption(option.getName(), Double.parseDouble(value));
+                    case BOOLEAN -> builder.addBooleanOption(option.getName(), Boolean.parseBoolean(value));
+                    case USER, MENTIONABLE -> {
+                        MockMemberState optionMember = replay.member(value.replaceFirst("^@", ""));
+                        MockUserState user = replay.guildState.getUser(optionMember.getUserId());
+                        builder.addUserOption(option.getName(), user);
+                    }
+                    case ROLE -> builder.addRoleOption(option.getName(), replay.role(value.replaceFirst("^@", "")));
+                    default -> builder.addStringOption(option.getName(), value);
+                }
+            }
+            return builder.build();
+        }
+    }
+
+    private Optional<SlashCommand> parseCommand(String commandString) {
+        String[] words = commandString.substring(1).split(" ", 3);
+        SlashCommandData data = commands.get(words[0]);
+        if (data == null)
+            return Optional.empty();
+        String subcommand = null;
+        List<OptionData> optionData = data.getOptions();
+        String options = commandString.substring(1 + words[0].length()).strip();
+        if (!data.getSubcommands().isEmpty()) {
+            if (words.length < 2)
+                return Optional.empty();
+            Optional<SubcommandData> subcommandData = data.getSubcommands().stream()
+                    .filter(s -> s.getName().equals(words[1]))
+                    .findFirst();
+            if (subcommandData.isEmpty())
+                return Optional.empty();
+            subcommand = words[1];
+            optionData = subcommandData.get().getOptions();
+            options = options.substring(words[1].length()).strip();
+        }
+
+        // Options are written as "name: value", and a value can hold spaces, so values run until the next option name
+        Map<String, String> values = new HashMap<>();
+        if (!optionData.isEmpty() && !options.isEmpty()) {
+            String names = optionData.stream().map(o -> Pattern.quote(o.getName())).collect(Collectors.joining("|"));
+            Matcher name = Pattern.compile("(?:^| )(" + names + "): ").matcher(options);
+            List<int[]> positions = new ArrayList<>();
+            while (name.find())
+                positions.add(new int[]{name.start(1), name.end()});
+            for (int i = 0; i < positions.size(); i++) {
+                int end = i + 1 < positions.size() ? positions.get(i + 1)[0] - 1 : options.length();
+                values.put(options.substring(positions.get(i)[0], positions.get(i)[1] - 2), options.substring(positions.get(i)[1], end));
+            }
+        }
+        return Optional.of(new SlashCommand(words[0], subcommand, optionData, values, this));
+    }
+
+    @Override
+    public void close() {
+        fixture.close();
+        GameCache.clearGameState(GAME_NAME);
+    }
+}
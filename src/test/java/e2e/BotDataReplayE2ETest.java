@@ -0,0 +1,115 @@
+package e2e;
+
+import controller.DiscordGame;
+import helpers.BinaryJson;
+import helpers.JsonPatch;
+import model.Game;
+import model.TestTopic;
+import model.factions.AtreidesFaction;
+import model.factions.Faction;
+import model.factions.HarkonnenFaction;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the {@link BotDataReplay} on a small history written in the format of {@link devtools.ExportBotData}. The
+ * replay of an exported game runs only when asked for, e.g.
+ * {@code mvn test -Dtest=BotDataReplayE2ETest -Dreplay.dir=/path/to/export}.
+ */
+class BotDataReplayE2ETest {
+    private static final Logger logger = LoggerFactory.getLogger(BotDataReplayE2ETest.class);
+
+    @TempDir
+    Path exportDirectory;
+
+    @Test
+    void replaysCommandsButtonsAndJournalEntries() throws Exception {
+        Game game = new Game();
+        game.setGameRole("Replay Players");
+        game.setModRole("Replay Mods");
+        game.setMod("<@900>");
+        game.setMute(false);
+        addFaction(game, new AtreidesFaction("<@901>", "alice"));
+        addFaction(game, new HarkonnenFaction("<@902>", "bob"));
+        Faction atreides = game.getFaction("Atreides");
+        Faction harkonnen = game.getFaction("Harkonnen");
+
+        byte[] created = toJson(game);
+        write(1, "Command: `/new-game name: Replay gamerole: @Replay Players modrole: @Replay Mods`", "gamestate.json", created);
+
+        atreides.addSpice(2, "Replay test");
+        write(2, "Command: `/add-spice factionname: Atreides amount: 2 message: Replay test front-of-shield: false`",
+                "gamestate.bin", BinaryJson.toBinary(DiscordGame.getGsonSerializer(), game));
+
+        byte[] beforeButton = toJson(game);
+        harkonnen.setDecliningCharity(true);
+        write(3, "Button Pressed: `charity-decline pressed by bob`", DiscordGame.JOURNAL_FILE_NAME,
+                JsonPatch.diff(DiscordGame.parseGameState(beforeButton), DiscordGame.parseGameState(toJson(game)))
+                        .toString().getBytes(StandardCharsets.UTF_8));
+
+        // The recorded state does not match what the command does
+        atreides.subtractSpice(3, "Replay test");
+        write(4, "Command: `/remove-spice factionname: Atreides amount: 1 message: Replay test`", "gamestate.json", toJson(game));
+
+        write(5, "a bid was entered by alice", "gamestate.json", toJson(game));
+
+        List<BotDataReplay.Entry> entries = BotDataReplay.load(exportDirectory);
+        assertEquals(5, entries.size());
+        assertTrue(entries.get(2).isJournalEntry());
+
+        BotDataReplay.Report report;
+        try (BotDataReplay replay = new BotDataReplay()) {
+            report = replay.replay(entries);
+        }
+        logger.info("Replay:\n{}", report.format());
+
+        assertEquals(3, report.steps().size());
+        assertEquals(2, report.skipped());
+        assertTrue(report.steps().get(0).matches(), report::format);
+        assertEquals("/add-spice", report.steps().get(0).commandType());
+        assertTrue(report.steps().get(1).matches(), report::format);
+        assertEquals("button charity", report.steps().get(1).commandType());
+        BotDataReplay.Step removeSpice = report.steps().get(2);
+        assertFalse(removeSpice.matches());
+        assertEquals(List.of("replace /factions/0/spice"), removeSpice.differences());
+        assertEquals(1, report.mismatches());
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "replay.dir", matches = ".+")
+    void replayExportedGame() throws Exception {
+        List<BotDataReplay.Entry> entries = BotDataReplay.load(Path.of(System.getProperty("replay.dir")));
+        try (BotDataReplay replay = new BotDataReplay()) {
+            logger.info("Replay of {}:\n{}", System.getProperty("replay.dir"), replay.replay(entries).format());
+        }
+    }
+
+    private static void addFaction(Game game, Faction faction) throws IOException {
+        faction.setChat(new TestTopic());
+        faction.setLedger(new TestTopic());
+        game.addFaction(faction);
+    }
+
+    private static byte[] toJson(Game game) {
+        return DiscordGame.getGsonSerializer().toJson(game).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private void write(int sequence, String content, String attachmentName, byte[] attachment) throws IOException {
+        String prefix = String.format("%06d", sequence);
+        Files.writeString(exportDirectory.resolve(prefix + ".txt"), content, StandardCharsets.UTF_8);
+        Files.write(exportDirectory.resolve(prefix + "-" + attachmentName), attachment);
+    }
+}
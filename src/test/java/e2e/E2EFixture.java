@@ -0,0 +1,162 @@
+package e2e;
+
+import caches.CardImageIndex;
+import caches.EmojiCache;
+import caches.FrontOfShieldCache;
+import controller.buttons.ButtonManager;
+import controller.commands.CommandManager;
+import helpers.DiscordRequestDispatcher;
+import net.dv8tion.jda.api.entities.Message;
+import net.dv8tion.jda.api.entities.MessageHistory;
+import net.dv8tion.jda.api.entities.channel.concrete.TextChannel;
+import net.dv8tion.jda.api.entities.emoji.ApplicationEmoji;
+import net.dv8tion.jda.api.utils.FileUpload;
+import net.dv8tion.jda.api.utils.NamedAttachmentProxy;
+import org.mockito.MockedStatic;
+import testutil.discord.state.MockChannelState;
+import testutil.discord.state.MockGuildState;
+import testutil.discord.state.MockMessageState;
+import utils.CardImages;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.when;
+
+/**
+ * The global state every E2E run against the stateful mock guild needs, and puts back when it is closed.
+ *
+ * <p>While open:
+ * <ul>
+ *   <li>Commands and buttons run synchronously on the calling thread</li>
+ *   <li>The bot's application emojis are mocked for every faction</li>
+ *   <li>The static {@code MessageHistory.getHistoryFromBeginning()}, which removing a player from the waiting list
+ *       uses, returns an empty history on the thread that opened the fixture</li>
+ *   <li>The card image index and the front-of-shield layouts start empty</li>
+ * </ul>
+ *
+ * <p>Closing it closes the static mock, turns synchronous mode off and clears the card image index and the
+ * front-of-shield layouts. Games the run saved are left for the caller to clear, since only it knows their names.
+ */
+class E2EFixture implements AutoCloseable {
+    /**
+     * The faction emoji names. The cache is keyed by these exact names; checksum-marker emojis ({@code name_xxx})
+     * exist on Discord only for drift detection and never enter the cache, so the mocks omit them.
+     */
+    private static final List<String> EMOJI_NAMES = List.of("atreides", "harkonnen", "emperor", "fremen", "guild", "bt",
+            "ix", "tleilaxu", "bg", "choam", "richese", "ecaz", "moritani");
+
+    private final MockedStatic<MessageHistory> messageHistory;
+
+    E2EFixture() {
+        CommandManager.setRunSynchronously(true);
+        ButtonManager.setRunSynchronously(true);
+        DiscordRequestDispatcher.setSynchronous(true);
+        CardImageIndex.invalidateAll();
+        FrontOfShieldCache.clearAll();
+        putEmojis();
+
+        messageHistory = mockStatic(MessageHistory.class);
+        messageHistory.when(() -> MessageHistory.getHistoryFromBeginning(any(TextChannel.class))).thenAnswer(_ -> {
+            MessageHistory history = mock(MessageHistory.class);
+            when(history.getRetrievedHistory()).thenReturn(Collections.emptyList());
+            MessageHistory.MessageRetrieveAction action = mock(MessageHistory.MessageRetrieveAction.class);
+            when(action.complete()).thenReturn(history);
+            return action;
+        });
+    }
+
+    private static void putEmojis() {
+        List<ApplicationEmoji> emojis = new ArrayList<>();
+        long emojiId = 100000000L;
+        for (String name : EMOJI_NAMES) {
+            ApplicationEmoji emoji = mock(ApplicationEmoji.class);
+            when(emoji.getName()).thenReturn(name);
+            when(emoji.getIdLong()).thenReturn(emojiId);
+            when(emoji.getAsMention()).thenReturn("<:" + name + ":" + emojiId + ">");
+            when(emoji.getFormatted()).thenReturn("<:" + name + ":" + emojiId + ">");
+            emojis.add(emoji);
+            emojiId++;
+        }
+        EmojiCache.putAll(emojis);
+    }
+
+    /**
+     * Makes every Game Resources channel empty, so card image lookups find nothing instead of paging the channels.
+     */
+    void withoutCardImages() {
+        for (String channelName : CardImages.RESOURCE_CHANNELS)
+            CardImageIndex.refresh(channelName, () -> new CardImageIndex.ChannelIndex(null, List.of()));
+    }
+
+    /**
+     * Serves the static {@code MessageHistory.getHistoryAfter()}, which card image lookups page channels with, from
+     * the messages in the mock guild's channels. Attachments download as a stub png.
+     *
+     * @param guildState The guild whose channels are read.
+     */
+    void withHistoryAfter(MockGuildState guildState) {
+        messageHistory.when(() -> MessageHistory.getHistoryAfter(any(), anyString())).thenAnswer(inv -> {
+            List<Message> messages = new ArrayList<>();
+            if (inv.getArgument(0) instanceof TextChannel channel) {
+                long afterId = Long.parseLong(inv.getArgument(1));
+                MockChannelState channelState = guildState.getChannel(channel.getIdLong());
+                if (channelState != null) {
+                    for (MockMessageState messageState : channelState.getMessages())
+                        if (messageState.getMessageId() > afterId)
+                            messages.add(message(guildState, channelState, messageState));
+                }
+            }
+
+            MessageHistory history = mock(MessageHistory.class);
+            when(history.getRetrievedHistory()).thenReturn(messages);
+            when(history.isEmpty()).thenReturn(messages.isEmpty());
+            MessageHistory.MessageRetrieveAction action = mock(MessageHistory.MessageRetrieveAction.class);
+            when(action.limit(anyInt())).thenReturn(action);
+            when(action.complete()).thenReturn(history);
+            return action;
+        });
+    }
+
+    private static Message message(MockGuildState guildState, MockChannelState channelState, MockMessageState messageState) {
+        Message message = mock(Message.class);
+        when(message.getContentRaw()).thenReturn(messageState.getContent());
+        when(message.getIdLong()).thenReturn(messageState.getMessageId());
+        when(message.getId()).thenReturn(String.valueOf(messageState.getMessageId()));
+        when(message.getJumpUrl()).thenReturn("https://discord.com/channels/" + guildState.getGuildId() + "/"
+                + channelState.getChannelId() + "/" + messageState.getMessageId());
+
+        List<Message.Attachment> attachments = new ArrayList<>();
+        for (FileUpload fileUpload : messageState.getAttachments()) {
+            Message.Attachment attachment = mock(Message.Attachment.class);
+            when(attachment.getUrl()).thenReturn("https://mock-discord-attachment.local/" + fileUpload.getName());
+            when(attachment.getFileName()).thenReturn(fileUpload.getName());
+            NamedAttachmentProxy proxy = mock(NamedAttachmentProxy.class);
+            when(proxy.download()).thenAnswer(_ -> CompletableFuture.<InputStream>completedFuture(
+                    new ByteArrayInputStream(new byte[]{(byte) 0x89, 0x50, 0x4E, 0x47})));
+            when(attachment.getProxy()).thenReturn(proxy);
+            attachments.add(attachment);
+        }
+        when(message.getAttachments()).thenReturn(attachments);
+        return message;
+    }
+
+    @Override
+    public void close() {
+        messageHistory.close();
+        CommandManager.setRunSynchronously(false);
+        ButtonManager.setRunSynchronously(false);
+        DiscordRequestDispatcher.setSynchronous(false);
+        CardImageIndex.invalidateAll();
+        FrontOfShieldCache.clearAll();
+    }
+}
@@ -0,0 +1,57 @@
+package e2e;
+
+import net.dv8tion.jda.api.utils.FileUpload;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import testutil.discord.builders.MockButtonEventBuilder;
+import testutil.discord.state.MockChannelState;
+import testutil.discord.state.MockMemberState;
+import testutil.discord.state.MockMessageState;
+import testutil.discord.state.MockThreadChannelState;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * End-to-end tests for the faction info channel in graphic mode.
+ */
+@DisplayName("Faction Info E2E Tests")
+class FactionInfoE2ETest extends SetupCommandsE2ETestBase {
+
+    @Test
+    @DisplayName("Should replace the info channel with the drawn faction info")
+    void shouldReplaceInfoChannelWithDrawnFactionInfo() throws Exception {
+        addFaction("Atreides");
+        MockMemberState player = guildState.getMembers().stream()
+                .filter(m -> guildState.getUser(m.getUserId()).getUsername().equals("AtreidesPlayer"))
+                .findFirst()
+                .orElseThrow();
+        MockChannelState infoChannel = guildState.getChannels().stream()
+                .filter(ch -> ch.getChannelName().equals("atreides-info"))
+                .findFirst()
+                .orElseThrow();
+        MockMessageState oldInfo = new MockMessageState(server.nextMessageId(), infoChannel.getChannelId(), 0L, "Old info");
+        infoChannel.addMessage(oldInfo);
+        MockThreadChannelState chat = guildState.getThreadsInChannel(infoChannel.getChannelId()).stream()
+                .filter(t -> t.getThreadName().equals("chat"))
+                .findFirst()
+                .orElseThrow();
+        MockMessageState buttons = new MockMessageState(server.nextMessageId(), chat.getThreadId(), 0L, "Buttons");
+        chat.addMessage(buttons);
+
+        buttonManager.onButtonInteraction(new MockButtonEventBuilder(guildState)
+                .setMember(player)
+                .setButtonId("graphic")
+                .setChannel(chat)
+                .setMessage(buttons)
+                .build());
+
+        List<MockMessageState> messages = infoChannel.getMessages();
+        assertThat(messages).noneMatch(m -> m.getMessageId() == oldInfo.getMessageId());
+        MockMessageState factionInfo = messages.getFirst();
+        assertThat(factionInfo.getContent()).isEqualTo("Faction Info");
+        assertThat(factionInfo.getAttachments()).extracting(FileUpload::getName).containsExactly("behind shield.png");
+        assertThat(factionInfo.getAttachments().getFirst().getData().readAllBytes()).isNotEmpty();
+    }
+}
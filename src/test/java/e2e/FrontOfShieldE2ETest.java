@@ -0,0 +1,100 @@
+package e2e;
+
+import helpers.DiscordRequestDispatcher;
+import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import testutil.discord.builders.MockSlashCommandEventBuilder;
+import testutil.discord.state.MockChannelState;
+import testutil.discord.state.MockMessageState;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * End-to-end tests for refreshing the front-of-shield channel in place.
+ */
+@DisplayName("Front of Shield E2E Tests")
+class FrontOfShieldE2ETest extends SetupCommandsE2ETestBase {
+
+    @Test
+    @DisplayName("Should edit the messages that changed while the game was muted once it is unmuted")
+    void shouldEditMessagesChangedWhileMuted() throws Exception {
+        addFactions("Atreides", "Harkonnen");
+        MockChannelState frontOfShield = guildState.getChannels().stream()
+                .filter(ch -> ch.getChannelName().equals("front-of-shield"))
+                .findFirst()
+                .orElseThrow();
+        // The first refresh posts the channel and the second edits the map
+        run(command("show").setSubcommandName("front-of-shields"));
+        run(command("show").setSubcommandName("front-of-shields"));
+        MockMessageState atreidesInfo = frontOfShield.getMessages().stream()
+                .filter(m -> m.getContent().contains("Atreides Info"))
+                .findFirst()
+                .orElseThrow();
+        int edits = atreidesInfo.getEditCount();
+        run(command("show").setSubcommandName("front-of-shields"));
+        assertThat(atreidesInfo.getEditCount())
+                .as("A message that did not change is not edited")
+                .isEqualTo(edits);
+
+        run(command("mute"));
+        run(command("add-spice")
+                .addStringOption("factionname", "Atreides")
+                .addIntegerOption("amount", 7)
+                .addStringOption("message", "Muted spice")
+                .addBooleanOption("front-of-shield", true));
+        run(command("show").setSubcommandName("front-of-shields"));
+        assertThat(atreidesInfo.getEditCount())
+                .as("Nothing is sent while the game is muted")
+                .isEqualTo(edits);
+
+        run(command("mute"));
+        run(command("show").setSubcommandName("front-of-shields"));
+        assertThat(atreidesInfo.getEditCount())
+                .as("The edit skipped while muted is made by the next refresh")
+                .isEqualTo(edits + 1);
+        assertThat(frontOfShield.getMessages()).contains(atreidesInfo);
+    }
+
+    @Test
+    @DisplayName("Should edit the messages an earlier refresh is still posting without waiting for them")
+    void shouldEditMessagesStillBeingPosted() throws Exception {
+        addFactions("Atreides", "Harkonnen");
+        MockChannelState frontOfShield = guildState.getChannels().stream()
+                .filter(ch -> ch.getChannelName().equals("front-of-shield"))
+                .findFirst()
+                .orElseThrow();
+        DiscordRequestDispatcher.setSynchronous(false);
+        frontOfShield.setSendLatency(Duration.ofSeconds(1));
+
+        run(command("show").setSubcommandName("front-of-shields"));
+        run(command("show").setSubcommandName("front-of-shields"));
+        assertThat(frontOfShield.getMessages())
+                .as("The second refresh does not wait for the first to be posted")
+                .hasSizeLessThan(3);
+
+        DiscordRequestDispatcher.awaitAll();
+        List<MockMessageState> messages = frontOfShield.getMessages();
+        assertThat(messages).hasSize(3);
+        assertThat(messages.stream().filter(m -> !m.getAttachments().isEmpty()).toList())
+                .singleElement()
+                .extracting(MockMessageState::getEditCount)
+                .as("The second refresh edits the map in the posted message")
+                .isEqualTo(1);
+    }
+
+    private MockSlashCommandEventBuilder command(String commandName) {
+        return new MockSlashCommandEventBuilder(guildState)
+                .setMember(moderatorMember)
+                .setCommandName(commandName)
+                .setChannel(getGameActionsChannel());
+    }
+
+    private void run(MockSlashCommandEventBuilder command) {
+        SlashCommandInteractionEvent event = command.build();
+        commandManager.onSlashCommandInteraction(event);
+    }
+}
@@ -0,0 +1,128 @@
+package e2e;
+
+import caches.GameCache;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import controller.DiscordGame;
+import helpers.BinaryJson;
+import helpers.JsonPatch;
+import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
+import net.dv8tion.jda.api.utils.FileUpload;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import testutil.discord.builders.MockSlashCommandEventBuilder;
+import testutil.discord.state.MockMessageState;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * End-to-end tests for journaled game states in the bot-data channel.
+ */
+@DisplayName("Game State Journal E2E Tests")
+class GameStateJournalE2ETest extends SetupCommandsE2ETestBase {
+
+    @Test
+    @DisplayName("Should rebuild the game state from bot-data after a journal upload fails")
+    void shouldRebuildGameStateAfterFailedUpload() throws Exception {
+        SlashCommandInteractionEvent journal = new MockSlashCommandEventBuilder(guildState)
+                .setMember(moderatorMember)
+                .setCommandName("gamestate")
+                .setSubcommandName("journal")
+                .addIntegerOption("checkpoint-interval", 10)
+                .setChannel(getGameActionsChannel())
+                .build();
+        commandManager.onSlashCommandInteraction(journal);
+
+        addFaction("Atreides");
+        assertThat(lastAttachmentName())
+                .as("Changes after a full game state are journaled")
+                .isEqualTo(DiscordGame.JOURNAL_FILE_NAME);
+
+        int uploads = botDataChannel.getMessages().size();
+        botDataChannel.failNextSends(1);
+        addFaction("Harkonnen");
+        assertThat(botDataChannel.getMessages())
+                .as("The failed upload is not in bot-data")
+                .hasSize(uploads);
+
+        addFaction("Fremen");
+        assertThat(lastAttachmentName())
+                .as("The save after a failed upload is a full game state")
+                .isEqualTo("gamestate.json");
+
+        addFaction("Emperor");
+        assertThat(lastAttachmentName()).isEqualTo(DiscordGame.JOURNAL_FILE_NAME);
+
+        JsonElement rebuilt = replayBotData();
+        JsonElement saved = DiscordGame.parseGameState(GameCache.getGameState("Test Game"));
+        assertThat(rebuilt).isEqualTo(saved);
+        assertThat(rebuilt.getAsJsonObject().getAsJsonArray("factions")).hasSize(4);
+    }
+
+    @Test
+    @DisplayName("Should upload full game states in the binary save format while journaling")
+    void shouldUploadBinaryCheckpointsWhileJournaling() throws Exception {
+        commandManager.onSlashCommandInteraction(new MockSlashCommandEventBuilder(guildState)
+                .setMember(moderatorMember)
+                .setCommandName("gamestate")
+                .setSubcommandName("save-format")
+                .addStringOption("format", "BINARY")
+                .setChannel(getGameActionsChannel())
+                .build());
+        commandManager.onSlashCommandInteraction(new MockSlashCommandEventBuilder(guildState)
+                .setMember(moderatorMember)
+                .setCommandName("gamestate")
+                .setSubcommandName("journal")
+                .addIntegerOption("checkpoint-interval", 10)
+                .setChannel(getGameActionsChannel())
+                .build());
+        assertThat(lastAttachmentName())
+                .as("The first journaled save is a full game state")
+                .isEqualTo("gamestate.bin");
+
+        addFaction("Atreides");
+        assertThat(lastAttachmentName()).isEqualTo(DiscordGame.JOURNAL_FILE_NAME);
+
+        botDataChannel.failNextSends(1);
+        addFaction("Harkonnen");
+        addFaction("Fremen");
+        assertThat(lastAttachmentName())
+                .as("The full game state after a failed upload uses the save format")
+                .isEqualTo("gamestate.bin");
+
+        addFaction("Emperor");
+        assertThat(lastAttachmentName()).isEqualTo(DiscordGame.JOURNAL_FILE_NAME);
+        assertThat(replayBotData()).isEqualTo(DiscordGame.parseGameState(GameCache.getGameState("Test Game")));
+    }
+
+    private String lastAttachmentName() {
+        List<FileUpload> attachments = botDataChannel.getMessages().getLast().getAttachments();
+        return attachments.isEmpty() ? null : attachments.getFirst().getName();
+    }
+
+    /**
+     * Applies every game state and journal entry in bot-data in order, as loading the game does.
+     */
+    private JsonElement replayBotData() throws IOException {
+        JsonElement state = null;
+        for (MockMessageState message : botDataChannel.getMessages()) {
+            if (message.getAttachments().isEmpty()) continue;
+            FileUpload attachment = message.getAttachments().getFirst();
+            InputStream data = attachment.getData();
+            data.reset();
+            byte[] bytes = data.readAllBytes();
+            if (attachment.getName().equals(DiscordGame.JOURNAL_FILE_NAME))
+                state = JsonPatch.apply(state.deepCopy(), JsonParser.parseString(new String(bytes, StandardCharsets.UTF_8)).getAsJsonArray());
+            else {
+                if (attachment.getName().equals("gamestate.bin")) assertThat(BinaryJson.isBinary(bytes)).isTrue();
+                state = DiscordGame.parseGameState(bytes);
+            }
+        }
+        return state;
+    }
+}
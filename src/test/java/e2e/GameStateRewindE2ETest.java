@@ -0,0 +1,101 @@
+package e2e;
+
+import caches.GameCache;
+import controller.DiscordGame;
+import helpers.DiscordRequestDispatcher;
+import net.dv8tion.jda.api.entities.channel.concrete.Category;
+import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
+import net.dv8tion.jda.api.utils.FileUpload;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import testutil.discord.StatefulMockFactory;
+import testutil.discord.builders.MockSlashCommandEventBuilder;
+import testutil.discord.state.MockMessageState;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * End-to-end tests for rewinding and refreshing a game while its bot-data uploads are still being sent. Commands do
+ * not wait for their messages here, unlike the other E2E tests, and bot-data sends are held until the test lets them
+ * go.
+ */
+@DisplayName("Game State Rewind E2E Tests")
+class GameStateRewindE2ETest extends SetupCommandsE2ETestBase {
+    private static final long RELEASE_DELAY_MILLIS = 300;
+
+    @BeforeEach
+    void sendAsynchronously() {
+        DiscordRequestDispatcher.setSynchronous(false);
+    }
+
+    @AfterEach
+    void waitForSends() {
+        botDataChannel.releaseSends();
+        DiscordRequestDispatcher.awaitAll();
+        GameCache.clearGameState("Test Game");
+    }
+
+    @Test
+    @DisplayName("Should keep a rewind when the next command runs before its upload is sent")
+    void shouldKeepRewindBeforeItsUploadIsSent() throws Exception {
+        byte[] withoutFactions = GameCache.getGameState("Test Game");
+        addFactions("Atreides", "Harkonnen");
+        DiscordRequestDispatcher.awaitAll();
+
+        botDataChannel.holdSends();
+        Category category = StatefulMockFactory.mockCategory(gameCategory, guildState);
+        DiscordGame discordGame = new DiscordGame(category, false);
+        discordGame.pushGameState(withoutFactions, discordGame.getBotDataChannel()
+                .sendMessage("Rewind to previous state")
+                .addFiles(FileUpload.fromData(withoutFactions, "gamestate.json")));
+        discordGame.sendAllMessages();
+
+        addFaction("Fremen");
+        botDataChannel.releaseSends();
+        DiscordRequestDispatcher.awaitAll();
+
+        assertThat(factionCount(GameCache.getGameState("Test Game"))).isEqualTo(1);
+        assertThat(factionCount(botDataChannel.getMessages().getLast())).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should read the last save after a refresh while its upload is still being sent")
+    void shouldReadLastSaveAfterRefresh() throws Exception {
+        botDataChannel.holdSends();
+        addFaction("Atreides");
+
+        SlashCommandInteractionEvent refresh = new MockSlashCommandEventBuilder(guildState)
+                .setMember(moderatorMember)
+                .setCommandName("gamestate")
+                .setSubcommandName("refresh")
+                .setChannel(getGameActionsChannel())
+                .build();
+        commandManager.onSlashCommandInteraction(refresh);
+
+        // The next command loads the game while the upload is still held, and must wait for it to be sent
+        CompletableFuture.runAsync(botDataChannel::releaseSends,
+                CompletableFuture.delayedExecutor(RELEASE_DELAY_MILLIS, TimeUnit.MILLISECONDS));
+        addFaction("Harkonnen");
+        DiscordRequestDispatcher.awaitAll();
+
+        assertThat(factionCount(GameCache.getGameState("Test Game"))).isEqualTo(2);
+        assertThat(factionCount(botDataChannel.getMessages().getLast())).isEqualTo(2);
+    }
+
+    private static int factionCount(MockMessageState message) throws IOException {
+        InputStream data = message.getAttachments().getFirst().getData();
+        data.reset();
+        return factionCount(data.readAllBytes());
+    }
+
+    private static int factionCount(byte[] gameState) {
+        return DiscordGame.parseGameState(gameState).getAsJsonObject().getAsJsonArray("factions").size();
+    }
+}
@@ -0,0 +1,88 @@
+package e2e;
+
+import caches.GameStore;
+import controller.DiscordGame;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import testutil.discord.state.MockMessageState;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * End-to-end tests for bot-data replication while a game store is configured.
+ */
+@DisplayName("Game Store E2E Tests")
+class GameStoreE2ETest extends SetupCommandsE2ETestBase {
+    private final InMemoryGameStore gameStore = new InMemoryGameStore();
+
+    @AfterEach
+    void clearGameStore() {
+        DiscordGame.setGameStore(null);
+        botDataChannel.releaseSends();
+    }
+
+    @Test
+    @DisplayName("Should upload states to bot-data in save order when a store save fails")
+    void shouldKeepUploadOrderWhenAStoreSaveFails() throws Exception {
+        DiscordGame.setGameStore(gameStore);
+        int uploads = botDataChannel.getMessages().size();
+
+        // The first two uploads are still queued when the third save fails
+        botDataChannel.holdSends();
+        addFaction("Atreides");
+        addFaction("Emperor");
+        gameStore.failNextSaves(1);
+        addFaction("Harkonnen");
+        addFaction("Fremen");
+        botDataChannel.releaseSends();
+
+        DiscordGame.awaitBotDataReplica();
+        List<MockMessageState> messages = botDataChannel.getMessages();
+        assertThat(messages).hasSize(uploads + 4);
+        List<Integer> factionCounts = new ArrayList<>();
+        for (MockMessageState message : messages.subList(uploads, uploads + 4))
+            factionCounts.add(factionCount(message));
+        assertThat(factionCounts).containsExactly(1, 2, 3, 4);
+    }
+
+    private static int factionCount(MockMessageState message) throws IOException {
+        InputStream data = message.getAttachments().getFirst().getData();
+        data.reset();
+        return DiscordGame.parseGameState(data.readAllBytes()).getAsJsonObject().getAsJsonArray("factions").size();
+    }
+
+    private static class InMemoryGameStore implements GameStore {
+        private final Map<String, byte[]> gameStates = new ConcurrentHashMap<>();
+        private final AtomicInteger failingSaves = new AtomicInteger();
+
+        void failNextSaves(int count) {
+            failingSaves.set(count);
+        }
+
+        @Override
+        public byte[] load(String gameName) {
+            return gameStates.get(gameName);
+        }
+
+        @Override
+        public void save(String gameName, byte[] gameState) throws IOException {
+            if (failingSaves.getAndUpdate(n -> Math.max(0, n - 1)) > 0)
+                throw new IOException("Simulated failure saving " + gameName);
+            gameStates.put(gameName, gameState);
+        }
+
+        @Override
+        public void invalidate(String gameName) {
+            gameStates.remove(gameName);
+        }
+    }
+}
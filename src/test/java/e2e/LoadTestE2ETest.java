@@ -0,0 +1,57 @@
+package e2e;
+
+import helpers.CommandMetrics;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the {@link LoadTestHarness}. The smoke test plays a few short games on every build so the harness keeps
+ * working. The full load test runs only when asked for, e.g.
+ * {@code mvn test -Dtest=LoadTestE2ETest -Dloadtest.games=20 -Dloadtest.players=6 -Dloadtest.actions=20 -Dloadtest.latencyMs=50}.
+ */
+class LoadTestE2ETest {
+    private static final Logger logger = LoggerFactory.getLogger(LoadTestE2ETest.class);
+
+    @Test
+    void smokeTest() throws Exception {
+        LoadTestHarness.Options options = new LoadTestHarness.Options(2, 2, 4, Duration.ofMillis(1), Duration.ZERO);
+        try (LoadTestHarness harness = new LoadTestHarness(options)) {
+            harness.setUp();
+            LoadTestHarness.Report report = harness.run();
+            logger.info("Load test smoke run:\n{}", report.format());
+
+            // Each of the 2 games has 2 players and a moderator sending 4 commands each
+            assertEquals(24, report.commands());
+            assertEquals(0, report.failures(), report::format);
+            assertTrue(report.perCommand().containsKey("button text"));
+            assertTrue(report.perCommand().containsKey("/player whisper"));
+            assertTrue(report.perCommand().containsKey("/show board"));
+            assertTrue(report.maxQueueDepth() >= 1);
+            assertTrue(CommandMetrics.getTimings().containsKey("/show board"));
+            assertTrue(CommandMetrics.getTimings().containsKey("button charity"));
+        }
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "loadtest.games", matches = "\\d+")
+    void loadTest() throws Exception {
+        LoadTestHarness.Options options = new LoadTestHarness.Options(
+                Integer.getInteger("loadtest.games"),
+                Integer.getInteger("loadtest.players", 6),
+                Integer.getInteger("loadtest.actions", 20),
+                Duration.ofMillis(Integer.getInteger("loadtest.latencyMs", 50)),
+                Duration.ofMillis(Integer.getInteger("loadtest.thinkMs", 0)));
+        try (LoadTestHarness harness = new LoadTestHarness(options)) {
+            harness.setUp();
+            LoadTestHarness.Report report = harness.run();
+            logger.info("Load test with {}:\n{}", options, report.format());
+        }
+    }
+}
@@ -0,0 +1,447 @@
+package e2e;
+
+import caches.GameCache;
+import controller.DiscordGame;
+import controller.Queue;
+import controller.buttons.ButtonManager;
+import controller.commands.CommandManager;
+import model.Game;
+import model.factions.Faction;
+import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
+import testutil.discord.StatefulMockFactory;
+import testutil.discord.builders.MockButtonEventBuilder;
+import testutil.discord.builders.MockSlashCommandEventBuilder;
+import testutil.discord.state.MockChannelState;
+import testutil.discord.state.MockDiscordServer;
+import testutil.discord.state.MockGuildState;
+import testutil.discord.state.MockMemberState;
+import testutil.discord.state.MockMessageState;
+import testutil.discord.state.MockRoleState;
+import testutil.discord.state.MockThreadChannelState;
+import testutil.discord.state.MockUserState;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Plays many games at once through {@link CommandManager} and {@link ButtonManager} against a
+ * {@link MockDiscordServer}, with commands running on the real asynchronous {@link Queue}.
+ *
+ * <p>Each game is created and set up with the same commands a moderator would use. Then every player
+ * presses buttons and whispers to their neighbour while a moderator adds and removes spice and shows
+ * the board. Each player waits for their last command to finish before thinking and sending the next,
+ * like a player waiting for the bot's reply. Every Discord call that completes waits for the configured
+ * REST latency, so the time commands spend sending messages is close to what it is against Discord.
+ *
+ * <p>The report gives the throughput, the latency of each command from dispatch until its stage of the
+ * game's queue finished, and how many commands were waiting in each game's queue.
+ *
+ * <pre>{@code
+ * try (LoadTestHarness harness = new LoadTestHarness(new LoadTestHarness.Options(10, 6, 20, Duration.ofMillis(50), Duration.ZERO))) {
+ *     harness.setUp();
+ *     LoadTestHarness.Report report = harness.run();
+ *     System.out.println(report.format());
+ * }
+ * }</pre>
+ */
+public class LoadTestHarness implements AutoCloseable {
+    private static final List<String> FACTIONS = List.of("Atreides", "Harkonnen", "Emperor", "Fremen", "Guild", "BG",
+            "BT", "Ix", "CHOAM", "Richese", "Ecaz", "Moritani");
+    private static final List<String> PLAYER_BUTTONS = List.of("charity-accept", "text", "charity-decline");
+    private static final Duration SAMPLE_INTERVAL = Duration.ofMillis(10);
+
+    /**
+     * @param games            The number of games played at once.
+     * @param playersPerGame   The number of factions in each game, from 2 to 12.
+     * @param actionsPerPlayer The number of commands and button presses each player sends. The moderator of each
+     *                         game sends the same number.
+     * @param restLatency      How long each completed Discord call takes.
+     * @param thinkTime        How long each player waits after a reply before sending their next command.
+     */
+    public record Options(int games, int playersPerGame, int actionsPerPlayer, Duration restLatency, Duration thinkTime) {
+        public Options {
+            if (games < 1)
+                throw new IllegalArgumentException("At least one game is needed");
+            if (playersPerGame < 2 || playersPerGame > FACTIONS.size())
+                throw new IllegalArgumentException("Players per game must be between 2 and " + FACTIONS.size());
+            if (actionsPerPlayer < 1)
+                throw new IllegalArgumentException("At least one action per player is needed");
+        }
+    }
+
+    /**
+     * Latencies of one kind of command.
+     *
+     * @param count    The number of commands sent.
+     * @param failures The number of commands that reported an error to mod-info.
+     */
+    public record CommandStats(String command, int count, int failures, Duration p50, Duration p99, Duration max) {
+    }
+
+    /**
+     * @param commands       The number of commands sent in all games.
+     * @param failures       The number of commands that reported an error to mod-info.
+     * @param elapsed        The time from the first command until the last one finished.
+     * @param perCommand     The latencies of each kind of command, by command.
+     * @param maxQueueDepth  The most commands waiting or running in one game's queue at once.
+     * @param meanQueueDepth The average number of commands waiting or running in a game's queue.
+     */
+    public record Report(int commands, int failures, Duration elapsed, Map<String, CommandStats> perCommand,
+                         int maxQueueDepth, double meanQueueDepth) {
+        public double throughput() {
+            return commands / Math.max(elapsed.toNanos() / 1e9, 1e-9);
+        }
+
+        public String format() {
+            StringBuilder report = new StringBuilder();
+            report.append(String.format("%d commands in %d ms: %.1f commands/s, %d failed%n",
+                    commands, elapsed.toMillis(), throughput(), failures));
+            report.append(String.format("Queue depth per game: max %d, mean %.2f%n", maxQueueDepth, meanQueueDepth));
+            report.append(String.format("%-28s %7s %7s %9s %9s %9s%n", "Command", "Count", "Failed", "p50 ms", "p99 ms", "Max ms"));
+            for (CommandStats stats : perCommand.values())
+                report.append(String.format("%-28s %7d %7d %9.1f %9.1f %9.1f%n", stats.command(), stats.count(), stats.failures(),
+                        stats.p50().toNanos() / 1e6, stats.p99().toNanos() / 1e6, stats.max().toNanos() / 1e6));
+            return report.toString();
+        }
+    }
+
+    private record Player(MockMemberState member, MockUserState user, Faction faction, MockChannelState infoChannel,
+                          MockThreadChannelState chat) {
+    }
+
+    private static final class LoadGame {
+        final String name;
+        final long categoryId;
+        final List<Player> players = new ArrayList<>();
+        final AtomicInteger inFlight = new AtomicInteger();
+        MockChannelState gameActions;
+        MockChannelState modInfo;
+
+        LoadGame(String name, long categoryId) {
+            this.name = name;
+            this.categoryId = categoryId;
+        }
+    }
+
+    private final Options options;
+    private final MockDiscordServer server;
+    private final MockGuildState guildState;
+    private final CommandManager commandManager = new CommandManager();
+    private final ButtonManager buttonManager = new ButtonManager();
+    private final List<LoadGame> games = new ArrayList<>();
+    private final Map<String, List<Long>> latencies = new ConcurrentHashMap<>();
+    private final AtomicInteger maxQueueDepth = new AtomicInteger();
+    private final AtomicLong queueDepthTotal = new AtomicLong();
+    private final AtomicLong queueDepthSamples = new AtomicLong();
+    private MockRoleState modRole;
+    private MockMemberState moderator;
+    private E2EFixture fixture;
+
+    public LoadTestHarness(Options options) {
+        this.options = options;
+        this.server = MockDiscordServer.create();
+        this.guildState = server.createGuild(123456789L, "Load Test Server");
+    }
+
+    /**
+     * Creates the games and adds their factions. Runs synchronously on the calling thread.
+     */
+    public void setUp() throws Exception {
+        fixture = new E2EFixture();
+        // No card images are uploaded, so the lookups find nothing instead of paging the empty channels
+        fixture.withoutCardImages();
+        ButtonManager.setAllowModButtonPress();
+        StatefulMockFactory.mockGuild(guildState);
+        guildState.createTextChannel("waiting-list", 0L);
+        guildState.createCategory("Game Resources");
+        modRole = guildState.createRole("Moderators");
+        guildState.createRole("Observer");
+        guildState.createRole("EasyPoll");
+        moderator = guildState.createMember(guildState.createUser("LoadModerator").getUserId());
+        moderator.addRole(modRole.getRoleId());
+        for (int i = 1; i <= options.games(); i++)
+            games.add(createGame("Load Game " + i));
+    }
+
+    private LoadGame createGame(String name) {
+        MockRoleState gameRole = guildState.createRole(name);
+        commandManager.onSlashCommandInteraction(new MockSlashCommandEventBuilder(guildState)
+                .setMember(moderator)
+                .setCommandName("new-game")
+                .addStringOption("name", name)
+                .addRoleOption("gamerole", gameRole)
+                .addRoleOption("modrole", modRole)
+                .build());
+        LoadGame game = new LoadGame(name, guildState.getCategories().stream()
+                .filter(c -> c.getCategoryName().equals(name))
+                .findFirst()
+                .orElseThrow()
+                .getCategoryId());
+        game.gameActions = channel(game, "game-actions");
+        game.modInfo = channel(game, "mod-info");
+        guildState.createThread("turn-summary", game.gameActions.getChannelId());
+
+        List<MockMemberState> members = new ArrayList<>();
+        for (String factionName : FACTIONS.subList(0, options.playersPerGame())) {
+            MockUserState user = guildState.createUser(factionName + "Player-" + name.replace(' ', '-'));
+            MockMemberState member = guildState.createMember(user.getUserId());
+            member.addRole(gameRole.getRoleId());
+            members.add(member);
+            commandManager.onSlashCommandInteraction(new MockSlashCommandEventBuilder(guildState)
+                    .setMember(moderator)
+                    .setCommandName("setup")
+                    .setSubcommandName("faction")
+                    .addStringOption("faction", factionName)
+                    .addUserOption("player", user)
+                    .setChannel(game.gameActions)
+                    .build());
+        }
+
+        Game state = DiscordGame.decodeGameState(GameCache.getGameState(name));
+        for (MockMemberState member : members) {
+            Faction faction = state.getFactions().stream()
+                    .filter(f -> f.getPlayer().equals("<@" + member.getUserId() + ">"))
+                    .findFirst()
+                    .orElseThrow();
+            MockChannelState infoChannel = channel(game, faction.getInfoChannelPrefix() + "-info");
+            MockThreadChannelState chat = guildState.getThreadsInChannel(infoChannel.getChannelId()).stream()
+                    .filter(t -> t.getThreadName().equals("chat"))
+                    .findFirst()
+                    .orElseThrow();
+            game.players.add(new Player(member, guildState.getUser(member.getUserId()), faction, infoChannel, chat));
+        }
+        // Whisper threads are created before the run, since the mock guild only supports creating channels from one thread
+        for (int i = 0; i < game.players.size(); i++) {
+            Player player = game.players.get(i);
+            Player neighbour = neighbour(game, i);
+            guildState.createThread(neighbour.faction().getInfoChannelPrefix() + "-whispers", player.infoChannel().getChannelId());
+            guildState.createThread(player.faction().getInfoChannelPrefix() + "-whispers", neighbour.infoChannel().getChannelId());
+        }
+        return game;
+    }
+
+    private MockChannelState channel(LoadGame game, String channelName) {
+        return guildState.getChannelsInCategory(game.categoryId).stream()
+                .filter(ch -> ch.getChannelName().equals(channelName))
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException(channelName + " not found in " + game.name));
+    }
+
+    private static Player neighbour(LoadGame game, int index) {
+        return game.players.get((index + 1) % game.players.size());
+    }
+
+    /**
+     * Plays the games with commands running on the asynchronous queue, and waits for every command to finish.
+     */
+    public Report run() throws InterruptedException {
+        CommandManager.setRunSynchronously(false);
+        ButtonManager.setRunSynchronously(false);
+        server.setRestLatency(options.restLatency());
+
+        int actors = options.games() * (options.playersPerGame() + 1);
+        AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(actors, 64), r -> {
+            Thread thread = new Thread(r, "load-test-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "load-test-sampler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        sampler.scheduleAtFixedRate(this::sampleQueueDepth, 0, SAMPLE_INTERVAL.toMillis(), TimeUnit.MILLISECONDS);
+
+        long start = System.nanoTime();
+        List<CompletableFuture<Void>> actorRuns = new ArrayList<>();
+        for (LoadGame game : games) {
+            for (int i = 0; i < game.players.size(); i++) {
+                int index = i;
+                actorRuns.add(CompletableFuture.runAsync(() -> playPlayer(game, index), executor));
+            }
+            actorRuns.add(CompletableFuture.runAsync(() -> playModerator(game), executor));
+        }
+        CompletableFuture.allOf(actorRuns.toArray(CompletableFuture[]::new)).join();
+        long elapsed = System.nanoTime() - start;
+
+        sampler.shutdownNow();
+        executor.shutdownNow();
+        sampler.awaitTermination(1, TimeUnit.SECONDS);
+        return report(Duration.ofNanos(elapsed));
+    }
+
+    private void playPlayer(LoadGame game, int index) {
+        for (int action = 0; action < options.actionsPerPlayer(); action++) {
+            think();
+            // Every fourth action is a whisper and the rest go through the buttons
+            if (action % 4 == 3)
+                whisper(game, index, action);
+            else
+                pressButton(game, game.players.get(index), PLAYER_BUTTONS.get(action % 4));
+        }
+    }
+
+    private void whisper(LoadGame game, int index, int action) {
+        Player player = game.players.get(index);
+        send(game, "/player whisper", () -> commandManager.onSlashCommandInteraction(new MockSlashCommandEventBuilder(guildState)
+                .setMember(player.member())
+                .setCommandName("player")
+                .setSubcommandName("whisper")
+                .addStringOption("whisper-recipient", neighbour(game, index).faction().getName())
+                .addStringOption("message", "Load test whisper " + action)
+                .setChannel(player.infoChannel())
+                .build()));
+    }
+
+    /**
+     * Presses a button on a new message in the player's chat thread, since each message's buttons can only be
+     * pressed once at a time.
+     */
+    private void pressButton(LoadGame game, Player player, String buttonId) {
+        MockMessageState message = new MockMessageState(server.nextMessageId(), player.chat().getThreadId(),
+                0L, "Load test buttons");
+        player.chat().addMessage(message);
+        send(game, "button " + buttonId, () -> buttonManager.onButtonInteraction(new MockButtonEventBuilder(guildState)
+                .setMember(player.member())
+                .setButtonId(buttonId)
+                .setChannel(player.chat())
+                .setMessage(message)
+                .build()));
+    }
+
+    private void playModerator(LoadGame game) {
+        for (int action = 0; action < options.actionsPerPlayer(); action++) {
+            think();
+            Player player = game.players.get(action % game.players.size());
+            switch (action % 3) {
+                case 0 -> send(game, "/add-spice", () -> commandManager.onSlashCommandInteraction(spiceEvent(game, "add-spice", player)));
+                case 1 -> send(game, "/remove-spice", () -> commandManager.onSlashCommandInteraction(spiceEvent(game, "remove-spice", player)));
+                default -> send(game, "/show board", () -> commandManager.onSlashCommandInteraction(new MockSlashCommandEventBuilder(guildState)
+                        .setMember(moderator)
+                        .setCommandName("show")
+                        .setSubcommandName("board")
+                        .setChannel(game.gameActions)
+                        .build()));
+            }
+        }
+    }
+
+    private SlashCommandInteractionEvent spiceEvent(LoadGame game, String command, Player player) {
+        return new MockSlashCommandEventBuilder(guildState)
+                .setMember(moderator)
+                .setCommandName(command)
+                .addStringOption("factionname", player.faction().getName())
+                .addIntegerOption("amount", 1)
+                .addStringOption("message", "Load test")
+                .setChannel(game.gameActions)
+                .build();
+    }
+
+    /**
+     * Sends one command and waits until the game's queue has finished it. The game is locked while the command is
+     * dispatched so the tail of the queue read afterward is the stage for this command.
+     */
+    private void send(LoadGame game, String command, Runnable dispatch) {
+        long start;
+        CompletableFuture<Void> stage;
+        synchronized (game) {
+            start = System.nanoTime();
+            game.inFlight.incrementAndGet();
+            dispatch.run();
+            stage = Queue.getFuture(game.name);
+        }
+        try {
+            stage.handle((_, _) -> null).join();
+        } finally {
+            game.inFlight.decrementAndGet();
+            latencies.computeIfAbsent(command, _ -> Collections.synchronizedList(new ArrayList<>()))
+                    .add(System.nanoTime() - start);
+        }
+    }
+
+    private void think() {
+        if (options.thinkTime().isZero())
+            return;
+        try {
+            Thread.sleep(options.thinkTime());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void sampleQueueDepth() {
+        for (LoadGame game : games) {
+            int depth = game.inFlight.get();
+            maxQueueDepth.accumulateAndGet(depth, Math::max);
+            queueDepthTotal.addAndGet(depth);
+            queueDepthSamples.incrementAndGet();
+        }
+    }
+
+    private Report report(Duration elapsed) {
+        Map<String, Integer> failures = failuresByCommand();
+        Map<String, CommandStats> perCommand = new TreeMap<>();
+        int commands = 0;
+        for (Map.Entry<String, List<Long>> entry : latencies.entrySet()) {
+            List<Long> sorted = new ArrayList<>(entry.getValue());
+            Collections.sort(sorted);
+            commands += sorted.size();
+            perCommand.put(entry.getKey(), new CommandStats(entry.getKey(), sorted.size(),
+                    failures.getOrDefault(entry.getKey(), 0),
+                    percentile(sorted, 0.50), percentile(sorted, 0.99), Duration.ofNanos(sorted.getLast())));
+        }
+        long samples = queueDepthSamples.get();
+        return new Report(commands, failures.values().stream().mapToInt(Integer::intValue).sum(), elapsed, perCommand,
+                maxQueueDepth.get(), samples == 0 ? 0 : (double) queueDepthTotal.get() / samples);
+    }
+
+    private static Duration percentile(List<Long> sorted, double quantile) {
+        int index = (int) Math.ceil(quantile * sorted.size()) - 1;
+        return Duration.ofNanos(sorted.get(Math.max(index, 0)));
+    }
+
+    /**
+     * Counts the errors reported to each game's mod-info channel by the command that raised them.
+     */
+    private Map<String, Integer> failuresByCommand() {
+        Map<String, Integer> failures = new TreeMap<>();
+        for (LoadGame game : games) {
+            for (MockMessageState message : game.modInfo.getMessages()) {
+                String content = message.getContent();
+                if (!content.startsWith("**Error occurred at"))
+                    continue;
+                String context = content.lines()
+                        .filter(line -> line.startsWith("**Context:** "))
+                        .findFirst()
+                        .orElse("**Context:** unknown")
+                        .substring("**Context:** ".length());
+                String command = context.startsWith("Button press: ")
+                        ? "button " + context.substring("Button press: ".length())
+                        : context.replaceFirst("^(Game|Slash) command: ", "");
+                failures.merge(command, 1, Integer::sum);
+            }
+        }
+        return failures;
+    }
+
+    @Override
+    public void close() {
+        if (fixture != null) fixture.close();
+        server.setRestLatency(Duration.ZERO);
+        for (LoadGame game : games)
+            GameCache.clearGameState(game.name);
+    }
+}
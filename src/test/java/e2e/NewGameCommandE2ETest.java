@@ -2,6 +2,7 @@ package e2e;
 
 import caches.EmojiCache;
 import controller.commands.CommandManager;
+import helpers.DiscordRequestDispatcher;
 import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -132,6 +133,7 @@ class NewGameCommandE2ETest {
 
         // When: The new-game command is executed through the command manager
         commandManager.onSlashCommandInteraction(event);
+        DiscordRequestDispatcher.awaitAll();
 
         // Then: The bot-data channel should contain a message with the game state
         MockChannelState botDataChannel = guildState.getChannels().stream()
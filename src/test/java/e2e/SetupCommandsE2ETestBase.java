@@ -1,18 +1,14 @@
 package e2e;
 
-import caches.EmojiCache;
+import caches.CardImageIndex;
 import controller.buttons.ButtonManager;
 import controller.commands.CommandManager;
 import model.Game;
-import utils.CardImages;
 import net.dv8tion.jda.api.entities.Message;
-import net.dv8tion.jda.api.entities.MessageHistory;
-import net.dv8tion.jda.api.entities.channel.concrete.TextChannel;
 import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
 import net.dv8tion.jda.api.utils.FileUpload;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
-import org.mockito.MockedStatic;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import testutil.discord.StatefulMockFactory;
@@ -28,19 +24,13 @@ import testutil.discord.state.MockThreadChannelState;
 import testutil.discord.state.MockUserState;
 
 import java.io.IOException;
-import java.lang.reflect.Field;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
-import java.util.Map;
 
-import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.lenient;
 import static org.mockito.Mockito.mock;
-import static org.mockito.Mockito.mockStatic;
-import static org.mockito.Mockito.when;
 
 /**
  * Base class for /setup command E2E tests.
@@ -70,113 +60,18 @@ abstract class SetupCommandsE2ETestBase {
     protected MockCategoryState gameCategory;
     protected MockChannelState botDataChannel;
     protected Game game;
-    protected MockedStatic<MessageHistory> messageHistoryMock;
+    private E2EFixture fixture;
 
     @BeforeEach
     void setUp() throws Exception {
-        // Enable synchronous command execution for tests
-        CommandManager.setRunSynchronously(true);
-        ButtonManager.setRunSynchronously(true);
-
-        // Clear CardImages static cache to prevent stale data across tests
-        clearCardImagesCache();
-
-        // Mock MessageHistory.getHistoryFromBeginning() to avoid ClassCastException
-        messageHistoryMock = mockStatic(MessageHistory.class);
-        messageHistoryMock.when(() -> MessageHistory.getHistoryFromBeginning(any(TextChannel.class)))
-                .thenAnswer(inv -> {
-                    // Create a mock MessageHistory.MessageRetrieveAction (the actual return type)
-                    MessageHistory.MessageRetrieveAction action =
-                        mock(MessageHistory.MessageRetrieveAction.class);
-
-                    // Create a mock MessageHistory with empty retrieved history
-                    MessageHistory history = mock(MessageHistory.class);
-                    when(history.getRetrievedHistory()).thenReturn(Collections.emptyList());
-
-                    // complete() returns the MessageHistory
-                    when(action.complete()).thenReturn(history);
-
-                    return action;
-                });
-
-        // Mock MessageHistory.getHistoryAfter() for CardImages lookups
-        messageHistoryMock.when(() -> MessageHistory.getHistoryAfter(any(), anyString()))
-                .thenAnswer(inv -> {
-                    Object channelObj = inv.getArgument(0);
-                    String afterId = inv.getArgument(1);
-
-                    // Create a mock MessageHistory.MessageRetrieveAction
-                    MessageHistory.MessageRetrieveAction action =
-                        mock(MessageHistory.MessageRetrieveAction.class);
-
-                    // Create a mock MessageHistory
-                    MessageHistory history = mock(MessageHistory.class);
-
-                    // Find messages from the channel state
-                    List<Message> messages = new ArrayList<>();
-                    if (channelObj instanceof TextChannel channel) {
-                        // Try to find the MockChannelState for this channel
-                        MockChannelState channelState = guildState.getChannels().stream()
-                                .filter(ch -> ch.getChannelId() == channel.getIdLong())
-                                .findFirst()
-                                .orElse(null);
-
-                        if (channelState != null) {
-                            long afterIdLong = Long.parseLong(afterId);
-                            // Get messages with ID > afterId
-                            for (MockMessageState msgState : channelState.getMessages()) {
-                                if (msgState.getMessageId() > afterIdLong) {
-                                    Message msg = mock(Message.class);
-                                    when(msg.getContentRaw()).thenReturn(msgState.getContent());
-                                    when(msg.getIdLong()).thenReturn(msgState.getMessageId());
-                                    when(msg.getId()).thenReturn(String.valueOf(msgState.getMessageId()));
-
-                                    // Mock attachments with valid URLs and proxy for download
-                                    List<Message.Attachment> attachments = new ArrayList<>();
-                                    for (FileUpload fileUpload : msgState.getAttachments()) {
-                                        Message.Attachment attachment = mock(Message.Attachment.class);
-                                        String fileName = fileUpload.getName();
-                                        when(attachment.getUrl()).thenReturn("https://mock-discord-attachment.local/" + fileName);
-                                        when(attachment.getFileName()).thenReturn(fileName);
-
-                                        // Mock the proxy for file download (needed by CardImages.getCardImage)
-                                        net.dv8tion.jda.api.utils.NamedAttachmentProxy proxy =
-                                                mock(net.dv8tion.jda.api.utils.NamedAttachmentProxy.class);
-                                        byte[] mockImageData = new byte[]{(byte) 0x89, 0x50, 0x4E, 0x47};
-                                        java.util.concurrent.CompletableFuture<java.io.InputStream> future =
-                                                java.util.concurrent.CompletableFuture.completedFuture(
-                                                        new java.io.ByteArrayInputStream(mockImageData));
-                                        when(proxy.download()).thenReturn(future);
-                                        when(attachment.getProxy()).thenReturn(proxy);
-
-                                        attachments.add(attachment);
-                                    }
-                                    when(msg.getAttachments()).thenReturn(attachments);
-
-                                    // Mock getJumpUrl() to return a valid Discord message URL
-                                    String jumpUrl = "https://discord.com/channels/" +
-                                            guildState.getGuildId() + "/" +
-                                            channelState.getChannelId() + "/" +
-                                            msgState.getMessageId();
-                                    when(msg.getJumpUrl()).thenReturn(jumpUrl);
-
-                                    messages.add(msg);
-                                }
-                            }
-                        }
-                    }
-
-                    when(history.getRetrievedHistory()).thenReturn(messages);
-                    when(history.isEmpty()).thenReturn(messages.isEmpty());
-                    when(action.complete()).thenReturn(history);
-
-                    return action;
-                });
+        // Synchronous commands, mock emojis, the static MessageHistory calls and an empty card image index
+        fixture = new E2EFixture();
 
         // Create mock Discord server and guild
         server = MockDiscordServer.create();
         guildState = server.createGuild(123456789L, "Test Server");
         StatefulMockFactory.mockGuild(guildState);
+        fixture.withHistoryAfter(guildState);
 
         // Create waiting-list channel (guild-level channel, not in any category)
         guildState.createTextChannel("waiting-list", 0L);
@@ -195,9 +90,6 @@ abstract class SetupCommandsE2ETestBase {
         moderatorMember = guildState.createMember(moderatorUser.getUserId());
         moderatorMember.addRole(modRole.getRoleId());
 
-        // Initialize EmojiCache with mock emojis for this guild
-        setupMockEmojis();
-
         // Create CommandManager instance
         commandManager = new CommandManager();
 
@@ -251,13 +143,9 @@ abstract class SetupCommandsE2ETestBase {
 
     @AfterEach
     void tearDown() {
-        // Reset synchronous mode
-        CommandManager.setRunSynchronously(false);
-        ButtonManager.setRunSynchronously(false);
-
-        // Close the static mock to avoid memory leaks and interference with other tests
-        if (messageHistoryMock != null) {
-            messageHistoryMock.close();
+        // Close the static mock and reset the global state so it does not interfere with other tests
+        if (fixture != null) {
+            fixture.close();
         }
     }
 
@@ -322,37 +210,6 @@ abstract class SetupCommandsE2ETestBase {
         throw new IllegalStateException("No messages with valid game JSON found in bot-data channel");
     }
 
-    /**
-     * Set up mock faction emojis for the test guild.
-     * These emojis are used by the bot for faction identification in messages and buttons.
-     * Creates properly formatted emoji strings that JDA's Emoji.fromFormatted() can parse.
-     */
-    protected void setupMockEmojis() {
-        List<net.dv8tion.jda.api.entities.emoji.ApplicationEmoji> mockEmojis = new ArrayList<>();
-
-        // Common faction emoji base names. The cache is keyed by these exact names;
-        // checksum-marker emojis (`name_xxx`) exist on Discord only for drift detection
-        // and never enter the cache, so the test mocks omit them.
-        String[] emojiNames = {"atreides", "harkonnen", "emperor", "fremen", "guild", "bt", "ix", "tleilaxu", "bg", "choam", "richese", "ecaz", "moritani"};
-
-        for (int i = 0; i < emojiNames.length; i++) {
-            String name = emojiNames[i];
-            long emojiId = 100000000L + i;
-
-            net.dv8tion.jda.api.entities.emoji.ApplicationEmoji emoji =
-                    mock(net.dv8tion.jda.api.entities.emoji.ApplicationEmoji.class);
-
-            when(emoji.getName()).thenReturn(name);
-            when(emoji.getIdLong()).thenReturn(emojiId);
-            when(emoji.getAsMention()).thenReturn("<:" + name + ":" + emojiId + ">");
-            when(emoji.getFormatted()).thenReturn("<:" + name + ":" + emojiId + ">");
-
-            mockEmojis.add(emoji);
-        }
-
-        EmojiCache.putAll(mockEmojis);
-    }
-
     // ========== Helper Methods for Tests ==========
 
     /**
@@ -910,23 +767,6 @@ abstract class SetupCommandsE2ETestBase {
         channel.addMessage(message);
     }
 
-    /**
-     * Clears the static CardImages cache to prevent stale data across tests.
-     * Uses reflection since the cache field is private.
-     */
-    private void clearCardImagesCache() {
-        try {
-            Field cacheField = CardImages.class.getDeclaredField("cardChannelMessages");
-            cacheField.setAccessible(true);
-            @SuppressWarnings("unchecked")
-            Map<String, ?> cache = (Map<String, ?>) cacheField.get(null);
-            cache.clear();
-        } catch (NoSuchFieldException | IllegalAccessException e) {
-            // Log but don't fail - cache clearing is best-effort
-            logger.warn("Failed to clear CardImages cache: {}", e.getMessage());
-        }
-    }
-
     /**
      * Pre-populates the CardImages cache with mock messages for a given channel.
      * This bypasses the MessageHistory retrieval which doesn't work with our mock infrastructure.
@@ -948,21 +788,12 @@ abstract class SetupCommandsE2ETestBase {
      *                           file upload causes issues)
      */
     protected void populateCardImagesCache(String channelName, String[] cardNames, boolean includeAttachments) {
-        try {
-            Field cacheField = CardImages.class.getDeclaredField("cardChannelMessages");
-            cacheField.setAccessible(true);
-            @SuppressWarnings("unchecked")
-            Map<String, List<Message>> cache = (Map<String, List<Message>>) cacheField.get(null);
-
-            List<Message> messages = new ArrayList<>();
-            for (String cardName : cardNames) {
-                Message mockMessage = createMockCardMessage(cardName, includeAttachments);
-                messages.add(mockMessage);
-            }
-            cache.put(channelName, messages);
-        } catch (NoSuchFieldException | IllegalAccessException e) {
-            throw new RuntimeException("Failed to populate CardImages cache", e);
+        List<Message> messages = new ArrayList<>();
+        for (String cardName : cardNames) {
+            Message mockMessage = createMockCardMessage(cardName, includeAttachments);
+            messages.add(mockMessage);
         }
+        CardImageIndex.refresh(channelName, () -> new CardImageIndex.ChannelIndex(null, messages));
     }
 
     /**
@@ -0,0 +1,82 @@
+package helpers;
+
+import com.google.gson.*;
+import controller.DiscordGame;
+import enums.GameStateFormat;
+import model.Game;
+import model.factions.AtreidesFaction;
+import model.factions.EmperorFaction;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BinaryJsonTest {
+    private Game game;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        game = new Game();
+        game.addFaction(new AtreidesFaction("at", "at"));
+        game.addFaction(new EmperorFaction("em", "em"));
+        game.getTerritory("Arrakeen").setSpice(6);
+        game.setStorm(14);
+    }
+
+    @Test
+    void testBinaryDecodesToSameJsonTree() {
+        Gson gson = DiscordGame.getGsonSerializer();
+        byte[] binary = BinaryJson.toBinary(gson, game);
+        assertTrue(BinaryJson.isBinary(binary));
+        assertEquals(JsonParser.parseString(gson.toJson(game)), BinaryJson.parse(binary));
+    }
+
+    @Test
+    void testBinaryIsSmallerThanJson() {
+        Gson gson = DiscordGame.getGsonSerializer();
+        byte[] json = gson.toJson(game).getBytes(StandardCharsets.UTF_8);
+        byte[] binary = BinaryJson.toBinary(gson, game);
+        assertFalse(BinaryJson.isBinary(json));
+        assertTrue(binary.length < json.length * 2 / 3);
+    }
+
+    @Test
+    void testDecodeGameStateAcceptsBothFormats() {
+        game.setGameStateFormat(GameStateFormat.BINARY);
+        Gson gson = DiscordGame.getGsonSerializer();
+        Game fromBinary = DiscordGame.decodeGameState(BinaryJson.toBinary(gson, game));
+        Game fromJson = DiscordGame.decodeGameState(gson.toJson(game).getBytes(StandardCharsets.UTF_8));
+        for (Game decoded : new Game[]{fromBinary, fromJson}) {
+            assertEquals(GameStateFormat.BINARY, decoded.getGameStateFormat());
+            assertEquals(6, decoded.getTerritory("Arrakeen").getSpice());
+            assertEquals(14, decoded.getStorm());
+            assertEquals(game.getFaction("Emperor").getSpice(), decoded.getFaction("Emperor").getSpice());
+            assertSame(decoded, decoded.getFaction("Atreides").getGame());
+        }
+    }
+
+    @Test
+    void testNumbersAndNullsRoundTrip() {
+        JsonObject object = new JsonObject();
+        object.addProperty("negative", -1234567890123L);
+        object.addProperty("fraction", 0.25);
+        object.add("null", JsonNull.INSTANCE);
+        JsonArray array = new JsonArray();
+        array.add("repeated");
+        array.add("repeated");
+        array.add("ünïcode");
+        object.add("array", array);
+        Gson gson = new GsonBuilder().serializeNulls().create();
+        assertEquals(object, BinaryJson.parse(BinaryJson.toBinary(gson, object)));
+    }
+
+    @Test
+    void testUnsupportedVersionIsRejected() {
+        byte[] binary = BinaryJson.toBinary(new Gson(), new JsonObject());
+        binary[4] = 99;
+        assertThrows(JsonParseException.class, () -> BinaryJson.parse(binary));
+    }
+}
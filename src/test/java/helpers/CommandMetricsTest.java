@@ -0,0 +1,167 @@
+package helpers;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CommandMetricsTest {
+    @BeforeEach
+    void setUp() {
+        CommandMetrics.reset();
+    }
+
+    @AfterEach
+    void tearDown() {
+        CommandMetrics.finish();
+        CommandMetrics.reset();
+    }
+
+    @Test
+    void testPhasesAreRecordedPerCommandName() throws InterruptedException {
+        CommandMetrics.start("/show board", System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(20));
+        long load = System.nanoTime();
+        Thread.sleep(5);
+        CommandMetrics.record(CommandMetrics.Phase.LOAD, load);
+        long save = System.nanoTime();
+        Thread.sleep(5);
+        CommandMetrics.record(CommandMetrics.Phase.SAVE, save);
+        CommandMetrics.finish();
+
+        CommandMetrics.Timings timings = CommandMetrics.getTimings().get("/show board");
+        assertEquals(1, timings.total().getCount());
+        assertTrue(timings.phases().get(CommandMetrics.Phase.QUEUE_WAIT).getMaxMicros() >= 20_000);
+        assertTrue(timings.phases().get(CommandMetrics.Phase.LOAD).getMaxMicros() >= 5_000);
+        assertTrue(timings.phases().get(CommandMetrics.Phase.SAVE).getMaxMicros() >= 5_000);
+        assertEquals(1, timings.phases().get(CommandMetrics.Phase.LOGIC).getCount());
+        assertEquals(0, timings.phases().get(CommandMetrics.Phase.RENDER).getCount());
+        assertTrue(timings.total().getMaxMicros() >= 30_000);
+        long phases = timings.phases().values().stream().mapToLong(LatencyHistogram::getSumMicros).sum();
+        assertTrue(Math.abs(timings.total().getSumMicros() - phases) <= 5, "Phases add up to the total");
+    }
+
+    @Test
+    void testPhasesOutsideACommandAreIgnored() {
+        CommandMetrics.record(CommandMetrics.Phase.LOAD, System.nanoTime());
+        assertTrue(CommandMetrics.getTimings().isEmpty());
+        assertNull(CommandMetrics.current());
+    }
+
+    @Test
+    void testBackgroundRenderIsNotTakenFromLogic() {
+        CommandMetrics.start("/show board", System.nanoTime());
+        byte[] image = RenderExecutor.render(null, () -> {
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+            return new byte[]{1};
+        }).join();
+        CommandMetrics.finish();
+
+        assertArrayEquals(new byte[]{1}, image);
+        CommandMetrics.Timings timings = CommandMetrics.getTimings().get("/show board");
+        assertTrue(timings.phases().get(CommandMetrics.Phase.RENDER).getMaxMicros() >= 10_000);
+        // The command waited for the drawing without doing anything else
+        assertTrue(timings.phases().get(CommandMetrics.Phase.LOGIC).getMaxMicros() >= 10_000);
+    }
+
+    @Test
+    void testRenderFinishingAfterTheCommandIsRecorded() {
+        CountDownLatch commandFinished = new CountDownLatch(1);
+        CommandMetrics.start("/show board", System.nanoTime());
+        CompletableFuture<byte[]> image = RenderExecutor.render(null, () -> {
+            try {
+                commandFinished.await();
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+            return new byte[]{1};
+        });
+        CommandMetrics.finish();
+        commandFinished.countDown();
+        image.join();
+
+        CommandMetrics.Timings timings = CommandMetrics.getTimings().get("/show board");
+        assertEquals(1, timings.total().getCount());
+        assertEquals(1, timings.phases().get(CommandMetrics.Phase.RENDER).getCount());
+        assertTrue(timings.phases().get(CommandMetrics.Phase.RENDER).getMaxMicros() >= 10_000);
+    }
+
+    @Test
+    void testReportFitsTheLimit() {
+        for (int i = 0; i < 50; i++) {
+            for (int j = 0; j <= i; j++) {
+                CommandMetrics.start("button command" + i, System.nanoTime());
+                CommandMetrics.finish();
+            }
+        }
+        String report = CommandMetrics.report(2000);
+        assertTrue(report.length() <= 2000, report);
+        assertTrue(report.startsWith("```\ncommand"));
+        assertTrue(report.endsWith("```"));
+        assertTrue(report.indexOf("button command49") < report.indexOf("button command48"), "Most used first");
+        assertTrue(report.contains(" more\n"));
+        assertFalse(report.contains("button command0 "));
+    }
+
+    @Test
+    void testReportWithoutCommands() {
+        assertEquals("No commands have been timed since the bot started.", CommandMetrics.report(2000));
+    }
+
+    @Test
+    void testPrometheusFormat() {
+        CommandMetrics.start("/player whisper", System.nanoTime());
+        CommandMetrics.finish();
+        String text = CommandMetrics.toPrometheus();
+        assertTrue(text.contains("# TYPE dunebot_command_seconds summary\n"));
+        assertTrue(text.contains("dunebot_command_seconds{command=\"/player whisper\",phase=\"total\",quantile=\"0.99\"} "));
+        assertTrue(text.contains("dunebot_command_seconds_count{command=\"/player whisper\",phase=\"logic\"} 1\n"));
+        assertFalse(text.contains("phase=\"render\""));
+    }
+
+    @Test
+    void testServedOverHttpOnLocalhost() throws Exception {
+        CommandMetrics.start("button bidding", System.nanoTime());
+        CommandMetrics.finish();
+        MetricsServer server = MetricsServer.start(0);
+        try (HttpClient client = HttpClient.newHttpClient()) {
+            HttpResponse<String> metrics = client.send(HttpRequest.newBuilder(URI.create("http://localhost:" + server.getPort() + "/metrics")).build(),
+                    HttpResponse.BodyHandlers.ofString());
+            assertEquals(200, metrics.statusCode());
+            assertTrue(metrics.body().contains("command=\"button bidding\""));
+            assertTrue(metrics.body().contains("# TYPE dunebot_queue_waiting gauge\n"));
+
+            HttpResponse<String> report = client.send(HttpRequest.newBuilder(URI.create("http://localhost:" + server.getPort() + "/report")).build(),
+                    HttpResponse.BodyHandlers.ofString());
+            assertTrue(report.body().contains("button bidding"));
+        } finally {
+            server.stop();
+        }
+    }
+
+    @Test
+    void testRegisteredOverJmx() throws Exception {
+        CommandMetrics.registerMBean();
+        CommandMetrics.registerMBean();
+        CommandMetrics.start("/add-spice", System.nanoTime());
+        CommandMetrics.finish();
+
+        Object report = ManagementFactory.getPlatformMBeanServer().getAttribute(new ObjectName(CommandMetrics.OBJECT_NAME), "Report");
+        assertTrue(report.toString().contains("/add-spice"));
+    }
+}
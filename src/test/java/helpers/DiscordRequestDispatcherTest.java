@@ -0,0 +1,254 @@
+package helpers;
+
+import controller.Queue;
+import net.dv8tion.jda.api.components.MessageTopLevelComponentUnion;
+import net.dv8tion.jda.api.entities.Message;
+import net.dv8tion.jda.api.requests.restaction.AuditableRestAction;
+import net.dv8tion.jda.api.requests.restaction.MessageCreateAction;
+import net.dv8tion.jda.api.utils.FileUpload;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class DiscordRequestDispatcherTest {
+    private final List<String> sent = Collections.synchronizedList(new ArrayList<>());
+
+    @AfterEach
+    void tearDown() {
+        DiscordRequestDispatcher.setMaxInFlight(8);
+    }
+
+    private class TestRequest extends DiscordRequest {
+        private final String name;
+        private final Runnable action;
+
+        TestRequest(String channelId, String name, Runnable action) {
+            super(channelId, (AuditableRestAction) null);
+            this.name = name;
+            this.action = action;
+        }
+
+        TestRequest(String channelId, String name) {
+            this(channelId, name, () -> {
+            });
+        }
+
+        @Override
+        public void complete() {
+            action.run();
+            sent.add(getChannelId() + ":" + name);
+        }
+    }
+
+    @Test
+    void testRequestsToTheSameChannelStayInOrder() {
+        List<DiscordRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 20; i++)
+            requests.add(new TestRequest("channel" + (i % 3), String.valueOf(i), () -> sleep(1)));
+        assertTrue(DiscordRequestDispatcher.dispatch(requests).isEmpty());
+
+        assertEquals(20, sent.size());
+        for (int channel = 0; channel < 3; channel++) {
+            String prefix = "channel" + channel + ":";
+            List<Integer> order = sent.stream().filter(s -> s.startsWith(prefix)).map(s -> Integer.parseInt(s.substring(prefix.length()))).toList();
+            List<Integer> sorted = new ArrayList<>(order);
+            Collections.sort(sorted);
+            assertEquals(sorted, order);
+        }
+    }
+
+    @Test
+    void testChannelsAreSentConcurrently() {
+        CountDownLatch bothStarted = new CountDownLatch(2);
+        Runnable waitForOtherChannel = () -> {
+            bothStarted.countDown();
+            try {
+                assertTrue(bothStarted.await(5, TimeUnit.SECONDS));
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+        };
+        List<DiscordRequest> requests = List.of(new TestRequest("a", "1", waitForOtherChannel), new TestRequest("b", "1", waitForOtherChannel));
+        assertTrue(DiscordRequestDispatcher.dispatch(requests).isEmpty());
+        assertEquals(Set.of("a:1", "b:1"), new HashSet<>(sent));
+    }
+
+    @Test
+    void testFailuresAreReturnedAndLaterRequestsStillSent() {
+        DiscordRequestDispatcher.setMaxInFlight(1);
+        DiscordRequest failing = new TestRequest("a", "1", () -> {
+            throw new IllegalStateException("Unknown channel");
+        });
+        List<DiscordRequest> requests = List.of(failing, new TestRequest("a", "2"), new TestRequest("b", "1"));
+        List<DiscordRequestDispatcher.Failure> failures = DiscordRequestDispatcher.dispatch(requests);
+
+        assertEquals(1, failures.size());
+        assertSame(failing, failures.getFirst().request());
+        assertInstanceOf(IllegalStateException.class, failures.getFirst().exception());
+        assertEquals(Set.of("a:2", "b:1"), new HashSet<>(sent));
+    }
+
+    @Test
+    void testQueueIsReleasedWhileARenderIsPending() throws Exception {
+        CompletableFuture<byte[]> render = new CompletableFuture<>();
+        List<CompletableFuture<List<DiscordRequestDispatcher.Failure>>> dispatched = Collections.synchronizedList(new ArrayList<>());
+        Queue.submit("pending-render", () -> dispatched.add(DiscordRequestDispatcher.dispatchAsync(List.of(
+                new TestRequest("game-actions", "map").after(render),
+                new TestRequest("turn-summary", "1"))))).get(5, TimeUnit.SECONDS);
+        Queue.submit("pending-render", () -> dispatched.add(DiscordRequestDispatcher.dispatchAsync(List.of(
+                new TestRequest("game-actions", "text"),
+                new TestRequest("turn-summary", "2"))))).get(5, TimeUnit.SECONDS);
+
+        assertTrue(Queue.getFuture("pending-render").isDone());
+        for (int i = 0; i < 500 && sent.size() < 2; i++)
+            sleep(10);
+        assertEquals(List.of("turn-summary:1", "turn-summary:2"), List.copyOf(sent));
+        assertFalse(dispatched.getFirst().isDone());
+
+        render.complete(new byte[0]);
+        for (CompletableFuture<List<DiscordRequestDispatcher.Failure>> failures : dispatched)
+            assertTrue(failures.get(5, TimeUnit.SECONDS).isEmpty());
+        assertEquals(List.of("game-actions:map", "game-actions:text"), sent.stream().filter(s -> s.startsWith("game-actions")).toList());
+    }
+
+    @Test
+    void testAwaitAllWaitsForPendingRequests() {
+        CompletableFuture<byte[]> render = new CompletableFuture<>();
+        DiscordRequestDispatcher.dispatchAsync(List.of(
+                new TestRequest("await-all-map", "map").after(render),
+                new TestRequest("await-all-text", "1", () -> sleep(50))));
+        CompletableFuture.delayedExecutor(50, TimeUnit.MILLISECONDS).execute(() -> render.complete(new byte[0]));
+
+        DiscordRequestDispatcher.awaitAll();
+        assertEquals(Set.of("await-all-map:map", "await-all-text:1"), new HashSet<>(sent));
+    }
+
+    @Test
+    void testInvalidMaxInFlight() {
+        assertThrows(IllegalArgumentException.class, () -> DiscordRequestDispatcher.setMaxInFlight(0));
+    }
+
+    private static MessageCreateAction textMessage(String content) {
+        String[] currentContent = {content};
+        MessageCreateAction action = mock(MessageCreateAction.class);
+        when(action.getContent()).thenAnswer(_ -> currentContent[0]);
+        when(action.setContent(anyString())).thenAnswer(inv -> {
+            currentContent[0] = inv.getArgument(0);
+            return action;
+        });
+        when(action.getEmbeds()).thenReturn(List.of());
+        when(action.getComponents()).thenReturn(List.of());
+        when(action.getAttachments()).thenReturn(List.of());
+        return action;
+    }
+
+    @Test
+    void testCoalesceMergesConsecutiveTextToTheSameChannel() {
+        MessageCreateAction first = textMessage("Atreides collects 2 spice");
+        MessageCreateAction other = textMessage("Harkonnen bids 3");
+        List<DiscordRequest> requests = List.of(
+                new DiscordRequest("turn-summary", first),
+                new DiscordRequest("bidding", other),
+                new DiscordRequest("turn-summary", textMessage("BG collects 2 spice")),
+                new DiscordRequest("turn-summary", textMessage("Emperor collects 2 spice")));
+
+        List<DiscordRequest> coalesced = DiscordRequestDispatcher.coalesce(requests);
+        assertEquals(List.of(requests.get(0), requests.get(1)), coalesced);
+        assertEquals("Atreides collects 2 spice\nBG collects 2 spice\nEmperor collects 2 spice", first.getContent());
+        assertEquals("Harkonnen bids 3", other.getContent());
+    }
+
+    @Test
+    void testCoalesceDoesNotMergeAcrossFilesOrComponents() {
+        MessageCreateAction withFile = textMessage("Board");
+        when(withFile.getAttachments()).thenReturn(List.of(FileUpload.fromData(new byte[0], "board.png")));
+        MessageCreateAction withButtons = textMessage("Pass?");
+        when(withButtons.getComponents()).thenReturn(List.of(mock(MessageTopLevelComponentUnion.class)));
+        List<DiscordRequest> requests = List.of(
+                new DiscordRequest("game-actions", textMessage("Before")),
+                new DiscordRequest("game-actions", withFile),
+                new DiscordRequest("game-actions", textMessage("After file")),
+                new DiscordRequest("game-actions", withButtons),
+                new DiscordRequest("game-actions", textMessage("After buttons")));
+
+        assertEquals(requests, DiscordRequestDispatcher.coalesce(requests));
+        assertEquals("Board", withFile.getContent());
+    }
+
+    @Test
+    void testCoalesceRespectsMessageLengthLimit() {
+        MessageCreateAction first = textMessage("a".repeat(1500));
+        List<DiscordRequest> requests = List.of(
+                new DiscordRequest("turn-summary", first),
+                new DiscordRequest("turn-summary", textMessage("b".repeat(499))),
+                new DiscordRequest("turn-summary", textMessage("c")));
+
+        List<DiscordRequest> coalesced = DiscordRequestDispatcher.coalesce(requests);
+        assertEquals(List.of(requests.get(0), requests.get(2)), coalesced);
+        assertEquals(2000, first.getContent().length());
+    }
+
+    @Test
+    void testCoalesceKeepsMessagesWithoutAChannel() {
+        List<DiscordRequest> requests = List.of(new DiscordRequest("", textMessage("One")), new DiscordRequest("", textMessage("Two")));
+        assertEquals(requests, DiscordRequestDispatcher.coalesce(requests));
+    }
+
+    @Test
+    void testCoalesceKeepsMessagesWithCallbacks() {
+        MessageCreateAction first = textMessage("Faction Info");
+        List<DiscordRequest> requests = List.of(
+                new DiscordRequest("atreides-info", first),
+                new DiscordRequest("atreides-info", textMessage("Leaders")).whenSent(_ -> {}),
+                new DiscordRequest("atreides-info", textMessage("Traitors")).whenFailed(() -> {}),
+                new DiscordRequest("atreides-info", textMessage("Cards")));
+
+        assertEquals(requests, DiscordRequestDispatcher.coalesce(requests));
+        assertEquals("Faction Info", first.getContent());
+    }
+
+    @Test
+    void testCallbacksReportSentMessagesAndFailures() {
+        Message message = mock(Message.class);
+        MessageCreateAction sends = textMessage("Sent");
+        when(sends.complete()).thenReturn(message);
+        MessageCreateAction fails = textMessage("Fails");
+        when(fails.complete()).thenThrow(new IllegalStateException("Unknown message"));
+        List<Message> sentMessages = new ArrayList<>();
+        List<String> failed = new ArrayList<>();
+
+        DiscordRequestDispatcher.dispatch(List.of(
+                new DiscordRequest("front-of-shield", sends).whenSent(sentMessages::add).whenFailed(() -> failed.add("sends")),
+                new DiscordRequest("front-of-shield", fails).whenSent(sentMessages::add).whenFailed(() -> failed.add("fails"))));
+
+        assertEquals(List.of(message), sentMessages);
+        assertEquals(List.of("fails"), failed);
+    }
+
+    @Test
+    void testRequestWithoutAnActionFailsClearly() {
+        List<String> failed = new ArrayList<>();
+        List<DiscordRequestDispatcher.Failure> failures = DiscordRequestDispatcher.dispatch(List.of(
+                new DiscordRequest("front-of-shield", (MessageCreateAction) null).whenFailed(() -> failed.add("edit"))));
+
+        assertEquals(1, failures.size());
+        assertInstanceOf(IllegalStateException.class, failures.getFirst().exception());
+        assertTrue(failures.getFirst().exception().getMessage().contains("front-of-shield"));
+        assertEquals(List.of("edit"), failed);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
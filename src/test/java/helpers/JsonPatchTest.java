@@ -0,0 +1,72 @@
+package helpers;
+
+import com.google.gson.*;
+import controller.DiscordGame;
+import model.Game;
+import model.factions.AtreidesFaction;
+import model.factions.HarkonnenFaction;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JsonPatchTest {
+    private Game game;
+    private Gson gson;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        game = new Game();
+        game.addFaction(new AtreidesFaction("at", "at"));
+        game.addFaction(new HarkonnenFaction("ha", "ha"));
+        gson = DiscordGame.getGsonSerializer();
+    }
+
+    @Test
+    void testGameChangesRoundTrip() {
+        JsonElement before = JsonParser.parseString(gson.toJson(game));
+        game.getFaction("Atreides").addTreacheryCard(game.getTreacheryDeck().pollFirst());
+        game.getTerritory("Arrakeen").setSpice(10);
+        game.getTerritory("Carthag").getTerrorTokens().add("Robbery");
+        game.getFaction("Harkonnen").setSpiceForAlly(3);
+        JsonElement after = gson.toJsonTree(game);
+
+        JsonArray patch = JsonPatch.diff(before, after);
+        assertEquals(after, JsonPatch.apply(before.deepCopy(), patch));
+        assertTrue(patch.toString().length() * 50 < after.toString().length());
+    }
+
+    @Test
+    void testNoChangesIsEmptyPatch() {
+        assertTrue(JsonPatch.diff(JsonParser.parseString(gson.toJson(game)), gson.toJsonTree(game)).isEmpty());
+    }
+
+    @Test
+    void testArrayChanges() {
+        JsonArray source = JsonParser.parseString("[1, 2, 3, 4, 5]").getAsJsonArray();
+        for (String target : new String[]{"[2, 3, 4, 5]", "[1, 2, 3, 4, 5, 6]", "[1, 2, 9, 4, 5]", "[1, 5]",
+                "[1, 2, 7, 8, 3, 4, 5]", "[]", "[\"a\", {\"b\": null}]"}) {
+            JsonElement expected = JsonParser.parseString(target);
+            assertEquals(expected, JsonPatch.apply(source.deepCopy(), JsonPatch.diff(source, expected)), target);
+        }
+        assertEquals(1, JsonPatch.diff(source, JsonParser.parseString("[2, 3, 4, 5]")).size());
+    }
+
+    @Test
+    void testEscapedNamesAndRootReplace() {
+        JsonElement source = JsonParser.parseString("{\"a/b\": 1, \"c~d\": {\"e\": 2}}");
+        JsonElement target = JsonParser.parseString("{\"a/b\": 3, \"c~d\": {\"e\": 2, \"f\": true}}");
+        assertEquals(target, JsonPatch.apply(source.deepCopy(), JsonPatch.diff(source, target)));
+
+        JsonElement array = JsonParser.parseString("[1]");
+        assertEquals(array, JsonPatch.apply(source.deepCopy(), JsonPatch.diff(source, array)));
+    }
+
+    @Test
+    void testMissingPathIsRejected() {
+        JsonArray patch = JsonParser.parseString("[{\"op\": \"replace\", \"path\": \"/a/b/c\", \"value\": 1}]").getAsJsonArray();
+        assertThrows(IllegalArgumentException.class, () -> JsonPatch.apply(new JsonObject(), patch));
+    }
+}
@@ -0,0 +1,61 @@
+package helpers;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LatencyHistogramTest {
+    @Test
+    void testEmptyHistogram() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getPercentileMicros(99));
+        assertEquals(0, histogram.getMaxMicros());
+    }
+
+    @Test
+    void testBucketsCoverEveryValueWithoutGaps() {
+        for (int bucket = 0; bucket < 400; bucket++) {
+            assertEquals(bucket, LatencyHistogram.bucket(LatencyHistogram.lowestInBucket(bucket)));
+            assertEquals(bucket, LatencyHistogram.bucket(LatencyHistogram.highestInBucket(bucket)));
+            assertEquals(LatencyHistogram.highestInBucket(bucket) + 1, LatencyHistogram.lowestInBucket(bucket + 1));
+        }
+        assertEquals(LatencyHistogram.bucket(Long.MAX_VALUE), LatencyHistogram.bucket(Long.MAX_VALUE / 2));
+    }
+
+    @Test
+    void testPercentilesAreWithinTheBucketPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int millis = 1; millis <= 1000; millis++) histogram.recordNanos(millis * 1_000_000L);
+
+        assertEquals(1000, histogram.getCount());
+        assertEquals(500_500_000, histogram.getSumMicros());
+        assertEquals(1_000_000, histogram.getMaxMicros());
+        assertEquals(500_000, histogram.getPercentileMicros(50), 500_000 / 16.0);
+        assertEquals(990_000, histogram.getPercentileMicros(99), 990_000 / 16.0);
+        assertEquals(1_000_000, histogram.getPercentileMicros(100));
+        assertTrue(histogram.getPercentileMicros(50) >= 500_000);
+    }
+
+    @Test
+    void testPercentileNeverExceedsTheMaximum() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.recordNanos(1_000_000_001L);
+        assertEquals(1_000_000, histogram.getPercentileMicros(50));
+    }
+
+    @Test
+    void testConcurrentRecording() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        CompletableFuture.allOf(IntStream.range(0, 8)
+                .mapToObj(_ -> CompletableFuture.runAsync(() -> {
+                    for (int i = 0; i < 10_000; i++) histogram.recordNanos(i * 1000L);
+                }))
+                .toArray(CompletableFuture[]::new)).join();
+        assertEquals(80_000, histogram.getCount());
+        assertEquals(9_999, histogram.getMaxMicros());
+    }
+}
@@ -0,0 +1,95 @@
+package helpers;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PngEncoderTest {
+    @AfterEach
+    void tearDown() {
+        PngEncoder.setCompressionLevel(-1);
+        PngEncoder.setMobileWidth(0);
+        PngEncoder.clearStats();
+    }
+
+    private static BufferedImage gradient(boolean transparent) {
+        BufferedImage image = new BufferedImage(64, 32, BufferedImage.TYPE_INT_ARGB);
+        for (int x = 0; x < 64; x++)
+            for (int y = 0; y < 32; y++)
+                image.setRGB(x, y, (transparent && x == 0 ? 0x80 : 0xFF) << 24 | x << 16 | y << 8 | (x * y) % 256);
+        return image;
+    }
+
+    private static void assertSamePixels(BufferedImage expected, byte[] png) throws IOException {
+        BufferedImage decoded = ImageIO.read(new ByteArrayInputStream(png));
+        assertEquals(expected.getWidth(), decoded.getWidth());
+        assertEquals(expected.getHeight(), decoded.getHeight());
+        for (int x = 0; x < expected.getWidth(); x++)
+            for (int y = 0; y < expected.getHeight(); y++)
+                assertEquals(expected.getRGB(x, y), decoded.getRGB(x, y), x + "," + y);
+    }
+
+    @Test
+    void testOpaqueImagesDropTheAlphaChannel() throws IOException {
+        BufferedImage image = gradient(false);
+        assertEquals(BufferedImage.TYPE_INT_RGB, PngEncoder.reduce(image).getType());
+        assertSamePixels(image, PngEncoder.encode(image, "test"));
+    }
+
+    @Test
+    void testTransparentImagesKeepTheAlphaChannel() throws IOException {
+        BufferedImage image = gradient(true);
+        assertSame(image, PngEncoder.reduce(image));
+        assertSamePixels(image, PngEncoder.encode(image, "test"));
+    }
+
+    @Test
+    void testImagesWithFewColorsUseAPalette() throws IOException {
+        BufferedImage image = new BufferedImage(40, 40, BufferedImage.TYPE_INT_ARGB);
+        for (int x = 0; x < 40; x++)
+            for (int y = 0; y < 40; y++)
+                image.setRGB(x, y, x < 20 ? 0xFFCC8800 : y < 20 ? 0x00000000 : 0x80FFFFFF);
+        assertEquals(BufferedImage.TYPE_BYTE_INDEXED, PngEncoder.reduce(image).getType());
+        assertSamePixels(image, PngEncoder.encode(image, "test"));
+    }
+
+    @Test
+    void testCompressionLevels() throws IOException {
+        BufferedImage image = gradient(false);
+        PngEncoder.setCompressionLevel(0);
+        byte[] fastest = PngEncoder.encode(image, "test");
+        PngEncoder.setCompressionLevel(9);
+        byte[] smallest = PngEncoder.encode(image, "test");
+        assertTrue(smallest.length < fastest.length);
+        assertSamePixels(image, smallest);
+        assertThrows(IllegalArgumentException.class, () -> PngEncoder.setCompressionLevel(10));
+    }
+
+    @Test
+    void testMobileVariantIsScaledDown() throws IOException {
+        BufferedImage image = gradient(false);
+        assertSamePixels(image, PngEncoder.encodeMobile(image, "test"));
+
+        PngEncoder.setMobileWidth(16);
+        BufferedImage mobile = ImageIO.read(new ByteArrayInputStream(PngEncoder.encodeMobile(image, "test")));
+        assertEquals(16, mobile.getWidth());
+        assertEquals(8, mobile.getHeight());
+    }
+
+    @Test
+    void testEncodingsAreRecordedByName() throws IOException {
+        byte[] png = PngEncoder.encode(gradient(false), "board");
+        PngEncoder.encode(gradient(false), "board");
+        PngEncoder.Stats board = PngEncoder.getStats().get("board");
+        assertEquals(2, board.getCount());
+        assertEquals(png.length, board.getLastBytes());
+        assertEquals(2L * png.length, board.getTotalBytes());
+        assertTrue(board.getTotalNanos() > 0);
+    }
+}
@@ -0,0 +1,65 @@
+package helpers;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RenderExecutorTest {
+    @AfterEach
+    void tearDown() {
+        RenderExecutor.setThreads(2);
+    }
+
+    @Test
+    void testRendersOffTheCallingThread() {
+        Thread caller = Thread.currentThread();
+        CompletableFuture<byte[]> future = RenderExecutor.render(null, () -> new byte[]{(byte) (Thread.currentThread() == caller ? 1 : 0)});
+        assertArrayEquals(new byte[]{0}, future.join());
+    }
+
+    @Test
+    void testConcurrentRequestsForTheSameImageShareOneDrawing() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger drawn = new AtomicInteger();
+        RenderExecutor.Renderer renderer = () -> {
+            drawn.incrementAndGet();
+            try {
+                assertTrue(release.await(5, TimeUnit.SECONDS));
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+            return new byte[]{1};
+        };
+        CompletableFuture<byte[]> first = RenderExecutor.render("storm 3", renderer);
+        CompletableFuture<byte[]> second = RenderExecutor.render("storm 3", renderer);
+        assertSame(first, second);
+        release.countDown();
+        first.join();
+        assertEquals(1, drawn.get());
+
+        RenderExecutor.render("storm 3", renderer).join();
+        assertEquals(2, drawn.get());
+    }
+
+    @Test
+    void testFailuresCompleteTheFuture() {
+        CompletableFuture<byte[]> future = RenderExecutor.render("missing", () -> {
+            throw new IOException("Image not found");
+        });
+        CompletionException exception = assertThrows(CompletionException.class, future::join);
+        assertInstanceOf(IOException.class, exception.getCause());
+    }
+
+    @Test
+    void testInvalidThreads() {
+        assertThrows(IllegalArgumentException.class, () -> RenderExecutor.setThreads(0));
+    }
+}
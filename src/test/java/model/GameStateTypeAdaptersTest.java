@@ -0,0 +1,189 @@
+package model;
+
+import com.google.gson.*;
+import controller.DiscordGame;
+import exceptions.InvalidGameStateException;
+import helpers.Exclude;
+import io.gsonfire.GsonFireBuilder;
+import model.factions.FactionTypeSelector;
+import model.factions.Faction;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.lang.reflect.*;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GameStateTypeAdaptersTest extends DuneTest {
+    private Gson reflectiveGson;
+    private Gson adapterGson;
+
+    @BeforeEach
+    void setUp() throws IOException, InvalidGameStateException {
+        super.setUp();
+        game.addFaction(atreides);
+        game.addFaction(bt);
+        game.addFaction(emperor);
+        game.addFaction(moritani);
+        game.addFaction(richese);
+        game.addFaction(fremen);
+
+        atreides.placeForces(arrakeen, 3, 0, false, true, true, false, false);
+        emperor.placeForces(carthag, 2, 1, false, true, true, false, false);
+        garaKulon.setRicheseNoField(3);
+        garaKulon.setSpice(8);
+        sihayaRidge.setEcazAmbassador("Ecaz");
+        sietchTabr.getTerrorTokens().add("Robbery");
+        game.getTerritory("Salusa Secundus").setRock(true);
+        ((HomeworldTerritory) game.getTerritory("Kaitain")).setOccupierName("Atreides");
+        zoal.setSkillCard(new LeaderSkillCard("Planetologist"));
+        zoal.setBattleTerritoryName("Arrakeen");
+        atreides.addTreacheryCard(new TreacheryCard("Crysknife "));
+
+        ExclusionStrategy strategy = new ExclusionStrategy() {
+            @Override
+            public boolean shouldSkipClass(Class<?> clazz) {
+                return false;
+            }
+
+            @Override
+            public boolean shouldSkipField(FieldAttributes field) {
+                return field.getAnnotation(Exclude.class) != null;
+            }
+        };
+        reflectiveGson = new GsonFireBuilder()
+                .registerTypeSelector(Faction.class, new FactionTypeSelector())
+                .createGsonBuilder()
+                .addSerializationExclusionStrategy(strategy)
+                .create();
+        adapterGson = GameStateTypeAdapters.register(new GsonBuilder().addSerializationExclusionStrategy(strategy)).create();
+    }
+
+    @Test
+    void testAdaptersWriteSameJsonAsReflection() {
+        assertEquals(JsonParser.parseString(reflectiveGson.toJson(game)), JsonParser.parseString(adapterGson.toJson(game)));
+    }
+
+    @Test
+    void testTerritoryRoundTrip() {
+        Territories territories = adapterGson.fromJson(reflectiveGson.toJson(game.getTerritories()), Territories.class);
+        assertEquals(arrakeen.getForceStrength("Atreides"), territories.getTerritory("Arrakeen").getForceStrength("Atreides"));
+        assertEquals(1, territories.getTerritory("Carthag").getForceStrength("Emperor*"));
+        assertEquals(3, territories.getTerritory("Gara Kulon").getRicheseNoField());
+        assertEquals(8, territories.getTerritory("Gara Kulon").getSpice());
+        assertEquals("Ecaz", territories.getTerritory("Sihaya Ridge").getEcazAmbassador());
+        assertTrue(territories.getTerritory("Sietch Tabr").hasTerrorToken("Robbery"));
+        assertNull(territories.getTerritory("Arrakeen").getRicheseNoField());
+        HomeworldTerritory kaitain = assertInstanceOf(HomeworldTerritory.class, territories.getTerritory("Kaitain"));
+        assertEquals("Emperor", kaitain.getNativeName());
+        assertEquals("Atreides", kaitain.getOccupierName());
+        assertTrue(territories.getTerritory("Salusa Secundus").isRock());
+        assertFalse(territories.getTerritory("Arrakeen") instanceof HomeworldTerritory);
+    }
+
+    @Test
+    void testLeaderRoundTrip() {
+        Leader leader = adapterGson.fromJson(reflectiveGson.toJson(zoal), Leader.class);
+        assertEquals("Zoal", leader.getName());
+        assertEquals(zoal.getValue(), leader.getValue());
+        assertEquals("BT", leader.getOriginalFactionName());
+        assertEquals("Planetologist", leader.getSkillCard().name());
+        assertEquals("Arrakeen", leader.getBattleTerritoryName());
+        assertFalse(leader.isFaceDown());
+    }
+
+    @Test
+    void testEveryTerritoryFieldRoundTrips() throws ReflectiveOperationException {
+        assertRoundTrips(new Territory("Arrakeen", 9, false, false, false, false, false), Territory.class, Set.of());
+    }
+
+    @Test
+    void testEveryHomeworldTerritoryFieldRoundTrips() throws ReflectiveOperationException {
+        // The homeworld constructor fixes these rather than reading them
+        assertRoundTrips(new HomeworldTerritory(null, "Kaitain", "Emperor"), Territory.class,
+                Set.of("sector", "inFremenRange", "isDiscoveryToken", "isNearShieldWall"));
+    }
+
+    @Test
+    void testEveryForceFieldRoundTrips() throws ReflectiveOperationException {
+        assertRoundTrips(new Force("Emperor*", 2), Force.class, Set.of());
+    }
+
+    @Test
+    void testEveryLeaderFieldRoundTrips() throws ReflectiveOperationException {
+        assertRoundTrips(new Leader("Zoal", 3, "BT", null, false), Leader.class, Set.of());
+    }
+
+    @Test
+    void testEveryTreacheryCardFieldRoundTrips() throws ReflectiveOperationException {
+        assertRoundTrips(newRecord(TreacheryCard.class), TreacheryCard.class, Set.of());
+    }
+
+    /**
+     * Gives every saved field of the instance that still has its default value a sample value, writes it and reads it
+     * back with the game's Gson, and checks every saved field came back equal. A field added to the class but not to
+     * its adapter fails here.
+     */
+    private static <T> void assertRoundTrips(T instance, Class<T> type, Set<String> fixedFields) throws ReflectiveOperationException {
+        List<Field> fields = savedFields(instance.getClass());
+        for (Field field : fields) {
+            if (!fixedFields.contains(field.getName()) && isDefault(field.get(instance)))
+                field.set(instance, sampleValue(field.getName(), field.getGenericType()));
+        }
+
+        T copy = DiscordGame.getGsonDeserializer().fromJson(DiscordGame.getGsonSerializer().toJson(instance, type), type);
+
+        assertEquals(instance.getClass(), copy.getClass());
+        for (Field field : fields)
+            assertEquals(field.get(instance), field.get(copy), instance.getClass().getSimpleName() + "." + field.getName());
+    }
+
+    private static List<Field> savedFields(Class<?> clazz) {
+        List<Field> fields = new ArrayList<>();
+        for (Class<?> c = clazz; c != Object.class && c != Record.class; c = c.getSuperclass()) {
+            for (Field field : c.getDeclaredFields()) {
+                int modifiers = field.getModifiers();
+                if (Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers) || field.isAnnotationPresent(Exclude.class))
+                    continue;
+                field.setAccessible(true);
+                fields.add(field);
+            }
+        }
+        return fields;
+    }
+
+    private static boolean isDefault(Object value) {
+        return value == null || value.equals(false) || value.equals(0)
+                || value instanceof Collection<?> collection && collection.isEmpty();
+    }
+
+    private static Object sampleValue(String name, Type type) throws ReflectiveOperationException {
+        if (type == boolean.class || type == Boolean.class) return true;
+        if (type == int.class || type == Integer.class) return name.length();
+        if (type == String.class) return name + " value";
+        if (type == Force.class) return new Force("Emperor*", 2);
+        if (type instanceof ParameterizedType list && list.getRawType() == List.class)
+            return new ArrayList<>(List.of(sampleValue(name, list.getActualTypeArguments()[0])));
+        if (type instanceof Class<?> clazz && clazz.isRecord()) return newRecord(clazz);
+        throw new AssertionError("No sample value for " + name + " of type " + type.getTypeName());
+    }
+
+    private static <T> T newRecord(Class<T> type) throws ReflectiveOperationException {
+        RecordComponent[] components = type.getRecordComponents();
+        Class<?>[] types = new Class<?>[components.length];
+        Object[] values = new Object[components.length];
+        for (int i = 0; i < components.length; i++) {
+            types[i] = components[i].getType();
+            values[i] = sampleValue(components[i].getName(), components[i].getGenericType());
+        }
+        return type.getDeclaredConstructor(types).newInstance(values);
+    }
+
+    @Test
+    void testTreacheryCardNameIsTrimmed() {
+        TreacheryCard card = adapterGson.fromJson("{\"name\":\"Crysknife \"}", TreacheryCard.class);
+        assertEquals("Crysknife", card.name());
+    }
+}
@@ -0,0 +1,74 @@
+package model;
+
+import exceptions.InvalidGameStateException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MovementGraphTest extends DuneTest {
+    @BeforeEach
+    void setUp() throws IOException, InvalidGameStateException {
+        super.setUp();
+        game.addFaction(ix);
+    }
+
+    /**
+     * The recursive expansion the graph replaced, kept as the reference for the expected results.
+     */
+    private static Set<String> expand(Map<String, List<String>> adjacencyList, String territory, int spacesAway) {
+        if (spacesAway == 0) return new HashSet<>();
+        List<String> adjacency = adjacencyList.get(territory);
+        if (adjacency == null) return new HashSet<>();
+        Set<String> adjacentTerritories = new HashSet<>(adjacency);
+        Set<String> second = new HashSet<>();
+        for (String adjacentTerritory : adjacentTerritories)
+            second.addAll(expand(adjacencyList, adjacentTerritory, spacesAway - 1));
+        adjacentTerritories.addAll(second);
+        return adjacentTerritories;
+    }
+
+    private void assertMatchesAdjacencyList() {
+        for (String territoryName : game.getAdjacencyList().keySet())
+            for (int spaces = 0; spaces <= 4; spaces++)
+                assertEquals(expand(game.getAdjacencyList(), territoryName, spaces),
+                        game.getMovementGraph().getTerritoryNamesWithin(territoryName, spaces), territoryName + " " + spaces);
+    }
+
+    @Test
+    void testBaseBoardMatchesRecursiveExpansion() {
+        assertMatchesAdjacencyList();
+        assertTrue(game.getMovementGraph().getTerritoryNamesWithin("Not A Territory", 3).isEmpty());
+    }
+
+    @Test
+    void testDistances() {
+        assertEquals(0, game.getMovementGraph().getDistance("Arrakeen", "Arrakeen"));
+        assertEquals(1, game.getMovementGraph().getDistance("Arrakeen", "Imperial Basin"));
+        assertTrue(game.getMovementGraph().getDistance("Arrakeen", "Polar Sink") > 1);
+        assertEquals(-1, game.getMovementGraph().getDistance("Arrakeen", "Not A Territory"));
+    }
+
+    @Test
+    void testHiddenMobileStrongholdEdgesAreAddedAndRemoved() {
+        Territory hms = game.getTerritory("Hidden Mobile Stronghold");
+        game.putTerritoryInAnotherTerritory(hms, game.getTerritory("Cielago North (East Sector)"));
+        assertMatchesAdjacencyList();
+        assertEquals(1, game.getMovementGraph().getDistance("Hidden Mobile Stronghold", "Cielago North"));
+
+        game.removeTerritoryFromAnotherTerritory(hms, game.getTerritory("Cielago North (East Sector)"));
+        game.putTerritoryInAnotherTerritory(hms, game.getTerritory("Habbanya Erg (West Sector)"));
+        assertMatchesAdjacencyList();
+        assertTrue(game.getMovementGraph().getDistance("Hidden Mobile Stronghold", "Cielago North") > 1);
+    }
+
+    @Test
+    void testChangesAreNotSharedBetweenGames() throws IOException {
+        Territory hms = game.getTerritory("Hidden Mobile Stronghold");
+        game.putTerritoryInAnotherTerritory(hms, game.getTerritory("Cielago North (East Sector)"));
+        assertFalse(new Game().getMovementGraph().getTerritoryNamesWithin("Cielago North", 1).contains("Hidden Mobile Stronghold"));
+    }
+}
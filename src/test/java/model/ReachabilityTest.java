@@ -0,0 +1,95 @@
+package model;
+
+import exceptions.InvalidGameStateException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReachabilityTest extends DuneTest {
+    @BeforeEach
+    void setUp() throws IOException, InvalidGameStateException {
+        super.setUp();
+        game.addFaction(atreides);
+        game.addFaction(emperor);
+    }
+
+    /**
+     * Walks the adjacency list one territory at a time, skipping territories with every sector in the storm.
+     */
+    private Set<String> expand(String territory, int spacesAway, Set<String> inStorm) {
+        if (spacesAway == 0) return new HashSet<>();
+        Set<String> adjacentTerritories = new HashSet<>();
+        for (String adjacentTerritory : game.getAdjacencyList().getOrDefault(territory, List.of())) {
+            if (inStorm.contains(adjacentTerritory)) continue;
+            adjacentTerritories.add(adjacentTerritory);
+            adjacentTerritories.addAll(expand(adjacentTerritory, spacesAway - 1, inStorm));
+        }
+        return adjacentTerritories;
+    }
+
+    @Test
+    void testMatchesWalkAroundStorm() {
+        for (int storm = 1; storm <= 18; storm += 4) {
+            game.setStorm(storm);
+            Set<String> inStorm = new HashSet<>(game.getTerritories().getDistinctAggregateTerritoryNames());
+            for (Territory territory : game.getTerritories().values())
+                if (territory.getSector() != storm) inStorm.remove(territory.getAggregateTerritoryName());
+            for (Territory territory : game.getTerritories().values()) {
+                if (territory instanceof HomeworldTerritory) continue;
+                for (int spaces = 1; spaces <= 3; spaces++) {
+                    Set<String> expected = territory.getSector() == storm ? Set.of() : expand(territory.getAggregateTerritoryName(), spaces, inStorm);
+                    assertEquals(expected, Reachability.getTerritoryNamesWithin(game, territory, spaces), territory.getTerritoryName() + " " + storm + " " + spaces);
+                }
+            }
+        }
+    }
+
+    @Test
+    void testForcesInStormCannotMove() {
+        game.setStorm(9);
+        assertTrue(Reachability.getDestinations(game, atreides, arrakeen, 3).isEmpty());
+        assertFalse(Reachability.getDestinations(game, atreides, polarSink, 1).isEmpty());
+    }
+
+    @Test
+    void testDestinationsExcludeSectorsInStorm() {
+        game.setStorm(10);
+        Reachability.Destination imperialBasin = Reachability.getDestinations(game, atreides, arrakeen, 1).stream()
+                .filter(d -> d.territoryName().equals("Imperial Basin")).findFirst().orElseThrow();
+        assertEquals(2, imperialBasin.sectors().size());
+        assertTrue(imperialBasin.sectors().stream().noneMatch(s -> s.getSector() == 10));
+    }
+
+    @Test
+    void testFactionMayNotEnterAllyTerritory() {
+        game.setStorm(1);
+        atreides.setAlly("Emperor");
+        emperor.setAlly("Atreides");
+        game.getTerritory("Imperial Basin (Center Sector)").addForces("Emperor", 2);
+        List<Reachability.Destination> destinations = Reachability.getDestinations(game, atreides, arrakeen, 1);
+        assertTrue(destinations.stream().filter(d -> d.territoryName().equals("Imperial Basin")).allMatch(Reachability.Destination::mayNotEnter));
+        assertTrue(destinations.stream().filter(d -> !d.territoryName().equals("Imperial Basin")).noneMatch(Reachability.Destination::mayNotEnter));
+    }
+
+    @Test
+    void testHomeworldsOnlyReachEachOther() {
+        assertEquals(Set.of("Salusa Secundus"), Reachability.getTerritoryNamesWithin(game, game.getTerritory("Kaitain"), 3));
+    }
+
+    @Test
+    void testSearchIsMemoizedUntilTheBoardChanges() {
+        game.setStorm(1);
+        Set<String> first = Reachability.getTerritoryNamesWithin(game, arrakeen, 2);
+        assertSame(first, Reachability.getTerritoryNamesWithin(game, arrakeen, 2));
+
+        game.addFaction(ix);
+        game.putTerritoryInAnotherTerritory(game.getTerritory("Hidden Mobile Stronghold"), game.getTerritory("Imperial Basin (Center Sector)"));
+        Set<String> withHms = Reachability.getTerritoryNamesWithin(game, arrakeen, 2);
+        assertNotSame(first, withHms);
+        assertTrue(withHms.contains("Hidden Mobile Stronghold"));
+    }
+}
@@ -0,0 +1,43 @@
+package model;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReferenceDataTest {
+    @Test
+    void testLeadersForFaction() {
+        List<ReferenceData.LeaderDefinition> leaders = ReferenceData.get().getLeaders("Atreides");
+        assertEquals(5, leaders.size());
+        assertTrue(leaders.stream().allMatch(l -> l.factionName().equals("Atreides")));
+        assertTrue(ReferenceData.get().getLeaders("Not A Faction").isEmpty());
+    }
+
+    @Test
+    void testReferenceDataIsImmutable() {
+        assertThrows(UnsupportedOperationException.class, () -> ReferenceData.get().getTreacheryCards().clear());
+        assertThrows(UnsupportedOperationException.class, () -> ReferenceData.get().getAdjacencyList().get("Arrakeen").add("Carthag"));
+    }
+
+    @Test
+    void testNewGameDoesNotShareReferenceData() throws IOException {
+        Game game = new Game();
+        game.getAdjacencyList().get("Arrakeen").add("Hidden Mobile Stronghold");
+        game.getTreacheryDeck().clear();
+        assertFalse(ReferenceData.get().getAdjacencyList().get("Arrakeen").contains("Hidden Mobile Stronghold"));
+        assertFalse(ReferenceData.get().getTreacheryCards().isEmpty());
+        assertEquals(ReferenceData.get().getTerritories().size(), new Game().getTerritories().size());
+    }
+
+    @Test
+    void testGameForDeserializationSkipsDecksAndTerritories() {
+        Game game = Game.createForDeserialization();
+        assertTrue(game.getTerritories().isEmpty());
+        assertTrue(game.getTreacheryDeck().isEmpty());
+        assertTrue(game.getSpiceDeck().isEmpty());
+        assertEquals(ReferenceData.get().getAdjacencyList().keySet(), game.getAdjacencyList().keySet());
+    }
+}
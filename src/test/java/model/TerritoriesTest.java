@@ -9,8 +9,12 @@ import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -33,6 +37,54 @@ public class TerritoriesTest extends DuneTest {
         assertThrows(IllegalArgumentException.class, () -> territories.getTerritory("Cielago North"));
     }
 
+    @Nested
+    @DisplayName("#indexes")
+    class Indexes {
+        @Test
+        void testSectorsInStormOrder() {
+            assertEquals(List.of(cielagoNorth_westSector, cielagoNorth_middleSector, cielagoNorth_eastSector), territories.getTerritorySectorsInStormOrder("Cielago North"));
+            assertEquals(List.of(cielagoNorth_westSector, cielagoNorth_middleSector, cielagoNorth_eastSector), territories.getTerritorySectorsInStormOrder("cielago north"));
+            assertTrue(territories.getTerritorySectorsInStormOrder("Wind Pass").contains(windPass_northSector));
+            assertTrue(territories.getTerritorySectorsInStormOrder("Wind Pass").stream().noneMatch(t -> t.getTerritoryName().startsWith("Wind Pass North")));
+            assertTrue(territories.getTerritorySectorsInStormOrder("Not A Territory").isEmpty());
+        }
+
+        @Test
+        void testTerritoriesInSector() {
+            assertTrue(territories.getTerritoriesInSector(9).contains(arrakeen));
+            assertTrue(territories.getTerritoriesInSector(-1).contains(polarSink));
+            assertTrue(territories.getTerritoriesInSector(9).stream().allMatch(t -> t.getSector() == 9));
+        }
+
+        @Test
+        void testIndexesBuiltByConcurrentReaders() throws Exception {
+            Territories shared = new Territories();
+            shared.putAll(territories);
+            List<Territory> cielagoNorth = List.of(cielagoNorth_westSector, cielagoNorth_middleSector, cielagoNorth_eastSector);
+            try (ExecutorService readers = Executors.newFixedThreadPool(8)) {
+                List<Future<Boolean>> results = new ArrayList<>();
+                for (int i = 0; i < 8; i++)
+                    results.add(readers.submit(() -> shared.getTerritorySectorsInStormOrder("Cielago North").equals(cielagoNorth)
+                            && shared.getTerritoriesInSector(9).contains(arrakeen)));
+                for (Future<Boolean> result : results)
+                    assertTrue(result.get());
+            }
+        }
+
+        @Test
+        void testIndexesUpdateWhenTerritoriesAreAdded() {
+            assertTrue(territories.getTerritorySectorsInStormOrder("Jacurutu Sietch").isEmpty());
+            Territory jacurutuSietch = territories.addDiscoveryToken("Jacurutu Sietch", true);
+            assertEquals(List.of(jacurutuSietch), territories.getTerritorySectorsInStormOrder("Jacurutu Sietch"));
+            assertTrue(territories.getDistinctAggregateTerritoryNames().contains("Jacurutu Sietch"));
+            assertTrue(territories.getTerritoriesInSector(-1).contains(jacurutuSietch));
+
+            territories.remove("Jacurutu Sietch");
+            assertTrue(territories.getTerritorySectorsInStormOrder("Jacurutu Sietch").isEmpty());
+            assertFalse(territories.getTerritoriesInSector(-1).contains(jacurutuSietch));
+        }
+    }
+
     @Nested
     @DisplayName("#handleStormMovement")
     class HandleStormMovement {
@@ -15,16 +15,19 @@ import net.dv8tion.jda.api.requests.restaction.AuditableRestAction;
 import net.dv8tion.jda.api.requests.restaction.CacheRestAction;
 import net.dv8tion.jda.api.requests.restaction.ChannelAction;
 import net.dv8tion.jda.api.requests.restaction.MessageCreateAction;
+import net.dv8tion.jda.api.requests.restaction.MessageEditAction;
 import net.dv8tion.jda.api.requests.restaction.ThreadChannelAction;
 import net.dv8tion.jda.api.requests.restaction.pagination.ThreadChannelPaginationAction;
 import net.dv8tion.jda.api.utils.FileUpload;
 import net.dv8tion.jda.api.utils.messages.MessageCreateData;
+import net.dv8tion.jda.api.utils.messages.MessageEditData;
 import testutil.discord.state.*;
 
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 import static org.mockito.ArgumentMatchers.any;
@@ -134,6 +137,48 @@ public class StatefulMockFactory {
         return mock(AuditableRestAction.class);
     }
 
+    /**
+     * Creates an edit action that replaces the content of a stored message, and its attachments if the edit sets
+     * files, when it is completed. Completing it fails like Discord does if the message is not in the channel.
+     *
+     * @param channelState The channel the message is in
+     * @param guildState   The guild, for simulating REST latency
+     * @param messageId    The ID of the message to edit
+     * @param data         The new message parts
+     * @return A mock action whose {@code complete()} returns the edited message
+     */
+    private static MessageEditAction mockEditAction(MockChannelState channelState, MockGuildState guildState, long messageId, MessageEditData data) {
+        MessageEditAction action = mock(MessageEditAction.class);
+        lenient().when(action.complete()).thenAnswer(_ -> {
+            guildState.getServer().simulateRestCall();
+            MockMessageState messageState = channelState.getMessage(messageId);
+            if (messageState == null)
+                throw new IllegalStateException("Unknown message " + messageId + " in " + channelState.getChannelName());
+            messageState.edit(data.getContent(), data.getFiles().isEmpty() ? null : data.getFiles());
+
+            Message message = mock(Message.class);
+            lenient().when(message.getIdLong()).thenReturn(messageId);
+            lenient().when(message.getId()).thenReturn(String.valueOf(messageId));
+            lenient().when(message.getContentRaw()).thenReturn(messageState.getContent());
+            return message;
+        });
+        return action;
+    }
+
+    /**
+     * Creates the message that {@code complete()} returns for a message sent to a stateful channel.
+     *
+     * @param messageState The stored message
+     * @return A mock message with the stored message's ID and content
+     */
+    private static Message mockSentMessage(MockMessageState messageState) {
+        Message message = mock(Message.class);
+        lenient().when(message.getIdLong()).thenReturn(messageState.getMessageId());
+        lenient().when(message.getId()).thenReturn(String.valueOf(messageState.getMessageId()));
+        lenient().when(message.getContentRaw()).thenReturn(messageState.getContent());
+        return message;
+    }
+
     /**
      * Safely adds FileUpload items from a collection to a list.
      * <p>
@@ -568,6 +613,7 @@ public class StatefulMockFactory {
      *   <li>{@code getGuild()} - Returns a guild mock backed by the provided guild state</li>
      *   <li>{@code sendMessage(String)} - <b>STORES THE MESSAGE IN STATE</b></li>
      *   <li>{@code sendMessage(MessageCreateData)} - <b>STORES THE MESSAGE IN STATE</b></li>
+     *   <li>{@code editMessageById(String, MessageEditData)} - <b>UPDATES THE MESSAGE IN STATE</b></li>
      * </ul>
      *
      * <p><b>Example:</b>
@@ -682,10 +728,16 @@ public class StatefulMockFactory {
 
                 // complete() or queue() finalizes the message with attachments
                 if (methodName.equals("complete") || methodName.equals("queue")) {
+                    if (methodName.equals("complete")) {
+                        guildState.getServer().simulateRestCall();
+                        channelState.simulateSend();
+                        if (channelState.takeSendFailure())
+                            throw new IllegalStateException("Simulated failure sending to " + channelState.getChannelName());
+                    }
                     // Create message with attachments and add to channel
                     MockMessageState message = new MockMessageState(messageId, channelState.getChannelId(), 0L, currentContent[0], fileAttachments);
                     channelState.addMessage(message);
-                    return null;
+                    return methodName.equals("complete") ? mockSentMessage(message) : null;
                 }
 
                 return null;
@@ -743,13 +795,17 @@ public class StatefulMockFactory {
 
                 // complete() or queue() finalizes the message with attachments and buttons
                 if (methodName.equals("complete") || methodName.equals("queue")) {
+                    if (methodName.equals("complete")) {
+                        guildState.getServer().simulateRestCall();
+                        channelState.simulateSend();
+                    }
                     MockMessageState message = new MockMessageState(messageId, channelState.getChannelId(), 0L, currentContent[0], fileAttachments);
                     // Add all buttons to the message
                     for (MockButtonState button : buttons) {
                         message.addButton(button);
                     }
                     channelState.addMessage(message);
-                    return null;
+                    return methodName.equals("complete") ? mockSentMessage(message) : null;
                 }
 
                 return null;
@@ -758,6 +814,10 @@ public class StatefulMockFactory {
             return action;
         });
 
+        // editMessageById() UPDATES the message in state
+        lenient().when(channel.editMessageById(anyString(), any(MessageEditData.class))).thenAnswer(inv ->
+                mockEditAction(channelState, guildState, Long.parseLong(inv.getArgument(0)), inv.getArgument(1)));
+
         // getHistory() returns a MessageHistory that can retrieve messages with attachments
         MessageHistory messageHistory = mock(MessageHistory.class, RETURNS_DEEP_STUBS);
         lenient().when(channel.getHistory()).thenReturn(messageHistory);
@@ -851,6 +911,7 @@ public class StatefulMockFactory {
                 net.dv8tion.jda.api.requests.restaction.AuditableRestAction<Void> deleteAction =
                     mock(net.dv8tion.jda.api.requests.restaction.AuditableRestAction.class);
                 when(deleteAction.complete()).thenAnswer(completeInv -> {
+                    guildState.getServer().simulateRestCall();
                     channelState.removeMessage(msgState.getMessageId());
                     return null;
                 });
@@ -866,6 +927,45 @@ public class StatefulMockFactory {
             // Create and return the MessageRetrieveAction
             MessageHistory.MessageRetrieveAction action = mock(MessageHistory.MessageRetrieveAction.class);
             lenient().when(action.complete()).thenReturn(history);
+            lenient().when(action.submit()).thenReturn(CompletableFuture.completedFuture(history));
+
+            return action;
+        });
+
+        // getHistoryFromBeginning() retrieves the oldest messages, oldest first
+        lenient().when(channel.getHistoryFromBeginning(anyInt())).thenAnswer(inv -> {
+            int limit = inv.getArgument(0);
+
+            List<MockMessageState> messageStates = channelState.getMessages();
+
+            // Convert MockMessageState to Message mocks with delete capability
+            List<Message> messages = new ArrayList<>();
+            for (MockMessageState msgState : messageStates.subList(0, Math.min(limit, messageStates.size()))) {
+                Message msg = mock(Message.class);
+                lenient().when(msg.getContentRaw()).thenReturn(msgState.getContent());
+                lenient().when(msg.getIdLong()).thenReturn(msgState.getMessageId());
+                lenient().when(msg.getId()).thenReturn(String.valueOf(msgState.getMessageId()));
+
+                // Mock delete() to remove message from state
+                AuditableRestAction<Void> deleteAction = createMockAuditableRestAction();
+                lenient().when(deleteAction.complete()).thenAnswer(completeInv -> {
+                    guildState.getServer().simulateRestCall();
+                    channelState.removeMessage(msgState.getMessageId());
+                    return null;
+                });
+                lenient().when(msg.delete()).thenReturn(deleteAction);
+
+                messages.add(msg);
+            }
+
+            // Create MessageHistory mock
+            MessageHistory history = mock(MessageHistory.class);
+            lenient().when(history.getRetrievedHistory()).thenReturn(messages);
+
+            // Create and return the MessageRetrieveAction
+            MessageHistory.MessageRetrieveAction action = mock(MessageHistory.MessageRetrieveAction.class);
+            lenient().when(action.complete()).thenReturn(history);
+            lenient().when(action.submit()).thenReturn(CompletableFuture.completedFuture(history));
 
             return action;
         });
@@ -1066,6 +1166,9 @@ public class StatefulMockFactory {
 
                 // queue() or complete() finalizes the message
                 if (methodName.equals("queue") || methodName.equals("complete")) {
+                    if (methodName.equals("complete")) {
+                        guildState.getServer().simulateRestCall();
+                    }
                     MockMessageState message = new MockMessageState(messageId, threadState.getThreadId(), 0L, currentContent[0]);
                     threadState.addMessage(message);
                     return null;
@@ -1126,6 +1229,9 @@ public class StatefulMockFactory {
 
                 // complete() or queue() finalizes the message with attachments and buttons
                 if (methodName.equals("complete") || methodName.equals("queue")) {
+                    if (methodName.equals("complete")) {
+                        guildState.getServer().simulateRestCall();
+                    }
                     MockMessageState message = new MockMessageState(messageId, threadState.getThreadId(), 0L, currentContent[0], fileAttachments);
                     // Add all buttons to the message
                     for (MockButtonState button : buttons) {
@@ -1174,6 +1280,7 @@ public class StatefulMockFactory {
                 lenient().when(msg.delete()).thenAnswer(delInv -> {
                     AuditableRestAction<Void> deleteAction = createMockAuditableRestAction();
                     lenient().when(deleteAction.complete()).thenAnswer(completeInv -> {
+                        guildState.getServer().simulateRestCall();
                         threadState.removeMessage(msgState.getMessageId());
                         return null;
                     });
@@ -1191,6 +1298,7 @@ public class StatefulMockFactory {
             // Create and return the MessageRetrieveAction
             MessageHistory.MessageRetrieveAction action = mock(MessageHistory.MessageRetrieveAction.class);
             lenient().when(action.complete()).thenReturn(history);
+            lenient().when(action.submit()).thenReturn(CompletableFuture.completedFuture(history));
 
             return action;
         });
@@ -1217,6 +1325,7 @@ public class StatefulMockFactory {
      *   <li>{@code getName()} - Returns username from state</li>
      *   <li>{@code getDiscriminator()} - Returns discriminator from state (e.g., "0000")</li>
      *   <li>{@code getAsTag()} - Returns full user tag from state (e.g., "Alice#0000")</li>
+     *   <li>{@code toString()} - Returns JDA's user string (e.g., "User:Alice(id=123)")</li>
      * </ul>
      *
      * @param userState The user state containing user identity information
@@ -1231,6 +1340,8 @@ public class StatefulMockFactory {
         lenient().when(user.getDiscriminator()).thenReturn(userState.getDiscriminator());
         lenient().when(user.getAsTag()).thenReturn(userState.getAsTag());
         lenient().when(user.getAsMention()).thenReturn("<@" + userState.getUserId() + ">");
+        // JDA's format, which DiscordGame.getFactionByPlayer parses the user ID out of
+        lenient().when(user.toString()).thenReturn("User:" + userState.getUsername() + "(id=" + userState.getUserId() + ")");
 
         return user;
     }
@@ -9,6 +9,7 @@ import net.dv8tion.jda.api.requests.restaction.ChannelAction;
 import net.dv8tion.jda.api.requests.restaction.MessageCreateAction;
 import net.dv8tion.jda.api.requests.restaction.ThreadChannelAction;
 import net.dv8tion.jda.api.utils.FileUpload;
+import net.dv8tion.jda.api.utils.messages.MessageEditData;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -19,6 +20,7 @@ import java.io.InputStream;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 /**
  * Unit tests for StatefulMockFactory.
@@ -259,6 +261,25 @@ class StatefulMockFactoryTest {
         assertThat(messages.get(0).getContent()).isEqualTo("Test message");
     }
 
+    @Test
+    @DisplayName("mockTextChannel() editMessageById() should update the message in state")
+    void mockTextChannel_editMessageById_shouldUpdateMessageInState() {
+        MockChannelState channelState = guildState.createTextChannel("test-channel", 0L);
+        TextChannel channel = StatefulMockFactory.mockTextChannel(channelState, guildState);
+        channel.sendMessage("Before").complete();
+        String messageId = String.valueOf(channelState.getLatestMessageId());
+
+        Message edited = channel.editMessageById(messageId, MessageEditData.fromContent("After")).complete();
+
+        assertThat(edited.getId()).isEqualTo(messageId);
+        assertThat(channelState.getMessages()).singleElement().satisfies(message -> {
+            assertThat(message.getContent()).isEqualTo("After");
+            assertThat(message.getEditCount()).isEqualTo(1);
+        });
+        assertThatThrownBy(() -> channel.editMessageById("1", MessageEditData.fromContent("Gone")).complete())
+                .isInstanceOf(IllegalStateException.class);
+    }
+
     @Test
     @DisplayName("mockTextChannel() sendMessage() should support file attachments")
     void mockTextChannel_sendMessage_shouldSupportFileAttachments() {
@@ -249,6 +249,7 @@ public class MockButtonEventBuilder {
             net.dv8tion.jda.api.requests.restaction.AuditableRestAction<Void> deleteAction =
                 mock(net.dv8tion.jda.api.requests.restaction.AuditableRestAction.class);
             when(deleteAction.complete()).thenAnswer(inv -> {
+                guildState.getServer().simulateRestCall();
                 // Remove message from channel or thread state
                 if (responseThread != null) {
                     responseThread.removeMessage(messageState.getMessageId());
@@ -261,6 +262,8 @@ public class MockButtonEventBuilder {
             when(mockMessage.delete()).thenReturn(deleteAction);
 
             when(event.getMessage()).thenReturn(mockMessage);
+            when(event.getMessageIdLong()).thenReturn(messageState.getMessageId());
+            when(event.getMessageId()).thenReturn(String.valueOf(messageState.getMessageId()));
         }
 
         // Button component (only needed for event.getButton(), the ID is accessed via event.getComponentId())
@@ -130,6 +130,30 @@ public class MockSlashCommandEventBuilder {
         return this;
     }
 
+    /**
+     * Adds a number option to the command.
+     *
+     * @param name The option name
+     * @param value The number value
+     * @return This builder for chaining
+     */
+    public MockSlashCommandEventBuilder addNumberOption(String name, double value) {
+        options.put(name, value);
+        return this;
+    }
+
+    /**
+     * Adds a boolean option to the command.
+     *
+     * @param name The option name
+     * @param value The boolean value
+     * @return This builder for chaining
+     */
+    public MockSlashCommandEventBuilder addBooleanOption(String name, boolean value) {
+        options.put(name, value);
+        return this;
+    }
+
     /**
      * Adds a role option to the command.
      *
@@ -183,6 +207,7 @@ public class MockSlashCommandEventBuilder {
         // Basic event properties
         when(event.getName()).thenReturn(commandName);
         when(event.getSubcommandName()).thenReturn(subcommandName);
+        when(event.getFullCommandName()).thenReturn(subcommandName == null ? commandName : commandName + " " + subcommandName);
         when(event.getGuild()).thenReturn(mockGuild);
 
         // Member and user
@@ -232,6 +257,14 @@ public class MockSlashCommandEventBuilder {
                 when(mockOption.getAsString()).thenReturn((String) optionValue);
             } else if (optionValue instanceof Integer) {
                 when(mockOption.getAsInt()).thenReturn((Integer) optionValue);
+                when(mockOption.getAsLong()).thenReturn(((Integer) optionValue).longValue());
+                when(mockOption.getAsString()).thenReturn(String.valueOf(optionValue));
+            } else if (optionValue instanceof Double) {
+                when(mockOption.getAsDouble()).thenReturn((Double) optionValue);
+                when(mockOption.getAsString()).thenReturn(String.valueOf(optionValue));
+            } else if (optionValue instanceof Boolean) {
+                when(mockOption.getAsBoolean()).thenReturn((Boolean) optionValue);
+                when(mockOption.getAsString()).thenReturn(String.valueOf(optionValue));
             } else if (optionValue instanceof Role) {
                 when(mockOption.getAsRole()).thenReturn((Role) optionValue);
             } else if (optionValue instanceof UserOption) {
@@ -1,7 +1,12 @@
 package testutil.discord.state;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Stores state for a Discord text channel, including complete message history.
@@ -46,7 +51,10 @@ public class MockChannelState {
     private final String channelName;
     private final long categoryId;
     private final long guildId;
-    private final List<MockMessageState> messages = new ArrayList<>();
+    private final List<MockMessageState> messages = new CopyOnWriteArrayList<>();
+    private final AtomicInteger failingSends = new AtomicInteger();
+    private volatile Duration sendLatency = Duration.ZERO;
+    private volatile CountDownLatch heldSends;
 
     public MockChannelState(long channelId, String channelName, long categoryId, long guildId) {
         this.channelId = channelId;
@@ -114,6 +122,16 @@ public class MockChannelState {
         return new ArrayList<>(messages);
     }
 
+    /**
+     * Gets a message in this channel by its ID.
+     *
+     * @param messageId The message ID
+     * @return The message, or null if there is no message with that ID
+     */
+    public MockMessageState getMessage(long messageId) {
+        return getMessages().stream().filter(m -> m.getMessageId() == messageId).findFirst().orElse(null);
+    }
+
     /**
      * Gets the most recent N messages from this channel.
      *
@@ -123,9 +141,10 @@ public class MockChannelState {
      * @return List of the most recent messages, up to the specified limit
      */
     public List<MockMessageState> getRecentMessages(int limit) {
-        int size = messages.size();
+        List<MockMessageState> snapshot = getMessages();
+        int size = snapshot.size();
         int fromIndex = Math.max(0, size - limit);
-        return new ArrayList<>(messages.subList(fromIndex, size));
+        return new ArrayList<>(snapshot.subList(fromIndex, size));
     }
 
     /**
@@ -137,6 +156,75 @@ public class MockChannelState {
         messages.clear();
     }
 
+    /**
+     * Makes the next messages sent to this channel with {@code complete()} fail, as if Discord had rejected them.
+     * The failed messages are not stored.
+     *
+     * @param count The number of sends that fail
+     */
+    public void failNextSends(int count) {
+        failingSends.set(count);
+    }
+
+    /**
+     * Uses up one of the failures set by {@link #failNextSends(int)}.
+     *
+     * @return true if the send being made should fail
+     */
+    public boolean takeSendFailure() {
+        return failingSends.getAndUpdate(n -> Math.max(0, n - 1)) > 0;
+    }
+
+    /**
+     * Makes every message sent to this channel with {@code complete()} block for longer than the server's REST
+     * latency, as if Discord were slow to accept messages in this channel only.
+     *
+     * @param sendLatency The extra time each send blocks for
+     */
+    public void setSendLatency(Duration sendLatency) {
+        this.sendLatency = sendLatency;
+    }
+
+    /**
+     * Makes every message sent to this channel with {@code complete()} block until {@link #releaseSends()} is called,
+     * as if Discord had stopped accepting messages in this channel. A send still held after 10 seconds goes ahead, so
+     * a test that sends on the thread meant to release them fails instead of hanging.
+     */
+    public void holdSends() {
+        heldSends = new CountDownLatch(1);
+    }
+
+    /**
+     * Lets the sends held by {@link #holdSends()} go ahead.
+     */
+    public void releaseSends() {
+        CountDownLatch held = heldSends;
+        heldSends = null;
+        if (held != null) held.countDown();
+    }
+
+    /**
+     * Blocks while sends are held by {@link #holdSends()}, then for the latency set by
+     * {@link #setSendLatency(Duration)}.
+     */
+    public void simulateSend() {
+        CountDownLatch held = heldSends;
+        if (held != null) {
+            try {
+                held.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        Duration latency = sendLatency;
+        if (latency.isZero()) return;
+        try {
+            Thread.sleep(latency);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
     /**
      * Gets the ID of the latest (most recent) message in this channel.
      *
@@ -145,10 +233,11 @@ public class MockChannelState {
      * @return The ID of the latest message, or 0 if the channel is empty
      */
     public long getLatestMessageId() {
-        if (messages.isEmpty()) {
+        List<MockMessageState> snapshot = getMessages();
+        if (snapshot.isEmpty()) {
             return 0L;
         }
-        return messages.get(messages.size() - 1).getMessageId();
+        return snapshot.getLast().getMessageId();
     }
 
     /**
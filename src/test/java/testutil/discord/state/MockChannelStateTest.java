@@ -275,4 +275,17 @@ class MockChannelStateTest {
         assertThat(channel.getLatestMessageId()).isEqualTo(0L);
         assertThat(channel.getMessages()).isEmpty();
     }
+
+    @Test
+    void simulateSend_waitsForHeldSendsToBeReleased() throws Exception {
+        channel.holdSends();
+        Thread sender = new Thread(channel::simulateSend);
+        sender.start();
+        sender.join(100);
+        assertThat(sender.isAlive()).isTrue();
+
+        channel.releaseSends();
+        sender.join(1000);
+        assertThat(sender.isAlive()).isFalse();
+    }
 }
@@ -1,5 +1,6 @@
 package testutil.discord.state;
 
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -53,6 +54,7 @@ public class MockDiscordServer {
     private long nextThreadId = 6000000L;
     private long nextEmojiId = 7000000L;
     private long nextInteractionId = 8000000L;
+    private volatile Duration restLatency = Duration.ZERO;
 
     /**
      * Creates a new mock Discord server instance.
@@ -187,4 +189,38 @@ public class MockDiscordServer {
     public synchronized long nextInteractionId() {
         return nextInteractionId++;
     }
+
+    /**
+     * Sets how long each blocking REST call takes, to simulate the round trip to Discord.
+     *
+     * <p>Stateful mocks call {@link #simulateRestCall()} when a message is sent or deleted
+     * with {@code complete()}. The default is no latency.
+     *
+     * @param restLatency The time each call blocks for
+     */
+    public void setRestLatency(Duration restLatency) {
+        this.restLatency = restLatency;
+    }
+
+    /**
+     * Gets the simulated latency of blocking REST calls.
+     *
+     * @return The time each call blocks for
+     */
+    public Duration getRestLatency() {
+        return restLatency;
+    }
+
+    /**
+     * Blocks for the simulated REST latency.
+     */
+    public void simulateRestCall() {
+        Duration latency = restLatency;
+        if (latency.isZero()) return;
+        try {
+            Thread.sleep(latency);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
 }
@@ -54,13 +54,14 @@ public class MockMessageState {
     private final long messageId;
     private final long channelId;
     private final long authorId;
-    private final String content;
+    private String content;
     private final List<FileUpload> attachments;
     private final Instant timestamp;
     private final List<MockButtonState> buttons = new ArrayList<>();
     private final List<MockEmbedState> embeds = new ArrayList<>();
     private final List<MockReactionState> reactions = new ArrayList<>();
     private Long referencedMessageId;
+    private int editCount;
 
     public MockMessageState(long messageId, long channelId, long authorId, String content) {
         this(messageId, channelId, authorId, content, new ArrayList<>());
@@ -122,6 +123,30 @@ public class MockMessageState {
         return new ArrayList<>(attachments);
     }
 
+    /**
+     * Replaces the content of this message, as {@code channel.editMessageById()} does.
+     *
+     * @param content     The new content, or null to keep the current content
+     * @param attachments The new attachments, or null to keep the current attachments
+     */
+    public void edit(String content, List<FileUpload> attachments) {
+        editCount++;
+        if (content != null) this.content = content;
+        if (attachments != null) {
+            this.attachments.clear();
+            this.attachments.addAll(attachments);
+        }
+    }
+
+    /**
+     * Gets the number of times this message has been edited.
+     *
+     * @return The edit count
+     */
+    public int getEditCount() {
+        return editCount;
+    }
+
     /**
      * Gets the timestamp when this message was created.
      *
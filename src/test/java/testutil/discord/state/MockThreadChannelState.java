@@ -3,6 +3,7 @@ package testutil.discord.state;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Stores state for a Discord thread channel.
@@ -46,7 +47,7 @@ public class MockThreadChannelState {
     private final String threadName;
     private final long parentChannelId;
     private final long guildId;
-    private final List<MockMessageState> messages = new ArrayList<>();
+    private final List<MockMessageState> messages = new CopyOnWriteArrayList<>();
     private final List<Long> memberIds = new ArrayList<>();
     private int autoArchiveDuration = 60; // Default 60 minutes
     private boolean archived = false;
@@ -170,9 +171,10 @@ public class MockThreadChannelState {
      * @return List of the most recent messages, up to the specified limit
      */
     public List<MockMessageState> getRecentMessages(int limit) {
-        int size = messages.size();
+        List<MockMessageState> snapshot = getMessages();
+        int size = snapshot.size();
         int fromIndex = Math.max(0, size - limit);
-        return new ArrayList<>(messages.subList(fromIndex, size));
+        return new ArrayList<>(snapshot.subList(fromIndex, size));
     }
 
     /**
@@ -233,10 +235,11 @@ public class MockThreadChannelState {
      * @return The ID of the latest message, or 0 if the thread is empty
      */
     public long getLatestMessageId() {
-        if (messages.isEmpty()) {
+        List<MockMessageState> snapshot = getMessages();
+        if (snapshot.isEmpty()) {
             return 0L;
         }
-        return messages.get(messages.size() - 1).getMessageId();
+        return snapshot.getLast().getMessageId();
     }
 
     /**
@@ -0,0 +1,100 @@
+package utils;
+
+import caches.CardImageIndex;
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.entities.Message;
+import net.dv8tion.jda.api.entities.MessageHistory;
+import net.dv8tion.jda.api.entities.channel.concrete.Category;
+import net.dv8tion.jda.api.entities.channel.concrete.TextChannel;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.MockedStatic;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+public class CardImagesTest {
+    private MockedStatic<MessageHistory> messageHistory;
+    private Guild guild;
+    private final List<Message> channelMessages = new ArrayList<>();
+    private final AtomicInteger pagesRequested = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        CardImageIndex.invalidateAll();
+        TextChannel channel = mock(TextChannel.class);
+        when(channel.getName()).thenReturn("treachery-cards");
+        when(channel.getId()).thenReturn("42");
+        Category category = mock(Category.class);
+        when(category.getTextChannels()).thenReturn(List.of(channel));
+        guild = mock(Guild.class);
+        when(guild.getCategoryById("1148231504762257529")).thenReturn(category);
+
+        messageHistory = mockStatic(MessageHistory.class);
+        messageHistory.when(() -> MessageHistory.getHistoryAfter(any(), anyString())).thenAnswer(inv -> {
+            long after = Long.parseLong(inv.getArgument(1));
+            MessageHistory.MessageRetrieveAction action = mock(MessageHistory.MessageRetrieveAction.class);
+            when(action.limit(anyInt())).thenAnswer(limitInv -> {
+                int limit = limitInv.getArgument(0);
+                // Discord returns the page newest first
+                List<Message> page = new ArrayList<>(channelMessages.stream()
+                        .filter(m -> Long.parseLong(m.getId()) > after).limit(limit).toList());
+                page = page.reversed();
+                MessageHistory history = mock(MessageHistory.class);
+                when(history.getRetrievedHistory()).thenReturn(page);
+                when(action.complete()).thenAnswer(_ -> {
+                    pagesRequested.incrementAndGet();
+                    return history;
+                });
+                return action;
+            });
+            return action;
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        messageHistory.close();
+        CardImageIndex.invalidateAll();
+    }
+
+    private void addMessages(int count) {
+        for (int i = 1; i <= count; i++) {
+            Message message = mock(Message.class);
+            when(message.getId()).thenReturn(String.valueOf(i));
+            when(message.getContentRaw()).thenReturn("Card " + i);
+            channelMessages.add(message);
+        }
+    }
+
+    @Test
+    void testEachPageIsRequestedOnce() {
+        addMessages(250);
+        assertEquals(250, CardImages.preloadChannel(guild, "treachery-cards"));
+        assertEquals(3, pagesRequested.get());
+    }
+
+    @Test
+    void testAFullLastPageNeedsOneMoreRequest() {
+        addMessages(100);
+        assertEquals(100, CardImages.preloadChannel(guild, "treachery-cards"));
+        assertEquals(2, pagesRequested.get());
+    }
+
+    @Test
+    void testChannelsAreLoadedOnce() {
+        addMessages(3);
+        CardImages.preloadChannel(guild, "treachery-cards");
+        CardImages.preloadChannel(guild, "treachery-cards");
+        assertEquals(1, pagesRequested.get());
+        assertEquals(0, CardImages.preloadChannel(guild, "leaders"));
+    }
+}